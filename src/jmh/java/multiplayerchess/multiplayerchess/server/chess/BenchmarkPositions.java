@@ -0,0 +1,49 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import java.util.Map;
+
+/**
+ * The positions the benchmarks are run on, selected by the {@code position} parameter of the benchmarks.
+ */
+public final class BenchmarkPositions {
+
+    /**
+     * The names of the positions, for the {@code @Param} annotations.
+     */
+    public static final String Opening = "opening";
+    public static final String Middlegame = "middlegame";
+    public static final String Endgame = "endgame";
+    public static final String Tactical = "tactical";
+
+    private static final Map<String, String> positions = Map.of(
+            // Italian game after 3. Bc4 Nf6
+            Opening, "rnbqkb1r/pppp1ppp/5n2/4p3/2B1P3/8/PPPP1PPP/RNBQK1NR w KQkq - 2 3",
+            // "Kiwipete", many captures, pins and both castles available
+            Middlegame, "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            // Rook and pawn endgame with en passant and discovered checks along the fifth row
+            Endgame, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            // The queen and bishop threaten mate on f7
+            Tactical, "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4"
+    );
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * Gets the FEN of the position
+     *
+     * @param name The name of the position
+     * @return The FEN of the position
+     */
+    public static String fen(String name) {
+        String FEN = positions.get(name);
+        if (FEN == null) {
+            throw new IllegalArgumentException("Unknown position " + name);
+        }
+
+        return FEN;
+    }
+}
@@ -0,0 +1,62 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of playing moves on a {@link Match} and of writing its FEN.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchBenchmark {
+
+    @Param({BenchmarkPositions.Opening, BenchmarkPositions.Middlegame, BenchmarkPositions.Endgame,
+            BenchmarkPositions.Tactical})
+    public String position;
+
+    @Param({"BITBOARD", "ARRAY"})
+    public BoardRepresentation representation;
+
+    private Match match;
+    private Move[] moves;
+    private int nextMove;
+
+    @Setup
+    public void setUp() {
+        match = new Match(BenchmarkPositions.fen(position), representation);
+        int[] packedMoves = new int[MoveGenerator.MaxMoves];
+        int count = match.generateLegalMoves(packedMoves);
+        moves = new Move[count];
+        for (int i = 0; i < count; i++) {
+            moves[i] = PackedMove.toMove(packedMoves[i]);
+        }
+        nextMove = 0;
+    }
+
+    /**
+     * Validates and plays a move as received from a client, then takes it back to keep the position.
+     * Cycles through all the legal moves of the position.
+     *
+     * @return Whether the move was played
+     */
+    @Benchmark
+    public boolean makeMove() {
+        Move move = moves[nextMove];
+        nextMove = (nextMove + 1) % moves.length;
+
+        boolean played = match.makeMove(move);
+        match.unmakeMove();
+        return played;
+    }
+
+    @Benchmark
+    public String getFEN() {
+        return match.getFEN();
+    }
+}
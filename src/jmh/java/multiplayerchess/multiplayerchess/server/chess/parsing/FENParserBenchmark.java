@@ -0,0 +1,60 @@
+package multiplayerchess.multiplayerchess.server.chess.parsing;
+
+import multiplayerchess.multiplayerchess.common.FENPosition;
+import multiplayerchess.multiplayerchess.common.FENReader;
+import multiplayerchess.multiplayerchess.server.chess.BenchmarkPositions;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of parsing the board from a FEN.
+ * Parsing all the fields by the getters, which split the FEN once per field, is compared to
+ * the single pass of the {@link FENReader}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FENParserBenchmark {
+
+    @Param({BenchmarkPositions.Opening, BenchmarkPositions.Middlegame, BenchmarkPositions.Endgame,
+            BenchmarkPositions.Tactical})
+    public String position;
+
+    private String FEN;
+
+    @Setup
+    public void setUp() {
+        FEN = BenchmarkPositions.fen(position);
+    }
+
+    @Benchmark
+    public Piece[][] parseBoard() {
+        return FENParser.ParseBoard(FEN);
+    }
+
+    @Benchmark
+    public void parseAllFields(Blackhole blackhole) {
+        blackhole.consume(FENParser.ParseBoard(FEN));
+        blackhole.consume(FENParser.getCurrentPlayer(FEN));
+        blackhole.consume(FENParser.getCastling(FEN));
+        blackhole.consume(FENParser.getEnPassant(FEN));
+        blackhole.consume(FENParser.getHalfMoves(FEN));
+        blackhole.consume(FENParser.getMoves(FEN));
+    }
+
+    @Benchmark
+    public FENPosition readPosition() {
+        return FENReader.parse(FEN);
+    }
+
+    @Benchmark
+    public Piece[][] readBoard() {
+        return FENParser.ParseBoard(FENReader.parse(FEN));
+    }
+}
@@ -0,0 +1,61 @@
+package multiplayerchess.multiplayerchess.server.chess.parsing;
+
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.BenchmarkPositions;
+import multiplayerchess.multiplayerchess.server.chess.Bitboards;
+import multiplayerchess.multiplayerchess.server.chess.Board;
+import multiplayerchess.multiplayerchess.server.chess.BoardRepresentation;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Castling;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of writing the FEN of a position, {@link FENParser#FENStringFromBoard} against {@link FENWriter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FENWriterBenchmark {
+
+    @Param({BenchmarkPositions.Opening, BenchmarkPositions.Middlegame, BenchmarkPositions.Endgame,
+            BenchmarkPositions.Tactical})
+    public String position;
+
+    private Board board;
+    private Player player;
+    private Set<Castling> castles;
+    private int castlingRights;
+    private int halfmoves;
+    private int moves;
+    private Position enPassant;
+    private int enPassantSquare;
+
+    @Setup
+    public void setUp() {
+        String FEN = BenchmarkPositions.fen(position);
+        board = BoardRepresentation.BITBOARD.createBoard(FEN);
+        player = FENParser.getCurrentPlayer(FEN);
+        castles = FENParser.getCastling(FEN);
+        castlingRights = Castling.toRights(castles);
+        halfmoves = FENParser.getHalfMoves(FEN);
+        moves = FENParser.getMoves(FEN);
+        enPassant = FENParser.getEnPassant(FEN);
+        enPassantSquare = enPassant == null ? FENWriter.NoSquare : Bitboards.square(enPassant);
+    }
+
+    @Benchmark
+    public String fenStringFromBoard() {
+        return FENParser.FENStringFromBoard(board, player, castles, halfmoves, moves, enPassant);
+    }
+
+    @Benchmark
+    public String fenWriter() {
+        return FENWriter.write(board, player, castlingRights, halfmoves, moves, enPassantSquare);
+    }
+}
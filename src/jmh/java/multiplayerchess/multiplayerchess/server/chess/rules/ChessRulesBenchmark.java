@@ -0,0 +1,90 @@
+package multiplayerchess.multiplayerchess.server.chess.rules;
+
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.*;
+import multiplayerchess.multiplayerchess.server.chess.parsing.FENParser;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Castling;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link ChessRules} queries the server asks about a position.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessRulesBenchmark {
+
+    @Param({BenchmarkPositions.Opening, BenchmarkPositions.Middlegame, BenchmarkPositions.Endgame,
+            BenchmarkPositions.Tactical})
+    public String position;
+
+    @Param({"BITBOARD", "ARRAY"})
+    public BoardRepresentation representation;
+
+    private ChessRules rules;
+    private Board board;
+    private Player player;
+    private Position enPassant;
+    private Set<Castling> castles;
+    private Move[] moves;
+    private int nextMove;
+
+    @Setup
+    public void setUp() {
+        String FEN = BenchmarkPositions.fen(position);
+        rules = new ChessRules();
+        board = representation.createBoard(FEN);
+        player = FENParser.getCurrentPlayer(FEN);
+        enPassant = FENParser.getEnPassant(FEN);
+        castles = FENParser.getCastling(FEN);
+
+        int[] packedMoves = new int[MoveGenerator.MaxMoves];
+        int count = new Match(FEN, representation).generateLegalMoves(packedMoves);
+        moves = new Move[count];
+        for (int i = 0; i < count; i++) {
+            moves[i] = PackedMove.toMove(packedMoves[i]);
+        }
+        nextMove = 0;
+    }
+
+    /**
+     * Validates the legal moves of the position one after another
+     *
+     * @return Whether the move is valid
+     */
+    @Benchmark
+    public boolean isMoveValid() {
+        Move move = moves[nextMove];
+        nextMove = (nextMove + 1) % moves.length;
+
+        return rules.isMoveValid(board, move, player, enPassant, castles);
+    }
+
+    @Benchmark
+    public List<Move> generatePlayerPossibleMoves() {
+        return rules.generatePlayerPossibleMoves(board, player, enPassant);
+    }
+
+    @Benchmark
+    public boolean checkMate() {
+        return rules.checkMate(board, player, enPassant);
+    }
+
+    @Benchmark
+    public boolean stalemate() {
+        return rules.stalemate(board, player, enPassant);
+    }
+
+    @Benchmark
+    public boolean insufficientMaterial() {
+        return rules.insufficientMaterial(board);
+    }
+}
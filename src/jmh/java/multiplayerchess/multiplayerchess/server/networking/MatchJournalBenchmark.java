@@ -0,0 +1,43 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the time a turn spends recording its move in the {@link MatchJournal},
+ * the records are synced by the writer thread of the journal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchJournalBenchmark {
+
+    private Path directory;
+    private MatchJournal journal;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        journal = MatchJournal.open(directory.resolve("matches.journal"), MatchJournal.DefaultSyncInterval);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.delete(directory.resolve("matches.journal"));
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void moveMade() {
+        journal.moveMade("abcde", 1, 0x1234);
+    }
+}
@@ -2,6 +2,8 @@ package multiplayerchess.multiplayerchess.client.chess;
 
 import multiplayerchess.multiplayerchess.client.chess.parsing.FENParser;
 import multiplayerchess.multiplayerchess.client.chess.pieces.Piece;
+import multiplayerchess.multiplayerchess.common.FENPosition;
+import multiplayerchess.multiplayerchess.common.FENReader;
 import multiplayerchess.multiplayerchess.common.Position;
 
 /**
@@ -21,7 +23,16 @@ public final class Board {
      * @param startingFEN The FEN string to initialize the board with
      */
     public Board(String startingFEN) {
-        board = FENParser.ParseBoard(startingFEN);
+        this(FENReader.parse(startingFEN));
+    }
+
+    /**
+     * The board constructor. Initializes the board with the already parsed position.
+     *
+     * @param position The parsed position to initialize the board with
+     */
+    public Board(FENPosition position) {
+        board = FENParser.ParseBoard(position);
     }
 
     /**
@@ -1,9 +1,13 @@
 package multiplayerchess.multiplayerchess.client.chess;
 
-import multiplayerchess.multiplayerchess.client.chess.parsing.FENParser;
+import multiplayerchess.multiplayerchess.client.chess.pieces.Piece;
+import multiplayerchess.multiplayerchess.client.chess.pieces.Queen;
+import multiplayerchess.multiplayerchess.common.FENPosition;
+import multiplayerchess.multiplayerchess.common.FENReader;
 import multiplayerchess.multiplayerchess.common.PieceType;
 import multiplayerchess.multiplayerchess.common.Player;
 import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.common.PositionChecksum;
 
 /**
  * This class represents a match between two players.
@@ -25,12 +29,12 @@ public final class Match {
      * @param matchID     The ID of the match.
      */
     public Match(String startingFEN, Player player, String matchID) {
-        board = new Board(startingFEN);
-        Player playerOnTurn = FENParser.getCurrentPlayer(startingFEN);
-        this.ourTurn = player == playerOnTurn;
+        FENPosition position = FENReader.parse(startingFEN);
+        board = new Board(position);
+        this.ourTurn = player == position.currentPlayer();
         this.player = player;
         this.matchID = matchID;
-        this.enPassant = FENParser.getEnPassant(startingFEN);
+        this.enPassant = position.enPassant();
     }
 
     /**
@@ -87,8 +91,69 @@ public final class Match {
      * @param FEN The FEN string to update the board to.
      */
     public void nextTurn(String FEN) {
+        // The FEN may also come from a resync, so the turn is taken from it rather than flipped
+        FENPosition position = FENReader.parse(FEN);
+        ourTurn = player == position.currentPlayer();
+        enPassant = position.enPassant();
+        board = new Board(position);
+    }
+
+    /**
+     * Applies the move made by either player to the board, without parsing the whole position.
+     * Castles, en passant captures and promotions are recognized from the moved piece.
+     *
+     * @param start    The starting position of the moved piece.
+     * @param end      The ending position of the moved piece.
+     * @param checksum The checksum of the position after the move as computed by the server.
+     * @return Whether the board matches the checksum, if not the whole position has to be requested.
+     */
+    public boolean applyMove(Position start, Position end, long checksum) {
+        Piece piece = board.getPiece(start);
+        if (piece == null) {
+            return false;
+        }
+
+        PieceType type = piece.getPieceType();
+        if (type == PieceType.PAWN && start.column != end.column && board.getPiece(end) == null) {
+            // En passant, the captured pawn is beside the starting position
+            board.clearPiece(new Position(start.row, end.column));
+        } else if (type == PieceType.KING && Math.abs(end.column - start.column) == 2) {
+            boolean kingside = end.column > start.column;
+            Position rookStart = new Position(start.row, kingside ? Board.MaxBoardColumn : Board.MinBoardColumn);
+            Position rookEnd = new Position(start.row, kingside ? end.column - 1 : end.column + 1);
+            board.setPiece(rookEnd, board.getPiece(rookStart));
+            board.clearPiece(rookStart);
+        }
+
+        board.clearPiece(start);
+        boolean promotes = type == PieceType.PAWN && (end.row == Board.MinBoardRow || end.row == Board.MaxBoardRow);
+        board.setPiece(end, promotes ? new Queen(piece.getColor()) : piece);
+
+        enPassant = type == PieceType.PAWN && Math.abs(end.row - start.row) == 2
+                ? new Position((start.row + end.row) / 2, start.column)
+                : null;
         ourTurn = !ourTurn;
-        enPassant = FENParser.getEnPassant(FEN);
-        board = new Board(FEN);
+
+        return checksum == checksum(piece.getColor().getPlayer().opposite());
+    }
+
+    /**
+     * Computes the checksum of the board, see {@link PositionChecksum}
+     *
+     * @param playerOnTurn The player to move
+     * @return The checksum of the board
+     */
+    private long checksum(Player playerOnTurn) {
+        long checksum = PositionChecksum.playerKey(playerOnTurn);
+        for (int row = Board.MinBoardRow; row <= Board.MaxBoardRow; row++) {
+            for (int column = Board.MinBoardColumn; column <= Board.MaxBoardColumn; column++) {
+                Piece piece = board.getPiece(row, column);
+                if (piece != null) {
+                    checksum ^= PositionChecksum.pieceKey(row, column, piece.getColor(), piece.getPieceType());
+                }
+            }
+        }
+
+        return checksum;
     }
 }
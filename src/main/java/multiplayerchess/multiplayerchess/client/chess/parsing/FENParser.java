@@ -4,6 +4,7 @@ import multiplayerchess.multiplayerchess.client.chess.Board;
 import multiplayerchess.multiplayerchess.client.chess.pieces.*;
 import multiplayerchess.multiplayerchess.common.BaseFENParser;
 import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.FENPosition;
 import multiplayerchess.multiplayerchess.common.Player;
 import multiplayerchess.multiplayerchess.common.Position;
 
@@ -57,17 +58,7 @@ public class FENParser {
                 file = Board.MinBoardColumn;
             } else {
                 if (Character.isDigit(c)) {
-                    /* For some reason the FEN string we get has the digits representing the number of empty squares
-                     * converted to its value?!? So we have to convert it back to the original number, which this
-                     * little hack does. */
-                    if (Character.isDigit(fenBoard.charAt(i + 1))) {
-                        i += 1;
-                        char secondDigit = fenBoard.charAt(i);
-                        char originalChar = (char) (Character.digit(c, 10) * 10 + Character.digit(secondDigit, 10));
-                        file += Character.digit(originalChar, 10);
-                    } else {
-                        file += Character.digit(c, 10);
-                    }
+                    file += Character.digit(c, 10);
                 } else {
                     board[rank][file] = pieceTranslation.get(c).get();
                     file++;
@@ -78,6 +69,28 @@ public class FENParser {
         return board;
     }
 
+    /**
+     * Gets an in-memory representation of the board from the position parsed by the
+     * {@link multiplayerchess.multiplayerchess.common.FENReader}.
+     *
+     * @param position The parsed position.
+     * @return The board.
+     */
+    public static Piece[][] ParseBoard(FENPosition position) {
+        Piece[][] board =
+                new Piece[Board.MaxBoardRow - Board.MinBoardRow + 1][Board.MaxBoardColumn - Board.MinBoardColumn + 1];
+
+        for (int rank = Board.MinBoardRow; rank <= Board.MaxBoardRow; rank++) {
+            for (int file = Board.MinBoardColumn; file <= Board.MaxBoardColumn; file++) {
+                if (!position.isEmpty(rank, file)) {
+                    board[rank][file] = pieceTranslation.get(position.pieceChar(rank, file)).get();
+                }
+            }
+        }
+
+        return board;
+    }
+
     /**
      * Gets the current player from the FEN string.
      *
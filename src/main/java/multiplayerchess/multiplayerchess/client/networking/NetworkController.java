@@ -7,6 +7,7 @@ import multiplayerchess.multiplayerchess.common.Position;
 import multiplayerchess.multiplayerchess.common.messages.*;
 import multiplayerchess.multiplayerchess.common.networking.CallbackMap;
 import multiplayerchess.multiplayerchess.common.networking.MessageQueue;
+import multiplayerchess.multiplayerchess.common.networking.Protocol;
 import multiplayerchess.multiplayerchess.common.networking.SocketMessageListener;
 import multiplayerchess.multiplayerchess.common.networking.SocketMessageWriter;
 
@@ -16,19 +17,38 @@ import java.util.function.Consumer;
 
 /**
  * The NetworkController class is responsible for handling all network communication.
+ * <p>
+ * Once the server has given the client a reconnect token, a dropped connection is opened again
+ * and the client returns to its match with a {@link ReconnectMessage}. The result is dispatched
+ * to the callbacks of {@link MessageType#RECONNECT}, as a failed {@link ReconnectReplyMessage}
+ * if the server cannot be reached.
  */
 public class NetworkController implements AutoCloseable {
 
+    private static final int HandshakeTimeout = 5_000;
+    private static final int ReconnectAttempts = 5;
+    private static final long ReconnectDelay = 1_000;
+
     private final CallbackMap<MessageType, Consumer<Message>> callbackMap;
     private final Consumer<Message> heartbeatCallback;
-    private SocketMessageWriter<ClientMessage> writer;
-    private SocketMessageListener listener;
-    private MessageQueue<ClientMessage> messageQueue;
+    private final String host;
+    private final int port;
+    private volatile SocketMessageWriter<ClientMessage> writer;
+    private volatile SocketMessageListener listener;
+    private volatile MessageQueue<ClientMessage> messageQueue;
+    private volatile Socket socket;
+    private volatile String reconnectToken;
+    private volatile boolean closed;
 
     /**
      * Private constructor to prevent instantiation.
+     *
+     * @param host The hostname of the server
+     * @param port The port of the server
      */
-    private NetworkController() {
+    private NetworkController(String host, int port) {
+        this.host = host;
+        this.port = port;
         this.callbackMap = new CallbackMap<>();
         this.heartbeatCallback = (message) -> {
             sendMessage(new HeartbeatReplyMessage());
@@ -40,6 +60,8 @@ public class NetworkController implements AutoCloseable {
 
     /**
      * Factory method to construct a NetworkController.
+     * Negotiates the binary protocol with the server, if the server does not support the handshake,
+     * reconnects and uses Java serialization, see {@link Protocol}.
      *
      * @param host The hostname of the server
      * @param port The port of the server
@@ -47,18 +69,50 @@ public class NetworkController implements AutoCloseable {
      * @throws IOException If the connection to the server fails
      */
     public static NetworkController connect(String host, int port) throws IOException {
+        var controller = new NetworkController(host, port);
+        controller.open();
+
+        return controller;
+    }
+
+    /**
+     * Sets the token with which the client returns to its match when the connection drops.
+     *
+     * @param reconnectToken The reconnect token given by the server or null to not reconnect
+     */
+    public void setReconnectToken(String reconnectToken) {
+        this.reconnectToken = reconnectToken;
+    }
+
+    /**
+     * Opens a new connection to the server, the listener and the writer are started by {@link #start()}.
+     *
+     * @throws IOException If the connection to the server fails
+     */
+    private void open() throws IOException {
         Socket socket = new Socket(host, port);
-        var controller = new NetworkController();
+        Protocol protocol;
+        try {
+            socket.setSoTimeout(HandshakeTimeout);
+            protocol = Protocol.clientHandshake(socket.getInputStream(), socket.getOutputStream(), Protocol.BINARY);
+            socket.setSoTimeout(0);
+        }
+        catch (IOException e) {
+            // A server without the handshake closes the connection on the unexpected bytes
+            socket.close();
+            socket = new Socket(host, port);
+            protocol = Protocol.SERIALIZATION;
+        }
 
         MessageQueue<ClientMessage> queue = new MessageQueue<>();
-        SocketMessageWriter<ClientMessage> writer = new SocketMessageWriter<>(socket, queue, controller);
+        SocketMessageWriter<ClientMessage> writer = new SocketMessageWriter<>(
+                socket, protocol.createWriter(socket.getOutputStream()), queue, this::connectionLost);
         SocketMessageListener listener = new SocketMessageListener(
-                socket.getInputStream(), controller::handleServerMessage, controller);
-
-        controller.setListener(listener);
-        controller.setWriter(writer, queue);
+                protocol.createReader(socket.getInputStream()), this::handleServerMessage, this::connectionLost);
 
-        return controller;
+        setListener(listener);
+        setWriter(writer, queue);
+        this.socket = socket;
     }
 
     /**
@@ -95,9 +149,18 @@ public class NetworkController implements AutoCloseable {
      * Send a resignation message to the server.
      */
     public void sendResign(Player player) {
+        // The server closes the connection after the resignation, the match is over
+        reconnectToken = null;
         sendMessage(new ResignMessage(player));
     }
 
+    /**
+     * Asks the server for the whole position of the match, after the board went out of sync.
+     */
+    public void sendResync() {
+        sendMessage(new ResyncMessage());
+    }
+
     public void sendConnectionAcknowledgement() {
         sendMessage(new AcknowledgeConnectionMessage());
     }
@@ -152,7 +215,83 @@ public class NetworkController implements AutoCloseable {
      */
     @Override
     public void close() throws IOException {
+        closed = true;
         sendMessage(new DisconnectMessage());
+        stopConnection();
+    }
+
+    /**
+     * Called when the connection to the server fails. Without a reconnect token the controller is closed,
+     * otherwise the connection is opened again and the client asks to return to its match.
+     */
+    private void connectionLost() {
+        if (closed) {
+            return;
+        }
+
+        // The failed listener has already stopped, it runs this method
+        writer.stopRunning();
+        writer.interrupt();
+        closeSocket();
+        if (reconnectToken == null) {
+            closed = true;
+            return;
+        }
+
+        for (int attempt = 0; attempt < ReconnectAttempts && !closed; attempt++) {
+            try {
+                Thread.sleep(ReconnectDelay);
+                if (closed || reconnectToken == null) {
+                    return;
+                }
+                open();
+                sendMessage(new ReconnectMessage(reconnectToken));
+                start();
+                return;
+            }
+            catch (IOException ignored) {
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!closed) {
+            closed = true;
+            handleServerMessage(new ReconnectReplyMessage(false, null, null, null));
+        }
+    }
+
+    /**
+     * Closes the socket of the current connection.
+     */
+    private void closeSocket() {
+        try {
+            socket.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Answers whether the server ends the match after sending the message, so that the client does not try
+     * to return to the match once the server closes the connection.
+     *
+     * @param message The message received
+     * @return True if the match is over after the message, false otherwise
+     */
+    private static boolean endsMatch(Message message) {
+        return (message instanceof TurnReplyMessage reply && reply.gameOver)
+                || (message instanceof TurnDeltaMessage delta && delta.gameOver)
+                || message instanceof OpponentResignedMessage
+                || message instanceof OpponentDisconnectedMessage;
+    }
+
+    /**
+     * Stops the listener and the writer of the current connection.
+     */
+    private void stopConnection() {
         listener.stopRunning();
         writer.stopRunning();
         writer.interrupt();
@@ -176,6 +315,9 @@ public class NetworkController implements AutoCloseable {
      * @param message The message received
      */
     private synchronized void handleServerMessage(Message message) {
+        if (endsMatch(message)) {
+            reconnectToken = null;
+        }
         for (var callback : callbackMap.getCallbacks(message.getType())) {
             callback.accept(message);
         }
@@ -17,9 +17,13 @@ import multiplayerchess.multiplayerchess.common.PieceType;
 import multiplayerchess.multiplayerchess.common.Position;
 import multiplayerchess.multiplayerchess.common.messages.Message;
 import multiplayerchess.multiplayerchess.common.messages.MessageType;
+import multiplayerchess.multiplayerchess.common.messages.OpponentReconnectingMessage;
+import multiplayerchess.multiplayerchess.common.messages.ReconnectReplyMessage;
+import multiplayerchess.multiplayerchess.common.messages.TurnDeltaMessage;
 import multiplayerchess.multiplayerchess.common.messages.TurnReplyMessage;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The controller for the chess game.
@@ -76,9 +80,9 @@ public class ChessGameController {
         networkController.addCallback(MessageType.TURN, this::turnHandler);
         networkController.addCallback(MessageType.RESIGNED, this::opponentResignedHandler);
         networkController.addCallback(MessageType.DISCONNECTED, this::opponentDisconnectedHandler);
-        if (!gameUnderWay) {
-            networkController.addCallback(MessageType.CONNECTED, this::opponentJoinedHandler);
-        }
+        networkController.addCallback(MessageType.RECONNECT, this::reconnectHandler);
+        // The opponent also connects again after their connection dropped
+        networkController.addCallback(MessageType.CONNECTED, this::opponentJoinedHandler);
 
         board = new UIBoard(match.getPlayer(), this);
         board.setupBoard(match.getBoard());
@@ -128,20 +132,54 @@ public class ChessGameController {
 
     /**
      * Handler for the {@link multiplayerchess.multiplayerchess.common.messages.OpponentDisconnectedMessage}
+     * and the {@link OpponentReconnectingMessage}.
+     * The match waits for an opponent whose connection dropped, otherwise it is over.
      *
      * @param message The message to handle.
      */
     public void opponentDisconnectedHandler(Message message) {
+        if (message instanceof OpponentReconnectingMessage reconnecting) {
+            Platform.runLater(() -> setWaitingForReconnect(reconnecting.gracePeriod));
+            return;
+        }
+
         Platform.runLater(() -> endMatch(Winner.getWinnerFromPlayer(match.getPlayer()), "Opponent disconnected"));
     }
 
+    /**
+     * Handler for the {@link ReconnectReplyMessage}, received after our connection dropped.
+     * Continues the match from the current position or ends it if we could not return to it.
+     *
+     * @param message The message to handle.
+     */
+    public void reconnectHandler(Message message) {
+        ReconnectReplyMessage reply = (ReconnectReplyMessage) message;
+
+        if (reply.success) {
+            Platform.runLater(() -> {
+                match.nextTurn(reply.gameStateFEN);
+                board.setupBoard(match.getBoard());
+                this.newTurn();
+            });
+        } else {
+            Platform.runLater(() -> endMatch(Winner.getWinnerFromPlayer(match.getPlayer().opposite()),
+                    "Connection lost"));
+        }
+    }
+
     /**
      * Handler for the {@link multiplayerchess.multiplayerchess.common.messages.TurnReplyMessage}
+     * and the {@link TurnDeltaMessage}.
      * Depending on the message, the match is updated.
      *
      * @param message The message to handle.
      */
     public void turnHandler(Message message) {
+        if (message instanceof TurnDeltaMessage delta) {
+            Platform.runLater(() -> applyTurnDelta(delta));
+            return;
+        }
+
         TurnReplyMessage reply = (TurnReplyMessage) message;
 
         if (reply.success) {
@@ -159,6 +197,23 @@ public class ChessGameController {
         }
     }
 
+    /**
+     * Applies the move of the delta to the match, asks the server for the whole position if the board went out of sync.
+     *
+     * @param delta The message with the move.
+     */
+    private void applyTurnDelta(TurnDeltaMessage delta) {
+        boolean inSync = match.applyMove(delta.startingPosition, delta.endingPosition, delta.checksum);
+        board.setupBoard(match.getBoard());
+        this.newTurn();
+
+        if (delta.gameOver) {
+            endMatch(Winner.getWinnerFromPlayer(delta.winner), "Game over");
+        } else if (!inSync) {
+            networkController.sendResync();
+        }
+    }
+
     /**
      * Handler for the {@link multiplayerchess.multiplayerchess.common.messages.OpponentConnectedMessage}
      * Starts the game.
@@ -206,6 +261,26 @@ public class ChessGameController {
         popupButton.setDisable(true);
     }
 
+    /**
+     * Set the popup pane to visible and disable the board while the opponent whose connection dropped
+     * may still return.
+     *
+     * @param gracePeriod The time in milliseconds the server waits for the opponent.
+     */
+    private void setWaitingForReconnect(long gracePeriod) {
+        board.setDisable(true);
+
+        popupPane.setVisible(true);
+        popupPane.setDisable(false);
+
+        popupLabel.setText("Opponent Reconnecting (up to " + TimeUnit.MILLISECONDS.toSeconds(gracePeriod)
+                + " s)...");
+        popupLabel.setVisible(true);
+
+        popupButton.setVisible(false);
+        popupButton.setDisable(true);
+    }
+
     /**
      * Answers whether the move is a capturing move.
      *
@@ -98,6 +98,7 @@ public class JoinGameController {
         networkController.clearCallbacks(MessageType.JOIN_GAME);
 
         if (reply.success) {
+            networkController.setReconnectToken(reply.reconnectToken);
             Platform.runLater(() -> {
                 Match startedMatch = new Match(reply.gameStateFEN, reply.player, reply.matchID);
 
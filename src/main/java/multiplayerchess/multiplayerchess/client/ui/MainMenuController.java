@@ -105,6 +105,7 @@ public class MainMenuController {
         networkController.clearAllCallbacks();
 
         if (reply.success) {
+            networkController.setReconnectToken(reply.reconnectToken);
             Platform.runLater(() -> {
                 Match startedMatch = new Match(reply.startingFEN, reply.player, reply.matchID);
 
@@ -16,4 +16,13 @@ public enum Color {
         return this == Color.WHITE ? Player.WHITE : Player.BLACK;
     }
 
+    /**
+     * Returns the other color.
+     *
+     * @return The other color.
+     */
+    public Color opposite() {
+        return this == Color.WHITE ? Color.BLACK : Color.WHITE;
+    }
+
 }
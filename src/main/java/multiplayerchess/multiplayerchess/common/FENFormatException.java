@@ -0,0 +1,30 @@
+package multiplayerchess.multiplayerchess.common;
+
+/**
+ * Thrown by {@link FENReader} when a FEN is not valid.
+ */
+public final class FENFormatException extends IllegalArgumentException {
+    static final long serialVersionUID = 0x1234567;
+
+    private final int offset;
+
+    /**
+     * Constructs a new FENFormatException.
+     *
+     * @param offset The offset of the invalid character in the FEN.
+     * @param reason The description of the problem.
+     */
+    public FENFormatException(int offset, String reason) {
+        super("Invalid FEN at offset " + offset + ": " + reason);
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the offset of the invalid character in the FEN
+     *
+     * @return The offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,109 @@
+package multiplayerchess.multiplayerchess.common;
+
+/**
+ * A position parsed from a FEN by {@link FENReader}.
+ * <p>
+ * The pieces are stored as one code per square, the square of row {@code r} and column {@code c}
+ * being {@code r * 8 + c}. The castling rights are the castles combined by bitwise or, with the same bits
+ * as used by the server: {@link #WhiteKingside}, {@link #WhiteQueenside}, {@link #BlackKingside}
+ * and {@link #BlackQueenside}.
+ *
+ * @param placement      The codes of the pieces on the squares, see {@link #code(Color, PieceType)},
+ *                       {@link #Empty} for an empty square
+ * @param currentPlayer  The player whose turn it is
+ * @param castlingRights The castles that may still be performed
+ * @param enPassant      The square on which an en passant capture is possible or null
+ * @param halfmoveClock  The number of halfmoves since the last pawn move or capture
+ * @param moves          The number of the full move
+ */
+public record FENPosition(byte[] placement, Player currentPlayer, int castlingRights, Position enPassant,
+                          int halfmoveClock, int moves) {
+
+    /**
+     * The code of an empty square.
+     */
+    public static final byte Empty = -1;
+
+    public static final int WhiteKingside = 0b0001;
+    public static final int WhiteQueenside = 0b0010;
+    public static final int BlackKingside = 0b0100;
+    public static final int BlackQueenside = 0b1000;
+
+    private static final int ColumnCount = 8;
+    private static final Color[] colors = Color.values();
+    private static final PieceType[] pieceTypes = PieceType.values();
+    private static final char[] pieceChars = {'k', 'q', 'b', 'n', 'r', 'p', 'K', 'Q', 'B', 'N', 'R', 'P'};
+
+    /**
+     * Gets the code of the piece
+     *
+     * @param color The color of the piece
+     * @param type  The type of the piece
+     * @return The code of the piece
+     */
+    public static byte code(Color color, PieceType type) {
+        return (byte) (color.ordinal() * pieceTypes.length + type.ordinal());
+    }
+
+    /**
+     * Answers whether there is no piece on the square
+     *
+     * @param row    The row of the square
+     * @param column The column of the square
+     * @return Whether the square is empty
+     */
+    public boolean isEmpty(int row, int column) {
+        return placement[row * ColumnCount + column] == Empty;
+    }
+
+    /**
+     * Gets the type of the piece on the square
+     *
+     * @param row    The row of the square
+     * @param column The column of the square
+     * @return The type of the piece or null for an empty square
+     */
+    public PieceType pieceType(int row, int column) {
+        byte code = placement[row * ColumnCount + column];
+        return code == Empty ? null : pieceTypes[code % pieceTypes.length];
+    }
+
+    /**
+     * Gets the color of the piece on the square
+     *
+     * @param row    The row of the square
+     * @param column The column of the square
+     * @return The color of the piece or null for an empty square
+     */
+    public Color color(int row, int column) {
+        byte code = placement[row * ColumnCount + column];
+        return code == Empty ? null : colors[code / pieceTypes.length];
+    }
+
+    /**
+     * Gets the FEN character of the piece on the square
+     *
+     * @param row    The row of the square
+     * @param column The column of the square
+     * @return The character of the piece, uppercase for white pieces
+     * @throws IllegalArgumentException If the square is empty
+     */
+    public char pieceChar(int row, int column) {
+        byte code = placement[row * ColumnCount + column];
+        if (code == Empty) {
+            throw new IllegalArgumentException("The square is empty");
+        }
+
+        return pieceChar(code);
+    }
+
+    /**
+     * Gets the FEN character of the piece
+     *
+     * @param code The code of the piece, see {@link #code(Color, PieceType)}
+     * @return The character of the piece, uppercase for white pieces
+     */
+    static char pieceChar(byte code) {
+        return pieceChars[code];
+    }
+}
@@ -0,0 +1,274 @@
+package multiplayerchess.multiplayerchess.common;
+
+import java.util.Arrays;
+
+/**
+ * Parses a FEN in a single pass over its characters into a {@link FENPosition}, without splitting it into
+ * substrings. Used by both the client and the server.
+ * <p>
+ * The FEN is validated strictly: all six fields separated by single spaces, eight rows of eight squares,
+ * the castling rights in the {@code KQkq} order and the en passant square on the row behind the pawn which
+ * has just moved. An invalid FEN is reported by a {@link FENFormatException} with the offset of the problem.
+ */
+public final class FENReader {
+
+    private static final int RowCount = 8;
+    private static final int ColumnCount = 8;
+    private static final int MaxCounter = 1_000_000;
+    private static final byte[] pieceCodes = createPieceCodes();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FENReader() {
+    }
+
+    /**
+     * Parses the FEN
+     *
+     * @param FEN The FEN to parse
+     * @return The parsed position
+     * @throws FENFormatException If the FEN is not valid
+     */
+    public static FENPosition parse(CharSequence FEN) {
+        byte[] placement = new byte[RowCount * ColumnCount];
+        Arrays.fill(placement, FENPosition.Empty);
+        int i = parsePlacement(FEN, placement);
+
+        i = skipSeparator(FEN, i);
+        Player currentPlayer = switch (charAt(FEN, i)) {
+            case 'w' -> Player.WHITE;
+            case 'b' -> Player.BLACK;
+            default -> throw new FENFormatException(i, "The player to move has to be 'w' or 'b'");
+        };
+        i++;
+
+        i = skipSeparator(FEN, i);
+        int castlingRights = 0;
+        if (charAt(FEN, i) == '-') {
+            i++;
+        } else {
+            if (charAt(FEN, i) == ' ') {
+                throw new FENFormatException(i, "Expected the castling rights or '-'");
+            }
+            int lastCastle = 0;
+            while (i < FEN.length() && FEN.charAt(i) != ' ') {
+                int castle = castle(FEN.charAt(i));
+                if (castle == 0) {
+                    throw new FENFormatException(i, "Invalid castling right '" + FEN.charAt(i) + "'");
+                }
+                if (castle <= lastCastle) {
+                    throw new FENFormatException(i, "The castling rights have to be listed once in the KQkq order");
+                }
+                castlingRights |= castle;
+                lastCastle = castle;
+                i++;
+            }
+        }
+
+        i = skipSeparator(FEN, i);
+        Position enPassant = null;
+        if (charAt(FEN, i) == '-') {
+            i++;
+        } else {
+            char column = charAt(FEN, i);
+            if (column < 'a' || column > 'h') {
+                throw new FENFormatException(i, "Invalid en passant column '" + column + "'");
+            }
+            // The pawn of the opponent of the player to move has just moved two rows
+            char expectedRow = currentPlayer == Player.WHITE ? '6' : '3';
+            if (charAt(FEN, i + 1) != expectedRow) {
+                throw new FENFormatException(i + 1, "The en passant square has to be on row " + expectedRow);
+            }
+            enPassant = new Position(expectedRow - '1', column - 'a');
+            i += 2;
+        }
+
+        i = skipSeparator(FEN, i);
+        int halfmoveStart = i;
+        int halfmoveClock = parseCounter(FEN, i);
+        i = skipDigits(FEN, halfmoveStart);
+
+        i = skipSeparator(FEN, i);
+        int movesStart = i;
+        int moves = parseCounter(FEN, i);
+        if (moves == 0) {
+            throw new FENFormatException(movesStart, "The move number has to be positive");
+        }
+        i = skipDigits(FEN, movesStart);
+
+        if (i != FEN.length()) {
+            throw new FENFormatException(i, "Unexpected characters after the FEN");
+        }
+
+        return new FENPosition(placement, currentPlayer, castlingRights, enPassant, halfmoveClock, moves);
+    }
+
+    /**
+     * Parses the piece placement, the first field of the FEN
+     *
+     * @param FEN       The FEN to parse
+     * @param placement The codes of the pieces to fill
+     * @return The offset after the placement
+     */
+    private static int parsePlacement(CharSequence FEN, byte[] placement) {
+        int row = RowCount - 1;
+        int column = 0;
+        boolean afterDigit = false;
+        int i = 0;
+        for (; i < FEN.length() && FEN.charAt(i) != ' '; i++) {
+            char c = FEN.charAt(i);
+            if (c == '/') {
+                if (column != ColumnCount) {
+                    throw new FENFormatException(i, "The row has fewer than 8 squares");
+                }
+                if (row == 0) {
+                    throw new FENFormatException(i, "The placement has more than 8 rows");
+                }
+                row--;
+                column = 0;
+                afterDigit = false;
+            } else if (c >= '1' && c <= '8') {
+                if (afterDigit) {
+                    throw new FENFormatException(i, "Two consecutive counts of empty squares");
+                }
+                column += c - '0';
+                if (column > ColumnCount) {
+                    throw new FENFormatException(i, "The row has more than 8 squares");
+                }
+                afterDigit = true;
+            } else {
+                byte code = c < pieceCodes.length ? pieceCodes[c] : FENPosition.Empty;
+                if (code == FENPosition.Empty) {
+                    throw new FENFormatException(i, "Invalid piece '" + c + "'");
+                }
+                if (column >= ColumnCount) {
+                    throw new FENFormatException(i, "The row has more than 8 squares");
+                }
+                placement[row * ColumnCount + column] = code;
+                column++;
+                afterDigit = false;
+            }
+        }
+
+        if (row != 0 || column != ColumnCount) {
+            throw new FENFormatException(i, "The placement does not have 8 rows of 8 squares");
+        }
+
+        return i;
+    }
+
+    /**
+     * Parses a non-negative counter of moves
+     *
+     * @param FEN   The FEN to parse
+     * @param start The offset of the counter
+     * @return The value of the counter
+     */
+    private static int parseCounter(CharSequence FEN, int start) {
+        int value = 0;
+        int i = start;
+        for (; i < FEN.length() && isDigit(FEN.charAt(i)); i++) {
+            value = value * 10 + (FEN.charAt(i) - '0');
+            if (value > MaxCounter) {
+                throw new FENFormatException(start, "The move counter is too large");
+            }
+        }
+        if (i == start) {
+            throw new FENFormatException(start, "Expected a move counter");
+        }
+
+        return value;
+    }
+
+    /**
+     * Skips the digits
+     *
+     * @param FEN   The FEN to parse
+     * @param start The offset of the first digit
+     * @return The offset after the digits
+     */
+    private static int skipDigits(CharSequence FEN, int start) {
+        int i = start;
+        while (i < FEN.length() && isDigit(FEN.charAt(i))) {
+            i++;
+        }
+
+        return i;
+    }
+
+    /**
+     * Skips the single space between two fields
+     *
+     * @param FEN The FEN to parse
+     * @param i   The offset of the space
+     * @return The offset of the next field
+     */
+    private static int skipSeparator(CharSequence FEN, int i) {
+        if (charAt(FEN, i) != ' ') {
+            throw new FENFormatException(i, "Expected a space between the fields");
+        }
+
+        return i + 1;
+    }
+
+    /**
+     * Gets the character at the offset
+     *
+     * @param FEN The FEN to parse
+     * @param i   The offset
+     * @return The character
+     * @throws FENFormatException If the FEN ends before the offset
+     */
+    private static char charAt(CharSequence FEN, int i) {
+        if (i >= FEN.length()) {
+            throw new FENFormatException(i, "Unexpected end of the FEN");
+        }
+
+        return FEN.charAt(i);
+    }
+
+    /**
+     * Answers whether the character is a decimal digit
+     *
+     * @param c The character
+     * @return Whether the character is a digit
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Gets the castling bit of the character of the castling rights
+     *
+     * @param c The character
+     * @return The castling bit, zero for an invalid character
+     */
+    private static int castle(char c) {
+        return switch (c) {
+            case 'K' -> FENPosition.WhiteKingside;
+            case 'Q' -> FENPosition.WhiteQueenside;
+            case 'k' -> FENPosition.BlackKingside;
+            case 'q' -> FENPosition.BlackQueenside;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Creates the table of the codes of the pieces by their characters
+     *
+     * @return The codes indexed by the characters, {@link FENPosition#Empty} for the other characters
+     */
+    private static byte[] createPieceCodes() {
+        byte[] codes = new byte[128];
+        Arrays.fill(codes, FENPosition.Empty);
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                byte code = FENPosition.code(color, type);
+                codes[FENPosition.pieceChar(code)] = code;
+            }
+        }
+
+        return codes;
+    }
+}
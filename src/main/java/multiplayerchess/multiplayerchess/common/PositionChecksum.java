@@ -0,0 +1,57 @@
+package multiplayerchess.multiplayerchess.common;
+
+/**
+ * Checksum of a position computed the same way by the server and the client, used to detect that the board of
+ * the client went out of sync with the server after the client applied a move by itself.
+ * <p>
+ * The checksum is the xor of the keys of every piece on its square and of the player to move.
+ * The keys are derived from the piece and the square by a mixing function, so no tables have to be shared.
+ */
+public final class PositionChecksum {
+
+    private static final int ColumnCount = 8;
+    private static final long BlackToMoveKey = mix(-1L);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PositionChecksum() {
+    }
+
+    /**
+     * Gets the key of the piece on the square
+     *
+     * @param row    The row of the square
+     * @param column The column of the square
+     * @param color  The color of the piece
+     * @param type   The type of the piece
+     * @return The key of the piece
+     */
+    public static long pieceKey(int row, int column, Color color, PieceType type) {
+        int square = row * ColumnCount + column;
+        return mix(((long) square << 4) | ((long) color.ordinal() << 3) | type.ordinal());
+    }
+
+    /**
+     * Gets the key of the player to move
+     *
+     * @param player The player to move
+     * @return The key of the player
+     */
+    public static long playerKey(Player player) {
+        return player == Player.BLACK ? BlackToMoveKey : 0L;
+    }
+
+    /**
+     * Mixes the bits of the value, the finalizer of SplitMix64
+     *
+     * @param value The value to mix
+     * @return The mixed value
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
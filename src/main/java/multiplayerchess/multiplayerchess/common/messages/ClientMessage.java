@@ -6,6 +6,7 @@ import java.io.Serializable;
  * The base class for all client messages.
  */
 public abstract sealed class ClientMessage extends Message implements Serializable
-        permits ClientOngoingMatchMessage, JoinMatchMessage, StartGameMessage, AcknowledgeConnectionMessage {
+        permits ClientOngoingMatchMessage, JoinMatchMessage, StartGameMessage, AcknowledgeConnectionMessage,
+        ReconnectMessage {
     static final long serialVersionUID = 0x1234567;
 }
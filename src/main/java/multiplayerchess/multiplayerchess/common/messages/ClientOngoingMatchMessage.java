@@ -6,7 +6,7 @@ import java.io.Serializable;
  * Message sent by the client to the server during an ongoing match.
  */
 public abstract sealed class ClientOngoingMatchMessage extends ClientMessage implements Serializable
-        permits TurnMessage, ResignMessage, HeartbeatReplyMessage, DisconnectMessage {
+        permits TurnMessage, ResignMessage, HeartbeatReplyMessage, DisconnectMessage, ResyncMessage {
     static final long serialVersionUID = 0x1234567;
 
 }
@@ -14,20 +14,25 @@ public final class JoinMatchReplyMessage extends ServerMessage implements Serial
     public final String gameStateFEN;
     public final Player player;
     public final String matchID;
+    public final String reconnectToken;
 
     /**
      * Constructs a new JoinMatchReplyMessage.
      *
-     * @param success      Whether the join was successful.
-     * @param gameStateFEN The state of the game given by a FEN string.
-     * @param player       The player we joined the match as.
-     * @param matchID      The ID of the match we joined.
+     * @param success        Whether the join was successful.
+     * @param gameStateFEN   The state of the game given by a FEN string.
+     * @param player         The player we joined the match as.
+     * @param matchID        The ID of the match we joined.
+     * @param reconnectToken The token with which we can return to the match over a new connection,
+     *                       see {@link ReconnectMessage}.
      */
-    public JoinMatchReplyMessage(boolean success, String gameStateFEN, Player player, String matchID) {
+    public JoinMatchReplyMessage(boolean success, String gameStateFEN, Player player, String matchID,
+                                 String reconnectToken) {
         this.success = success;
         this.gameStateFEN = gameStateFEN;
         this.player = player;
         this.matchID = matchID;
+        this.reconnectToken = reconnectToken;
     }
 
     @Override
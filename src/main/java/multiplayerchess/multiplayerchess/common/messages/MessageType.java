@@ -10,5 +10,7 @@ public enum MessageType {
     CONNECTED,
     RESIGNED,
     TURN,
-    HEARTBEAT
+    HEARTBEAT,
+    RESYNC,
+    RECONNECT
 }
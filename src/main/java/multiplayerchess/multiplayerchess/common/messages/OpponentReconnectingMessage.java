@@ -0,0 +1,29 @@
+package multiplayerchess.multiplayerchess.common.messages;
+
+import java.io.Serializable;
+
+/**
+ * Message sent by the server to the client when the connection of the opponent drops.
+ * The match waits for the opponent to reconnect, if the opponent does not return within the grace period,
+ * an {@link OpponentDisconnectedMessage} follows. The return of the opponent is announced by
+ * an {@link OpponentConnectedMessage}.
+ */
+public final class OpponentReconnectingMessage extends ServerOngoingMatchMessage implements Serializable {
+    static final long serialVersionUID = 0x1234567;
+
+    public final long gracePeriod;
+
+    /**
+     * Constructs a new OpponentReconnectingMessage.
+     *
+     * @param gracePeriod The time in milliseconds the match waits for the opponent.
+     */
+    public OpponentReconnectingMessage(long gracePeriod) {
+        this.gracePeriod = gracePeriod;
+    }
+
+    @Override
+    public MessageType getType() {
+        return MessageType.DISCONNECTED;
+    }
+}
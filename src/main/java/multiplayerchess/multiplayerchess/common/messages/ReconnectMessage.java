@@ -0,0 +1,27 @@
+package multiplayerchess.multiplayerchess.common.messages;
+
+import java.io.Serializable;
+
+/**
+ * Message sent by the client over a new connection to return to its match after the previous connection dropped.
+ * The server answers with a {@link ReconnectReplyMessage}.
+ */
+public final class ReconnectMessage extends ClientMessage implements Serializable {
+    static final long serialVersionUID = 0x1234567;
+
+    public final String reconnectToken;
+
+    /**
+     * Constructs a new ReconnectMessage.
+     *
+     * @param reconnectToken The token given in the {@link StartGameReplyMessage} or {@link JoinMatchReplyMessage}.
+     */
+    public ReconnectMessage(String reconnectToken) {
+        this.reconnectToken = reconnectToken;
+    }
+
+    @Override
+    public MessageType getType() {
+        return MessageType.RECONNECT;
+    }
+}
@@ -0,0 +1,37 @@
+package multiplayerchess.multiplayerchess.common.messages;
+
+import multiplayerchess.multiplayerchess.common.Player;
+
+import java.io.Serializable;
+
+/**
+ * Message sent by the server to the client returning to its match with a {@link ReconnectMessage}.
+ */
+public final class ReconnectReplyMessage extends ServerMessage implements Serializable {
+    static final long serialVersionUID = 0x1234567;
+
+    public final boolean success;
+    public final String matchID;
+    public final String gameStateFEN;
+    public final Player player;
+
+    /**
+     * Constructs a new ReconnectReplyMessage.
+     *
+     * @param success      Whether the client has returned to its match.
+     * @param matchID      The ID of the match.
+     * @param gameStateFEN The current state of the game given by a FEN string.
+     * @param player       The player the client plays as.
+     */
+    public ReconnectReplyMessage(boolean success, String matchID, String gameStateFEN, Player player) {
+        this.success = success;
+        this.matchID = matchID;
+        this.gameStateFEN = gameStateFEN;
+        this.player = player;
+    }
+
+    @Override
+    public MessageType getType() {
+        return MessageType.RECONNECT;
+    }
+}
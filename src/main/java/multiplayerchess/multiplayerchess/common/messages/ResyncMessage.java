@@ -0,0 +1,15 @@
+package multiplayerchess.multiplayerchess.common.messages;
+
+/**
+ * Message sent by the client to the server to ask for the whole position of the match,
+ * after its board went out of sync with a {@link TurnDeltaMessage}.
+ * The server answers with a {@link TurnReplyMessage}.
+ */
+public final class ResyncMessage extends ClientOngoingMatchMessage {
+    static final long serialVersionUID = 0x1234567;
+
+    @Override
+    public MessageType getType() {
+        return MessageType.RESYNC;
+    }
+}
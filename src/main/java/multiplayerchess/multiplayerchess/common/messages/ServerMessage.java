@@ -6,7 +6,8 @@ import java.io.Serializable;
  * The base class for all server messages.
  */
 public abstract sealed class ServerMessage extends Message implements Serializable
-        permits JoinMatchReplyMessage, StartGameReplyMessage, ServerOngoingMatchMessage, OpponentConnectedMessage {
+        permits JoinMatchReplyMessage, StartGameReplyMessage, ServerOngoingMatchMessage, OpponentConnectedMessage,
+        ReconnectReplyMessage {
     static final long serialVersionUID = 0x1234567;
 
 }
\ No newline at end of file
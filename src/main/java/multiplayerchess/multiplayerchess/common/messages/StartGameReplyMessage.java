@@ -14,20 +14,25 @@ public final class StartGameReplyMessage extends ServerMessage implements Serial
     public final String matchID;
     public final String startingFEN;
     public final Player player;
+    public final String reconnectToken;
 
     /**
      * Constructs a new StartGameReplyMessage.
      *
-     * @param success     true if the game was started successfully, false otherwise.
-     * @param matchID     the match ID.
-     * @param startingFEN the starting state of the game given by a FEN string.
-     * @param player      the player we play as.
+     * @param success        true if the game was started successfully, false otherwise.
+     * @param matchID        the match ID.
+     * @param startingFEN    the starting state of the game given by a FEN string.
+     * @param player         the player we play as.
+     * @param reconnectToken the token with which we can return to the match over a new connection,
+     *                       see {@link ReconnectMessage}.
      */
-    public StartGameReplyMessage(boolean success, String matchID, String startingFEN, Player player) {
+    public StartGameReplyMessage(boolean success, String matchID, String startingFEN, Player player,
+                                 String reconnectToken) {
         this.success = success;
         this.matchID = matchID;
         this.startingFEN = startingFEN;
         this.player = player;
+        this.reconnectToken = reconnectToken;
     }
 
     @Override
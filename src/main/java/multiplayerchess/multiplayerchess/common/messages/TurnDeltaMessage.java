@@ -0,0 +1,46 @@
+package multiplayerchess.multiplayerchess.common.messages;
+
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.common.PositionChecksum;
+
+import java.io.Serializable;
+
+/**
+ * Message sent by the server to both clients after a successful turn, instead of a {@link TurnReplyMessage}
+ * with the whole position. The clients apply the move to their boards themselves, castles, en passant and
+ * promotions are recognized from the moved piece. If the {@link PositionChecksum} of the resulting board differs,
+ * the client asks for the whole position with a {@link ResyncMessage}.
+ */
+public final class TurnDeltaMessage extends ServerOngoingMatchMessage implements Serializable {
+    static final long serialVersionUID = 0x1234567;
+
+    public final Position startingPosition;
+    public final Position endingPosition;
+    public final boolean gameOver;
+    public final Player winner;
+    public final long checksum;
+
+    /**
+     * Constructs a new TurnDeltaMessage.
+     *
+     * @param startingPosition The starting position of the moved piece.
+     * @param endingPosition   The ending position of the moved piece.
+     * @param gameOver         Whether the game is over.
+     * @param winner           The winner of the game in case the game has ended.
+     * @param checksum         The checksum of the position after the move, see {@link PositionChecksum}.
+     */
+    public TurnDeltaMessage(Position startingPosition, Position endingPosition, boolean gameOver, Player winner,
+                            long checksum) {
+        this.startingPosition = startingPosition;
+        this.endingPosition = endingPosition;
+        this.gameOver = gameOver;
+        this.winner = winner;
+        this.checksum = checksum;
+    }
+
+    @Override
+    public MessageType getType() {
+        return MessageType.TURN;
+    }
+}
@@ -0,0 +1,20 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+/**
+ * What a {@link MessageQueue} does with a new message when it is full, i.e. when the other side reads too slowly.
+ */
+public enum BackpressurePolicy {
+    /**
+     * The sender waits until there is room in the queue.
+     * If the queue has a wait limit, the message is rejected once the limit passes.
+     */
+    BLOCK,
+    /**
+     * Heartbeats are dropped, the sender of any other message waits as with {@link #BLOCK}.
+     */
+    DROP_HEARTBEATS,
+    /**
+     * The message is rejected and the connection should be closed.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,45 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.Message;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads length-prefixed messages encoded by {@link MessageCodec}.
+ * Every frame is an int with the length of the encoded message followed by the message itself.
+ * The frame is read into a buffer reused for every message.
+ */
+public final class BinaryMessageReader implements MessageReader {
+
+    private final DataInputStream input;
+    private final ByteBuffer frame;
+
+    /**
+     * The BinaryMessageReader constructor.
+     *
+     * @param inputStream The stream to read the messages from
+     */
+    public BinaryMessageReader(InputStream inputStream) {
+        this.input = new DataInputStream(
+                inputStream instanceof BufferedInputStream ? inputStream : new BufferedInputStream(inputStream));
+        this.frame = ByteBuffer.allocate(MessageCodec.MaxMessageLength);
+    }
+
+    @Override
+    public Message read() throws IOException {
+        int length = input.readInt();
+        if (length <= 0 || length > MessageCodec.MaxMessageLength) {
+            throw new ProtocolException("Invalid frame length " + length);
+        }
+
+        frame.clear();
+        input.readFully(frame.array(), 0, length);
+        frame.limit(length);
+        return MessageCodec.decode(frame);
+    }
+}
@@ -0,0 +1,69 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.Message;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes length-prefixed messages encoded by {@link MessageCodec}, see {@link BinaryMessageReader}.
+ * The frames are encoded one after another into a single buffer, which is written to the stream at once
+ * when it is flushed or full.
+ */
+public final class BinaryMessageWriter implements MessageWriter {
+
+    private static final int LengthPrefixSize = Integer.BYTES;
+    private static final int FrameSize = LengthPrefixSize + MessageCodec.MaxMessageLength;
+    private static final int BufferSize = 16 * FrameSize;
+
+    private final OutputStream output;
+    private final ByteBuffer buffer;
+
+    /**
+     * The BinaryMessageWriter constructor.
+     *
+     * @param outputStream The stream to write the messages to
+     */
+    public BinaryMessageWriter(OutputStream outputStream) {
+        this.output = outputStream;
+        this.buffer = ByteBuffer.allocate(BufferSize);
+    }
+
+    @Override
+    public void write(Message message) throws IOException {
+        if (buffer.remaining() < FrameSize) {
+            writeBuffer();
+        }
+
+        int start = buffer.position();
+        buffer.position(start + LengthPrefixSize);
+        try {
+            MessageCodec.encode(message, buffer);
+        }
+        catch (IOException e) {
+            // Drops the partially encoded frame
+            buffer.position(start);
+            throw e;
+        }
+        buffer.putInt(start, buffer.position() - start - LengthPrefixSize);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBuffer();
+        output.flush();
+    }
+
+    /**
+     * Writes the buffered frames to the stream
+     *
+     * @throws IOException If the stream fails
+     */
+    private void writeBuffer() throws IOException {
+        if (buffer.position() > 0) {
+            output.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.common.messages.*;
+
+import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hand-written binary encoding of the messages, used by the {@link Protocol#BINARY} protocol.
+ * <p>
+ * A message is encoded as a tag byte identifying the message class, followed by its fields:
+ * <ul>
+ *     <li>booleans as a single byte</li>
+ *     <li>enums as a single byte with their ordinal, -1 for null</li>
+ *     <li>positions as a single byte with {@code row * 8 + column}, -1 for null</li>
+ *     <li>strings as a short with the length of their UTF-8 bytes followed by the bytes, -1 for null</li>
+ *     <li>checksums and durations as a long</li>
+ * </ul>
+ * The tags are unique across both client and server messages, so a message can be decoded without knowing
+ * which side sent it. The fields the server relies on in the messages of the clients may not be null.
+ */
+public final class MessageCodec {
+
+    /**
+     * The maximum length of an encoded message.
+     */
+    public static final int MaxMessageLength = 1024;
+
+    private static final byte StartGameTag = 1;
+    private static final byte JoinMatchTag = 2;
+    private static final byte AcknowledgeConnectionTag = 3;
+    private static final byte TurnTag = 4;
+    private static final byte ResignTag = 5;
+    private static final byte HeartbeatReplyTag = 6;
+    private static final byte DisconnectTag = 7;
+    private static final byte StartGameReplyTag = 8;
+    private static final byte JoinMatchReplyTag = 9;
+    private static final byte OpponentConnectedTag = 10;
+    private static final byte TurnReplyTag = 11;
+    private static final byte OpponentResignedTag = 12;
+    private static final byte HeartbeatTag = 13;
+    private static final byte OpponentDisconnectedTag = 14;
+    private static final byte TurnDeltaTag = 15;
+    private static final byte ResyncTag = 16;
+    private static final byte ReconnectTag = 17;
+    private static final byte ReconnectReplyTag = 18;
+    private static final byte OpponentReconnectingTag = 19;
+
+    private static final byte NullValue = -1;
+    private static final int BoardSize = 8;
+    private static final PieceType[] pieceTypes = PieceType.values();
+    private static final Player[] players = Player.values();
+    private static final Color[] colors = Color.values();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MessageCodec() {
+    }
+
+    /**
+     * Encodes the message into the buffer
+     *
+     * @param message The message to encode
+     * @param buffer  The buffer to write into, of at least {@link #MaxMessageLength} remaining bytes
+     * @throws ProtocolException If the message cannot be encoded or does not fit into the buffer
+     */
+    public static void encode(Message message, ByteBuffer buffer) throws ProtocolException {
+        if (message instanceof StartGameMessage) {
+            buffer.put(StartGameTag);
+        } else if (message instanceof JoinMatchMessage joinMatch) {
+            buffer.put(JoinMatchTag);
+            putString(buffer, joinMatch.matchID);
+        } else if (message instanceof ReconnectMessage reconnect) {
+            buffer.put(ReconnectTag);
+            putString(buffer, reconnect.reconnectToken);
+        } else if (message instanceof AcknowledgeConnectionMessage) {
+            buffer.put(AcknowledgeConnectionTag);
+        } else if (message instanceof TurnMessage turn) {
+            buffer.put(TurnTag);
+            putEnum(buffer, turn.pieceType);
+            putPosition(buffer, turn.startingPosition);
+            putPosition(buffer, turn.endingPosition);
+            putEnum(buffer, turn.playerColor);
+            putBoolean(buffer, turn.isCapture);
+        } else if (message instanceof ResignMessage resign) {
+            buffer.put(ResignTag);
+            putEnum(buffer, resign.player);
+        } else if (message instanceof HeartbeatReplyMessage) {
+            buffer.put(HeartbeatReplyTag);
+        } else if (message instanceof DisconnectMessage) {
+            buffer.put(DisconnectTag);
+        } else if (message instanceof StartGameReplyMessage startGameReply) {
+            buffer.put(StartGameReplyTag);
+            putBoolean(buffer, startGameReply.success);
+            putString(buffer, startGameReply.matchID);
+            putString(buffer, startGameReply.startingFEN);
+            putEnum(buffer, startGameReply.player);
+            putString(buffer, startGameReply.reconnectToken);
+        } else if (message instanceof JoinMatchReplyMessage joinMatchReply) {
+            buffer.put(JoinMatchReplyTag);
+            putBoolean(buffer, joinMatchReply.success);
+            putString(buffer, joinMatchReply.gameStateFEN);
+            putEnum(buffer, joinMatchReply.player);
+            putString(buffer, joinMatchReply.matchID);
+            putString(buffer, joinMatchReply.reconnectToken);
+        } else if (message instanceof ReconnectReplyMessage reconnectReply) {
+            buffer.put(ReconnectReplyTag);
+            putBoolean(buffer, reconnectReply.success);
+            putString(buffer, reconnectReply.matchID);
+            putString(buffer, reconnectReply.gameStateFEN);
+            putEnum(buffer, reconnectReply.player);
+        } else if (message instanceof OpponentConnectedMessage) {
+            buffer.put(OpponentConnectedTag);
+        } else if (message instanceof TurnReplyMessage turnReply) {
+            buffer.put(TurnReplyTag);
+            putBoolean(buffer, turnReply.success);
+            putString(buffer, turnReply.gameStateFEN);
+            putBoolean(buffer, turnReply.gameOver);
+            putEnum(buffer, turnReply.winner);
+        } else if (message instanceof TurnDeltaMessage turnDelta) {
+            buffer.put(TurnDeltaTag);
+            putPosition(buffer, turnDelta.startingPosition);
+            putPosition(buffer, turnDelta.endingPosition);
+            putBoolean(buffer, turnDelta.gameOver);
+            putEnum(buffer, turnDelta.winner);
+            buffer.putLong(turnDelta.checksum);
+        } else if (message instanceof ResyncMessage) {
+            buffer.put(ResyncTag);
+        } else if (message instanceof OpponentResignedMessage) {
+            buffer.put(OpponentResignedTag);
+        } else if (message instanceof HeartbeatMessage) {
+            buffer.put(HeartbeatTag);
+        } else if (message instanceof OpponentDisconnectedMessage) {
+            buffer.put(OpponentDisconnectedTag);
+        } else if (message instanceof OpponentReconnectingMessage opponentReconnecting) {
+            buffer.put(OpponentReconnectingTag);
+            buffer.putLong(opponentReconnecting.gracePeriod);
+        } else {
+            throw new ProtocolException("Unknown message " + message.getClass().getName());
+        }
+    }
+
+    /**
+     * Decodes a message from the buffer
+     *
+     * @param buffer The buffer containing exactly one encoded message
+     * @return The decoded message
+     * @throws ProtocolException If the buffer does not contain a valid message
+     */
+    public static Message decode(ByteBuffer buffer) throws ProtocolException {
+        try {
+            Message message = decodeMessage(buffer);
+            if (buffer.hasRemaining()) {
+                throw new ProtocolException("Unexpected bytes after the message");
+            }
+
+            return message;
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new ProtocolException("Truncated message");
+        }
+    }
+
+    /**
+     * Decodes the message according to its tag
+     *
+     * @param buffer The buffer to read from
+     * @return The decoded message
+     * @throws ProtocolException If the tag is unknown
+     */
+    private static Message decodeMessage(ByteBuffer buffer) throws ProtocolException {
+        byte tag = buffer.get();
+        return switch (tag) {
+            case StartGameTag -> new StartGameMessage();
+            case JoinMatchTag -> new JoinMatchMessage(required(getString(buffer), "match ID"));
+            case ReconnectTag -> new ReconnectMessage(required(getString(buffer), "reconnect token"));
+            case AcknowledgeConnectionTag -> new AcknowledgeConnectionMessage();
+            case TurnTag -> {
+                PieceType pieceType = required(getEnum(buffer, pieceTypes), "piece type");
+                Position start = required(getPosition(buffer), "starting position");
+                Position end = required(getPosition(buffer), "ending position");
+                Color color = required(getEnum(buffer, colors), "player color");
+                yield new TurnMessage(pieceType, start, end, color, getBoolean(buffer));
+            }
+            case ResignTag -> new ResignMessage(required(getEnum(buffer, players), "player"));
+            case HeartbeatReplyTag -> new HeartbeatReplyMessage();
+            case DisconnectTag -> new DisconnectMessage();
+            case StartGameReplyTag -> {
+                boolean success = getBoolean(buffer);
+                String matchID = getString(buffer);
+                String FEN = getString(buffer);
+                Player player = getEnum(buffer, players);
+                yield new StartGameReplyMessage(success, matchID, FEN, player, getString(buffer));
+            }
+            case JoinMatchReplyTag -> {
+                boolean success = getBoolean(buffer);
+                String FEN = getString(buffer);
+                Player player = getEnum(buffer, players);
+                String matchID = getString(buffer);
+                yield new JoinMatchReplyMessage(success, FEN, player, matchID, getString(buffer));
+            }
+            case ReconnectReplyTag -> {
+                boolean success = getBoolean(buffer);
+                String matchID = getString(buffer);
+                String FEN = getString(buffer);
+                yield new ReconnectReplyMessage(success, matchID, FEN, getEnum(buffer, players));
+            }
+            case OpponentConnectedTag -> new OpponentConnectedMessage();
+            case TurnReplyTag -> {
+                boolean success = getBoolean(buffer);
+                String FEN = getString(buffer);
+                boolean gameOver = getBoolean(buffer);
+                yield new TurnReplyMessage(success, FEN, gameOver, getEnum(buffer, players));
+            }
+            case TurnDeltaTag -> {
+                Position start = getPosition(buffer);
+                Position end = getPosition(buffer);
+                boolean gameOver = getBoolean(buffer);
+                Player winner = getEnum(buffer, players);
+                yield new TurnDeltaMessage(start, end, gameOver, winner, buffer.getLong());
+            }
+            case ResyncTag -> new ResyncMessage();
+            case OpponentResignedTag -> new OpponentResignedMessage();
+            case HeartbeatTag -> new HeartbeatMessage();
+            case OpponentDisconnectedTag -> new OpponentDisconnectedMessage();
+            case OpponentReconnectingTag -> new OpponentReconnectingMessage(buffer.getLong());
+            default -> throw new ProtocolException("Unknown message tag " + tag);
+        };
+    }
+
+    /**
+     * Checks that a field which may not be null was present in the message
+     *
+     * @param value The decoded value of the field
+     * @param field The name of the field
+     * @param <T>   The type of the field
+     * @return The value
+     * @throws ProtocolException If the value is null
+     */
+    private static <T> T required(T value, String field) throws ProtocolException {
+        if (value == null) {
+            throw new ProtocolException("Missing " + field);
+        }
+
+        return value;
+    }
+
+    /**
+     * Writes a boolean as a single byte
+     *
+     * @param buffer The buffer to write into
+     * @param value  The value to write
+     */
+    private static void putBoolean(ByteBuffer buffer, boolean value) {
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Reads a boolean written by {@link #putBoolean(ByteBuffer, boolean)}
+     *
+     * @param buffer The buffer to read from
+     * @return The read value
+     */
+    private static boolean getBoolean(ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+
+    /**
+     * Writes the ordinal of an enum constant as a single byte
+     *
+     * @param buffer The buffer to write into
+     * @param value  The enum constant or null
+     */
+    private static void putEnum(ByteBuffer buffer, Enum<?> value) {
+        buffer.put(value == null ? NullValue : (byte) value.ordinal());
+    }
+
+    /**
+     * Reads an enum constant written by {@link #putEnum(ByteBuffer, Enum)}
+     *
+     * @param buffer The buffer to read from
+     * @param values The constants of the enum
+     * @param <T>    The type of the enum
+     * @return The read enum constant or null
+     * @throws ProtocolException If the ordinal is out of range
+     */
+    private static <T extends Enum<T>> T getEnum(ByteBuffer buffer, T[] values) throws ProtocolException {
+        byte ordinal = buffer.get();
+        if (ordinal == NullValue) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new ProtocolException("Invalid enum ordinal " + ordinal);
+        }
+
+        return values[ordinal];
+    }
+
+    /**
+     * Writes a position as a single byte
+     *
+     * @param buffer   The buffer to write into
+     * @param position The position or null
+     * @throws ProtocolException If the position is not on the board
+     */
+    private static void putPosition(ByteBuffer buffer, Position position) throws ProtocolException {
+        if (position == null) {
+            buffer.put(NullValue);
+            return;
+        }
+        if (position.row < 0 || position.row >= BoardSize || position.column < 0 || position.column >= BoardSize) {
+            throw new ProtocolException("Position out of the board");
+        }
+
+        buffer.put((byte) (position.row * BoardSize + position.column));
+    }
+
+    /**
+     * Reads a position written by {@link #putPosition(ByteBuffer, Position)}
+     *
+     * @param buffer The buffer to read from
+     * @return The read position or null
+     * @throws ProtocolException If the position is not on the board
+     */
+    private static Position getPosition(ByteBuffer buffer) throws ProtocolException {
+        byte square = buffer.get();
+        if (square == NullValue) {
+            return null;
+        }
+        if (square < 0 || square >= BoardSize * BoardSize) {
+            throw new ProtocolException("Invalid position " + square);
+        }
+
+        return new Position(square / BoardSize, square % BoardSize);
+    }
+
+    /**
+     * Writes a string as its length and UTF-8 bytes
+     *
+     * @param buffer The buffer to write into
+     * @param value  The string or null
+     * @throws ProtocolException If the string is too long
+     */
+    private static void putString(ByteBuffer buffer, String value) throws ProtocolException {
+        if (value == null) {
+            buffer.putShort(NullValue);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length + Short.BYTES > buffer.remaining()) {
+            throw new ProtocolException("String too long");
+        }
+
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #putString(ByteBuffer, String)}
+     *
+     * @param buffer The buffer to read from
+     * @return The read string or null
+     * @throws ProtocolException If the length of the string is invalid
+     */
+    private static String getString(ByteBuffer buffer) throws ProtocolException {
+        short length = buffer.getShort();
+        if (length == NullValue) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new ProtocolException("Invalid string length " + length);
+        }
+
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -1,44 +1,171 @@
 package multiplayerchess.multiplayerchess.common.networking;
 
-import java.util.Queue;
+import multiplayerchess.multiplayerchess.common.messages.Message;
+import multiplayerchess.multiplayerchess.common.messages.MessageType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A message queue synchronized with a monitor and thus thread-safe.
+ * A bounded lock-free message queue for many producers and a single consumer.
+ * <p>
+ * The messages are kept in a ring buffer. A producer claims a slot by advancing the tail and then publishes
+ * the message into the slot, the consumer takes the messages from the head and parks while the queue is empty.
+ * What happens to a message added to a full queue is decided by the {@link BackpressurePolicy}.
  *
  * @param <T> The type of messages in the queue.
  */
-public class MessageQueue<T> {
-    private final Queue<T> queue;
+public class MessageQueue<T extends Message> {
 
     /**
-     * Constructs a new message queue.
+     * The capacity of a queue created without an explicit capacity.
+     */
+    public static final int DefaultCapacity = 1024;
+
+    /**
+     * The wait limit of a queue whose senders wait for room as long as it takes.
+     */
+    public static final long NoWaitLimit = Long.MAX_VALUE;
+
+    private static final long BlockedProducerPause = 100_000; // nanoseconds
+
+    private final AtomicReferenceArray<T> buffer;
+    private final int mask;
+    private final BackpressurePolicy policy;
+    private final long waitLimit;
+    private final AtomicLong tail;
+    private volatile long head;
+    private volatile Thread consumer;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new message queue with the default capacity, whose senders wait while it is full.
      */
     public MessageQueue() {
-        queue = new java.util.LinkedList<>();
+        this(DefaultCapacity, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * Constructs a new message queue.
+     *
+     * @param capacity The maximum number of messages in the queue, rounded up to a power of two.
+     * @param policy   What to do with a message added to a full queue.
+     */
+    public MessageQueue(int capacity, BackpressurePolicy policy) {
+        this(capacity, policy, NoWaitLimit);
     }
 
     /**
-     * Adds a message to the queue.
+     * Constructs a new message queue whose senders wait for room at most the given time.
+     *
+     * @param capacity  The maximum number of messages in the queue, rounded up to a power of two.
+     * @param policy    What to do with a message added to a full queue.
+     * @param waitLimit The maximum time in nanoseconds a sender waits for room before the message is rejected,
+     *                  0 to reject the message at once or {@link #NoWaitLimit}.
+     */
+    public MessageQueue(int capacity, BackpressurePolicy policy, long waitLimit) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        buffer = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        this.policy = policy;
+        this.waitLimit = waitLimit;
+        tail = new AtomicLong(0);
+        head = 0;
+        closed = false;
+    }
+
+    /**
+     * Adds a message to the queue. May be called by any number of threads.
      *
      * @param message The message to add.
+     * @return Whether the message was accepted, a dropped heartbeat counts as accepted.
+     * False if the message was rejected by the {@link BackpressurePolicy#DISCONNECT} policy, the sender waited
+     * for room longer than the wait limit or the queue is closed.
      */
-    public synchronized void add(T message) {
-        queue.add(message);
-        this.notify();
+    public boolean add(T message) {
+        boolean full = false;
+        long waitStart = 0;
+        while (!closed) {
+            long claimed = tail.get();
+            if (claimed - head >= buffer.length()) {
+                if (policy == BackpressurePolicy.DISCONNECT) {
+                    return false;
+                }
+                if (policy == BackpressurePolicy.DROP_HEARTBEATS && message.getType() == MessageType.HEARTBEAT) {
+                    return true;
+                }
+                // Any other message waits for room, at most the wait limit
+                long now = System.nanoTime();
+                if (!full) {
+                    full = true;
+                    waitStart = now;
+                }
+                if (now - waitStart >= waitLimit) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, BlockedProducerPause);
+                continue;
+            }
+
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                buffer.set(index(claimed), message);
+                Thread waiting = consumer;
+                if (waiting != null) {
+                    LockSupport.unpark(waiting);
+                }
+                return true;
+            }
+        }
+
+        return false;
     }
 
     /**
-     * Removes and returns the next message in the queue.
+     * Removes and returns the next message in the queue, waits while the queue is empty.
+     * May only be called by a single thread.
      *
      * @return The next message in the queue.
      * @throws InterruptedException If the thread is interrupted while waiting for a message.
      */
-    public synchronized T get() throws InterruptedException {
-        while (queue.isEmpty()) {
-            this.wait();
+    public T get() throws InterruptedException {
+        return take(false, 0);
+    }
+
+    /**
+     * Removes and returns the next message in the queue if there is one, does not wait.
+     * May only be called by the thread taking the messages.
+     *
+     * @return The next message in the queue, null if the queue is empty.
+     */
+    public T poll() {
+        int index = index(head);
+        T message = buffer.get(index);
+        if (message != null) {
+            remove(index);
         }
 
-        return queue.poll();
+        return message;
+    }
+
+    /**
+     * Removes and returns the next message in the queue, waits at most the given time while the queue is empty.
+     * May only be called by the thread taking the messages.
+     *
+     * @param timeout The maximum time to wait in nanoseconds
+     * @return The next message in the queue, null if no message arrived in time.
+     * @throws InterruptedException If the thread is interrupted while waiting for a message.
+     */
+    public T poll(long timeout) throws InterruptedException {
+        return take(true, System.nanoTime() + timeout);
     }
 
     /**
@@ -46,7 +173,75 @@ public class MessageQueue<T> {
      *
      * @return Whether the queue is empty.
      */
-    public synchronized boolean isEmpty() {
-        return queue.isEmpty();
+    public boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    /**
+     * Stops accepting new messages, the messages already in the queue can still be taken.
+     * The senders waiting for room in the queue give up.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Takes the next message, parks the thread while the queue is empty
+     *
+     * @param timed    Whether to give up at the deadline
+     * @param deadline The deadline as given by {@link System#nanoTime()}, if timed
+     * @return The next message, null if the deadline passed
+     * @throws InterruptedException If the thread is interrupted while waiting for a message.
+     */
+    private T take(boolean timed, long deadline) throws InterruptedException {
+        int index = index(head);
+        T message = buffer.get(index);
+        while (message == null) {
+            if (Thread.interrupted()) {
+                consumer = null;
+                throw new InterruptedException();
+            }
+            long remaining = deadline - System.nanoTime();
+            if (timed && remaining <= 0) {
+                consumer = null;
+                return null;
+            }
+
+            // Registers before checking again, so that a producer publishing in between unparks this thread
+            consumer = Thread.currentThread();
+            message = buffer.get(index);
+            if (message == null) {
+                if (timed) {
+                    LockSupport.parkNanos(this, remaining);
+                } else {
+                    LockSupport.park(this);
+                }
+                message = buffer.get(index);
+            }
+        }
+        consumer = null;
+
+        remove(index);
+        return message;
+    }
+
+    /**
+     * Frees the slot of the taken message and advances the head
+     *
+     * @param index The index of the slot of the taken message
+     */
+    private void remove(int index) {
+        buffer.lazySet(index, null);
+        head = head + 1;
+    }
+
+    /**
+     * Gets the index of the slot in the ring buffer
+     *
+     * @param position The position in the queue
+     * @return The index of the slot
+     */
+    private int index(long position) {
+        return (int) position & mask;
     }
 }
@@ -0,0 +1,20 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.Message;
+
+import java.io.IOException;
+
+/**
+ * Reads messages from a stream in the format of a {@link Protocol}.
+ */
+public interface MessageReader {
+
+    /**
+     * Reads the next message, blocks until the whole message is received.
+     *
+     * @return The received message
+     * @throws IOException            If the stream fails or the received data is not a valid message
+     * @throws ClassNotFoundException If the class of a received serialized message is unknown
+     */
+    Message read() throws IOException, ClassNotFoundException;
+}
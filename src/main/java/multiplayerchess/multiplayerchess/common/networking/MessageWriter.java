@@ -0,0 +1,27 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.Message;
+
+import java.io.IOException;
+
+/**
+ * Writes messages to a stream in the format of a {@link Protocol}.
+ * The written messages are buffered, they are sent together by {@link #flush()}.
+ */
+public interface MessageWriter {
+
+    /**
+     * Writes the message, the message may stay buffered until the next flush.
+     *
+     * @param message The message to write
+     * @throws IOException If the stream fails or the message cannot be encoded
+     */
+    void write(Message message) throws IOException;
+
+    /**
+     * Sends all the buffered messages to the stream.
+     *
+     * @throws IOException If the stream fails
+     */
+    void flush() throws IOException;
+}
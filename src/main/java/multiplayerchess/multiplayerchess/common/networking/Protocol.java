@@ -0,0 +1,152 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.Message;
+
+import java.io.*;
+import java.net.ProtocolException;
+
+/**
+ * The enumeration of the formats the messages can be sent in.
+ * <p>
+ * The protocol is negotiated when the connection is established. The client starts by sending
+ * {@link #HandshakeMagic} followed by the id of the protocol it wants to use, the server answers with the same magic
+ * and the id of the protocol it accepted. A client which starts sending serialized messages right away (the stream
+ * starts with the serialization magic {@code 0xACED}) uses {@link #SERIALIZATION} without any handshake.
+ */
+public enum Protocol {
+    /**
+     * Every message is sent as a separate Java serialization stream.
+     */
+    SERIALIZATION(0),
+    /**
+     * Every message is sent as a length-prefixed frame, see {@link MessageCodec}.
+     */
+    BINARY(1);
+
+    /**
+     * The first bytes sent by both sides of the handshake - the characters "MCHP".
+     */
+    public static final int HandshakeMagic = 0x4D434850;
+
+    /**
+     * The first two bytes of a Java serialization stream.
+     */
+    public static final int SerializationMagic = 0xACED;
+
+    /**
+     * The length of the handshake message - the magic followed by the id of the protocol.
+     */
+    public static final int HandshakeLength = Integer.BYTES + Byte.BYTES;
+
+    private static final Protocol[] protocols = values();
+
+    public final int id;
+
+    /**
+     * Constructs a protocol enum.
+     *
+     * @param id the id of the protocol sent during the handshake
+     */
+    Protocol(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Performs the client side of the handshake.
+     *
+     * @param input     The stream from the server
+     * @param output    The stream to the server
+     * @param requested The protocol the client wants to use
+     * @return The protocol accepted by the server
+     * @throws IOException If the server does not answer with a valid handshake
+     */
+    public static Protocol clientHandshake(InputStream input, OutputStream output, Protocol requested)
+            throws IOException {
+        DataOutputStream dataOutput = new DataOutputStream(output);
+        dataOutput.writeInt(HandshakeMagic);
+        dataOutput.writeByte(requested.id);
+        dataOutput.flush();
+
+        DataInputStream dataInput = new DataInputStream(input);
+        if (dataInput.readInt() != HandshakeMagic) {
+            throw new ProtocolException("Invalid handshake reply");
+        }
+
+        return fromId(dataInput.readUnsignedByte());
+    }
+
+    /**
+     * Performs the server side of the handshake.
+     * Detects clients which do not perform the handshake and send serialized messages right away.
+     *
+     * @param input  The stream from the client, has to support {@link InputStream#mark(int)}
+     * @param output The stream to the client
+     * @return The protocol to use with the client
+     * @throws IOException If the client does not start with a valid handshake
+     */
+    public static Protocol serverHandshake(InputStream input, OutputStream output) throws IOException {
+        DataInputStream dataInput = new DataInputStream(input);
+        input.mark(Short.BYTES);
+        if (dataInput.readUnsignedShort() == SerializationMagic) {
+            input.reset();
+            return SERIALIZATION;
+        }
+
+        input.reset();
+        if (dataInput.readInt() != HandshakeMagic) {
+            throw new ProtocolException("Invalid handshake");
+        }
+        Protocol protocol = fromId(dataInput.readUnsignedByte());
+
+        DataOutputStream dataOutput = new DataOutputStream(output);
+        dataOutput.writeInt(HandshakeMagic);
+        dataOutput.writeByte(protocol.id);
+        dataOutput.flush();
+
+        return protocol;
+    }
+
+    /**
+     * Gets the protocol with the given id
+     *
+     * @param id The id of the protocol
+     * @return The protocol
+     * @throws ProtocolException If there is no protocol with the id
+     */
+    public static Protocol fromId(int id) throws ProtocolException {
+        for (Protocol protocol : protocols) {
+            if (protocol.id == id) {
+                return protocol;
+            }
+        }
+
+        throw new ProtocolException("Unknown protocol " + id);
+    }
+
+    /**
+     * Creates a reader of the messages sent in this protocol.
+     *
+     * @param input The stream to read from
+     * @return The message reader
+     */
+    public MessageReader createReader(InputStream input) {
+        return switch (this) {
+            // Creates a new ObjectInputStream for every message received so that aren't problems with the headers.
+            case SERIALIZATION -> () -> (Message) new ObjectInputStream(input).readObject();
+            case BINARY -> new BinaryMessageReader(input);
+        };
+    }
+
+    /**
+     * Creates a writer of the messages sent in this protocol.
+     *
+     * @param output The stream to write to
+     * @return The message writer
+     */
+    public MessageWriter createWriter(OutputStream output) {
+        return switch (this) {
+            case SERIALIZATION -> new SerializedMessageWriter(output);
+            case BINARY -> new BinaryMessageWriter(output);
+        };
+    }
+}
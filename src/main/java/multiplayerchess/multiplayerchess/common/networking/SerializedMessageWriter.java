@@ -0,0 +1,53 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.Message;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Writes messages with Java serialization, used by the {@link Protocol#SERIALIZATION} protocol.
+ * The serialized messages are buffered and written to the stream together when flushed.
+ */
+final class SerializedMessageWriter implements MessageWriter {
+
+    private final OutputStream output;
+    private final OutputStream unflushedOutput;
+
+    /**
+     * The SerializedMessageWriter constructor.
+     *
+     * @param outputStream The stream to write the messages to
+     */
+    SerializedMessageWriter(OutputStream outputStream) {
+        this.output = new BufferedOutputStream(outputStream);
+        // The object streams flush their underlying stream, which would send every message on its own
+        this.unflushedOutput = new FilterOutputStream(output) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+    }
+
+    @Override
+    public void write(Message message) throws IOException {
+        // Creates a new ObjectOutputStream for every message to avoid problems with the headers
+        ObjectOutputStream objectOutput = new ObjectOutputStream(unflushedOutput);
+        objectOutput.writeObject(message);
+        // Moves the serialized message from the object stream to the buffer
+        objectOutput.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+}
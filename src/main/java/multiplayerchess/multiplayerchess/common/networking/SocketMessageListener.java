@@ -3,33 +3,65 @@ package multiplayerchess.multiplayerchess.common.networking;
 import multiplayerchess.multiplayerchess.common.messages.Message;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 /**
  * Listens for messages from the server.
- * Gets the input stream to listen on. Does not own the stream and as such does not close it.
+ * Gets the reader of the input stream to listen on. Does not own the stream and as such does not close it.
  * For every message received, calls the given consumer with the message.
+ * Runs on its own thread created by the given {@link ThreadFactory}, so it can run on a virtual thread.
  */
-public class SocketMessageListener extends Thread {
-    private final InputStream inputStream;
+public class SocketMessageListener implements Runnable {
+    private final MessageReader reader;
     private final Consumer<Message> messageConsumer;
+    private final ThreadFactory threadFactory;
+    private volatile Thread thread;
     private AtomicBoolean running;
     private AutoCloseable parent;
 
     /**
      * SocketMessageListener constructor.
      *
-     * @param inputStream the input stream to listen on.
-     * @param callback    the callback to call when a message is received.
+     * @param reader   the reader of the input stream to listen on, see {@link Protocol#createReader}.
+     * @param callback the callback to call when a message is received.
      */
-    public SocketMessageListener(InputStream inputStream, Consumer<Message> callback, AutoCloseable closeable) {
+    public SocketMessageListener(MessageReader reader, Consumer<Message> callback, AutoCloseable closeable) {
+        this(reader, callback, closeable, Thread::new);
+    }
+
+    /**
+     * SocketMessageListener constructor.
+     *
+     * @param reader        the reader of the input stream to listen on, see {@link Protocol#createReader}.
+     * @param callback      the callback to call when a message is received.
+     * @param threadFactory the factory of the thread the listener runs on.
+     */
+    public SocketMessageListener(MessageReader reader, Consumer<Message> callback, AutoCloseable closeable,
+                                 ThreadFactory threadFactory) {
         running = new AtomicBoolean(true);
-        this.inputStream = inputStream;
+        this.reader = reader;
         this.messageConsumer = callback;
         this.parent = closeable;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Starts listening on a new thread.
+     */
+    public void start() {
+        thread = threadFactory.newThread(this);
+        thread.start();
+    }
+
+    /**
+     * Interrupts the thread of the listener.
+     */
+    public void interrupt() {
+        if (thread != null) {
+            thread.interrupt();
+        }
     }
 
     /**
@@ -38,11 +70,9 @@ public class SocketMessageListener extends Thread {
      */
     @Override
     public void run() {
-        // Creates a new ObjectInputStream for every message received so that aren't problems with the headers.
         while (running.get()) {
             try {
-                ObjectInputStream objectInputStream = new ObjectInputStream(inputStream);
-                var message = (Message) objectInputStream.readObject();
+                var message = reader.read();
                 messageConsumer.accept(message);
             }
             catch (IOException | ClassNotFoundException | ClassCastException e) {
@@ -1,46 +1,87 @@
 package multiplayerchess.multiplayerchess.common.networking;
 
+import multiplayerchess.multiplayerchess.common.messages.Message;
+
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.net.Socket;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Writer for messages to opposite side.
- * Writes all messages that appear in the message queue.
+ * Writes all messages that appear in the message queue. The messages waiting in the queue are coalesced
+ * into a single write to the socket, within the limits of the {@link WriteBatching}.
  * Is the owner of the socket and the output stream, is responsible for closing the socket.
+ * Runs on its own thread created by the given {@link ThreadFactory}, so it can run on a virtual thread.
  */
-public class SocketMessageWriter<T> extends Thread {
+public class SocketMessageWriter<T extends Message> implements Runnable {
 
     private final Socket socket;
+    private final MessageWriter writer;
     private final MessageQueue<T> messageQueue;
+    private final WriteBatching batching;
+    private final ThreadFactory threadFactory;
+    private volatile Thread thread;
     private AtomicBoolean running;
 
     /**
      * The SocketMessageWriter constructor.
      *
      * @param socket       The socket to write to.
+     * @param writer       The writer of the output stream of the socket, see {@link Protocol#createWriter}.
      * @param messageQueue The message queue to get the messages from.
      */
-    public SocketMessageWriter(Socket socket, MessageQueue<T> messageQueue, AutoCloseable closeable) {
+    public SocketMessageWriter(Socket socket, MessageWriter writer, MessageQueue<T> messageQueue,
+                               AutoCloseable closeable) {
+        this(socket, writer, messageQueue, closeable, Thread::new, WriteBatching.Default);
+    }
+
+    /**
+     * The SocketMessageWriter constructor.
+     *
+     * @param socket        The socket to write to.
+     * @param writer        The writer of the output stream of the socket, see {@link Protocol#createWriter}.
+     * @param messageQueue  The message queue to get the messages from.
+     * @param threadFactory The factory of the thread the writer runs on.
+     * @param batching      The limits of coalescing the messages into a single write.
+     */
+    public SocketMessageWriter(Socket socket, MessageWriter writer, MessageQueue<T> messageQueue,
+                               AutoCloseable closeable, ThreadFactory threadFactory, WriteBatching batching) {
         this.socket = socket;
+        this.writer = writer;
         this.messageQueue = messageQueue;
+        this.batching = batching;
+        this.threadFactory = threadFactory;
         this.running = new AtomicBoolean(true);
     }
 
+    /**
+     * Starts writing on a new thread.
+     */
+    public void start() {
+        thread = threadFactory.newThread(this);
+        thread.start();
+    }
+
+    /**
+     * Interrupts the thread of the writer.
+     */
+    public void interrupt() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
     /**
      * Continuously writes messages from the message queue to the stream.
      */
     @Override
     public void run() {
-        // Creates a new ObjectOutputStream to write to the server for every message to avoid problems with the headers
         while (running.get() || !messageQueue.isEmpty()) {
             try {
-                T message = messageQueue.get();
-                if (message != null) {
-                    ObjectOutputStream objectOutputStream = new ObjectOutputStream(socket.getOutputStream());
-                    objectOutputStream.writeObject(message);
-                }
+                writer.write(messageQueue.get());
+                writeBatch();
+                writer.flush();
             }
             catch (InterruptedException | IOException e) {
                 running.set(false);
@@ -56,6 +97,28 @@ public class SocketMessageWriter<T> extends Thread {
         }
     }
 
+    /**
+     * Writes the messages which are already waiting in the queue after the first message of a batch,
+     * and those which arrive within the linger time, up to the maximum batch size.
+     *
+     * @throws IOException          If the stream fails
+     * @throws InterruptedException If the thread is interrupted while lingering
+     */
+    private void writeBatch() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + batching.linger;
+        for (int written = 1; written < batching.maxMessages; written++) {
+            T message = messageQueue.poll();
+            if (message == null && batching.linger > 0) {
+                message = messageQueue.poll(deadline - System.nanoTime());
+            }
+            if (message == null) {
+                return;
+            }
+
+            writer.write(message);
+        }
+    }
+
     /**
      * Sets the thread to stop
      */
@@ -0,0 +1,38 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+/**
+ * Limits of coalescing the queued messages into a single write, see {@link SocketMessageWriter}.
+ */
+public final class WriteBatching {
+
+    /**
+     * Up to 64 messages in a batch, written as soon as the queue is empty.
+     */
+    public static final WriteBatching Default = new WriteBatching(64, 0);
+
+    /**
+     * The maximum number of messages written at once.
+     */
+    public final int maxMessages;
+
+    /**
+     * How long in nanoseconds the writer waits for more messages once the queue is empty,
+     * 0 to write as soon as the queue is empty.
+     */
+    public final long linger;
+
+    /**
+     * The WriteBatching constructor.
+     *
+     * @param maxMessages The maximum number of messages written at once
+     * @param linger      How long in nanoseconds to wait for more messages once the queue is empty
+     */
+    public WriteBatching(int maxMessages, long linger) {
+        if (maxMessages <= 0 || linger < 0) {
+            throw new IllegalArgumentException("Invalid write batching " + maxMessages + ", " + linger);
+        }
+
+        this.maxMessages = maxMessages;
+        this.linger = linger;
+    }
+}
@@ -1,14 +1,19 @@
 package multiplayerchess.multiplayerchess.server;
 
 import multiplayerchess.multiplayerchess.common.messages.MessageType;
-import multiplayerchess.multiplayerchess.common.networking.Networking;
+import multiplayerchess.multiplayerchess.server.chess.MoveCache;
+import multiplayerchess.multiplayerchess.server.chess.OpeningBook;
+import multiplayerchess.multiplayerchess.server.networking.HeartbeatScheduler;
+import multiplayerchess.multiplayerchess.server.networking.MatchJournal;
 import multiplayerchess.multiplayerchess.server.networking.MatchesMap;
+import multiplayerchess.multiplayerchess.server.networking.NioServer;
 import multiplayerchess.multiplayerchess.server.networking.PlayerConnectionController;
 import multiplayerchess.multiplayerchess.server.networking.PreMatchController;
 
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 
 /**
@@ -19,12 +24,85 @@ public class Main {
      * Starts the server. The server listens for incoming connections and dispatches
      * the messages received from the clients.
      *
-     * @param args Arguments are ignored
+     * @param args The server configuration, see {@link ServerConfig}
      */
     public static void main(String[] args) {
-        MatchesMap controllers = new MatchesMap();
+        ServerConfig config = ServerConfig.fromArgs(args);
+        ThreadFactory threadFactory = config.mode == ServerMode.VIRTUAL_THREADS
+                ? virtualThreadFactory()
+                : Thread::new;
         SafeLog.log(Level.INFO, "Starting server...");
-        try (ServerSocket serverSocket = new ServerSocket(Networking.SERVER_PORT)) {
+        try (HeartbeatScheduler heartbeatScheduler = new HeartbeatScheduler(
+                config.heartbeatInterval, config.heartbeatTimeout, config.reconnectGracePeriod);
+             MatchJournal journal = config.journal != null
+                     ? MatchJournal.open(config.journal, config.journalSyncInterval)
+                     : null) {
+            MoveCache moveCache = config.moveCacheSize > 0 ? new MoveCache(config.moveCacheSize) : null;
+            if (moveCache != null) {
+                heartbeatScheduler.schedule(() -> SafeLog.log(Level.FINE, moveCache.toString()));
+            }
+            MatchesMap controllers = new MatchesMap(heartbeatScheduler, moveCache, openOpeningBook(config),
+                    config.turnUpdates, journal);
+            if (journal != null) {
+                SafeLog.log(Level.INFO, "Recovered " + controllers.recoverMatches() + " matches from the journal");
+                heartbeatScheduler.schedule(() -> SafeLog.log(Level.FINE, journal.toString()));
+            }
+            switch (config.mode) {
+                case BLOCKING, VIRTUAL_THREADS -> runBlockingServer(config, controllers, threadFactory);
+                case NIO -> runNioServer(config, controllers);
+            }
+        }
+        catch (IOException e) {
+            SafeLog.log(Level.SEVERE, "Server unexpectedly crashed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the opening book of the configuration, the server runs without a book if it cannot be opened.
+     *
+     * @param config the server configuration
+     * @return The opening book or null
+     */
+    private static OpeningBook openOpeningBook(ServerConfig config) {
+        if (config.openingBook == null) {
+            return null;
+        }
+
+        try {
+            OpeningBook book = OpeningBook.open(config.openingBook);
+            SafeLog.log(Level.INFO, "Opening book with " + book.size() + " positions of " + book.plies()
+                    + " plies loaded");
+            return book;
+        }
+        catch (IOException e) {
+            SafeLog.log(Level.WARNING, "Opening book could not be loaded: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the factory of virtual threads, falls back to platform threads if the runtime does not support them.
+     *
+     * @return The thread factory
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        return VirtualThreads.factory().orElseGet(() -> {
+            SafeLog.log(Level.WARNING, "Virtual threads are not supported, using platform threads");
+            return Thread::new;
+        });
+    }
+
+    /**
+     * Runs the server with a listener and a writer thread for every connection.
+     *
+     * @param config        the server configuration
+     * @param controllers   the map of match controllers
+     * @param threadFactory the factory of the connection threads
+     * @throws IOException If the server socket fails
+     */
+    private static void runBlockingServer(ServerConfig config, MatchesMap controllers, ThreadFactory threadFactory)
+            throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(config.port)) {
 
             SafeLog.log(Level.INFO, "Server started");
             SafeLog.log(Level.INFO, "Listening for connections...");
@@ -33,15 +111,32 @@ public class Main {
                 try {
                     Socket socket = serverSocket.accept();
                     SafeLog.log(Level.INFO, "Connection accepted");
-                    startConnection(socket, controllers);
+                    // The protocol handshake blocks, so it must not hold up accepting other connections
+                    threadFactory.newThread(
+                            () -> startConnection(socket, controllers, threadFactory, config)
+                    ).start();
                 }
                 catch (IOException e) {
                     SafeLog.log(Level.WARNING, "Client unexpectedly disconnected: " + e.getMessage());
                 }
             }
         }
-        catch (IOException e) {
-            SafeLog.log(Level.SEVERE, "Server unexpectedly crashed: " + e.getMessage());
+    }
+
+    /**
+     * Runs the server with event loops multiplexing the connections.
+     *
+     * @param config      the server configuration
+     * @param controllers the map of match controllers
+     * @throws IOException If the server socket fails
+     */
+    private static void runNioServer(ServerConfig config, MatchesMap controllers) throws IOException {
+        try (NioServer server = new NioServer(config.port, config.eventLoops,
+                controller -> startConnection(controller, controllers), config.backpressure)) {
+
+            SafeLog.log(Level.INFO, "Server started with " + config.eventLoops + " event loops");
+            SafeLog.log(Level.INFO, "Listening for connections...");
+            server.run();
         }
     }
 
@@ -49,22 +144,41 @@ public class Main {
      * Starts a listener and writer for a client and sets up starting callbacks.
      * The socket ownership is transferred and the socket should not be used further by the caller.
      *
-     * @param socket      the socket of the connection
-     * @param controllers the map of match controllers
+     * @param socket        the socket of the connection
+     * @param controllers   the map of match controllers
+     * @param threadFactory the factory of the listener and writer threads
+     * @param config        the server configuration
      */
-    public static void startConnection(Socket socket, MatchesMap controllers) {
+    public static void startConnection(Socket socket, MatchesMap controllers, ThreadFactory threadFactory,
+                                       ServerConfig config) {
         try {
-            PlayerConnectionController controller = PlayerConnectionController.createController(socket);
-
-            PreMatchController preMatchController = new PreMatchController(controller, controllers);
-
-            controller.addCallback(MessageType.START_GAME, preMatchController::startMatch);
-            controller.addCallback(MessageType.JOIN_GAME, preMatchController::joinMatch);
-
-            controller.start();
+            PlayerConnectionController controller = PlayerConnectionController.createController(
+                    socket, threadFactory, config.backpressure, config.writeBatching);
+            startConnection(controller, controllers);
         }
         catch (IOException e) {
             SafeLog.log(Level.WARNING, "Connection failed: " + e.getMessage());
+            try {
+                socket.close();
+            }
+            catch (IOException ignored) {
+            }
         }
     }
+
+    /**
+     * Sets up the starting callbacks of a client and starts its controller.
+     *
+     * @param controller  the controller of the connection
+     * @param controllers the map of match controllers
+     */
+    public static void startConnection(PlayerConnectionController controller, MatchesMap controllers) {
+        PreMatchController preMatchController = new PreMatchController(controller, controllers);
+
+        controller.addCallback(MessageType.START_GAME, preMatchController::startMatch);
+        controller.addCallback(MessageType.JOIN_GAME, preMatchController::joinMatch);
+        controller.addCallback(MessageType.RECONNECT, preMatchController::reconnect);
+
+        controller.start();
+    }
 }
@@ -0,0 +1,204 @@
+package multiplayerchess.multiplayerchess.server;
+
+import multiplayerchess.multiplayerchess.common.networking.BackpressurePolicy;
+import multiplayerchess.multiplayerchess.common.networking.Networking;
+import multiplayerchess.multiplayerchess.common.networking.WriteBatching;
+import multiplayerchess.multiplayerchess.server.chess.MoveCache;
+import multiplayerchess.multiplayerchess.server.chess.OpeningBookBuilder;
+import multiplayerchess.multiplayerchess.server.networking.HeartbeatScheduler;
+import multiplayerchess.multiplayerchess.server.networking.MatchJournal;
+import multiplayerchess.multiplayerchess.server.networking.TurnUpdates;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The configuration of the server, parsed from the command line arguments.
+ * <p>
+ * The recognized arguments are:
+ * <ul>
+ *     <li>{@code --mode=blocking|nio|virtual-threads} - the way the connections are served, see {@link ServerMode}</li>
+ *     <li>{@code --port=<port>} - the port to listen on</li>
+ *     <li>{@code --event-loops=<count>} - the number of event loops in the {@link ServerMode#NIO} mode</li>
+ *     <li>{@code --heartbeat-interval=<milliseconds>} - the interval between two heartbeats</li>
+ *     <li>{@code --heartbeat-timeout=<milliseconds>} - the time after which a player without a heartbeat
+ *     is disconnected</li>
+ *     <li>{@code --reconnect-grace=<milliseconds>} - how long a match waits for a player whose connection
+ *     dropped to reconnect, 0 ends the match at once</li>
+ *     <li>{@code --backpressure=block|drop-heartbeats|disconnect} - what to do with the messages to a client
+ *     which reads too slowly, disconnect by default, see {@link BackpressurePolicy}. The senders are shared
+ *     by all the clients, so they wait for a client at most a short time</li>
+ *     <li>{@code --write-batch-size=<count>} - the maximum number of messages coalesced into a single write</li>
+ *     <li>{@code --write-linger=<microseconds>} - how long to wait for more messages to coalesce
+ *     once there are no more messages to write, see {@link WriteBatching}</li>
+ *     <li>{@code --move-cache-size=<positions>} - the number of positions whose legal moves are cached
+ *     for all the matches, 0 disables the cache, see {@link MoveCache}</li>
+ *     <li>{@code --opening-book=<file>} - the opening book validating the first moves of the matches,
+ *     built by {@link OpeningBookBuilder}</li>
+ *     <li>{@code --turn-updates=full|delta} - whether the clients get the whole position or only the move
+ *     after every turn, see {@link TurnUpdates}</li>
+ *     <li>{@code --journal=<file>} - the journal of the moves from which the matches in progress are recovered
+ *     after a restart, see {@link MatchJournal}</li>
+ *     <li>{@code --journal-sync=<microseconds>} - the time between two syncs of the journal</li>
+ * </ul>
+ */
+public final class ServerConfig {
+
+    private static final String ModeArgument = "--mode=";
+    private static final String PortArgument = "--port=";
+    private static final String EventLoopsArgument = "--event-loops=";
+    private static final String HeartbeatIntervalArgument = "--heartbeat-interval=";
+    private static final String HeartbeatTimeoutArgument = "--heartbeat-timeout=";
+    private static final String ReconnectGraceArgument = "--reconnect-grace=";
+    private static final String BackpressureArgument = "--backpressure=";
+    private static final String WriteBatchSizeArgument = "--write-batch-size=";
+    private static final String WriteLingerArgument = "--write-linger=";
+    private static final String MoveCacheSizeArgument = "--move-cache-size=";
+    private static final String OpeningBookArgument = "--opening-book=";
+    private static final String TurnUpdatesArgument = "--turn-updates=";
+    private static final String JournalArgument = "--journal=";
+    private static final String JournalSyncArgument = "--journal-sync=";
+
+    public final ServerMode mode;
+    public final int port;
+    public final int eventLoops;
+    public final long heartbeatInterval;
+    public final long heartbeatTimeout;
+    public final long reconnectGracePeriod;
+    public final BackpressurePolicy backpressure;
+    public final WriteBatching writeBatching;
+    public final int moveCacheSize;
+    public final Path openingBook;
+    public final TurnUpdates turnUpdates;
+    public final Path journal;
+    public final long journalSyncInterval;
+
+    /**
+     * The ServerConfig constructor.
+     *
+     * @param mode                 The way the connections are served
+     * @param port                 The port to listen on
+     * @param eventLoops           The number of event loops
+     * @param heartbeatInterval    The interval between two heartbeats in milliseconds
+     * @param heartbeatTimeout     The time in milliseconds after which a player without a heartbeat is disconnected
+     * @param reconnectGracePeriod The time in milliseconds a match waits for a player whose connection dropped
+     * @param backpressure         What to do with the messages to a client which reads too slowly
+     * @param writeBatching        The limits of coalescing the messages to a client into a single write
+     * @param moveCacheSize        The number of positions in the shared cache of legal moves, 0 for no cache
+     * @param openingBook          The file of the opening book or null for no book
+     * @param turnUpdates          How the clients are told about the turns
+     * @param journal              The file of the match journal or null for no journal
+     * @param journalSyncInterval  The time in microseconds between two syncs of the journal
+     */
+    public ServerConfig(ServerMode mode, int port, int eventLoops, long heartbeatInterval, long heartbeatTimeout,
+                        long reconnectGracePeriod, BackpressurePolicy backpressure, WriteBatching writeBatching,
+                        int moveCacheSize, Path openingBook, TurnUpdates turnUpdates, Path journal,
+                        long journalSyncInterval) {
+        this.mode = mode;
+        this.port = port;
+        this.eventLoops = eventLoops;
+        this.heartbeatInterval = heartbeatInterval;
+        this.heartbeatTimeout = heartbeatTimeout;
+        this.reconnectGracePeriod = reconnectGracePeriod;
+        this.backpressure = backpressure;
+        this.writeBatching = writeBatching;
+        this.moveCacheSize = moveCacheSize;
+        this.openingBook = openingBook;
+        this.turnUpdates = turnUpdates;
+        this.journal = journal;
+        this.journalSyncInterval = journalSyncInterval;
+    }
+
+    /**
+     * Parses the configuration from the command line arguments, the missing arguments keep their defaults.
+     *
+     * @param args The command line arguments
+     * @return The parsed configuration
+     * @throws IllegalArgumentException If an argument is not recognized or has an invalid value
+     */
+    public static ServerConfig fromArgs(String[] args) {
+        ServerMode mode = ServerMode.BLOCKING;
+        int port = Networking.SERVER_PORT;
+        int eventLoops = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        long heartbeatInterval = HeartbeatScheduler.DefaultInterval;
+        Long heartbeatTimeout = null;
+        long reconnectGracePeriod = HeartbeatScheduler.DefaultReconnectGracePeriod;
+        BackpressurePolicy backpressure = BackpressurePolicy.DISCONNECT;
+        int writeBatchSize = WriteBatching.Default.maxMessages;
+        long writeLinger = WriteBatching.Default.linger;
+        int moveCacheSize = MoveCache.DefaultCapacity;
+        Path openingBook = null;
+        TurnUpdates turnUpdates = TurnUpdates.FULL;
+        Path journal = null;
+        long journalSyncInterval = MatchJournal.DefaultSyncInterval;
+
+        for (String arg : args) {
+            if (arg.startsWith(ModeArgument)) {
+                mode = ServerMode.valueOf(enumName(arg.substring(ModeArgument.length())));
+            } else if (arg.startsWith(PortArgument)) {
+                port = Integer.parseInt(arg.substring(PortArgument.length()));
+            } else if (arg.startsWith(EventLoopsArgument)) {
+                eventLoops = Integer.parseInt(arg.substring(EventLoopsArgument.length()));
+                if (eventLoops <= 0) {
+                    throw new IllegalArgumentException("There must be at least one event loop");
+                }
+            } else if (arg.startsWith(HeartbeatIntervalArgument)) {
+                heartbeatInterval = Long.parseLong(arg.substring(HeartbeatIntervalArgument.length()));
+            } else if (arg.startsWith(HeartbeatTimeoutArgument)) {
+                heartbeatTimeout = Long.parseLong(arg.substring(HeartbeatTimeoutArgument.length()));
+            } else if (arg.startsWith(ReconnectGraceArgument)) {
+                reconnectGracePeriod = Long.parseLong(arg.substring(ReconnectGraceArgument.length()));
+                if (reconnectGracePeriod < 0) {
+                    throw new IllegalArgumentException("The reconnect grace period cannot be negative");
+                }
+            } else if (arg.startsWith(BackpressureArgument)) {
+                backpressure = BackpressurePolicy.valueOf(enumName(arg.substring(BackpressureArgument.length())));
+            } else if (arg.startsWith(WriteBatchSizeArgument)) {
+                writeBatchSize = Integer.parseInt(arg.substring(WriteBatchSizeArgument.length()));
+            } else if (arg.startsWith(WriteLingerArgument)) {
+                long micros = Long.parseLong(arg.substring(WriteLingerArgument.length()));
+                writeLinger = TimeUnit.MICROSECONDS.toNanos(micros);
+            } else if (arg.startsWith(MoveCacheSizeArgument)) {
+                moveCacheSize = Integer.parseInt(arg.substring(MoveCacheSizeArgument.length()));
+                if (moveCacheSize < 0) {
+                    throw new IllegalArgumentException("The move cache size cannot be negative");
+                }
+            } else if (arg.startsWith(OpeningBookArgument)) {
+                openingBook = Path.of(arg.substring(OpeningBookArgument.length()));
+            } else if (arg.startsWith(TurnUpdatesArgument)) {
+                turnUpdates = TurnUpdates.valueOf(enumName(arg.substring(TurnUpdatesArgument.length())));
+            } else if (arg.startsWith(JournalArgument)) {
+                journal = Path.of(arg.substring(JournalArgument.length()));
+            } else if (arg.startsWith(JournalSyncArgument)) {
+                journalSyncInterval = Long.parseLong(arg.substring(JournalSyncArgument.length()));
+                if (journalSyncInterval <= 0) {
+                    throw new IllegalArgumentException("The journal sync interval has to be positive");
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+
+        // Without an explicit timeout, a player may miss a single heartbeat
+        long timeout = heartbeatTimeout != null ? heartbeatTimeout : 2 * heartbeatInterval;
+        if (heartbeatInterval <= 0 || timeout <= heartbeatInterval) {
+            throw new IllegalArgumentException("The heartbeat timeout has to be longer than the positive interval");
+        }
+
+        return new ServerConfig(mode, port, eventLoops, heartbeatInterval, timeout, reconnectGracePeriod,
+                backpressure, new WriteBatching(writeBatchSize, writeLinger), moveCacheSize, openingBook,
+                turnUpdates, journal, journalSyncInterval);
+    }
+
+    /**
+     * Converts the value of an argument to the name of an enum constant, e.g. {@code drop-heartbeats}
+     * to {@code DROP_HEARTBEATS}
+     *
+     * @param value The value of the argument
+     * @return The name of the enum constant
+     */
+    private static String enumName(String value) {
+        return value.replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,19 @@
+package multiplayerchess.multiplayerchess.server;
+
+/**
+ * The way the server serves the client connections.
+ */
+public enum ServerMode {
+    /**
+     * A listener and a writer thread for every connection, supports both protocols.
+     */
+    BLOCKING,
+    /**
+     * A few event loops multiplexing all the connections, supports only the binary protocol.
+     */
+    NIO,
+    /**
+     * Like {@link #BLOCKING}, but the connection and match threads are virtual, requires Java 21.
+     */
+    VIRTUAL_THREADS
+}
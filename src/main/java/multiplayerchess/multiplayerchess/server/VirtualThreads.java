@@ -0,0 +1,56 @@
+package multiplayerchess.multiplayerchess.server;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of the runtime.
+ * The project is compiled for Java 17, so the virtual thread API (Java 21) is looked up at runtime
+ * and the server can use virtual threads whenever it runs on a recent enough JVM.
+ */
+public final class VirtualThreads {
+
+    private static final ThreadFactory factory = lookupFactory();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private VirtualThreads() {
+    }
+
+    /**
+     * Answers whether the runtime supports virtual threads.
+     *
+     * @return Whether virtual threads are available
+     */
+    public static boolean isSupported() {
+        return factory != null;
+    }
+
+    /**
+     * Gets a factory creating unstarted virtual threads.
+     *
+     * @return The factory of virtual threads, empty if the runtime does not support them
+     */
+    public static Optional<ThreadFactory> factory() {
+        return Optional.ofNullable(factory);
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().factory()}
+     *
+     * @return The factory of virtual threads or null if the runtime does not support them
+     */
+    private static ThreadFactory lookupFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            // The builder implementation is not accessible, only its public interface is
+            Class<?> builderInterface = Class.forName("java.lang.Thread$Builder");
+            return (ThreadFactory) builderInterface.getMethod("factory").invoke(builder);
+        }
+        catch (ReflectiveOperationException e) {
+            // An older runtime, or a runtime where virtual threads are a preview feature which is not enabled
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.FENPosition;
+import multiplayerchess.multiplayerchess.common.FENReader;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.parsing.FENParser;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Piece;
+
+/**
+ * Representation of the chess board, represented by a 2D array of pieces.
+ */
+public final class ArrayBoard implements Board {
+
+    private final Piece[][] board;
+    private long placementKey;
+
+    /**
+     * The ArrayBoard constructor
+     *
+     * @param startingFEN The FEN to parse the board from
+     */
+    public ArrayBoard(String startingFEN) {
+        this(FENReader.parse(startingFEN));
+    }
+
+    /**
+     * The ArrayBoard constructor
+     *
+     * @param position The parsed position to create the board from
+     */
+    public ArrayBoard(FENPosition position) {
+        board = FENParser.ParseBoard(position);
+        for (int row = MinBoardRow; row <= MaxBoardRow; row++) {
+            for (int column = MinBoardColumn; column <= MaxBoardColumn; column++) {
+                placementKey ^= pieceKey(board[row][column], row, column);
+            }
+        }
+    }
+
+    /**
+     * Gets the Zobrist key of the piece on the position
+     *
+     * @param piece  The piece or null
+     * @param row    The row of the position
+     * @param column The column of the position
+     * @return The key of the piece, zero for no piece
+     */
+    private static long pieceKey(Piece piece, int row, int column) {
+        return piece == null ? 0L : Zobrist.pieceKey(piece.color, piece.getType(), Bitboards.square(row, column));
+    }
+
+    @Override
+    public Piece getPiece(Position position) {
+        return board[position.row][position.column];
+    }
+
+    @Override
+    public Piece getPiece(int row, int column) {
+        return board[row][column];
+    }
+
+    @Override
+    public void setPiece(Position position, Piece piece) {
+        placementKey ^= pieceKey(board[position.row][position.column], position.row, position.column);
+        placementKey ^= pieceKey(piece, position.row, position.column);
+        board[position.row][position.column] = piece;
+    }
+
+    @Override
+    public void clearPiece(Position position) {
+        placementKey ^= pieceKey(board[position.row][position.column], position.row, position.column);
+        board[position.row][position.column] = null;
+    }
+
+    @Override
+    public long getPlacementKey() {
+        return placementKey;
+    }
+}
@@ -0,0 +1,172 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.FENPosition;
+import multiplayerchess.multiplayerchess.common.FENReader;
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.pieces.*;
+
+/**
+ * Representation of the chess board by bitboards.
+ * Holds one bitboard for every piece type and color, and the occupancy masks of both colors.
+ * <p>
+ * The pieces returned by {@link #getPiece(int, int)} are shared immutable instances. Whether a pawn has moved is
+ * derived from its row, since a pawn can never return to its starting row.
+ */
+public final class BitBoard implements Board {
+
+    private static final Color[] colors = Color.values();
+    private static final PieceType[] pieceTypes = PieceType.values();
+    private static final int ColorCount = colors.length;
+    private static final int PieceTypeCount = pieceTypes.length;
+    private static final Piece[][] pieceInstances;
+    private static final Piece[] unmovedPawns;
+
+    static {
+        pieceInstances = new Piece[ColorCount][PieceTypeCount];
+        unmovedPawns = new Piece[ColorCount];
+        for (Color color : Color.values()) {
+            pieceInstances[color.ordinal()][PieceType.KING.ordinal()] = new King(color);
+            pieceInstances[color.ordinal()][PieceType.QUEEN.ordinal()] = new Queen(color);
+            pieceInstances[color.ordinal()][PieceType.BISHOP.ordinal()] = new Bishop(color);
+            pieceInstances[color.ordinal()][PieceType.KNIGHT.ordinal()] = new Knight(color);
+            pieceInstances[color.ordinal()][PieceType.ROOK.ordinal()] = new Rook(color);
+            pieceInstances[color.ordinal()][PieceType.PAWN.ordinal()] = new Pawn(color, true);
+            unmovedPawns[color.ordinal()] = new Pawn(color, false);
+        }
+    }
+
+    private final long[][] pieces;
+    private final long[] occupancy;
+    private long placementKey;
+
+    /**
+     * The BitBoard constructor
+     *
+     * @param startingFEN The FEN to parse the board from
+     */
+    public BitBoard(String startingFEN) {
+        this(FENReader.parse(startingFEN));
+    }
+
+    /**
+     * The BitBoard constructor
+     *
+     * @param position The parsed position to create the board from
+     */
+    public BitBoard(FENPosition position) {
+        pieces = new long[ColorCount][PieceTypeCount];
+        occupancy = new long[ColorCount];
+
+        for (int row = MinBoardRow; row <= MaxBoardRow; row++) {
+            for (int column = MinBoardColumn; column <= MaxBoardColumn; column++) {
+                if (!position.isEmpty(row, column)) {
+                    place(Bitboards.square(row, column), position.color(row, column), position.pieceType(row, column));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the starting row of the pawns of the given color
+     *
+     * @param color The color of the pawns
+     * @return The starting row of the pawns
+     */
+    private static int pawnStartingRow(Color color) {
+        return color == Color.WHITE ? MinBoardRow + 1 : MaxBoardRow - 1;
+    }
+
+    @Override
+    public Piece getPiece(int row, int column) {
+        long squareBit = Bitboards.bit(Bitboards.square(row, column));
+        for (Color color : Color.values()) {
+            if ((occupancy[color.ordinal()] & squareBit) == 0) {
+                continue;
+            }
+
+            long[] colorPieces = pieces[color.ordinal()];
+            for (int type = 0; type < PieceTypeCount; type++) {
+                if ((colorPieces[type] & squareBit) != 0) {
+                    if (type == PieceType.PAWN.ordinal() && row == pawnStartingRow(color)) {
+                        return unmovedPawns[color.ordinal()];
+                    }
+                    return pieceInstances[color.ordinal()][type];
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void setPiece(Position position, Piece piece) {
+        int square = Bitboards.square(position);
+        remove(square);
+        if (piece != null) {
+            place(square, piece.color, piece.getType());
+        }
+    }
+
+    @Override
+    public void clearPiece(Position position) {
+        remove(Bitboards.square(position));
+    }
+
+    @Override
+    public long getPlacementKey() {
+        return placementKey;
+    }
+
+    @Override
+    public long getPieces(PieceType type, Color color) {
+        return pieces[color.ordinal()][type.ordinal()];
+    }
+
+    @Override
+    public long getOccupancy(Color color) {
+        return occupancy[color.ordinal()];
+    }
+
+    @Override
+    public long getOccupancy() {
+        return occupancy[Color.WHITE.ordinal()] | occupancy[Color.BLACK.ordinal()];
+    }
+
+    /**
+     * Places a piece on an empty square
+     *
+     * @param square The index of the square
+     * @param color  The color of the piece
+     * @param type   The type of the piece
+     */
+    private void place(int square, Color color, PieceType type) {
+        long squareBit = Bitboards.bit(square);
+        pieces[color.ordinal()][type.ordinal()] |= squareBit;
+        occupancy[color.ordinal()] |= squareBit;
+        placementKey ^= Zobrist.pieceKey(color, type, square);
+    }
+
+    /**
+     * Removes any piece from the square
+     *
+     * @param square The index of the square
+     */
+    private void remove(int square) {
+        long keepMask = ~Bitboards.bit(square);
+        for (int color = 0; color < ColorCount; color++) {
+            if ((occupancy[color] & ~keepMask) == 0) {
+                continue;
+            }
+
+            occupancy[color] &= keepMask;
+            for (int type = 0; type < PieceTypeCount; type++) {
+                if ((pieces[color][type] & ~keepMask) != 0) {
+                    pieces[color][type] &= keepMask;
+                    placementKey ^= Zobrist.pieceKey(colors[color], pieceTypes[type], square);
+                }
+            }
+        }
+    }
+}
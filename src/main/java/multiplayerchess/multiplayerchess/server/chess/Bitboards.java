@@ -0,0 +1,102 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.Position;
+
+/**
+ * Helper methods for working with bitboards.
+ * A bitboard is a 64-bit mask of the board, where the bit with the index {@code row * 8 + column} represents the tile
+ * on the given row and column, i.e. a1 is the least significant bit and h8 is the most significant bit.
+ */
+public final class Bitboards {
+
+    public static final int SquareCount = 64;
+    public static final int RowCount = 8;
+    public static final int ColumnCount = 8;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Bitboards() {
+    }
+
+    /**
+     * Gets the index of the square on the given row and column
+     *
+     * @param row    The row of the square
+     * @param column The column of the square
+     * @return The index of the square
+     */
+    public static int square(int row, int column) {
+        return row * ColumnCount + column;
+    }
+
+    /**
+     * Gets the index of the square on the given position
+     *
+     * @param position The position of the square
+     * @return The index of the square
+     */
+    public static int square(Position position) {
+        return square(position.row, position.column);
+    }
+
+    /**
+     * Gets the row of the given square
+     *
+     * @param square The index of the square
+     * @return The row of the square
+     */
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * Gets the column of the given square
+     *
+     * @param square The index of the square
+     * @return The column of the square
+     */
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Gets the bitboard with only the given square set
+     *
+     * @param square The index of the square
+     * @return The bitboard with the single square set
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Gets the index of the least significant set square of the bitboard
+     *
+     * @param bitboard The bitboard, must not be empty
+     * @return The index of the first set square
+     */
+    public static int firstSquare(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * Removes the least significant set square from the bitboard
+     *
+     * @param bitboard The bitboard
+     * @return The bitboard without its first set square
+     */
+    public static long withoutFirstSquare(long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    /**
+     * Gets the number of set squares in the bitboard
+     *
+     * @param bitboard The bitboard
+     * @return The number of set squares
+     */
+    public static int count(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+}
@@ -1,28 +1,23 @@
 package multiplayerchess.multiplayerchess.server.chess;
 
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
 import multiplayerchess.multiplayerchess.common.Position;
-import multiplayerchess.multiplayerchess.server.chess.parsing.FENParser;
 import multiplayerchess.multiplayerchess.server.chess.pieces.Piece;
 
 /**
- * Representation of the chess board, represented by a 2D array of pieces.
+ * Representation of the chess board.
+ * The board can be backed by different representations, see {@link BoardRepresentation}.
+ * <p>
+ * Besides querying single tiles, the board can be queried by bitboards - 64-bit masks where the bit
+ * {@code row * 8 + column} is set if the tile is occupied, see {@link Bitboards}.
  */
-public final class Board {
+public interface Board {
 
-    public static final int MinBoardRow = 0;
-    public static final int MaxBoardRow = 7;
-    public static final int MinBoardColumn = 0;
-    public static final int MaxBoardColumn = 7;
-    private final Piece[][] board;
-
-    /**
-     * The Board constructor
-     *
-     * @param startingFEN The FEN to parse the board from
-     */
-    public Board(String startingFEN) {
-        board = FENParser.ParseBoard(startingFEN);
-    }
+    int MinBoardRow = 0;
+    int MaxBoardRow = 7;
+    int MinBoardColumn = 0;
+    int MaxBoardColumn = 7;
 
     /**
      * Gets the piece on the position
@@ -30,8 +25,8 @@ public final class Board {
      * @param position The position to get the piece from
      * @return The piece on the position
      */
-    public Piece getPiece(Position position) {
-        return board[position.row][position.column];
+    default Piece getPiece(Position position) {
+        return getPiece(position.row, position.column);
     }
 
     /**
@@ -41,9 +36,7 @@ public final class Board {
      * @param column The column of the position
      * @return The piece on the position
      */
-    public Piece getPiece(int row, int column) {
-        return board[row][column];
-    }
+    Piece getPiece(int row, int column);
 
     /**
      * Sets the piece on the given position
@@ -51,16 +44,66 @@ public final class Board {
      * @param position Position to put the piece on
      * @param piece    The piece to put down
      */
-    public void setPiece(Position position, Piece piece) {
-        board[position.row][position.column] = piece;
-    }
+    void setPiece(Position position, Piece piece);
 
     /**
      * Clears any piece that is on the given position
      *
      * @param position The position to clear
      */
-    public void clearPiece(Position position) {
-        board[position.row][position.column] = null;
+    void clearPiece(Position position);
+
+    /**
+     * Gets the Zobrist key of the placement of the pieces on the board, see {@link Zobrist}.
+     * The key is updated incrementally whenever a piece is set or cleared.
+     *
+     * @return The key of the piece placement
+     */
+    long getPlacementKey();
+
+    /**
+     * Gets the bitboard of all the pieces of the given type and color
+     *
+     * @param type  The type of the pieces
+     * @param color The color of the pieces
+     * @return The bitboard of the pieces
+     */
+    default long getPieces(PieceType type, Color color) {
+        long pieces = 0L;
+        for (int square = 0; square < Bitboards.SquareCount; square++) {
+            Piece piece = getPiece(Bitboards.row(square), Bitboards.column(square));
+            if (piece != null && piece.color == color && piece.getType() == type) {
+                pieces |= Bitboards.bit(square);
+            }
+        }
+
+        return pieces;
+    }
+
+    /**
+     * Gets the bitboard of all the pieces of the given color
+     *
+     * @param color The color of the pieces
+     * @return The bitboard of the pieces
+     */
+    default long getOccupancy(Color color) {
+        long pieces = 0L;
+        for (int square = 0; square < Bitboards.SquareCount; square++) {
+            Piece piece = getPiece(Bitboards.row(square), Bitboards.column(square));
+            if (piece != null && piece.color == color) {
+                pieces |= Bitboards.bit(square);
+            }
+        }
+
+        return pieces;
+    }
+
+    /**
+     * Gets the bitboard of all the pieces on the board
+     *
+     * @return The bitboard of all the pieces
+     */
+    default long getOccupancy() {
+        return getOccupancy(Color.WHITE) | getOccupancy(Color.BLACK);
     }
 }
@@ -0,0 +1,43 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.FENPosition;
+
+/**
+ * The enumeration of the available board representations.
+ */
+public enum BoardRepresentation {
+    /**
+     * The board is represented by a 2D array of pieces, see {@link ArrayBoard}.
+     */
+    ARRAY,
+    /**
+     * The board is represented by bitboards, see {@link BitBoard}.
+     */
+    BITBOARD;
+
+    /**
+     * Creates a new board of this representation.
+     *
+     * @param startingFEN The FEN to parse the board from
+     * @return The newly created board
+     */
+    public Board createBoard(String startingFEN) {
+        return switch (this) {
+            case ARRAY -> new ArrayBoard(startingFEN);
+            case BITBOARD -> new BitBoard(startingFEN);
+        };
+    }
+
+    /**
+     * Creates a new board of this representation from an already parsed position.
+     *
+     * @param position The parsed position to create the board from
+     * @return The newly created board
+     */
+    public Board createBoard(FENPosition position) {
+        return switch (this) {
+            case ARRAY -> new ArrayBoard(position);
+            case BITBOARD -> new BitBoard(position);
+        };
+    }
+}
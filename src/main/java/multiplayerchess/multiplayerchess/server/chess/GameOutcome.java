@@ -0,0 +1,13 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+/**
+ * Enumeration of the states a match can be in after a move.
+ */
+public enum GameOutcome {
+    ONGOING,
+    CHECKMATE,
+    STALEMATE,
+    FIFTY_MOVE_RULE,
+    INSUFFICIENT_MATERIAL,
+    THREEFOLD_REPETITION
+}
@@ -0,0 +1,48 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.Player;
+
+import java.util.Optional;
+
+/**
+ * The status of a match in its current position, see {@link Match#evaluateStatus()}.
+ */
+public final class GameStatus {
+    public final GameOutcome outcome;
+    public final int legalMoveCount;
+    public final boolean inCheck;
+    public final Player winner;
+
+    /**
+     * Constructs a new GameStatus.
+     *
+     * @param outcome        The state of the match.
+     * @param legalMoveCount The number of legal moves of the player whose turn it is.
+     * @param inCheck        Whether the king of the player whose turn it is is in check.
+     * @param winner         The winner of the match or null if there is none.
+     */
+    public GameStatus(GameOutcome outcome, int legalMoveCount, boolean inCheck, Player winner) {
+        this.outcome = outcome;
+        this.legalMoveCount = legalMoveCount;
+        this.inCheck = inCheck;
+        this.winner = winner;
+    }
+
+    /**
+     * Answers whether the match has ended
+     *
+     * @return Whether the match has ended
+     */
+    public boolean isGameOver() {
+        return outcome != GameOutcome.ONGOING;
+    }
+
+    /**
+     * Gets the winner of the match, if there is one
+     *
+     * @return The winner of the match
+     */
+    public Optional<Player> getWinner() {
+        return Optional.ofNullable(winner);
+    }
+}
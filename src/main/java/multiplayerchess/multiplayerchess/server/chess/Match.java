@@ -1,17 +1,25 @@
 package multiplayerchess.multiplayerchess.server.chess;
 
 import multiplayerchess.multiplayerchess.common.*;
-import multiplayerchess.multiplayerchess.server.chess.parsing.FENParser;
+import multiplayerchess.multiplayerchess.server.chess.parsing.FENWriter;
 import multiplayerchess.multiplayerchess.server.chess.pieces.Castling;
 import multiplayerchess.multiplayerchess.server.chess.pieces.Piece;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Queen;
+import multiplayerchess.multiplayerchess.server.chess.rules.AttackTables;
 import multiplayerchess.multiplayerchess.server.chess.rules.ChessRules;
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
 
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.Optional;
-import java.util.Set;
 
 /**
  * Represents a chess match with the board as well as extra information needed to play the game.
+ * <p>
+ * Moves are performed by {@link #makeMove(int)} and can be taken back by {@link #unmakeMove()},
+ * all the state which cannot be recomputed after the move is kept on an undo stack.
  */
 public final class Match {
 
@@ -19,31 +27,112 @@ public final class Match {
     // private static final String STALEMATE_FEN = "7k/8/8/5Q2/8/8/4K3/8 w - - 0 1";
     // private static final String INSUFFICIENT_MATERIAL_FEN = "8/8/7k/8/6p1/4N3/4K3/8 w - - 0 1";
 
+    /**
+     * The castling rights that remain after a piece moves from or to the square.
+     * Moving the king or a rook, or capturing a rook, removes the corresponding castles.
+     */
+    private static final int[] castlingRightsKept = createCastlingRightsKept();
+    private static final int RepetitionsToDraw = 3;
+    private static final int NoColumn = -1;
+    private static final Color[] colors = Color.values();
+    private static final PieceType[] pieceTypes = PieceType.values();
+
     private final Board board;
     private final ChessRules rules;
-    private final Set<Castling> possibleCastles;
+    private final Deque<UndoEntry> undoStack;
+    private final PositionHistory history;
+    private final int[] moveBuffer;
+    private final MoveCache moveCache;
+    private final OpeningBook openingBook;
+    private int castlingRights;
     private int moves;
     private int halfmoveClock;
     private Player currentPlayer;
-    private Position enPassant;
+    private int enPassantSquare;
+    private GameStatus status;
+
+    /**
+     * The state of the match before a move, which is needed to take back the move.
+     *
+     * @param move            The packed move which was made
+     * @param movedPiece      The piece that was moved, before it was moved
+     * @param capturedPiece   The piece that was captured by the move or null
+     * @param castlingRights  The castling rights before the move
+     * @param enPassantSquare The en passant square before the move
+     * @param halfmoveClock   The halfmove clock before the move
+     */
+    private record UndoEntry(int move, Piece movedPiece, Piece capturedPiece, int castlingRights,
+                             int enPassantSquare, int halfmoveClock) {
+    }
 
     /**
      * The Match constructor. Creates a new match from the StartingFen string
      */
     public Match() {
-        String FENToUse = START_FEN;
-        board = new Board(FENToUse);
+        this(BoardRepresentation.BITBOARD);
+    }
+
+    /**
+     * The Match constructor. Creates a new match from the StartingFen string
+     *
+     * @param representation The representation of the board to use
+     */
+    public Match(BoardRepresentation representation) {
+        this(START_FEN, representation);
+    }
+
+    /**
+     * The Match constructor. Creates a new match from the StartingFen string
+     * which validates the moves through the opening book and the shared cache
+     *
+     * @param representation The representation of the board to use
+     * @param moveCache      The cache of the legal moves of the positions, shared with other matches, or null
+     * @param openingBook    The legal moves of the opening positions, or null
+     */
+    public Match(BoardRepresentation representation, MoveCache moveCache, OpeningBook openingBook) {
+        this(START_FEN, representation, moveCache, openingBook);
+    }
+
+    /**
+     * The Match constructor. Creates a new match from the given FEN string
+     *
+     * @param FEN            The FEN string describing the position to start from
+     * @param representation The representation of the board to use
+     */
+    public Match(String FEN, BoardRepresentation representation) {
+        this(FEN, representation, null, null);
+    }
+
+    /**
+     * The Match constructor. Creates a new match from the given FEN string
+     * which validates the moves through the opening book and the shared cache
+     *
+     * @param FEN            The FEN string describing the position to start from
+     * @param representation The representation of the board to use
+     * @param moveCache      The cache of the legal moves of the positions, shared with other matches,
+     *                       or null to always generate the moves
+     * @param openingBook    The legal moves of the opening positions, consulted for the first
+     *                       {@link OpeningBook#plies()} moves of the match, or null
+     */
+    public Match(String FEN, BoardRepresentation representation, MoveCache moveCache, OpeningBook openingBook) {
+        this.moveCache = moveCache;
+        this.openingBook = openingBook;
+        FENPosition position = FENReader.parse(FEN);
+        board = representation.createBoard(position);
         rules = new ChessRules();
-        moves = FENParser.getMoves(FENToUse);
-        halfmoveClock = FENParser.getHalfMoves(FENToUse);
-        currentPlayer = FENParser.getCurrentPlayer(FENToUse);
-        enPassant = FENParser.getEnPassant(FENToUse);
-
-        possibleCastles = new HashSet<>();
-        possibleCastles.add(Castling.WHITE_KINGSIDE);
-        possibleCastles.add(Castling.WHITE_QUEENSIDE);
-        possibleCastles.add(Castling.BLACK_KINGSIDE);
-        possibleCastles.add(Castling.BLACK_QUEENSIDE);
+        undoStack = new ArrayDeque<>();
+        moveBuffer = new int[MoveGenerator.MaxMoves];
+        moves = position.moves();
+        halfmoveClock = position.halfmoveClock();
+        currentPlayer = position.currentPlayer();
+        // The castling bits of the parsed position are the ids of the castles
+        castlingRights = position.castlingRights();
+
+        Position enPassant = position.enPassant();
+        enPassantSquare = enPassant == null ? MoveGenerator.NoSquare : Bitboards.square(enPassant);
+
+        history = new PositionHistory();
+        history.push(positionKey());
     }
 
     /**
@@ -53,11 +142,47 @@ public final class Match {
      * @return Whether the move was legal and was thus performed
      */
     public boolean makeMove(Move move) {
-        if (!rules.isMoveValid(board, move, currentPlayer, enPassant, possibleCastles)) {
-            return false;
+        int count = legalMoves();
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.matches(moveBuffer[i], move)) {
+                makeMove(moveBuffer[i]);
+                return true;
+            }
         }
 
-        Piece movedPiece = board.getPiece(move.startPosition);
+        return false;
+    }
+
+    /**
+     * Performs the packed move in the match,
+     * assumes the move is legal i.e. it was generated by {@link #generateLegalMoves(int[])} in the current state.
+     * The move can be taken back by {@link #unmakeMove()}.
+     *
+     * @param move The packed move to perform
+     */
+    public void makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        Color color = currentPlayer.getColor();
+        int forward = color == Color.WHITE ? Bitboards.ColumnCount : -Bitboards.ColumnCount;
+
+        Piece movedPiece = getPiece(from);
+        int capturedSquare = PackedMove.isEnPassant(move) ? to - forward : to;
+        Piece capturedPiece = PackedMove.isCapture(move) ? getPiece(capturedSquare) : null;
+        undoStack.push(new UndoEntry(move, movedPiece, capturedPiece, castlingRights, enPassantSquare, halfmoveClock));
+        status = null;
+
+        if (capturedPiece != null) {
+            clearPiece(capturedSquare);
+        }
+        setPiece(to, PackedMove.isPromotion(move) ? new Queen(color) : movedPiece.getMovedPiece());
+        clearPiece(from);
+        if (PackedMove.isCastle(move)) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            int rookTo = to > from ? to - 1 : to + 1;
+            setPiece(rookTo, getPiece(rookFrom));
+            clearPiece(rookFrom);
+        }
 
         // Update move count
         if (currentPlayer == Player.BLACK) {
@@ -65,21 +190,146 @@ public final class Match {
         }
 
         // Update halfmove clock
-        if (move.isCapture || move.pieceType == PieceType.PAWN) {
+        if (PackedMove.isCapture(move) || PackedMove.pieceType(move) == PieceType.PAWN) {
             halfmoveClock = 0;
         } else {
             halfmoveClock++;
         }
 
-        performMove(move);
+        enPassantSquare = PackedMove.isDoublePush(move) ? from + forward : MoveGenerator.NoSquare;
+        castlingRights &= castlingRightsKept[from] & castlingRightsKept[to];
+        currentPlayer = currentPlayer.opposite();
+        history.push(positionKey());
+    }
+
+    /**
+     * Takes back the last move performed by {@link #makeMove(int)} and restores the state before the move.
+     */
+    public void unmakeMove() {
+        UndoEntry entry = undoStack.pop();
+        history.pop();
+        status = null;
+        int move = entry.move();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
 
-        // Flip current player
         currentPlayer = currentPlayer.opposite();
-        // check whether we made a two tile move with a pawn -> en passant possible
-        enPassant = nextEnPassant(move, movedPiece);
-        removeCastlingOptions(move, movedPiece);
+        if (currentPlayer == Player.BLACK) {
+            moves--;
+        }
+
+        if (PackedMove.isCastle(move)) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            int rookTo = to > from ? to - 1 : to + 1;
+            setPiece(rookFrom, getPiece(rookTo));
+            clearPiece(rookTo);
+        }
+        clearPiece(to);
+        setPiece(from, entry.movedPiece());
+        if (entry.capturedPiece() != null) {
+            int forward = currentPlayer == Player.WHITE ? Bitboards.ColumnCount : -Bitboards.ColumnCount;
+            int capturedSquare = PackedMove.isEnPassant(move) ? to - forward : to;
+            setPiece(capturedSquare, entry.capturedPiece());
+        }
+
+        castlingRights = entry.castlingRights();
+        enPassantSquare = entry.enPassantSquare();
+        halfmoveClock = entry.halfmoveClock();
+    }
+
+    /**
+     * Generates all the legal moves of the player whose turn it is, castles included
+     *
+     * @param moves The buffer to write the packed moves into, of at least {@link MoveGenerator#MaxMoves} length
+     * @return The number of moves written into the buffer
+     */
+    public int generateLegalMoves(int[] moves) {
+        return MoveGenerator.generateLegalMoves(board, currentPlayer.getColor(), enPassantSquare, castlingRights,
+                moves);
+    }
+
+    /**
+     * Gets the last move performed in the match, e.g. to record the move made by {@link #makeMove(Move)}
+     *
+     * @return The last packed move
+     * @throws java.util.NoSuchElementException If no move has been performed
+     */
+    public int lastMove() {
+        return undoStack.element().move();
+    }
+
+    /**
+     * Gets the number of moves performed in the match which have not been taken back
+     *
+     * @return The number of plies
+     */
+    public int plies() {
+        return undoStack.size();
+    }
+
+    /**
+     * Gets the Zobrist key of the current position, see {@link Zobrist}.
+     * Two positions with the same key are the same with overwhelming probability: the same pieces on the same tiles,
+     * the same player to move and the same castles and en passant possible.
+     *
+     * @return The key of the current position
+     */
+    public long positionKey() {
+        long key = board.getPlacementKey() ^ Zobrist.castlingKey(castlingRights);
+        if (currentPlayer == Player.BLACK) {
+            key ^= Zobrist.blackToMoveKey();
+        }
+
+        int enPassantColumn = capturableEnPassantColumn();
+        if (enPassantColumn != NoColumn) {
+            key ^= Zobrist.enPassantKey(enPassantColumn);
+        }
+
+        return key;
+    }
 
-        return true;
+    /**
+     * Gets the key which verifies that a position found by its {@link #positionKey()} is the current position.
+     * It is the {@link #checksum()} of the pieces and the player to move combined with the castles and en passant
+     * possible, so an unrelated position is only mistaken for the current one if both of the keys collide.
+     *
+     * @return The verification key of the current position
+     */
+    public long verificationKey() {
+        // Castling rights fit into four bits, the en passant column moved by one so NoColumn becomes zero
+        return checksum() ^ ((long) castlingRights << 4 | (capturableEnPassantColumn() + 1));
+    }
+
+    /**
+     * Gets the checksum of the pieces and the player to move, see {@link PositionChecksum}
+     *
+     * @return The checksum of the current position
+     */
+    public long checksum() {
+        long checksum = PositionChecksum.playerKey(currentPlayer);
+        for (Color color : colors) {
+            for (PieceType type : pieceTypes) {
+                long pieces = board.getPieces(type, color);
+                while (pieces != 0) {
+                    int square = Bitboards.firstSquare(pieces);
+                    checksum ^= PositionChecksum.pieceKey(Bitboards.row(square), Bitboards.column(square), color, type);
+                    pieces = Bitboards.withoutFirstSquare(pieces);
+                }
+            }
+        }
+
+        return checksum;
+    }
+
+    /**
+     * Answers whether the king of the player whose turn it is is in check
+     *
+     * @return Whether the king is in check
+     */
+    public boolean isInCheck() {
+        long king = board.getPieces(PieceType.KING, currentPlayer.getColor());
+        return king != 0 && AttackTables.isSquareAttacked(board, Bitboards.firstSquare(king),
+                currentPlayer.opposite().getColor());
     }
 
     /**
@@ -88,7 +338,7 @@ public final class Match {
      * @return The FEN string representation
      */
     public String getFEN() {
-        return FENParser.FENStringFromBoard(board, currentPlayer, possibleCastles, halfmoveClock, moves, enPassant);
+        return FENWriter.write(board, currentPlayer, castlingRights, halfmoveClock, moves, enPassantSquare);
     }
 
     /**
@@ -100,191 +350,191 @@ public final class Match {
         return currentPlayer;
     }
 
+    /**
+     * Evaluates whether the game has ended in the current state and how.
+     * The legal moves are generated only once, the result is cached until the next move is made or taken back.
+     *
+     * @return The status of the match
+     */
+    public GameStatus evaluateStatus() {
+        if (status == null) {
+            status = computeStatus();
+        }
+
+        return status;
+    }
+
     /**
      * Answers whether the game is over in the current state
      *
      * @return Whether the game ended
      */
     public boolean gameOver() {
+        return evaluateStatus().isGameOver();
+    }
+
+    /**
+     * Returns the winner of the match, if there is one
+     *
+     * @return The whether of the match
+     */
+    public Optional<Player> winner() {
+        return evaluateStatus().getWinner();
+    }
+
+    /**
+     * Computes the status of the match in the current state
+     *
+     * @return The status of the match
+     */
+    private GameStatus computeStatus() {
         // Possible ways a chess match can end
         // win - checkmate
         // win - resignation - not handled here
         // draw - stalemate
         // draw - 50 move rule
         // draw - insufficient material
-        // draw - ~~three-fold repetition~~
+        // draw - three-fold repetition
         // draw - ~~dead position~~
-        return halfmoveClock > 50
-                || rules.insufficientMaterial(board)
-                || rules.checkMate(board, currentPlayer, enPassant)
-                || rules.stalemate(board, currentPlayer, enPassant);
+        int bookEntry = findBookEntry();
+        int legalMoveCount;
+        boolean inCheck;
+        if (bookEntry != OpeningBook.NotFound) {
+            legalMoveCount = openingBook.moves(bookEntry, moveBuffer);
+            inCheck = openingBook.isInCheck(bookEntry);
+        } else {
+            legalMoveCount = cachedLegalMoves();
+            inCheck = isInCheck();
+        }
+
+        if (legalMoveCount == 0) {
+            return inCheck
+                    ? new GameStatus(GameOutcome.CHECKMATE, 0, true, currentPlayer.opposite())
+                    : new GameStatus(GameOutcome.STALEMATE, 0, false, null);
+        }
+
+        GameOutcome outcome = GameOutcome.ONGOING;
+        if (halfmoveClock > 50) {
+            outcome = GameOutcome.FIFTY_MOVE_RULE;
+        } else if (rules.insufficientMaterial(board)) {
+            outcome = GameOutcome.INSUFFICIENT_MATERIAL;
+        } else if (history.repetitions(halfmoveClock) >= RepetitionsToDraw) {
+            outcome = GameOutcome.THREEFOLD_REPETITION;
+        }
+
+        return new GameStatus(outcome, legalMoveCount, inCheck, null);
     }
 
     /**
-     * Returns the winner of the match, if there is one
+     * Gets the legal moves of the current position into the move buffer,
+     * from the opening book or the move cache if there are any
      *
-     * @return The whether of the match
+     * @return The number of moves in the buffer
      */
-    public Optional<Player> winner() {
-        if (rules.checkMate(board, currentPlayer, enPassant)) {
-            return Optional.of(currentPlayer.opposite());
+    private int legalMoves() {
+        int bookEntry = findBookEntry();
+        return bookEntry != OpeningBook.NotFound ? openingBook.moves(bookEntry, moveBuffer) : cachedLegalMoves();
+    }
+
+    /**
+     * Finds the current position in the opening book, the book is only searched during the plies it covers
+     *
+     * @return The index of the entry of the position or {@link OpeningBook#NotFound}
+     */
+    private int findBookEntry() {
+        if (openingBook == null || undoStack.size() > openingBook.plies()) {
+            return OpeningBook.NotFound;
         }
 
-        return Optional.empty();
+        return openingBook.find(positionKey());
     }
 
     /**
-     * Makes the move,
-     * assumes the move has been validated beforehand i.e. piece at the stated position is not null, all the fields
-     * are valid, etc.
+     * Gets the legal moves of the current position into the move buffer, from the move cache if there is one
      *
-     * @param move The move to perform
+     * @return The number of moves in the buffer
      */
-    private void performMove(Move move) {
-        Piece movedPiece = board.getPiece(move.startPosition);
-
-        // Check whether move is a castle
-        if (rules.isCastle(board, move, currentPlayer, possibleCastles)) {
-            performCastle(board, move);
-        }
-        // Check whether move is an en passant
-        else if (rules.isEnPassant(board, move, enPassant)) {
-            performEnPassant(board, move, movedPiece);
+    private int cachedLegalMoves() {
+        if (moveCache == null) {
+            return generateLegalMoves(moveBuffer);
         }
-        // Normal move
-        else {
-            performNormalMove(board, move, movedPiece);
+
+        long key = positionKey();
+        long verification = verificationKey();
+        int count = moveCache.get(key, verification, moveBuffer);
+        if (count == MoveCache.Miss) {
+            count = generateLegalMoves(moveBuffer);
+            moveCache.put(key, verification, moveBuffer, count);
         }
+
+        return count;
     }
 
     /**
-     * Performs castle moves
-     * Presumes the move is valid and that the king is signified as the moved piece
+     * Gets the column of the en passant square if a pawn can capture en passant,
+     * the en passant only distinguishes the position in that case
      *
-     * @param board The current board
-     * @param move  The move to be performed
+     * @return The column of the en passant square or {@link #NoColumn}
      */
-    private void performCastle(Board board, Move move) {
-        Position whiteShortCastlePosition = new Position(ChessRules.MinBoardRow, ChessRules.MinBoardColumn + 6);
-        Position whiteLongCastlePosition = new Position(ChessRules.MinBoardRow, ChessRules.MinBoardColumn + 2);
-        Position blackShortCastlePosition = new Position(ChessRules.MaxBoardRow, ChessRules.MinBoardColumn + 6);
-        Position blackLongCastlePosition = new Position(ChessRules.MaxBoardRow, ChessRules.MinBoardColumn + 2);
-
-        // move both king and rook
-        Action4<Position, Position, Position, Position> moveKingRook = (kingPosition, kingFinalPosition, rookPosition, rookFinalPosition) -> {
-            board.setPiece(kingFinalPosition, rules.pieceAfterMove(board.getPiece(kingPosition), false));
-            board.clearPiece(kingPosition);
-            board.setPiece(rookFinalPosition, rules.pieceAfterMove(board.getPiece(rookPosition), false));
-            board.clearPiece(rookPosition);
-        };
-
-        if (move.endPosition.equals(whiteShortCastlePosition)) {
-            Position kingPosition = new Position(ChessRules.MinBoardRow, 4);
-            Position rookPosition = new Position(ChessRules.MinBoardRow, ChessRules.MaxBoardColumn);
-            Position rookFinalPosition = new Position(ChessRules.MinBoardRow, 5);
-            moveKingRook.call(kingPosition, move.endPosition, rookPosition, rookFinalPosition);
-        } else if (move.endPosition.equals(whiteLongCastlePosition)) {
-            Position kingPosition = new Position(ChessRules.MinBoardRow, 4);
-            Position rookPosition = new Position(ChessRules.MinBoardRow, ChessRules.MinBoardColumn);
-            Position rookFinalPosition = new Position(ChessRules.MinBoardRow, 3);
-            moveKingRook.call(kingPosition, move.endPosition, rookPosition, rookFinalPosition);
-        } else if (move.endPosition.equals(blackShortCastlePosition)) {
-            Position kingPosition = new Position(ChessRules.MaxBoardRow, 4);
-            Position rookPosition = new Position(ChessRules.MaxBoardRow, ChessRules.MaxBoardColumn);
-            Position rookFinalPosition = new Position(ChessRules.MaxBoardRow, 5);
-            moveKingRook.call(kingPosition, move.endPosition, rookPosition, rookFinalPosition);
-        } else if (move.endPosition.equals(blackLongCastlePosition)) {
-            Position kingPosition = new Position(ChessRules.MaxBoardRow, 4);
-            Position rookPosition = new Position(ChessRules.MaxBoardRow, ChessRules.MinBoardColumn);
-            Position rookFinalPosition = new Position(ChessRules.MaxBoardRow, 3);
-            moveKingRook.call(kingPosition, move.endPosition, rookPosition, rookFinalPosition);
+    private int capturableEnPassantColumn() {
+        if (enPassantSquare == MoveGenerator.NoSquare) {
+            return NoColumn;
         }
+
+        Color color = currentPlayer.getColor();
+        long capturingPawns = AttackTables.pawnAttacks(color.opposite(), enPassantSquare)
+                & board.getPieces(PieceType.PAWN, color);
+        return capturingPawns != 0 ? Bitboards.column(enPassantSquare) : NoColumn;
     }
 
     /**
-     * Performs en passant moves
-     * Presumes the move is valid
+     * Gets the piece on the square
      *
-     * @param board      The current board
-     * @param move       The move to be performed
-     * @param movedPiece The piece that is to be moved
+     * @param square The square of the piece, see {@link Bitboards}
+     * @return The piece on the square
      */
-    private void performEnPassant(Board board, Move move, Piece movedPiece) {
-        int pawnRowOffset = movedPiece.color == Color.WHITE ? -1 : 1;
-        board.setPiece(move.endPosition, rules.pieceAfterMove(movedPiece, rules.isPromotion(move, movedPiece, currentPlayer)));
-        board.clearPiece(move.startPosition);
-        board.clearPiece(new Position(move.endPosition.row + pawnRowOffset, move.endPosition.column));
+    private Piece getPiece(int square) {
+        return board.getPiece(Bitboards.row(square), Bitboards.column(square));
     }
 
     /**
-     * Performs a standard move that is not handled by the other 'perform' functions,
-     * see {@link #performCastle(Board, Move) PerformCastle} and
-     * {@link #performEnPassant(Board, Move, Piece) PerformEnPassant}
-     * Presumes the move is valid
+     * Sets the piece on the square
      *
-     * @param board      The current board
-     * @param move       The move to be performed
-     * @param movedPiece The piece that is to be moved
+     * @param square The square to put the piece on, see {@link Bitboards}
+     * @param piece  The piece to put down
      */
-    private void performNormalMove(Board board, Move move, Piece movedPiece) {
-        // Check whether the move is a promotion in rules.pieceAfterMove
-        board.setPiece(move.endPosition, rules.pieceAfterMove(movedPiece, rules.isPromotion(move, movedPiece, currentPlayer)));
-        board.clearPiece(move.startPosition);
+    private void setPiece(int square, Piece piece) {
+        board.setPiece(new Position(Bitboards.row(square), Bitboards.column(square)), piece);
     }
 
     /**
-     * Determines the en passant that will be possible in the next ply/half-move
-     * Presumes the move is valid
+     * Clears any piece that is on the square
      *
-     * @param move       The move that has happened
-     * @param movedPiece The piece that has been moved
-     * @return The possible en passant in the next ply/half-move, returns null if no en passant is possible next ply
+     * @param square The square to clear, see {@link Bitboards}
      */
-    private Position nextEnPassant(Move move, Piece movedPiece) {
-        Position nextEnPassant = null;
-        if (move.isEnPassant()) {
-            int rowOffset = movedPiece.color == Color.WHITE ? -1 : 1;
-            nextEnPassant = new Position(move.endPosition.row + rowOffset, move.endPosition.column);
-        }
-
-        return nextEnPassant;
+    private void clearPiece(int square) {
+        board.clearPiece(new Position(Bitboards.row(square), Bitboards.column(square)));
     }
 
     /**
-     * Removes the castling options that were discarded by the current move
+     * Creates the table of the castling rights which remain after a piece moves from or to each square
      *
-     * @param move       The move that has happened
-     * @param movedPiece The piece that was moved
+     * @return The table indexed by squares
      */
-    private void removeCastlingOptions(Move move, Piece movedPiece) {
-
-        if (movedPiece.getType() == PieceType.KING) {
-            if (movedPiece.color == Color.WHITE) {
-                possibleCastles.remove(Castling.WHITE_KINGSIDE);
-                possibleCastles.remove(Castling.WHITE_QUEENSIDE);
-            } else {
-                possibleCastles.remove(Castling.BLACK_KINGSIDE);
-                possibleCastles.remove(Castling.BLACK_QUEENSIDE);
-            }
-        }
-        if (movedPiece.getType() == PieceType.ROOK) {
-            if (movedPiece.color == Color.WHITE) {
-                Position whiteKingsideRookPosition = new Position(ChessRules.MinBoardRow, ChessRules.MaxBoardColumn);
-                Position whiteQueensideRookPosition = new Position(ChessRules.MinBoardRow, ChessRules.MinBoardColumn);
-                if (whiteKingsideRookPosition.equals(move.startPosition)) {
-                    possibleCastles.remove(Castling.WHITE_KINGSIDE);
-                } else if (whiteQueensideRookPosition.equals(move.startPosition)) {
-                    possibleCastles.remove(Castling.WHITE_QUEENSIDE);
-                }
-            } else {
-                Position blackKingsideRookPosition = new Position(ChessRules.MaxBoardRow, ChessRules.MaxBoardColumn);
-                Position blackQueensideRookPosition = new Position(ChessRules.MaxBoardRow, ChessRules.MinBoardColumn);
-                if (blackKingsideRookPosition.equals(move.startPosition)) {
-                    possibleCastles.remove(Castling.BLACK_KINGSIDE);
-                } else if (blackQueensideRookPosition.equals(move.startPosition)) {
-                    possibleCastles.remove(Castling.BLACK_QUEENSIDE);
-                }
-            }
-        }
+    private static int[] createCastlingRightsKept() {
+        int[] kept = new int[Bitboards.SquareCount];
+        int all = Castling.toRights(EnumSet.allOf(Castling.class));
+        Arrays.fill(kept, all);
+
+        int whiteRow = ChessRules.MinBoardRow;
+        int blackRow = ChessRules.MaxBoardRow;
+        kept[Bitboards.square(whiteRow, 4)] = all & ~(Castling.WHITE_KINGSIDE.id | Castling.WHITE_QUEENSIDE.id);
+        kept[Bitboards.square(whiteRow, ChessRules.MaxBoardColumn)] = all & ~Castling.WHITE_KINGSIDE.id;
+        kept[Bitboards.square(whiteRow, ChessRules.MinBoardColumn)] = all & ~Castling.WHITE_QUEENSIDE.id;
+        kept[Bitboards.square(blackRow, 4)] = all & ~(Castling.BLACK_KINGSIDE.id | Castling.BLACK_QUEENSIDE.id);
+        kept[Bitboards.square(blackRow, ChessRules.MaxBoardColumn)] = all & ~Castling.BLACK_KINGSIDE.id;
+        kept[Bitboards.square(blackRow, ChessRules.MinBoardColumn)] = all & ~Castling.BLACK_QUEENSIDE.id;
+
+        return kept;
     }
 }
@@ -0,0 +1,242 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of the legal moves of positions, shared by all the matches of the server.
+ * <p>
+ * The positions are identified by their {@link Match#positionKey() Zobrist key}, which already includes
+ * the player to move, the castling rights and the en passant square. Most matches go through the same
+ * opening positions, so their moves only have to be generated once.
+ * <p>
+ * A 64-bit key alone is not enough for a cache shared by every match of a long running server, a collision would
+ * hand a match the moves of another position. Every entry also keeps a second, independently computed
+ * {@link Match#verificationKey() verification key} and a lookup with a different one is a miss.
+ * <p>
+ * The cache is split into shards by the key, every shard is a least recently used map guarded by its own lock,
+ * so matches only contend when they look up positions in the same shard.
+ */
+public final class MoveCache {
+
+    /**
+     * The number of positions kept by a cache created without an explicit capacity.
+     */
+    public static final int DefaultCapacity = 1 << 16;
+
+    /**
+     * The value returned by {@link #get(long, long, int[])} if the position is not cached.
+     */
+    public static final int Miss = -1;
+
+    private static final int ShardCount = 16;
+
+    private final Shard[] shards;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * MoveCache constructor with the default capacity.
+     */
+    public MoveCache() {
+        this(DefaultCapacity);
+    }
+
+    /**
+     * MoveCache constructor.
+     *
+     * @param capacity The maximum number of cached positions, at least one per shard is kept
+     */
+    public MoveCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity has to be positive");
+        }
+
+        hits = new LongAdder();
+        misses = new LongAdder();
+        evictions = new LongAdder();
+        shards = new Shard[ShardCount];
+        int shardCapacity = Math.max(1, (capacity + ShardCount - 1) / ShardCount);
+        for (int i = 0; i < ShardCount; i++) {
+            shards[i] = new Shard(shardCapacity);
+        }
+    }
+
+    /**
+     * Copies the cached moves of the position into the buffer
+     *
+     * @param key          The key of the position
+     * @param verification The verification key of the position
+     * @param moves        The buffer to copy the packed moves into
+     * @return The number of moves copied or {@link #Miss} if the position is not cached
+     */
+    public int get(long key, long verification, int[] moves) {
+        Shard shard = shard(key);
+        Entry cached;
+        shard.lock.lock();
+        try {
+            cached = shard.get(key);
+        }
+        finally {
+            shard.lock.unlock();
+        }
+
+        // A different verification key means another position with a colliding key
+        if (cached == null || cached.verification != verification) {
+            misses.increment();
+            return Miss;
+        }
+
+        hits.increment();
+        System.arraycopy(cached.moves, 0, moves, 0, cached.moves.length);
+        return cached.moves.length;
+    }
+
+    /**
+     * Caches the moves of the position, evicting the least recently used position of the shard if it is full
+     *
+     * @param key          The key of the position
+     * @param verification The verification key of the position
+     * @param moves        The buffer with the packed moves
+     * @param count        The number of moves in the buffer
+     */
+    public void put(long key, long verification, int[] moves, int count) {
+        Entry entry = new Entry(verification, Arrays.copyOf(moves, count));
+        Shard shard = shard(key);
+        shard.lock.lock();
+        try {
+            shard.put(key, entry);
+        }
+        finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of cached positions
+     *
+     * @return The number of cached positions
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.size();
+            }
+            finally {
+                shard.lock.unlock();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Gets the number of lookups which found the position
+     *
+     * @return The number of hits
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups which did not find the position
+     *
+     * @return The number of misses
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of positions removed to make room for new ones
+     *
+     * @return The number of evictions
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the ratio of the lookups which found the position
+     *
+     * @return The hit rate between 0 and 1, 0 if there were no lookups
+     */
+    public double hitRate() {
+        long hitCount = hitCount();
+        long lookups = hitCount + missCount();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Describes the statistics of the cache
+     *
+     * @return The description of the statistics
+     */
+    @Override
+    public String toString() {
+        return String.format("MoveCache[size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.3f]",
+                size(), hitCount(), missCount(), evictionCount(), hitRate());
+    }
+
+    /**
+     * Gets the shard of the position
+     *
+     * @param key The key of the position
+     * @return The shard the position belongs to
+     */
+    private Shard shard(long key) {
+        return shards[(int) (key ^ (key >>> 32)) & (ShardCount - 1)];
+    }
+
+    /**
+     * The cached moves of a position
+     *
+     * @param verification The verification key of the position
+     * @param moves        The packed moves of the position
+     */
+    private record Entry(long verification, int[] moves) {
+    }
+
+    /**
+     * A least recently used map of the moves of the positions, has to be accessed under its lock
+     */
+    private final class Shard extends LinkedHashMap<Long, Entry> {
+        static final long serialVersionUID = 0x1234567;
+        private final ReentrantLock lock;
+        private final int capacity;
+
+        /**
+         * The Shard constructor
+         *
+         * @param capacity The maximum number of positions of the shard
+         */
+        private Shard(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            lock = new ReentrantLock();
+        }
+
+        /**
+         * Removes the least recently used position once the shard is over its capacity
+         *
+         * @param eldest The least recently used position
+         * @return Whether the position should be removed
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The legal moves of the positions of the first plies of a match, memory-mapped from a file
+ * written by {@link OpeningBookBuilder}.
+ * <p>
+ * The file is made of a header, the entries of the positions sorted by their {@link Match#positionKey() key}
+ * and the packed moves of all the positions:
+ * <pre>
+ *     header:  int magic, int version, int plies, int entry count
+ *     entry:   long key, int index of the first move, short move count, byte flags, byte padding
+ *     moves:   int packed move, ...
+ * </pre>
+ * A position is found by a binary search over the entries. The book is only read after it is opened,
+ * so it can be shared by all the matches without locking.
+ */
+public final class OpeningBook {
+
+    /**
+     * The value returned by {@link #find(long)} if the position is not in the book.
+     */
+    public static final int NotFound = -1;
+
+    static final int Magic = 0x4F424B31;
+    static final int Version = 1;
+    static final int HeaderSize = 4 * Integer.BYTES;
+    static final int EntrySize = Long.BYTES + Integer.BYTES + Short.BYTES + 2 * Byte.BYTES;
+    static final byte InCheckFlag = 1;
+
+    private final MappedByteBuffer buffer;
+    private final int plies;
+    private final int entryCount;
+    private final int movesStart;
+
+    /**
+     * The OpeningBook constructor
+     *
+     * @param buffer     The mapped file
+     * @param plies      The number of plies covered by the book
+     * @param entryCount The number of positions in the book
+     */
+    private OpeningBook(MappedByteBuffer buffer, int plies, int entryCount) {
+        this.buffer = buffer;
+        this.plies = plies;
+        this.entryCount = entryCount;
+        movesStart = HeaderSize + entryCount * EntrySize;
+    }
+
+    /**
+     * Maps the book from the file
+     *
+     * @param file The file written by {@link OpeningBookBuilder}
+     * @return The opened book
+     * @throws IOException If the file cannot be read or is not a valid book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HeaderSize || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid opening book size " + size);
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt(0) != Magic || buffer.getInt(Integer.BYTES) != Version) {
+                throw new IOException("Not an opening book of version " + Version);
+            }
+
+            int plies = buffer.getInt(2 * Integer.BYTES);
+            int entryCount = buffer.getInt(3 * Integer.BYTES);
+            if (entryCount < 0 || HeaderSize + (long) entryCount * EntrySize > size) {
+                throw new IOException("Invalid opening book entry count " + entryCount);
+            }
+
+            OpeningBook book = new OpeningBook(buffer, plies, entryCount);
+            book.validateMoves(size);
+            return book;
+        }
+    }
+
+    /**
+     * Gets the number of plies from the starting position covered by the book
+     *
+     * @return The number of plies
+     */
+    public int plies() {
+        return plies;
+    }
+
+    /**
+     * Gets the number of positions in the book
+     *
+     * @return The number of positions
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Finds the entry of the position
+     *
+     * @param key The key of the position
+     * @return The index of the entry or {@link #NotFound}
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = buffer.getLong(entryOffset(middle));
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return NotFound;
+    }
+
+    /**
+     * Copies the legal moves of the position into the buffer
+     *
+     * @param entry The index of the entry, see {@link #find(long)}
+     * @param moves The buffer to copy the packed moves into
+     * @return The number of moves copied
+     */
+    public int moves(int entry, int[] moves) {
+        int offset = entryOffset(entry);
+        int first = buffer.getInt(offset + Long.BYTES);
+        int count = buffer.getShort(offset + Long.BYTES + Integer.BYTES);
+        int movesOffset = movesStart + first * Integer.BYTES;
+        for (int i = 0; i < count; i++) {
+            moves[i] = buffer.getInt(movesOffset + i * Integer.BYTES);
+        }
+
+        return count;
+    }
+
+    /**
+     * Answers whether the player to move is in check in the position
+     *
+     * @param entry The index of the entry, see {@link #find(long)}
+     * @return Whether the player to move is in check
+     */
+    public boolean isInCheck(int entry) {
+        int flags = buffer.get(entryOffset(entry) + Long.BYTES + Integer.BYTES + Short.BYTES);
+        return (flags & InCheckFlag) != 0;
+    }
+
+    /**
+     * Checks that the moves of all the entries are within the file
+     *
+     * @param size The size of the file
+     * @throws IOException If the moves of an entry are out of the file
+     */
+    private void validateMoves(long size) throws IOException {
+        long moveCount = (size - movesStart) / Integer.BYTES;
+        for (int entry = 0; entry < entryCount; entry++) {
+            int offset = entryOffset(entry);
+            long first = buffer.getInt(offset + Long.BYTES);
+            int count = buffer.getShort(offset + Long.BYTES + Integer.BYTES);
+            if (first < 0 || count < 0 || first + count > moveCount) {
+                throw new IOException("Invalid moves of the opening book entry " + entry);
+            }
+        }
+    }
+
+    /**
+     * Gets the offset of the entry in the file
+     *
+     * @param entry The index of the entry
+     * @return The offset of the entry
+     */
+    private static int entryOffset(int entry) {
+        return HeaderSize + entry * EntrySize;
+    }
+}
@@ -0,0 +1,138 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} by walking all the move sequences from the starting position.
+ * <p>
+ * Can be run from the command line:
+ * <pre>
+ *     OpeningBookBuilder &lt;file&gt; [plies]
+ * </pre>
+ */
+public final class OpeningBookBuilder {
+
+    /**
+     * The number of plies covered by a book built without an explicit number.
+     */
+    public static final int DefaultPlies = 4;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private OpeningBookBuilder() {
+    }
+
+    /**
+     * Builds the book of all the positions reachable from the starting position in at most the given plies
+     *
+     * @param out   The stream to write the book to
+     * @param plies The number of plies covered by the book
+     * @return The number of positions in the book
+     * @throws IOException If the book cannot be written
+     */
+    public static int build(OutputStream out, int plies) throws IOException {
+        if (plies < 0) {
+            throw new IllegalArgumentException("The number of plies cannot be negative");
+        }
+
+        Map<Long, BookPosition> positions = new HashMap<>();
+        collect(new Match(BoardRepresentation.BITBOARD), plies, new int[plies + 1][MoveGenerator.MaxMoves],
+                positions);
+
+        long[] keys = positions.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(OpeningBook.Magic);
+        data.writeInt(OpeningBook.Version);
+        data.writeInt(plies);
+        data.writeInt(keys.length);
+
+        int first = 0;
+        for (long key : keys) {
+            BookPosition position = positions.get(key);
+            data.writeLong(key);
+            data.writeInt(first);
+            data.writeShort(position.moves.length);
+            data.writeByte(position.inCheck ? OpeningBook.InCheckFlag : 0);
+            data.writeByte(0);
+            first += position.moves.length;
+        }
+        for (long key : keys) {
+            for (int move : positions.get(key).moves) {
+                data.writeInt(move);
+            }
+        }
+        data.flush();
+
+        return keys.length;
+    }
+
+    /**
+     * Builds the book from the command line, see the class description.
+     *
+     * @param args The command line arguments
+     * @throws IOException If the book cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: OpeningBookBuilder <file> [plies]");
+            System.exit(2);
+        }
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : DefaultPlies;
+
+        try (OutputStream out = Files.newOutputStream(Path.of(args[0]))) {
+            int count = build(out, plies);
+            System.out.println("Wrote " + count + " positions of " + plies + " plies to " + args[0]);
+        }
+    }
+
+    /**
+     * Collects the moves of the position and of all the positions reachable from it
+     *
+     * @param match     The match in the position
+     * @param plies     The number of remaining plies
+     * @param buffers   The move buffers, one for every remaining ply
+     * @param positions The collected positions by their key
+     */
+    private static void collect(Match match, int plies, int[][] buffers, Map<Long, BookPosition> positions) {
+        long key = match.positionKey();
+        // Transpositions reached with more plies remaining were already fully expanded
+        BookPosition known = positions.get(key);
+        if (known != null && known.remainingPlies >= plies) {
+            return;
+        }
+
+        int[] moves = buffers[plies];
+        int count = match.generateLegalMoves(moves);
+        positions.put(key, new BookPosition(Arrays.copyOf(moves, count), match.isInCheck(), plies));
+
+        if (plies == 0) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            match.makeMove(moves[i]);
+            collect(match, plies - 1, buffers, positions);
+            match.unmakeMove();
+        }
+    }
+
+    /**
+     * A position collected into the book
+     *
+     * @param moves          The legal moves of the position
+     * @param inCheck        Whether the player to move is in check
+     * @param remainingPlies The most plies remaining when the position was reached
+     */
+    private record BookPosition(int[] moves, boolean inCheck, int remainingPlies) {
+    }
+}
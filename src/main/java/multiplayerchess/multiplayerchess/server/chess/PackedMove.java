@@ -0,0 +1,159 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Position;
+
+/**
+ * Helper methods for moves packed into a single int.
+ * The packed move consists of (from the least significant bit):
+ * <ul>
+ *     <li>6 bits - the square the piece moves from</li>
+ *     <li>6 bits - the square the piece moves to</li>
+ *     <li>3 bits - the ordinal of the {@link PieceType} of the moved piece</li>
+ *     <li>the flags of the move - capture, en passant, double pawn push, castle and promotion</li>
+ * </ul>
+ * The squares are indexed the same as in {@link Bitboards}.
+ * A packed move can be translated to a {@link Move} by {@link #toMove(int)}.
+ */
+public final class PackedMove {
+
+    public static final int CaptureFlag = 1 << 15;
+    public static final int EnPassantFlag = 1 << 16;
+    public static final int DoublePushFlag = 1 << 17;
+    public static final int CastleFlag = 1 << 18;
+    public static final int PromotionFlag = 1 << 19;
+
+    private static final int SquareMask = 0x3F;
+    private static final int ToShift = 6;
+    private static final int PieceTypeShift = 12;
+    private static final int PieceTypeMask = 0x7;
+    private static final PieceType[] pieceTypes = PieceType.values();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PackedMove() {
+    }
+
+    /**
+     * Packs a move into an int
+     *
+     * @param from      The square the piece moves from
+     * @param to        The square the piece moves to
+     * @param pieceType The type of the moved piece
+     * @param flags     The flags of the move
+     * @return The packed move
+     */
+    public static int create(int from, int to, PieceType pieceType, int flags) {
+        return from | (to << ToShift) | (pieceType.ordinal() << PieceTypeShift) | flags;
+    }
+
+    /**
+     * Gets the square the piece moves from
+     *
+     * @param move The packed move
+     * @return The square the piece moves from
+     */
+    public static int from(int move) {
+        return move & SquareMask;
+    }
+
+    /**
+     * Gets the square the piece moves to
+     *
+     * @param move The packed move
+     * @return The square the piece moves to
+     */
+    public static int to(int move) {
+        return (move >>> ToShift) & SquareMask;
+    }
+
+    /**
+     * Gets the type of the moved piece
+     *
+     * @param move The packed move
+     * @return The type of the moved piece
+     */
+    public static PieceType pieceType(int move) {
+        return pieceTypes[(move >>> PieceTypeShift) & PieceTypeMask];
+    }
+
+    /**
+     * Answers whether the move is a capture, en passant included
+     *
+     * @param move The packed move
+     * @return Whether the move is a capture
+     */
+    public static boolean isCapture(int move) {
+        return (move & CaptureFlag) != 0;
+    }
+
+    /**
+     * Answers whether the move is an en passant capture
+     *
+     * @param move The packed move
+     * @return Whether the move is an en passant capture
+     */
+    public static boolean isEnPassant(int move) {
+        return (move & EnPassantFlag) != 0;
+    }
+
+    /**
+     * Answers whether the move is a pawn moving two tiles forward
+     *
+     * @param move The packed move
+     * @return Whether the move is a double pawn push
+     */
+    public static boolean isDoublePush(int move) {
+        return (move & DoublePushFlag) != 0;
+    }
+
+    /**
+     * Answers whether the move is a castle
+     *
+     * @param move The packed move
+     * @return Whether the move is a castle
+     */
+    public static boolean isCastle(int move) {
+        return (move & CastleFlag) != 0;
+    }
+
+    /**
+     * Answers whether the move is a pawn promotion
+     *
+     * @param move The packed move
+     * @return Whether the move is a promotion
+     */
+    public static boolean isPromotion(int move) {
+        return (move & PromotionFlag) != 0;
+    }
+
+    /**
+     * Answers whether the packed move describes the same move as the {@link Move}
+     *
+     * @param move  The packed move
+     * @param other The move object
+     * @return Whether the moves are the same
+     */
+    public static boolean matches(int move, Move other) {
+        return from(move) == Bitboards.square(other.startPosition)
+                && to(move) == Bitboards.square(other.endPosition)
+                && pieceType(move) == other.pieceType
+                && isCapture(move) == other.isCapture;
+    }
+
+    /**
+     * Translates the packed move into a {@link Move}
+     *
+     * @param move The packed move
+     * @return The move object
+     */
+    public static Move toMove(int move) {
+        int from = from(move);
+        int to = to(move);
+        return new Move(pieceType(move),
+                new Position(Bitboards.row(from), Bitboards.column(from)),
+                new Position(Bitboards.row(to), Bitboards.column(to)),
+                isCapture(move));
+    }
+}
@@ -0,0 +1,290 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link Perft} and position analysis on a work-stealing {@link ForkJoinPool}.
+ * <p>
+ * The move tree is split into a task per move until only {@link #SequentialDepth} plies are left,
+ * which are then counted sequentially. A match is mutated by its moves, so every task replays the moves
+ * leading to its position on its own match created from the FEN rather than sharing one.
+ * <p>
+ * Can be run from the command line:
+ * <pre>
+ *     ParallelPerft [--threads=N] [--divide] &lt;depth&gt; [FEN]   counts the nodes of the position
+ *     ParallelPerft [--threads=N] --analyse &lt;file&gt;           analyses every FEN of the file, one per line
+ * </pre>
+ */
+public final class ParallelPerft {
+
+    /**
+     * The number of remaining plies below which a subtree is counted by a single task.
+     */
+    public static final int SequentialDepth = 3;
+
+    private static final String StartingFEN = PerftReference.STARTING_POSITION.FEN;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ParallelPerft() {
+    }
+
+    /**
+     * Counts the leaf nodes at the depth in parallel
+     *
+     * @param pool           The pool to run the tasks on
+     * @param FEN            The position to count from
+     * @param representation The representation of the boards of the tasks
+     * @param depth          The number of plies
+     * @return The number of move sequences of the given length
+     */
+    public static long perft(ForkJoinPool pool, String FEN, BoardRepresentation representation, int depth) {
+        return pool.invoke(new PerftTask(FEN, representation, new int[0], depth));
+    }
+
+    /**
+     * Counts the leaf nodes at the depth for every legal move of the position separately, in parallel
+     *
+     * @param pool           The pool to run the tasks on
+     * @param FEN            The position to count from
+     * @param representation The representation of the boards of the tasks
+     * @param depth          The number of plies, at least 1
+     * @return The number of leaf nodes after every move, by the name of the move, see {@link Perft#moveName(int)}
+     */
+    public static Map<String, Long> divide(ForkJoinPool pool, String FEN, BoardRepresentation representation,
+                                           int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("The depth has to be at least 1");
+        }
+
+        int[] moves = new int[MoveGenerator.MaxMoves];
+        int count = new Match(FEN, representation).generateLegalMoves(moves);
+
+        PerftTask[] tasks = new PerftTask[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new PerftTask(FEN, representation, new int[]{moves[i]}, depth - 1);
+        }
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+
+        Map<String, Long> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            nodes.put(Perft.moveName(moves[i]), tasks[i].join());
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Analyses a single position - its number of legal moves, whether the player is in check and whether
+     * the game is over. An invalid FEN is reported in the result rather than thrown.
+     *
+     * @param FEN The position to analyse
+     * @return The analysis of the position
+     */
+    public static PositionAnalysis analyse(String FEN) {
+        try {
+            Match match = new Match(FEN, BoardRepresentation.BITBOARD);
+            return new PositionAnalysis(FEN, match.evaluateStatus(), null);
+        }
+        catch (RuntimeException e) {
+            return new PositionAnalysis(FEN, null, e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Analyses all the positions in parallel, the results are passed to the consumer in the order of the positions
+     * from the calling thread
+     *
+     * @param pool    The pool to run the analysis on
+     * @param FENs    The positions to analyse, blank lines are skipped
+     * @param results The consumer of the results
+     * @throws InterruptedException If interrupted while waiting for the analysis
+     */
+    public static void analyseAll(ForkJoinPool pool, Stream<String> FENs, Consumer<PositionAnalysis> results)
+            throws InterruptedException {
+        try {
+            pool.submit(() -> FENs.parallel()
+                    .map(String::strip)
+                    .filter(FEN -> !FEN.isEmpty())
+                    .map(ParallelPerft::analyse)
+                    .forEachOrdered(results)).get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs the parallel perft or analysis from the command line, see the class description.
+     *
+     * @param args The command line arguments
+     * @throws IOException          If the file of positions cannot be read
+     * @throws InterruptedException If interrupted while waiting for the analysis
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int argIndex = 0;
+        if (args.length > 0 && args[0].startsWith("--threads=")) {
+            threads = Integer.parseInt(args[0].substring("--threads=".length()));
+            argIndex++;
+        }
+        String[] rest = Arrays.copyOfRange(args, argIndex, args.length);
+        if (rest.length == 0 || (rest[0].startsWith("--") && rest.length == 1)) {
+            System.out.println("Usage: ParallelPerft [--threads=N] [--divide] <depth> [FEN]"
+                    + " | ParallelPerft [--threads=N] --analyse <file>");
+            System.exit(2);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            if (rest[0].equals("--analyse")) {
+                analyseFile(pool, Path.of(rest[1]));
+            } else if (rest[0].equals("--divide")) {
+                String FEN = rest.length > 2 ? rest[2] : StartingFEN;
+                int depth = Integer.parseInt(rest[1]);
+                long total = 0;
+                for (var entry : divide(pool, FEN, BoardRepresentation.BITBOARD, depth).entrySet()) {
+                    System.out.println(entry.getKey() + ": " + entry.getValue());
+                    total += entry.getValue();
+                }
+                System.out.println("Nodes: " + total);
+            } else {
+                String FEN = rest.length > 1 ? rest[1] : StartingFEN;
+                int depth = Integer.parseInt(rest[0]);
+                long start = System.nanoTime();
+                long nodes = perft(pool, FEN, BoardRepresentation.BITBOARD, depth);
+                long elapsed = Math.max(1, System.nanoTime() - start);
+                System.out.printf("depth %d: %d nodes in %.3f s, %.0f nodes/s on %d threads%n",
+                        depth, nodes, elapsed / 1e9, nodes * 1e9 / elapsed, threads);
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Analyses the positions of the file and prints the results with a summary
+     *
+     * @param pool The pool to run the analysis on
+     * @param file The file with a FEN on every line
+     * @throws IOException          If the file cannot be read
+     * @throws InterruptedException If interrupted while waiting for the analysis
+     */
+    private static void analyseFile(ForkJoinPool pool, Path file) throws IOException, InterruptedException {
+        long[] outcomes = new long[GameOutcome.values().length];
+        long[] invalid = new long[1];
+        long start = System.nanoTime();
+
+        var out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        try (Stream<String> lines = Files.lines(file)) {
+            analyseAll(pool, lines, analysis -> {
+                if (analysis.isValid()) {
+                    outcomes[analysis.status.outcome.ordinal()]++;
+                } else {
+                    invalid[0]++;
+                }
+                try {
+                    out.write(analysis.toString());
+                    out.newLine();
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        out.flush();
+
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        long total = invalid[0] + Arrays.stream(outcomes).sum();
+        System.err.printf("%d positions in %.3f s, %.0f positions/s%n", total, elapsed / 1e9, total * 1e9 / elapsed);
+        for (GameOutcome outcome : GameOutcome.values()) {
+            System.err.println(outcome + ": " + outcomes[outcome.ordinal()]);
+        }
+        System.err.println("INVALID: " + invalid[0]);
+    }
+
+    /**
+     * Counts the leaf nodes of the position reached by playing the moves from the FEN
+     */
+    private static final class PerftTask extends RecursiveTask<Long> {
+        static final long serialVersionUID = 0x1234567;
+        private final String FEN;
+        private final BoardRepresentation representation;
+        private final int[] path;
+        private final int depth;
+
+        /**
+         * The PerftTask constructor
+         *
+         * @param FEN            The position the moves are played from
+         * @param representation The representation of the board of the task
+         * @param path           The packed moves leading to the position to count from
+         * @param depth          The number of plies to count
+         */
+        private PerftTask(String FEN, BoardRepresentation representation, int[] path, int depth) {
+            this.FEN = FEN;
+            this.representation = representation;
+            this.path = path;
+            this.depth = depth;
+        }
+
+        /**
+         * Counts the nodes sequentially if the subtree is small, otherwise splits it into a task for every move
+         *
+         * @return The number of leaf nodes
+         */
+        @Override
+        protected Long compute() {
+            Match match = new Match(FEN, representation);
+            for (int move : path) {
+                match.makeMove(move);
+            }
+            if (depth <= SequentialDepth) {
+                return Perft.perft(match, depth);
+            }
+
+            int[] moves = new int[MoveGenerator.MaxMoves];
+            int count = match.generateLegalMoves(moves);
+            PerftTask[] tasks = new PerftTask[count];
+            for (int i = 0; i < count; i++) {
+                int[] childPath = Arrays.copyOf(path, path.length + 1);
+                childPath[path.length] = moves[i];
+                tasks[i] = new PerftTask(FEN, representation, childPath, depth - 1);
+            }
+            invokeAll(tasks);
+
+            long nodes = 0;
+            for (PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+}
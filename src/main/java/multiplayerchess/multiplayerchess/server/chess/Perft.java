@@ -0,0 +1,182 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the tree of all legal move sequences of a given length ("perft").
+ * The counts of well-known positions verify the move generation, see {@link PerftReference},
+ * and the time taken measures its speed.
+ * <p>
+ * Can be run from the command line:
+ * <pre>
+ *     Perft [--divide] &lt;depth&gt; [FEN]   counts the nodes of the position, the starting position by default
+ *     Perft --reference [depth]          checks all the reference positions up to the depth
+ * </pre>
+ */
+public final class Perft {
+
+    private static final String StartingFEN = PerftReference.STARTING_POSITION.FEN;
+    private static final String[] columnNames = {"a", "b", "c", "d", "e", "f", "g", "h"};
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf nodes at the depth.
+     * The match is returned to its original state afterwards.
+     *
+     * @param match The match in the position to count from
+     * @param depth The number of plies
+     * @return The number of move sequences of the given length
+     */
+    public static long perft(Match match, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+
+        return perft(match, depth, new int[depth][MoveGenerator.MaxMoves]);
+    }
+
+    /**
+     * Counts the leaf nodes at the depth for every legal move of the position separately,
+     * used to find the move whose count differs from a reference.
+     *
+     * @param match The match in the position to count from
+     * @param depth The number of plies, at least 1
+     * @return The number of leaf nodes after every move, by the name of the move, see {@link #moveName(int)}
+     */
+    public static Map<String, Long> divide(Match match, int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("The depth has to be at least 1");
+        }
+
+        int[][] buffers = new int[depth][MoveGenerator.MaxMoves];
+        int[] moves = buffers[depth - 1];
+        int count = match.generateLegalMoves(moves);
+
+        Map<String, Long> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            match.makeMove(moves[i]);
+            nodes.put(moveName(moves[i]), depth == 1 ? 1 : perft(match, depth - 1, buffers));
+            match.unmakeMove();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Gets the name of the move in the long algebraic notation used by perft tools, e.g. {@code e2e4} or
+     * {@code a7a8q}
+     *
+     * @param move The packed move
+     * @return The name of the move
+     */
+    public static String moveName(int move) {
+        String name = squareName(PackedMove.from(move)) + squareName(PackedMove.to(move));
+        return PackedMove.isPromotion(move) ? name + "q" : name;
+    }
+
+    /**
+     * Runs perft from the command line, see the class description.
+     *
+     * @param args The command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--reference")) {
+            int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+            boolean allPassed = true;
+            for (PerftReference reference : PerftReference.values()) {
+                for (int depth = 1; depth <= Math.min(maxDepth, reference.maxDepth()); depth++) {
+                    long nodes = run(reference.name(), reference.FEN, depth);
+                    if (nodes != reference.nodes(depth)) {
+                        System.out.println("  FAILED, expected " + reference.nodes(depth));
+                        allPassed = false;
+                    }
+                }
+            }
+            System.exit(allPassed ? 0 : 1);
+        }
+
+        boolean divide = args.length > 0 && args[0].equals("--divide");
+        int argIndex = divide ? 1 : 0;
+        if (args.length <= argIndex) {
+            System.out.println("Usage: Perft [--divide] <depth> [FEN] | Perft --reference [depth]");
+            System.exit(2);
+        }
+        int depth = Integer.parseInt(args[argIndex]);
+        String FEN = args.length > argIndex + 1 ? args[argIndex + 1] : StartingFEN;
+
+        if (divide) {
+            Match match = new Match(FEN, BoardRepresentation.BITBOARD);
+            long total = 0;
+            for (var entry : divide(match, depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.println("Nodes: " + total);
+        } else {
+            run(FEN, FEN, depth);
+        }
+    }
+
+    /**
+     * Counts the nodes of the position and prints them with the speed
+     *
+     * @param name  The name of the position to print
+     * @param FEN   The FEN of the position
+     * @param depth The number of plies
+     * @return The number of leaf nodes
+     */
+    private static long run(String name, String FEN, int depth) {
+        Match match = new Match(FEN, BoardRepresentation.BITBOARD);
+        long start = System.nanoTime();
+        long nodes = perft(match, depth);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        System.out.printf("%s depth %d: %d nodes in %.3f s, %.0f nodes/s%n",
+                name, depth, nodes, elapsed / 1e9, nodes * 1e9 / elapsed);
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes with a move buffer for every ply, so that the counting does not allocate
+     *
+     * @param match   The match in the position to count from
+     * @param depth   The number of plies, at least 1
+     * @param buffers The move buffers, at least depth of them
+     * @return The number of leaf nodes
+     */
+    private static long perft(Match match, int depth, int[][] buffers) {
+        int[] moves = buffers[depth - 1];
+        int count = match.generateLegalMoves(moves);
+        // The moves of the last ply are leaves, they do not have to be played
+        if (depth == 1) {
+            return count;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            match.makeMove(moves[i]);
+            nodes += perft(match, depth - 1, buffers);
+            match.unmakeMove();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Gets the name of the square, e.g. {@code e4}
+     *
+     * @param square The square index
+     * @return The name of the square
+     */
+    private static String squareName(int square) {
+        return columnNames[Bitboards.column(square)] + (Bitboards.row(square) + 1);
+    }
+}
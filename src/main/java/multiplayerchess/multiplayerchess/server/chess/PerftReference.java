@@ -0,0 +1,63 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+/**
+ * The standard perft positions with their known leaf node counts, see {@link Perft}.
+ * <p>
+ * The counts are only listed up to the depth at which pawns start promoting to other pieces than the queen,
+ * as the server only supports promotions to a queen.
+ */
+public enum PerftReference {
+    /**
+     * The starting position.
+     */
+    STARTING_POSITION("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 20, 400, 8_902, 197_281),
+    /**
+     * "Kiwipete" - castles, pins, en passant and discovered checks.
+     */
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 48, 2_039, 97_862),
+    /**
+     * An endgame with en passant captures exposing the king along the row.
+     */
+    POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2_812, 43_238),
+    /**
+     * A middlegame with many pieces in play.
+     */
+    POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 46, 2_079, 89_890);
+
+    /**
+     * The FEN of the position.
+     */
+    public final String FEN;
+
+    private final long[] nodeCounts;
+
+    /**
+     * The PerftReference constructor
+     *
+     * @param FEN        The FEN of the position
+     * @param nodeCounts The leaf node counts starting at depth 1
+     */
+    PerftReference(String FEN, long... nodeCounts) {
+        this.FEN = FEN;
+        this.nodeCounts = nodeCounts;
+    }
+
+    /**
+     * Gets the deepest depth with a known node count
+     *
+     * @return The maximum depth
+     */
+    public int maxDepth() {
+        return nodeCounts.length;
+    }
+
+    /**
+     * Gets the known number of leaf nodes at the depth
+     *
+     * @param depth The depth between 1 and {@link #maxDepth()}
+     * @return The number of leaf nodes
+     */
+    public long nodes(int depth) {
+        return nodeCounts[depth - 1];
+    }
+}
@@ -0,0 +1,47 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+/**
+ * The result of analysing a single position given by its FEN, see {@link ParallelPerft#analyse(String)}.
+ */
+public final class PositionAnalysis {
+    public final String FEN;
+    public final GameStatus status;
+    public final String error;
+
+    /**
+     * Constructs a new PositionAnalysis.
+     *
+     * @param FEN    The analysed FEN.
+     * @param status The status of the position or null if the FEN is invalid.
+     * @param error  The reason the FEN is invalid or null if it is valid.
+     */
+    public PositionAnalysis(String FEN, GameStatus status, String error) {
+        this.FEN = FEN;
+        this.status = status;
+        this.error = error;
+    }
+
+    /**
+     * Answers whether the FEN could be parsed
+     *
+     * @return Whether the FEN is valid
+     */
+    public boolean isValid() {
+        return status != null;
+    }
+
+    /**
+     * Formats the analysis as a single line with the FEN, the number of legal moves,
+     * whether the player to move is in check and the outcome, separated by semicolons
+     *
+     * @return The formatted analysis
+     */
+    @Override
+    public String toString() {
+        if (!isValid()) {
+            return FEN + ";INVALID;" + error;
+        }
+
+        return FEN + ";" + status.legalMoveCount + ";" + (status.inCheck ? "check" : "-") + ";" + status.outcome;
+    }
+}
@@ -0,0 +1,71 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import java.util.Arrays;
+
+/**
+ * The Zobrist keys of the positions that occurred in a match, see {@link Match#positionKey()}.
+ * The keys are kept in a growing array of longs, one key per ply.
+ * <p>
+ * A position can only repeat until an irreversible move (a capture or a pawn move) is made,
+ * so looking for repetitions only scans the keys since the last such move.
+ */
+final class PositionHistory {
+
+    private static final int InitialCapacity = 16;
+
+    private long[] keys;
+    private int count;
+
+    /**
+     * The PositionHistory constructor. Creates an empty history.
+     */
+    PositionHistory() {
+        keys = new long[InitialCapacity];
+        count = 0;
+    }
+
+    /**
+     * Adds the key of the position which was reached
+     *
+     * @param key The key of the position
+     */
+    void push(long key) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+
+        keys[count++] = key;
+    }
+
+    /**
+     * Removes the key of the last position, when the move leading to it is taken back
+     */
+    void pop() {
+        count--;
+    }
+
+    /**
+     * Counts how many times the last position occurred, the last position included.
+     * Only the positions with the same player to move are compared, i.e. every second ply.
+     *
+     * @param reversiblePlies The number of plies since the last irreversible move, i.e. the halfmove clock
+     * @return The number of times the last position occurred
+     */
+    int repetitions(int reversiblePlies) {
+        if (count == 0) {
+            return 0;
+        }
+
+        int last = count - 1;
+        long key = keys[last];
+        int first = Math.max(0, last - reversiblePlies);
+        int repetitions = 1;
+        for (int i = last - 2; i >= first; i -= 2) {
+            if (keys[i] == key) {
+                repetitions++;
+            }
+        }
+
+        return repetitions;
+    }
+}
@@ -0,0 +1,97 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
+
+import java.util.SplittableRandom;
+
+/**
+ * The random keys of Zobrist hashing.
+ * The key of a position is the xor of the keys of every piece on its square, the player to move,
+ * the castling rights and the column of the possible en passant. A move therefore changes the key
+ * by xor-ing only the keys of the changed parts of the position.
+ * <p>
+ * The keys are generated from a fixed seed, so the keys of a position are the same in every run of the server.
+ */
+public final class Zobrist {
+
+    private static final long Seed = 0x2F6B_A3C1_9E37_79B9L;
+    private static final int CastlingRightsCount = 16;
+
+    private static final long[][][] pieceKeys;
+    private static final long[] castlingKeys;
+    private static final long[] enPassantKeys;
+    private static final long blackToMoveKey;
+
+    static {
+        SplittableRandom random = new SplittableRandom(Seed);
+
+        pieceKeys = new long[Color.values().length][PieceType.values().length][Bitboards.SquareCount];
+        for (long[][] colorKeys : pieceKeys) {
+            for (long[] typeKeys : colorKeys) {
+                for (int square = 0; square < Bitboards.SquareCount; square++) {
+                    typeKeys[square] = random.nextLong();
+                }
+            }
+        }
+
+        castlingKeys = new long[CastlingRightsCount];
+        for (int rights = 0; rights < CastlingRightsCount; rights++) {
+            castlingKeys[rights] = random.nextLong();
+        }
+
+        enPassantKeys = new long[Bitboards.ColumnCount];
+        for (int column = 0; column < Bitboards.ColumnCount; column++) {
+            enPassantKeys[column] = random.nextLong();
+        }
+
+        blackToMoveKey = random.nextLong();
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * Gets the key of the piece on the square
+     *
+     * @param color  The color of the piece
+     * @param type   The type of the piece
+     * @param square The square of the piece, see {@link Bitboards}
+     * @return The key of the piece on the square
+     */
+    public static long pieceKey(Color color, PieceType type, int square) {
+        return pieceKeys[color.ordinal()][type.ordinal()][square];
+    }
+
+    /**
+     * Gets the key of the castling rights
+     *
+     * @param castlingRights The ids of the possible castles combined by bitwise or
+     * @return The key of the castling rights
+     */
+    public static long castlingKey(int castlingRights) {
+        return castlingKeys[castlingRights];
+    }
+
+    /**
+     * Gets the key of a possible en passant on the column
+     *
+     * @param column The column of the en passant square
+     * @return The key of the en passant
+     */
+    public static long enPassantKey(int column) {
+        return enPassantKeys[column];
+    }
+
+    /**
+     * Gets the key of the player to move, the key is xor-ed in only when black is to move
+     *
+     * @return The key of black to move
+     */
+    public static long blackToMoveKey() {
+        return blackToMoveKey;
+    }
+}
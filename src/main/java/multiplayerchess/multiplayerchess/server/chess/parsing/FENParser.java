@@ -77,6 +77,28 @@ public class FENParser {
         return board;
     }
 
+    /**
+     * Creates the board from the position parsed by the {@link FENReader}.
+     *
+     * @param position The parsed position to create a board from.
+     * @return The board created from the position.
+     */
+    public static Piece[][] ParseBoard(FENPosition position) {
+        Piece[][] board =
+                new Piece[Board.MaxBoardRow - Board.MinBoardRow + 1][Board.MaxBoardColumn - Board.MinBoardColumn + 1];
+
+        for (int rank = Board.MinBoardRow; rank <= Board.MaxBoardRow; rank++) {
+            for (int file = Board.MinBoardColumn; file <= Board.MaxBoardColumn; file++) {
+                if (!position.isEmpty(rank, file)) {
+                    board[rank][file] =
+                            charToPieceTranslation.get(position.pieceChar(rank, file)).apply(new Position(rank, file));
+                }
+            }
+        }
+
+        return board;
+    }
+
     /**
      * Gets the player from the FEN string.
      *
@@ -144,7 +166,9 @@ public class FENParser {
     }
 
     /**
-     * Creates a FEN string from the given state of the match
+     * Creates a FEN string from the given state of the match.
+     * The match uses the faster {@link FENWriter}, this is kept as the reference the writer is compared against
+     * by its tests and benchmark.
      *
      * @param board            The board situation in the match
      * @param currentPlayer    The player whose turn it is
@@ -201,7 +225,7 @@ public class FENParser {
                     emptySquares++;
                 } else {
                     if (emptySquares > 0) {
-                        builder.append(emptySquares + '0');
+                        builder.append((char) ('0' + emptySquares));
                         emptySquares = 0;
                     }
 
@@ -210,7 +234,7 @@ public class FENParser {
                 }
             }
             if (emptySquares > 0) {
-                builder.append(emptySquares + '0');
+                builder.append((char) ('0' + emptySquares));
             }
             if (rank > Board.MinBoardRow) {
                 builder.append('/');
@@ -0,0 +1,214 @@
+package multiplayerchess.multiplayerchess.server.chess.parsing;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.server.chess.Bitboards;
+import multiplayerchess.multiplayerchess.server.chess.Board;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Castling;
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+
+/**
+ * Writes the FEN of a position into a buffer reused by the thread, so that the only allocation is the resulting
+ * string.
+ * <p>
+ * The pieces are read from the bitboards of the board and translated to characters through lookup tables,
+ * the castling rights are given as the {@link Castling#id ids} combined by bitwise or.
+ */
+public final class FENWriter {
+
+    /**
+     * The maximum length of a written FEN.
+     */
+    public static final int MaxLength = 128;
+
+    /**
+     * The en passant square used when no en passant is possible.
+     */
+    public static final int NoSquare = MoveGenerator.NoSquare;
+
+    private static final char[][] pieceChars = createPieceChars();
+    private static final Castling[] castles = {
+            Castling.WHITE_KINGSIDE, Castling.WHITE_QUEENSIDE, Castling.BLACK_KINGSIDE, Castling.BLACK_QUEENSIDE
+    };
+    private static final char[] castlingChars = {'K', 'Q', 'k', 'q'};
+    private static final Color[] colors = Color.values();
+    private static final PieceType[] pieceTypes = PieceType.values();
+
+    private static final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FENWriter() {
+    }
+
+    /**
+     * Creates the FEN of the position
+     *
+     * @param board           The board situation in the match
+     * @param currentPlayer   The player whose turn it is
+     * @param castlingRights  The possible castles
+     * @param halfmoveClock   The number of halfmoves since the last pawn move or capture
+     * @param moves           The number of full moves since the start of the game
+     * @param enPassantSquare The en passant square or {@link #NoSquare}
+     * @return The FEN string
+     */
+    public static String write(Board board, Player currentPlayer, int castlingRights, int halfmoveClock, int moves,
+                               int enPassantSquare) {
+        Buffers threadBuffers = buffers.get();
+        int length = fill(threadBuffers, board, currentPlayer, castlingRights, halfmoveClock, moves, enPassantSquare);
+        return new String(threadBuffers.chars, 0, length);
+    }
+
+    /**
+     * Fills the characters of the FEN into the buffers of the thread
+     *
+     * @param buffers         The buffers of the thread
+     * @param board           The board situation in the match
+     * @param currentPlayer   The player whose turn it is
+     * @param castlingRights  The possible castles
+     * @param halfmoveClock   The number of halfmoves since the last pawn move or capture
+     * @param moves           The number of full moves since the start of the game
+     * @param enPassantSquare The en passant square or {@link #NoSquare}
+     * @return The number of characters of the FEN
+     */
+    private static int fill(Buffers buffers, Board board, Player currentPlayer, int castlingRights,
+                            int halfmoveClock, int moves, int enPassantSquare) {
+        char[] chars = buffers.chars;
+        int length = fillPlacement(buffers, board);
+
+        chars[length++] = ' ';
+        chars[length++] = currentPlayer == Player.WHITE ? 'w' : 'b';
+
+        chars[length++] = ' ';
+        if ((castlingRights & 0b1111) == 0) {
+            chars[length++] = '-';
+        }
+        for (int i = 0; i < castles.length; i++) {
+            if ((castlingRights & castles[i].id) != 0) {
+                chars[length++] = castlingChars[i];
+            }
+        }
+
+        chars[length++] = ' ';
+        if (enPassantSquare == NoSquare) {
+            chars[length++] = '-';
+        } else {
+            chars[length++] = (char) ('a' + Bitboards.column(enPassantSquare));
+            chars[length++] = (char) ('1' + Bitboards.row(enPassantSquare));
+        }
+
+        chars[length++] = ' ';
+        length = fillNumber(chars, length, halfmoveClock);
+        chars[length++] = ' ';
+        return fillNumber(chars, length, moves);
+    }
+
+    /**
+     * Fills the piece placement, from the last row to the first one
+     *
+     * @param buffers The buffers of the thread
+     * @param board   The board to fill
+     * @return The number of characters of the placement
+     */
+    private static int fillPlacement(Buffers buffers, Board board) {
+        char[] squares = buffers.squares;
+        for (Color color : colors) {
+            char[] colorChars = pieceChars[color.ordinal()];
+            for (PieceType type : pieceTypes) {
+                long pieces = board.getPieces(type, color);
+                while (pieces != 0) {
+                    squares[Bitboards.firstSquare(pieces)] = colorChars[type.ordinal()];
+                    pieces = Bitboards.withoutFirstSquare(pieces);
+                }
+            }
+        }
+
+        char[] chars = buffers.chars;
+        int length = 0;
+        for (int row = Bitboards.RowCount - 1; row >= 0; row--) {
+            int emptySquares = 0;
+            for (int column = 0; column < Bitboards.ColumnCount; column++) {
+                int square = Bitboards.square(row, column);
+                char piece = squares[square];
+                if (piece == 0) {
+                    emptySquares++;
+                    continue;
+                }
+
+                if (emptySquares > 0) {
+                    chars[length++] = (char) ('0' + emptySquares);
+                    emptySquares = 0;
+                }
+                chars[length++] = piece;
+                // Leave the squares empty for the next FEN
+                squares[square] = 0;
+            }
+            if (emptySquares > 0) {
+                chars[length++] = (char) ('0' + emptySquares);
+            }
+            if (row > 0) {
+                chars[length++] = '/';
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Fills the decimal digits of the non-negative number
+     *
+     * @param chars  The characters to fill into
+     * @param length The number of characters already filled
+     * @param number The number to fill
+     * @return The new number of filled characters
+     */
+    private static int fillNumber(char[] chars, int length, int number) {
+        if (number < 0) {
+            throw new IllegalArgumentException("Negative move count " + number);
+        }
+
+        int digits = 1;
+        for (int rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            chars[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+
+        return length + digits;
+    }
+
+    /**
+     * Creates the table of the characters of the pieces
+     *
+     * @return The characters by the ordinal of the color and the ordinal of the piece type
+     */
+    private static char[][] createPieceChars() {
+        char[][] chars = new char[Color.values().length][PieceType.values().length];
+        for (PieceType type : PieceType.values()) {
+            char blackChar = switch (type) {
+                case KING -> 'k';
+                case QUEEN -> 'q';
+                case BISHOP -> 'b';
+                case KNIGHT -> 'n';
+                case ROOK -> 'r';
+                case PAWN -> 'p';
+            };
+            chars[Color.BLACK.ordinal()][type.ordinal()] = blackChar;
+            chars[Color.WHITE.ordinal()][type.ordinal()] = Character.toUpperCase(blackChar);
+        }
+
+        return chars;
+    }
+
+    /**
+     * The buffers reused by a thread
+     */
+    private static final class Buffers {
+        private final char[] chars = new char[MaxLength];
+        private final char[] squares = new char[Bitboards.SquareCount];
+    }
+}
@@ -1,5 +1,8 @@
 package multiplayerchess.multiplayerchess.server.chess.pieces;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * The enumeration of all the possible castling moves.
  */
@@ -19,4 +22,36 @@ public enum Castling {
     Castling(int id) {
         this.id = id;
     }
+
+    /**
+     * Combines the ids of the castles into a single int.
+     *
+     * @param castles The castles to combine
+     * @return The ids of the castles combined by bitwise or
+     */
+    public static int toRights(Set<Castling> castles) {
+        int rights = 0;
+        for (Castling castling : castles) {
+            rights |= castling.id;
+        }
+
+        return rights;
+    }
+
+    /**
+     * Gets the castles whose ids are contained in the given int.
+     *
+     * @param rights The ids of the castles combined by bitwise or
+     * @return The set of the castles
+     */
+    public static Set<Castling> fromRights(int rights) {
+        Set<Castling> castles = new HashSet<>();
+        for (Castling castling : values()) {
+            if ((rights & castling.id) != 0) {
+                castles.add(castling);
+            }
+        }
+
+        return castles;
+    }
 }
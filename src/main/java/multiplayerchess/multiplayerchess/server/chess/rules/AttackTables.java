@@ -0,0 +1,320 @@
+package multiplayerchess.multiplayerchess.server.chess.rules;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.server.chess.Bitboards;
+import multiplayerchess.multiplayerchess.server.chess.Board;
+
+/**
+ * Precomputed attack tables answering which tiles a piece attacks.
+ * Knight, king and pawn attacks are looked up directly by square, the attacks of sliding pieces
+ * (rook, bishop and queen) are looked up by magic bitboards - the relevant blockers of the square are multiplied by
+ * a magic number, which maps every blocker configuration to a unique index into the precomputed table.
+ */
+public final class AttackTables {
+
+    private static final long[] rookMagics = {
+            0x0080008420144000L, 0x0140001000402000L, 0x8100200100081040L, 0x0580100181040800L,
+            0x0480040002480180L, 0x020002001004C108L, 0x06002600180104ACL, 0x0A00010200804024L,
+            0x1102800320814002L, 0xC000808040002000L, 0x0202802000821000L, 0x4210800800801000L,
+            0x8008808044004800L, 0x0006002418100200L, 0x0A00800200010080L, 0x0202000208804114L,
+            0x2010208000400080L, 0x1080484004201000L, 0x1062060020408410L, 0x4810010009001024L,
+            0x4400808008000401L, 0x9421010002080400L, 0x4208840002100801L, 0x8500020000804104L,
+            0x20A0400080208000L, 0x8840008080402008L, 0x0450200080100080L, 0x00100400C02800C0L,
+            0x0A48000880040080L, 0x1100020080800400L, 0x000A921400900148L, 0x0033004600008904L,
+            0x4202804002800020L, 0x3118804202002504L, 0x0004208842001200L, 0x0014C80084801000L,
+            0x0000080080800400L, 0x0922800400800200L, 0x8442000142008418L, 0x0020800040800100L,
+            0x1400400080008020L, 0x0010002008484002L, 0x0400200010008080L, 0x4028001000088080L,
+            0x4408000400808008L, 0x0129000400090052L, 0x8001001200110004L, 0x4000804084020001L,
+            0x1080002080400080L, 0x6A0B950022004200L, 0x8004401200268200L, 0x0002000820411600L,
+            0x0481480080040280L, 0xC001000802040100L, 0x00D1000C06000300L, 0x0026010084004200L,
+            0x2001C81100208001L, 0x0040002080110041L, 0x00410011A000400DL, 0x2081002208041001L,
+            0x0002000804201002L, 0x5101000A28040029L, 0x0100080112489004L, 0x02000E4400288102L
+    };
+    private static final long[] bishopMagics = {
+            0x9120024202040010L, 0x2848084884044042L, 0x211000C20041A022L, 0x4002208A01403034L,
+            0x0004042004112000L, 0x6002021004120500L, 0x0022080202101041L, 0x0102020382849000L,
+            0x0000082089840500L, 0x400204C104010200L, 0x0022460202060900L, 0x0400110502000010L,
+            0x10A9840420020000L, 0x0024120150080184L, 0x0008640288443200L, 0x822000908C901000L,
+            0x0488100408084810L, 0x0010402022008910L, 0x0084000808002208L, 0x0006800802024012L,
+            0x0246008420210880L, 0x0083050200808408L, 0x2004000231040200L, 0x0A04820504088684L,
+            0x0002A80120089050L, 0x1410020008320C20L, 0x8000300008008020L, 0x0344010084200880L,
+            0x6003010001104000L, 0x0008164002004214L, 0x021811000A014100L, 0x0242020020884140L,
+            0x0001104005088800L, 0x0002105069040100L, 0x0200805001010402L, 0x4001020081880080L,
+            0x06402080202A0020L, 0x0201100080010060L, 0x03282A04002080C0L, 0x02040040802206A0L,
+            0x2008822840482090L, 0x40008C0920080805L, 0x1002002024200800L, 0x080D204202200800L,
+            0x0061510212002404L, 0x2448101002108020L, 0x44A1080091100080L, 0x0809014312000900L,
+            0x0200611C10402004L, 0x040E010082104006L, 0x0000209400880002L, 0x1002000442022020L,
+            0x1200000420820040L, 0x1000091021420204L, 0x0021200202004020L, 0x0220028401002200L,
+            0x100603C201904820L, 0x020000420201208BL, 0x0102000422055002L, 0x60C6A04202104400L,
+            0x0224000010020880L, 0x0001122044410204L, 0x408C902002042848L, 0x2404010448020040L
+    };
+    private static final int[][] rookDirections = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] bishopDirections = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] knightOffsets = {
+            {1, -2}, {2, -1}, {2, 1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {-1, -2}
+    };
+    private static final int[][] kingOffsets = {
+            {1, 0}, {-1, 0}, {0, -1}, {0, 1}, {1, -1}, {1, 1}, {-1, -1}, {-1, 1}
+    };
+
+    private static final long[] knightAttacks = new long[Bitboards.SquareCount];
+    private static final long[] kingAttacks = new long[Bitboards.SquareCount];
+    private static final long[][] pawnAttacks = new long[Color.values().length][Bitboards.SquareCount];
+    private static final long[] rookMasks = new long[Bitboards.SquareCount];
+    private static final long[] bishopMasks = new long[Bitboards.SquareCount];
+    private static final int[] rookShifts = new int[Bitboards.SquareCount];
+    private static final int[] bishopShifts = new int[Bitboards.SquareCount];
+    private static final long[][] rookAttacks = new long[Bitboards.SquareCount][];
+    private static final long[][] bishopAttacks = new long[Bitboards.SquareCount][];
+
+    static {
+        for (int square = 0; square < Bitboards.SquareCount; square++) {
+            knightAttacks[square] = offsetAttacks(square, knightOffsets);
+            kingAttacks[square] = offsetAttacks(square, kingOffsets);
+            pawnAttacks[Color.WHITE.ordinal()][square] = offsetAttacks(square, new int[][]{{1, -1}, {1, 1}});
+            pawnAttacks[Color.BLACK.ordinal()][square] = offsetAttacks(square, new int[][]{{-1, -1}, {-1, 1}});
+
+            rookMasks[square] = relevantBlockers(square, rookDirections);
+            rookShifts[square] = Long.SIZE - Bitboards.count(rookMasks[square]);
+            rookAttacks[square] = slidingTable(square, rookDirections, rookMasks[square], rookMagics[square],
+                    rookShifts[square]);
+
+            bishopMasks[square] = relevantBlockers(square, bishopDirections);
+            bishopShifts[square] = Long.SIZE - Bitboards.count(bishopMasks[square]);
+            bishopAttacks[square] = slidingTable(square, bishopDirections, bishopMasks[square], bishopMagics[square],
+                    bishopShifts[square]);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AttackTables() {
+    }
+
+    /**
+     * Gets the tiles attacked by a knight
+     *
+     * @param square The square of the knight
+     * @return The bitboard of the attacked tiles
+     */
+    public static long knightAttacks(int square) {
+        return knightAttacks[square];
+    }
+
+    /**
+     * Gets the tiles attacked by a king
+     *
+     * @param square The square of the king
+     * @return The bitboard of the attacked tiles
+     */
+    public static long kingAttacks(int square) {
+        return kingAttacks[square];
+    }
+
+    /**
+     * Gets the tiles attacked by a pawn
+     *
+     * @param color  The color of the pawn
+     * @param square The square of the pawn
+     * @return The bitboard of the attacked tiles
+     */
+    public static long pawnAttacks(Color color, int square) {
+        return pawnAttacks[color.ordinal()][square];
+    }
+
+    /**
+     * Gets the tiles attacked by a rook, the attacks include the first blocking piece in every direction
+     *
+     * @param square    The square of the rook
+     * @param occupancy The bitboard of all the pieces on the board
+     * @return The bitboard of the attacked tiles
+     */
+    public static long rookAttacks(int square, long occupancy) {
+        long blockers = occupancy & rookMasks[square];
+        return rookAttacks[square][(int) ((blockers * rookMagics[square]) >>> rookShifts[square])];
+    }
+
+    /**
+     * Gets the tiles attacked by a bishop, the attacks include the first blocking piece in every direction
+     *
+     * @param square    The square of the bishop
+     * @param occupancy The bitboard of all the pieces on the board
+     * @return The bitboard of the attacked tiles
+     */
+    public static long bishopAttacks(int square, long occupancy) {
+        long blockers = occupancy & bishopMasks[square];
+        return bishopAttacks[square][(int) ((blockers * bishopMagics[square]) >>> bishopShifts[square])];
+    }
+
+    /**
+     * Gets the tiles attacked by a queen, the attacks include the first blocking piece in every direction
+     *
+     * @param square    The square of the queen
+     * @param occupancy The bitboard of all the pieces on the board
+     * @return The bitboard of the attacked tiles
+     */
+    public static long queenAttacks(int square, long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * Answers whether the square is attacked by any piece of the given color
+     *
+     * @param board    The board to look at
+     * @param square   The square to check
+     * @param attacker The color of the attacking pieces
+     * @return Whether the square is attacked
+     */
+    public static boolean isSquareAttacked(Board board, int square, Color attacker) {
+        return isSquareAttacked(board, square, attacker, board.getOccupancy(), 0L);
+    }
+
+    /**
+     * Answers whether the square is attacked by any piece of the given color,
+     * on the board with the given occupancy instead of the current one, i.e. after a move has been made
+     *
+     * @param board     The board to look at
+     * @param square    The square to check
+     * @param attacker  The color of the attacking pieces
+     * @param occupancy The bitboard of all the pieces to use instead of the occupancy of the board
+     * @param removed   The bitboard of the attacker's pieces which are to be ignored, i.e. they have been captured
+     * @return Whether the square is attacked
+     */
+    public static boolean isSquareAttacked(Board board, int square, Color attacker, long occupancy, long removed) {
+        long kept = ~removed;
+        long queens = board.getPieces(PieceType.QUEEN, attacker) & kept;
+
+        // A pawn of the attacker attacks the square if a pawn of the defender on the square would attack it
+        return (pawnAttacks(attacker.opposite(), square) & board.getPieces(PieceType.PAWN, attacker) & kept) != 0
+                || (knightAttacks(square) & board.getPieces(PieceType.KNIGHT, attacker) & kept) != 0
+                || (kingAttacks(square) & board.getPieces(PieceType.KING, attacker) & kept) != 0
+                || (bishopAttacks(square, occupancy) & (board.getPieces(PieceType.BISHOP, attacker) & kept | queens)) != 0
+                || (rookAttacks(square, occupancy) & (board.getPieces(PieceType.ROOK, attacker) & kept | queens)) != 0;
+    }
+
+    /**
+     * Answers whether any of the squares is attacked by any piece of the given color
+     *
+     * @param board    The board to look at
+     * @param squares  The bitboard of the squares to check
+     * @param attacker The color of the attacking pieces
+     * @return Whether any of the squares is attacked
+     */
+    public static boolean anySquareAttacked(Board board, long squares, Color attacker) {
+        while (squares != 0) {
+            if (isSquareAttacked(board, Bitboards.firstSquare(squares), attacker)) {
+                return true;
+            }
+            squares = Bitboards.withoutFirstSquare(squares);
+        }
+
+        return false;
+    }
+
+    /**
+     * Computes the attacks of a non-sliding piece from its offsets
+     *
+     * @param square  The square of the piece
+     * @param offsets The row and column offsets of the attacked tiles
+     * @return The bitboard of the attacked tiles
+     */
+    private static long offsetAttacks(int square, int[][] offsets) {
+        long attacks = 0L;
+        for (int[] offset : offsets) {
+            int row = Bitboards.row(square) + offset[0];
+            int column = Bitboards.column(square) + offset[1];
+            if (onBoard(row, column)) {
+                attacks |= Bitboards.bit(Bitboards.square(row, column));
+            }
+        }
+
+        return attacks;
+    }
+
+    /**
+     * Computes the attacks of a sliding piece by walking the rays
+     *
+     * @param square     The square of the piece
+     * @param directions The directions the piece slides in
+     * @param occupancy  The bitboard of the pieces blocking the rays
+     * @return The bitboard of the attacked tiles
+     */
+    private static long slidingAttacks(int square, int[][] directions, long occupancy) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int column = Bitboards.column(square) + direction[1];
+            while (onBoard(row, column)) {
+                long tile = Bitboards.bit(Bitboards.square(row, column));
+                attacks |= tile;
+                if ((occupancy & tile) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+
+        return attacks;
+    }
+
+    /**
+     * Computes the tiles whose occupancy affects the attacks of a sliding piece.
+     * The last tile of every ray is not relevant, since it is attacked regardless of whether it is occupied.
+     *
+     * @param square     The square of the piece
+     * @param directions The directions the piece slides in
+     * @return The bitboard of the relevant tiles
+     */
+    private static long relevantBlockers(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int column = Bitboards.column(square) + direction[1];
+            while (onBoard(row + direction[0], column + direction[1])) {
+                mask |= Bitboards.bit(Bitboards.square(row, column));
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Fills the magic lookup table of a sliding piece for every subset of its relevant blockers
+     *
+     * @param square     The square of the piece
+     * @param directions The directions the piece slides in
+     * @param mask       The relevant blockers of the square
+     * @param magic      The magic number of the square
+     * @param shift      The shift of the magic index
+     * @return The lookup table
+     */
+    private static long[] slidingTable(int square, int[][] directions, long mask, long magic, int shift) {
+        long[] table = new long[1 << (Long.SIZE - shift)];
+
+        // Iterates over all subsets of the mask (Carry-Rippler trick)
+        long blockers = 0L;
+        do {
+            table[(int) ((blockers * magic) >>> shift)] = slidingAttacks(square, directions, blockers);
+            blockers = (blockers - mask) & mask;
+        } while (blockers != 0);
+
+        return table;
+    }
+
+    /**
+     * Answers whether the row and column are on the board
+     *
+     * @param row    The row
+     * @param column The column
+     * @return Whether the tile is on the board
+     */
+    private static boolean onBoard(int row, int column) {
+        return row >= ChessRules.MinBoardRow && row <= ChessRules.MaxBoardRow
+                && column >= ChessRules.MinBoardColumn && column <= ChessRules.MaxBoardColumn;
+    }
+}
@@ -1,11 +1,12 @@
 package multiplayerchess.multiplayerchess.server.chess.rules;
 
 import multiplayerchess.multiplayerchess.common.*;
+import multiplayerchess.multiplayerchess.server.chess.Bitboards;
 import multiplayerchess.multiplayerchess.server.chess.Board;
 import multiplayerchess.multiplayerchess.server.chess.Move;
+import multiplayerchess.multiplayerchess.server.chess.PackedMove;
 import multiplayerchess.multiplayerchess.server.chess.pieces.Castling;
 import multiplayerchess.multiplayerchess.server.chess.pieces.Piece;
-import multiplayerchess.multiplayerchess.server.chess.pieces.Queen;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +24,8 @@ public class ChessRules {
     public static final int RowCount = MaxBoardRow + 1;
     public static final int ColumnCount = MaxBoardColumn + 1;
 
+    private final int[] moveBuffer = new int[MoveGenerator.MaxMoves];
+
     /**
      * Answers whether the move is legal in the current board state
      *
@@ -35,51 +38,15 @@ public class ChessRules {
      */
     public boolean isMoveValid(Board board, Move move, Player currentPlayer,
                                Position enPassant, Set<Castling> possibleCastles) {
-        Piece piece = board.getPiece(move.startPosition);
-        if (piece == null || piece.color.getPlayer() != currentPlayer) {
-            return false;
+        int count = MoveGenerator.generateLegalMoves(board, currentPlayer.getColor(), enPassantSquare(enPassant),
+                Castling.toRights(possibleCastles), moveBuffer);
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.matches(moveBuffer[i], move)) {
+                return true;
+            }
         }
 
-        List<Move> possibleMoves = generatePossibleMovesForPiece(board, move.startPosition, currentPlayer, move.isCapture, enPassant);
-        return isCastle(board, move, currentPlayer, possibleCastles) || possibleMoves.contains(move);
-    }
-
-    /**
-     * Returns the piece which has moved - marks the piece as moved
-     *
-     * @param piece       The piece that has moved
-     * @param isPromotion Whether the piece is to be promoted
-     * @return Return the piece after being moved
-     */
-    public Piece pieceAfterMove(Piece piece, boolean isPromotion) {
-        return isPromotion && piece.getType() == PieceType.PAWN ? new Queen(piece.color) : piece.getMovedPiece();
-    }
-
-    /**
-     * Answers whether the current move results in a promotion
-     *
-     * @param move          The move that is checked
-     * @param movedPiece    The piece that is to be moved
-     * @param currentPlayer The player whose turn it is
-     * @return Whether the current move results in a promotion
-     */
-    public boolean isPromotion(Move move, Piece movedPiece, Player currentPlayer) {
-        return (currentPlayer == Player.WHITE && movedPiece.getType() == PieceType.PAWN
-                && move.endPosition.row == ChessRules.MaxBoardRow) ||
-                (currentPlayer == Player.BLACK && movedPiece.getType() == PieceType.PAWN
-                        && move.endPosition.row == ChessRules.MinBoardRow);
-    }
-
-    /**
-     * Answers whether the move is an en passant move
-     *
-     * @param board     The current board
-     * @param move      The move that is to be performed and is checked whether it is an en passant move
-     * @param enPassant The possible en passant move in the current ply (half-move)
-     * @return Whether the move is an en passant move
-     */
-    public boolean isEnPassant(Board board, Move move, Position enPassant) {
-        return isEnPassant(board.getPiece(move.startPosition), move, enPassant);
+        return false;
     }
 
     /**
@@ -193,9 +160,7 @@ public class ChessRules {
      * @return Whether the given player is mated
      */
     public boolean checkMate(Board board, Player playersTurn, Position enPassant) {
-        var playersMoves = generatePlayerPossibleMoves(board, playersTurn, enPassant);
-        boolean kingInCheck = kingIsInCheck(board, playersTurn);
-        return kingInCheck && playersMoves.size() == 0;
+        return kingIsInCheck(board, playersTurn) && countPlayerPossibleMoves(board, playersTurn, enPassant) == 0;
     }
 
     /**
@@ -207,9 +172,7 @@ public class ChessRules {
      * @return Whether a stalemate occurred
      */
     public boolean stalemate(Board board, Player playersTurn, Position enPassant) {
-        var playersMoves = generatePlayerPossibleMoves(board, playersTurn, enPassant);
-        boolean kingInCheck = kingIsInCheck(board, playersTurn);
-        return !kingInCheck && playersMoves.size() == 0;
+        return !kingIsInCheck(board, playersTurn) && countPlayerPossibleMoves(board, playersTurn, enPassant) == 0;
     }
 
     /**
@@ -221,32 +184,37 @@ public class ChessRules {
      * @return The list of all moves that the given player can make
      */
     List<Move> generatePlayerPossibleMoves(Board board, Player player, Position enPassant) {
-        List<Move> moves = new ArrayList<>();
+        int count = countPlayerPossibleMoves(board, player, enPassant);
 
-        for (var position : getPlayerPiecePositions(board, player)) {
-            moves.addAll(generatePossibleMovesForPiece(board, position, player, true, enPassant));
-            moves.addAll(generatePossibleMovesForPiece(board, position, player, false, enPassant));
+        List<Move> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(PackedMove.toMove(moveBuffer[i]));
         }
 
         return moves;
     }
 
     /**
-     * Generates all moves for a piece, even ones not possible due to king safety or whether it is a capture.
+     * Generates all the possible moves of a player into the move buffer as packed moves,
+     * see {@link MoveGenerator}. Castles are not included.
      *
-     * @param board  The current board
-     * @param player The player whose moves we are searching for
-     * @return The list of all moves that the given player can make
+     * @param board     The current board
+     * @param player    The players whose moves we are searching for
+     * @param enPassant The possible en passant move in the current ply (half-move)
+     * @return The number of moves the given player can make
      */
-    List<Move> generatePlayerAllMoves(Board board, Player player) {
-        List<Move> moves = new ArrayList<>();
-
-        for (var position : getPlayerPiecePositions(board, player)) {
-            moves.addAll(generateAllMovesForPiece(board, position));
-            moves.addAll(generateAllMovesForPiece(board, position));
-        }
+    int countPlayerPossibleMoves(Board board, Player player, Position enPassant) {
+        return MoveGenerator.generateLegalMoves(board, player.getColor(), enPassantSquare(enPassant), 0, moveBuffer);
+    }
 
-        return moves;
+    /**
+     * Gets the square of the en passant position
+     *
+     * @param enPassant The possible en passant move in the current ply (half-move) or null
+     * @return The square of the en passant, see {@link Bitboards}, or {@link MoveGenerator#NoSquare}
+     */
+    private static int enPassantSquare(Position enPassant) {
+        return enPassant == null ? MoveGenerator.NoSquare : Bitboards.square(enPassant);
     }
 
     /**
@@ -261,53 +229,18 @@ public class ChessRules {
      */
     List<Move> generatePossibleMovesForPiece(Board board, Position piecePosition, Player player,
                                              boolean isCapture, Position enPassant) {
-        Piece piece = board.getPiece(piecePosition);
-        List<Move> allMoves = piece.generateMoveList(piecePosition, isCapture);    // List of all possible moves for the piece
-        return removeInvalidMoves(board, allMoves, player, enPassant);
-    }
-
-    /**
-     * Generates all possible moves for the piece on the given position.
-     *
-     * @param board         The current board
-     * @param piecePosition The position of the piece we are generating moves for
-     * @return List of possible moves
-     */
-    List<Move> generateAllMovesForPiece(Board board, Position piecePosition) {
-        Piece piece = board.getPiece(piecePosition);
-        // List of all possible moves for the piece
-        List<Move> allMoves = piece.generateMoveList(piecePosition, true);
-        allMoves.addAll(piece.generateMoveList(piecePosition, false));
-        return removeBlockedMoves(board, allMoves);
-    }
+        int square = Bitboards.square(piecePosition);
+        int count = countPlayerPossibleMoves(board, player, enPassant);
 
-    /**
-     * Filters out any moves that don't follow the rules of the game, or moves which contradict their own isCapture
-     * field (are captures, but aren't mark as such and vice versa), or moves which put us in check
-     *
-     * @param board     The current board
-     * @param moves     The list of moves to filter
-     * @param player    The player whose move it is
-     * @param enPassant The possible en passant move in the current ply (half-move)
-     * @return Filtered list of legal moves
-     */
-    List<Move> removeInvalidMoves(Board board, List<Move> moves, Player player,
-                                  Position enPassant) {
-        return moves.stream().filter((move) ->
-                !anyPieceInPath(board, move) && isValidDestination(board, move, enPassant)
-                        && !kingIsInCheckAfterMove(board, move, player)
-        ).toList();
-    }
+        List<Move> moves = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffer[i];
+            if (PackedMove.from(move) == square && PackedMove.isCapture(move) == isCapture) {
+                moves.add(PackedMove.toMove(move));
+            }
+        }
 
-    /**
-     * Removes moves which are blocked by another piece
-     *
-     * @param board The current board
-     * @param moves The list of moves to filter
-     * @return Filtered list of legal moves
-     */
-    List<Move> removeBlockedMoves(Board board, List<Move> moves) {
-        return moves.stream().filter((move) -> !anyPieceInPath(board, move)).toList();
+        return moves;
     }
 
     /**
@@ -319,44 +252,18 @@ public class ChessRules {
      */
     List<Position> getPlayerPiecePositions(Board board, Player player) {
         List<Position> positions = new ArrayList<>();
-        Color desiredPieceColor = player.getColor();
-
-        for (int row = MinBoardRow; row < RowCount; row++) {
-            for (int column = MinBoardColumn; column < ColumnCount; column++) {
-                Piece piece = board.getPiece(row, column);
-                if (piece != null && piece.color.equals(desiredPieceColor)) {
-                    positions.add(new Position(row, column));
-                }
-            }
+
+        // Squares are ordered by row and then column, the same as iterating over the board
+        long pieces = board.getOccupancy(player.getColor());
+        while (pieces != 0) {
+            int square = Bitboards.firstSquare(pieces);
+            positions.add(new Position(Bitboards.row(square), Bitboards.column(square)));
+            pieces = Bitboards.withoutFirstSquare(pieces);
         }
 
         return positions;
     }
 
-    /**
-     * Answers whether after the move is performed on the board, the king of the specified player will be in check
-     *
-     * @param board  The board before the move
-     * @param move   The moved to be performed on the board
-     * @param player The player whose king we are checking
-     * @return Whether the given player's king will be in check after the move
-     */
-    boolean kingIsInCheckAfterMove(Board board, Move move, Player player) {
-        var movedPiece = board.getPiece(move.startPosition);
-        var originalPiece = board.getPiece(move.endPosition);
-        // perform move
-        board.setPiece(move.endPosition, movedPiece);
-        board.clearPiece(move.startPosition);
-
-        boolean isInCheck = kingIsInCheck(board, player);
-
-        // revert move
-        board.setPiece(move.startPosition, movedPiece);
-        board.setPiece(move.endPosition, originalPiece);
-
-        return isInCheck;
-    }
-
     /**
      * Answers whether the player's king is in check
      *
@@ -365,7 +272,9 @@ public class ChessRules {
      * @return Whether the player's king is in check
      */
     boolean kingIsInCheck(Board board, Player whoseKing) {
-        return TileIsThreatened(board, getKingsPosition(board, whoseKing), whoseKing.opposite());
+        long king = board.getPieces(PieceType.KING, whoseKing.getColor());
+        return king != 0
+                && AttackTables.isSquareAttacked(board, Bitboards.firstSquare(king), whoseKing.opposite().getColor());
     }
 
     /**
@@ -377,18 +286,13 @@ public class ChessRules {
      * @return The position of the player's king on the board
      */
     Position getKingsPosition(Board board, Player whoseKing) {
-        Color desiredKingColor = whoseKing.getColor();
-
-        for (int row = MinBoardRow; row < RowCount; row++) {
-            for (int column = MinBoardColumn; column < ColumnCount; column++) {
-                Piece piece = board.getPiece(row, column);
-                if (piece != null && piece.color.equals(desiredKingColor) && piece.getType() == PieceType.KING) {
-                    return new Position(row, column);
-                }
-            }
+        long king = board.getPieces(PieceType.KING, whoseKing.getColor());
+        if (king == 0) {
+            return null;
         }
 
-        return null;
+        int square = Bitboards.firstSquare(king);
+        return new Position(Bitboards.row(square), Bitboards.column(square));
     }
 
     /**
@@ -400,9 +304,7 @@ public class ChessRules {
      * @return Whether the tile is threatened by the pieces of the player
      */
     boolean TileIsThreatened(Board board, Position tile, Player player) {
-        return generatePlayerAllMoves(board, player).stream().parallel().anyMatch(
-                move -> move.isCapture && move.endPosition.equals(tile)
-        );
+        return tile != null && AttackTables.isSquareAttacked(board, Bitboards.square(tile), player.getColor());
     }
 
     /**
@@ -414,9 +316,12 @@ public class ChessRules {
      * @return Whether ANY of the tile are threatened by the pieces of the player
      */
     boolean TilesAreThreatened(Board board, List<Position> tiles, Player player) {
-        return generatePlayerAllMoves(board, player).stream().parallel().anyMatch(
-                move -> move.isCapture && tiles.contains(move.endPosition)
-        );
+        long squares = 0L;
+        for (var tile : tiles) {
+            squares |= Bitboards.bit(Bitboards.square(tile));
+        }
+
+        return AttackTables.anySquareAttacked(board, squares, player.getColor());
     }
 
     /**
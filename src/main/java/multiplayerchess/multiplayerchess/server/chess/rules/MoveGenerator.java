@@ -0,0 +1,297 @@
+package multiplayerchess.multiplayerchess.server.chess.rules;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.server.chess.Bitboards;
+import multiplayerchess.multiplayerchess.server.chess.Board;
+import multiplayerchess.multiplayerchess.server.chess.PackedMove;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Castling;
+
+/**
+ * Generates the legal moves of a player as packed moves (see {@link PackedMove}).
+ * The moves are written into a buffer supplied by the caller, so that generating moves does not allocate.
+ * <p>
+ * The legality of a move is decided without modifying the board - the attacks on the king are computed
+ * from the occupancy as it would be after the move.
+ */
+public final class MoveGenerator {
+
+    /**
+     * The size of the move buffer which is always large enough to hold all the moves of a position.
+     */
+    public static final int MaxMoves = 256;
+
+    /**
+     * The square used when no en passant is possible.
+     */
+    public static final int NoSquare = -1;
+
+    private static final int WhiteKingStart = Bitboards.square(ChessRules.MinBoardRow, 4);
+    private static final int BlackKingStart = Bitboards.square(ChessRules.MaxBoardRow, 4);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generates all the legal moves of the player into the given buffer.
+     *
+     * @param board           The current board
+     * @param side            The color of the player whose moves are generated
+     * @param enPassantSquare The square on which an en passant capture is possible, or {@link #NoSquare}
+     * @param castlingRights  The castles that may still be performed, the {@link Castling#id ids} of the castles
+     *                        combined by bitwise or
+     * @param moves           The buffer to write the moves into, of at least {@link #MaxMoves} length
+     * @return The number of moves written into the buffer
+     */
+    public static int generateLegalMoves(Board board, Color side, int enPassantSquare, int castlingRights,
+                                         int[] moves) {
+        int count = generatePseudoLegalMoves(board, side, enPassantSquare, castlingRights, moves);
+
+        int legalCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (isLegal(board, side, moves[i])) {
+                moves[legalCount++] = moves[i];
+            }
+        }
+
+        return legalCount;
+    }
+
+    /**
+     * Answers whether the pseudo-legal move leaves the king of the moving player out of check
+     *
+     * @param board The current board
+     * @param side  The color of the moving player
+     * @param move  The packed pseudo-legal move
+     * @return Whether the move is legal
+     */
+    public static boolean isLegal(Board board, Color side, int move) {
+        // Castles are checked for attacked tiles while they are generated
+        if (PackedMove.isCastle(move)) {
+            return true;
+        }
+
+        long king = board.getPieces(PieceType.KING, side);
+        if (king == 0) {
+            return true;
+        }
+
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        long captured = 0L;
+        if (PackedMove.isEnPassant(move)) {
+            captured = Bitboards.bit(to - forward(side));
+        } else if (PackedMove.isCapture(move)) {
+            captured = Bitboards.bit(to);
+        }
+
+        long occupancy = (board.getOccupancy() & ~Bitboards.bit(from) & ~captured) | Bitboards.bit(to);
+        int kingSquare = PackedMove.pieceType(move) == PieceType.KING ? to : Bitboards.firstSquare(king);
+        return !AttackTables.isSquareAttacked(board, kingSquare, side.opposite(), occupancy, captured);
+    }
+
+    /**
+     * Generates all moves of the player without checking whether they leave the king in check.
+     *
+     * @param board           The current board
+     * @param side            The color of the player whose moves are generated
+     * @param enPassantSquare The square on which an en passant capture is possible, or {@link #NoSquare}
+     * @param castlingRights  The castles that may still be performed
+     * @param moves           The buffer to write the moves into
+     * @return The number of moves written into the buffer
+     */
+    static int generatePseudoLegalMoves(Board board, Color side, int enPassantSquare, int castlingRights,
+                                        int[] moves) {
+        long own = board.getOccupancy(side);
+        long enemy = board.getOccupancy(side.opposite());
+        long occupancy = own | enemy;
+        int count = 0;
+
+        count = addPawnMoves(board, side, enPassantSquare, occupancy, enemy, moves, count);
+
+        long knights = board.getPieces(PieceType.KNIGHT, side);
+        while (knights != 0) {
+            int from = Bitboards.firstSquare(knights);
+            count = addTargets(from, AttackTables.knightAttacks(from) & ~own, enemy, PieceType.KNIGHT, moves, count);
+            knights = Bitboards.withoutFirstSquare(knights);
+        }
+
+        long bishops = board.getPieces(PieceType.BISHOP, side);
+        while (bishops != 0) {
+            int from = Bitboards.firstSquare(bishops);
+            long targets = AttackTables.bishopAttacks(from, occupancy) & ~own;
+            count = addTargets(from, targets, enemy, PieceType.BISHOP, moves, count);
+            bishops = Bitboards.withoutFirstSquare(bishops);
+        }
+
+        long rooks = board.getPieces(PieceType.ROOK, side);
+        while (rooks != 0) {
+            int from = Bitboards.firstSquare(rooks);
+            long targets = AttackTables.rookAttacks(from, occupancy) & ~own;
+            count = addTargets(from, targets, enemy, PieceType.ROOK, moves, count);
+            rooks = Bitboards.withoutFirstSquare(rooks);
+        }
+
+        long queens = board.getPieces(PieceType.QUEEN, side);
+        while (queens != 0) {
+            int from = Bitboards.firstSquare(queens);
+            long targets = AttackTables.queenAttacks(from, occupancy) & ~own;
+            count = addTargets(from, targets, enemy, PieceType.QUEEN, moves, count);
+            queens = Bitboards.withoutFirstSquare(queens);
+        }
+
+        long king = board.getPieces(PieceType.KING, side);
+        if (king != 0) {
+            int from = Bitboards.firstSquare(king);
+            count = addTargets(from, AttackTables.kingAttacks(from) & ~own, enemy, PieceType.KING, moves, count);
+            count = addCastles(board, side, from, castlingRights, occupancy, moves, count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Adds the pawn pushes, captures and en passant captures
+     *
+     * @param board           The current board
+     * @param side            The color of the player whose moves are generated
+     * @param enPassantSquare The square on which an en passant capture is possible, or {@link #NoSquare}
+     * @param occupancy       The bitboard of all the pieces
+     * @param enemy           The bitboard of the opponent's pieces
+     * @param moves           The buffer to write the moves into
+     * @param count           The number of moves already in the buffer
+     * @return The new number of moves in the buffer
+     */
+    private static int addPawnMoves(Board board, Color side, int enPassantSquare, long occupancy, long enemy,
+                                    int[] moves, int count) {
+        int forward = forward(side);
+        int startRow = side == Color.WHITE ? ChessRules.MinBoardRow + 1 : ChessRules.MaxBoardRow - 1;
+        int promotionRow = side == Color.WHITE ? ChessRules.MaxBoardRow : ChessRules.MinBoardRow;
+        long enPassantBit = enPassantSquare == NoSquare ? 0L : Bitboards.bit(enPassantSquare) & ~occupancy;
+
+        long pawns = board.getPieces(PieceType.PAWN, side);
+        while (pawns != 0) {
+            int from = Bitboards.firstSquare(pawns);
+            pawns = Bitboards.withoutFirstSquare(pawns);
+
+            int to = from + forward;
+            if (to >= 0 && to < Bitboards.SquareCount && (occupancy & Bitboards.bit(to)) == 0) {
+                moves[count++] = PackedMove.create(from, to, PieceType.PAWN, promotionFlag(to, promotionRow));
+
+                int doubleTo = to + forward;
+                if (Bitboards.row(from) == startRow && (occupancy & Bitboards.bit(doubleTo)) == 0) {
+                    moves[count++] = PackedMove.create(from, doubleTo, PieceType.PAWN, PackedMove.DoublePushFlag);
+                }
+            }
+
+            long attacks = AttackTables.pawnAttacks(side, from);
+            long captures = attacks & enemy;
+            while (captures != 0) {
+                int target = Bitboards.firstSquare(captures);
+                moves[count++] = PackedMove.create(from, target, PieceType.PAWN,
+                        PackedMove.CaptureFlag | promotionFlag(target, promotionRow));
+                captures = Bitboards.withoutFirstSquare(captures);
+            }
+
+            if ((attacks & enPassantBit) != 0) {
+                moves[count++] = PackedMove.create(from, enPassantSquare, PieceType.PAWN,
+                        PackedMove.CaptureFlag | PackedMove.EnPassantFlag);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Adds the castles of the king, the castles are only added if they are legal
+     *
+     * @param board          The current board
+     * @param side           The color of the player whose moves are generated
+     * @param kingSquare     The square of the king
+     * @param castlingRights The castles that may still be performed
+     * @param occupancy      The bitboard of all the pieces
+     * @param moves          The buffer to write the moves into
+     * @param count          The number of moves already in the buffer
+     * @return The new number of moves in the buffer
+     */
+    private static int addCastles(Board board, Color side, int kingSquare, int castlingRights, long occupancy,
+                                  int[] moves, int count) {
+        boolean isWhite = side == Color.WHITE;
+        int kingStart = isWhite ? WhiteKingStart : BlackKingStart;
+        Castling kingside = isWhite ? Castling.WHITE_KINGSIDE : Castling.BLACK_KINGSIDE;
+        Castling queenside = isWhite ? Castling.WHITE_QUEENSIDE : Castling.BLACK_QUEENSIDE;
+
+        if (kingSquare != kingStart || (castlingRights & (kingside.id | queenside.id)) == 0) {
+            return count;
+        }
+
+        Color enemy = side.opposite();
+        // Cannot castle while in check
+        if (AttackTables.isSquareAttacked(board, kingSquare, enemy)) {
+            return count;
+        }
+
+        long rooks = board.getPieces(PieceType.ROOK, side);
+        if ((castlingRights & kingside.id) != 0 && (rooks & Bitboards.bit(kingStart + 3)) != 0) {
+            long path = Bitboards.bit(kingStart + 1) | Bitboards.bit(kingStart + 2);
+            if ((occupancy & path) == 0 && !AttackTables.anySquareAttacked(board, path, enemy)) {
+                moves[count++] = PackedMove.create(kingStart, kingStart + 2, PieceType.KING, PackedMove.CastleFlag);
+            }
+        }
+        if ((castlingRights & queenside.id) != 0 && (rooks & Bitboards.bit(kingStart - 4)) != 0) {
+            long kingPath = Bitboards.bit(kingStart - 1) | Bitboards.bit(kingStart - 2);
+            long path = kingPath | Bitboards.bit(kingStart - 3);
+            if ((occupancy & path) == 0 && !AttackTables.anySquareAttacked(board, kingPath, enemy)) {
+                moves[count++] = PackedMove.create(kingStart, kingStart - 2, PieceType.KING, PackedMove.CastleFlag);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Adds a move to every target square
+     *
+     * @param from    The square the piece moves from
+     * @param targets The bitboard of the squares the piece moves to
+     * @param enemy   The bitboard of the opponent's pieces
+     * @param type    The type of the moved piece
+     * @param moves   The buffer to write the moves into
+     * @param count   The number of moves already in the buffer
+     * @return The new number of moves in the buffer
+     */
+    private static int addTargets(int from, long targets, long enemy, PieceType type, int[] moves, int count) {
+        while (targets != 0) {
+            int to = Bitboards.firstSquare(targets);
+            int flags = (enemy & Bitboards.bit(to)) != 0 ? PackedMove.CaptureFlag : 0;
+            moves[count++] = PackedMove.create(from, to, type, flags);
+            targets = Bitboards.withoutFirstSquare(targets);
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the promotion flag if the pawn move ends on the promotion row
+     *
+     * @param to           The square the pawn moves to
+     * @param promotionRow The row on which the pawn is promoted
+     * @return The promotion flag or no flags
+     */
+    private static int promotionFlag(int to, int promotionRow) {
+        return Bitboards.row(to) == promotionRow ? PackedMove.PromotionFlag : 0;
+    }
+
+    /**
+     * Gets the square offset of one tile forward for the pawns of the color
+     *
+     * @param side The color of the pawns
+     * @return The square offset
+     */
+    private static int forward(Color side) {
+        return side == Color.WHITE ? Bitboards.ColumnCount : -Bitboards.ColumnCount;
+    }
+}
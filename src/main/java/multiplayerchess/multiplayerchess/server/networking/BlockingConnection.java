@@ -0,0 +1,95 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.Message;
+import multiplayerchess.multiplayerchess.common.messages.ServerMessage;
+import multiplayerchess.multiplayerchess.common.networking.BackpressurePolicy;
+import multiplayerchess.multiplayerchess.common.networking.MessageQueue;
+import multiplayerchess.multiplayerchess.common.networking.Protocol;
+import multiplayerchess.multiplayerchess.common.networking.SocketMessageListener;
+import multiplayerchess.multiplayerchess.common.networking.SocketMessageWriter;
+import multiplayerchess.multiplayerchess.common.networking.WriteBatching;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Connection using blocking sockets, with a listener thread and a writer thread for every client.
+ * The threads may be virtual, see {@link multiplayerchess.multiplayerchess.server.VirtualThreads}.
+ */
+final class BlockingConnection implements Connection {
+
+    private static final int HandshakeTimeout = 5_000;
+    // The senders are the heartbeat scheduler and the match handlers shared by all the clients,
+    // so a client which stops reading may only hold them up this long before it is disconnected
+    private static final long MaxSendWait = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SocketMessageWriter<ServerMessage> writer;
+    private final SocketMessageListener listener;
+    private final MessageQueue<ServerMessage> messageQueue;
+    private final AutoCloseable parent;
+
+    /**
+     * The BlockingConnection constructor.
+     * Negotiates the protocol with the client first, see {@link Protocol}.
+     *
+     * @param socket          The socket of the client
+     * @param messageConsumer The consumer of the received messages
+     * @param parent          The owner of the connection, closed when the connection fails
+     * @param threadFactory   The factory of the listener and writer threads
+     * @param policy          What to do with the messages sent while the client reads too slowly
+     * @param batching        The limits of coalescing the sent messages into a single write
+     * @throws IOException If an error occurs while accessing the socket streams or the handshake fails
+     */
+    BlockingConnection(Socket socket, Consumer<Message> messageConsumer, AutoCloseable parent,
+                       ThreadFactory threadFactory, BackpressurePolicy policy, WriteBatching batching)
+            throws IOException {
+        InputStream input = new BufferedInputStream(socket.getInputStream());
+        socket.setSoTimeout(HandshakeTimeout);
+        Protocol protocol = Protocol.serverHandshake(input, socket.getOutputStream());
+        socket.setSoTimeout(0);
+
+        this.parent = parent;
+        messageQueue = new MessageQueue<>(MessageQueue.DefaultCapacity, policy, MaxSendWait);
+        writer = new SocketMessageWriter<>(
+                socket, protocol.createWriter(socket.getOutputStream()), messageQueue, parent, threadFactory,
+                batching);
+        listener = new SocketMessageListener(protocol.createReader(input), messageConsumer, parent, threadFactory);
+    }
+
+    @Override
+    public void start() {
+        listener.start();
+        writer.start();
+    }
+
+    @Override
+    public void send(ServerMessage message) {
+        if (!messageQueue.add(message) && isRunning()) {
+            // The client does not keep up with the messages
+            try {
+                parent.close();
+            }
+            catch (Exception ignored) {
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return listener.isRunning() && writer.isRunning();
+    }
+
+    @Override
+    public void close() {
+        messageQueue.close();
+        listener.stopRunning();
+        writer.stopRunning();
+        listener.interrupt();
+        writer.interrupt();
+    }
+}
@@ -0,0 +1,34 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.ServerMessage;
+
+/**
+ * The transport of the messages between the server and a single client, see {@link PlayerConnectionController}.
+ * Received messages are passed to the consumer given when the connection is created.
+ */
+interface Connection {
+
+    /**
+     * Starts receiving and sending messages.
+     */
+    void start();
+
+    /**
+     * Sends a message to the client. Does not block, the message is sent asynchronously.
+     *
+     * @param message The message to send
+     */
+    void send(ServerMessage message);
+
+    /**
+     * Answers whether the connection is still open.
+     *
+     * @return Whether the connection is open
+     */
+    boolean isRunning();
+
+    /**
+     * Stops the connection and closes the socket, the messages already sent are still delivered if possible.
+     */
+    void close();
+}
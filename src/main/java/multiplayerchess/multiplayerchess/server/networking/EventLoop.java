@@ -0,0 +1,127 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.server.SafeLog;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * A thread multiplexing many non-blocking client channels with a single {@link Selector}.
+ * All the operations on the channels of the loop are performed on the loop thread, other threads hand the work
+ * to the loop by {@link #execute(Runnable)}.
+ */
+final class EventLoop implements Runnable, AutoCloseable {
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks;
+    private final AtomicBoolean running;
+    private final Thread thread;
+
+    /**
+     * The EventLoop constructor.
+     *
+     * @param name The name of the loop thread
+     * @throws IOException If the selector cannot be opened
+     */
+    EventLoop(String name) throws IOException {
+        selector = Selector.open();
+        tasks = new ConcurrentLinkedQueue<>();
+        running = new AtomicBoolean(true);
+        thread = new Thread(this, name);
+    }
+
+    /**
+     * Starts the loop thread.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Runs the task on the loop thread, the task is run after the currently handled events.
+     *
+     * @param task The task to run
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Registers the channel with the selector of the loop, has to be called on the loop thread.
+     *
+     * @param channel    The non-blocking channel to register
+     * @param connection The connection handling the events of the channel
+     * @return The selection key of the channel
+     * @throws ClosedChannelException If the channel is closed
+     */
+    SelectionKey register(SocketChannel channel, NioConnection connection) throws ClosedChannelException {
+        return channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Waits for the events on the channels and dispatches them to their connections, until the loop is closed.
+     */
+    @Override
+    public void run() {
+        while (running.get()) {
+            try {
+                if (tasks.isEmpty()) {
+                    selector.select();
+                } else {
+                    selector.selectNow();
+                }
+            }
+            catch (IOException e) {
+                SafeLog.log(Level.SEVERE, "Event loop failed: " + e.getMessage());
+                break;
+            }
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                ((NioConnection) key.attachment()).handleEvents(key);
+            }
+
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                // A failing task must not stop the loop serving the other connections
+                try {
+                    task.run();
+                }
+                catch (RuntimeException e) {
+                    SafeLog.log(Level.WARNING, "Event loop task failed: " + e);
+                }
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            ((NioConnection) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Stops the loop and closes all of its connections.
+     */
+    @Override
+    public void close() {
+        running.set(false);
+        selector.wakeup();
+    }
+}
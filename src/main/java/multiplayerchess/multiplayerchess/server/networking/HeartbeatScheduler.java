@@ -0,0 +1,130 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the heartbeats of all the matches from a single thread.
+ * Every match registers a task which is run once per heartbeat interval, the task sends the heartbeats,
+ * disconnects the players whose heartbeat timed out and cleans up the abandoned matches.
+ * The scheduler also ends the reconnect grace periods of the players whose connection dropped.
+ */
+public final class HeartbeatScheduler implements AutoCloseable {
+
+    /**
+     * The default interval between two heartbeats in milliseconds.
+     */
+    public static final long DefaultInterval = 10_000;
+
+    /**
+     * The default time in milliseconds after which a player without a heartbeat is disconnected.
+     */
+    public static final long DefaultTimeout = 2 * DefaultInterval;
+
+    /**
+     * The default time in milliseconds a match waits for a player whose connection dropped.
+     */
+    public static final long DefaultReconnectGracePeriod = 30_000;
+
+    private final ScheduledExecutorService executor;
+    private final long interval;
+    private final long timeout;
+    private final long reconnectGracePeriod;
+
+    /**
+     * HeartbeatScheduler constructor with the default interval, timeout and reconnect grace period.
+     */
+    public HeartbeatScheduler() {
+        this(DefaultInterval, DefaultTimeout);
+    }
+
+    /**
+     * HeartbeatScheduler constructor with the default reconnect grace period.
+     *
+     * @param interval The interval between two heartbeats in milliseconds
+     * @param timeout  The time in milliseconds after which a player without a heartbeat is disconnected,
+     *                 has to be longer than the interval
+     */
+    public HeartbeatScheduler(long interval, long timeout) {
+        this(interval, timeout, DefaultReconnectGracePeriod);
+    }
+
+    /**
+     * HeartbeatScheduler constructor.
+     *
+     * @param interval             The interval between two heartbeats in milliseconds
+     * @param timeout              The time in milliseconds after which a player without a heartbeat is
+     *                             disconnected, has to be longer than the interval
+     * @param reconnectGracePeriod The time in milliseconds a match waits for a player whose connection dropped,
+     *                             0 ends the match at once
+     */
+    public HeartbeatScheduler(long interval, long timeout, long reconnectGracePeriod) {
+        if (interval <= 0 || timeout <= interval) {
+            throw new IllegalArgumentException("The heartbeat timeout has to be longer than the positive interval");
+        }
+        if (reconnectGracePeriod < 0) {
+            throw new IllegalArgumentException("The reconnect grace period cannot be negative");
+        }
+
+        this.interval = interval;
+        this.timeout = timeout;
+        this.reconnectGracePeriod = reconnectGracePeriod;
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "heartbeat-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Cancelled tasks of the ended matches should not linger in the queue until their next run
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        executor = scheduledExecutor;
+    }
+
+    /**
+     * Runs the task once every heartbeat interval, starting one interval from now.
+     *
+     * @param task The task to run
+     * @return The handle of the task used to cancel it
+     */
+    public ScheduledFuture<?> schedule(Runnable task) {
+        return executor.scheduleAtFixedRate(task, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the task once, after the reconnect grace period.
+     *
+     * @param task The task to run
+     * @return The handle of the task used to cancel it
+     */
+    public ScheduledFuture<?> scheduleAfterGracePeriod(Runnable task) {
+        return executor.schedule(task, reconnectGracePeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the time a match waits for a player whose connection dropped
+     *
+     * @return The reconnect grace period in milliseconds, 0 if the players cannot reconnect
+     */
+    public long getReconnectGracePeriod() {
+        return reconnectGracePeriod;
+    }
+
+    /**
+     * Answers whether the last heartbeat happened longer than the timeout ago.
+     *
+     * @param lastHeartbeat The time of the last heartbeat, as given by {@link System#nanoTime()}
+     * @return Whether the heartbeat timed out
+     */
+    public boolean hasTimedOut(long lastHeartbeat) {
+        return System.nanoTime() - lastHeartbeat > TimeUnit.MILLISECONDS.toNanos(timeout);
+    }
+
+    /**
+     * Stops running all the tasks.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
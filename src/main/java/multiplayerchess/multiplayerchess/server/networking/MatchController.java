@@ -3,43 +3,151 @@ package multiplayerchess.multiplayerchess.server.networking;
 import multiplayerchess.multiplayerchess.common.Player;
 import multiplayerchess.multiplayerchess.common.messages.*;
 import multiplayerchess.multiplayerchess.server.SafeLog;
+import multiplayerchess.multiplayerchess.server.chess.BoardRepresentation;
+import multiplayerchess.multiplayerchess.server.chess.GameStatus;
 import multiplayerchess.multiplayerchess.server.chess.Match;
 import multiplayerchess.multiplayerchess.server.chess.Move;
+import multiplayerchess.multiplayerchess.server.chess.MoveCache;
+import multiplayerchess.multiplayerchess.server.chess.OpeningBook;
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
 
 import java.io.IOException;
-import java.util.concurrent.CountDownLatch;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 /**
  * The MatchController is the main class handling the match.
  * It is responsible for handling the messages sent by the clients and the game logic.
+ * The heartbeats are sent by the shared {@link HeartbeatScheduler}, the controller does not have its own thread.
+ * <p>
+ * The accepted moves are recorded in the {@link MatchJournal}, together with the reconnect tokens of the players
+ * as their seats. A match recovered from the journal after a restart cannot be joined by its ID, it waits
+ * for its players to reattach with their reconnect tokens, so that every player gets back their own color.
+ * <p>
+ * Every player gets a reconnect token when they join. When the connection of a player drops during the game,
+ * the match waits for the reconnect grace period of the {@link HeartbeatScheduler} and the player can reattach
+ * a new connection to the match with the token, see {@link #reattach(String, PlayerConnectionController)}.
+ * The connections of the players are swapped under a {@link ReentrantLock}, which also guards the moves,
+ * so that a reattached player gets the position after the last broadcast move.
  */
-public final class MatchController extends Thread {
+public final class MatchController {
+
+    /**
+     * The time in milliseconds after which a recovered match whose players have not both reattached is ended.
+     */
+    public static final long RecoveryTimeout = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * The number of random bytes in a reconnect token, the token is the seat of the player in the journal.
+     */
+    private static final int ReconnectTokenLength = MatchJournal.SeatLength;
+
+    private static final SecureRandom tokenRandom = new SecureRandom();
+
     private final Match match;
-    private final CountDownLatch bothPlayersPresentLatch;
     private final String matchID;
     private final MatchesMap controllers;
     private final AtomicBoolean gameOngoing;
     private final AtomicBoolean gameStarted;
+    private final HeartbeatScheduler heartbeatScheduler;
+    private final TurnUpdates turnUpdates;
+    private final MatchJournal journal;
+    private final boolean recovered;
+    private final long createdAt;
+    private final ReentrantLock lock;
+    private final String[] reconnectTokens;
+    private final ScheduledFuture<?>[] gracePeriods;
+    private final long[] connectionLostAt;
+    private volatile ScheduledFuture<?> heartbeatTask;
     private PlayerConnectionController whitePlayerController;
     private PlayerConnectionController blackPlayerController;
 
     /**
      * The MatchController constructor
      *
-     * @param matchID     The match ID
-     * @param controllers The MatchesMap to which this MatchController belongs
+     * @param matchID            The match ID
+     * @param controllers        The MatchesMap to which this MatchController belongs
+     * @param heartbeatScheduler The scheduler sending the heartbeats of the match
+     * @param moveCache          The cache of legal moves shared with the other matches or null
+     * @param openingBook        The legal moves of the opening positions or null
+     * @param turnUpdates        How the players are told about the turns
+     * @param journal            The journal recording the moves or null
      */
-    public MatchController(String matchID, MatchesMap controllers) {
-        match = new Match();
+    public MatchController(String matchID, MatchesMap controllers, HeartbeatScheduler heartbeatScheduler,
+                           MoveCache moveCache, OpeningBook openingBook, TurnUpdates turnUpdates,
+                           MatchJournal journal) {
+        this(matchID, controllers, heartbeatScheduler, moveCache, openingBook, turnUpdates, journal, null, null);
+    }
+
+    /**
+     * The MatchController constructor
+     *
+     * @param matchID            The match ID
+     * @param controllers        The MatchesMap to which this MatchController belongs
+     * @param heartbeatScheduler The scheduler sending the heartbeats of the match
+     * @param moveCache          The cache of legal moves shared with the other matches or null
+     * @param openingBook        The legal moves of the opening positions or null
+     * @param turnUpdates        How the players are told about the turns
+     * @param journal            The journal recording the moves or null
+     * @param journaledMoves     The packed moves of a match recovered from the journal or null for a new match
+     * @param seats              The seats of the players of a recovered match by the player ordinals or null
+     * @throws IllegalArgumentException If a journaled move is not legal
+     */
+    private MatchController(String matchID, MatchesMap controllers, HeartbeatScheduler heartbeatScheduler,
+                            MoveCache moveCache, OpeningBook openingBook, TurnUpdates turnUpdates,
+                            MatchJournal journal, int[] journaledMoves, byte[][] seats) {
+        match = new Match(BoardRepresentation.BITBOARD, moveCache, openingBook);
+        this.heartbeatScheduler = heartbeatScheduler;
+        this.turnUpdates = turnUpdates;
+        this.journal = journal;
         whitePlayerController = null;
         blackPlayerController = null;
-        bothPlayersPresentLatch = new CountDownLatch(1);
         this.matchID = matchID;
         gameOngoing = new AtomicBoolean(true);
         gameStarted = new AtomicBoolean(false);
         this.controllers = controllers;
+        recovered = journaledMoves != null;
+        createdAt = System.nanoTime();
+        lock = new ReentrantLock();
+        reconnectTokens = new String[Player.values().length];
+        gracePeriods = new ScheduledFuture<?>[Player.values().length];
+        connectionLostAt = new long[Player.values().length];
+        if (recovered) {
+            replay(journaledMoves);
+            for (Player player : Player.values()) {
+                reconnectTokens[player.ordinal()] = encodeReconnectToken(seats[player.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * Recreates the match from the moves recorded in the journal. The match waits for the players to reattach
+     * with the reconnect tokens recorded as their seats, and ends if they do not both reattach
+     * within the {@link #RecoveryTimeout}.
+     *
+     * @param matchID            The match ID
+     * @param controllers        The MatchesMap to which this MatchController belongs
+     * @param heartbeatScheduler The scheduler sending the heartbeats of the match
+     * @param moveCache          The cache of legal moves shared with the other matches or null
+     * @param openingBook        The legal moves of the opening positions or null
+     * @param turnUpdates        How the players are told about the turns
+     * @param journal            The journal recording the moves
+     * @param journaledMoves     The packed moves of the match recorded in the journal
+     * @param seats              The seats of the players recorded in the journal by the player ordinals
+     * @return The controller of the recovered match
+     * @throws IllegalArgumentException If a journaled move is not legal
+     */
+    public static MatchController recover(String matchID, MatchesMap controllers,
+                                          HeartbeatScheduler heartbeatScheduler, MoveCache moveCache,
+                                          OpeningBook openingBook, TurnUpdates turnUpdates, MatchJournal journal,
+                                          int[] journaledMoves, byte[][] seats) {
+        return new MatchController(matchID, controllers, heartbeatScheduler, moveCache, openingBook, turnUpdates,
+                journal, journaledMoves, seats);
     }
 
     /**
@@ -54,45 +162,58 @@ public final class MatchController extends Thread {
     }
 
     /**
-     * Runs until the end of the match always waiting for a message from both players
-     * First waits until both players are present, then handles messages from both players until the match ends
-     * At the end of the match sends the result to the players, closes the sockets
-     * and disposes itself from the MatchesMap.
+     * Generates a new random reconnect token
+     *
+     * @return The URL-safe Base64 encoding of the random bytes
      */
-    @Override
-    public void run() {
-        while (!gameStarted.get()) {
-            try {
-                bothPlayersPresentLatch.await();
-            }
-            catch (InterruptedException ignored) {
-            }
-        }
+    private static String createReconnectToken() {
+        byte[] token = new byte[ReconnectTokenLength];
+        tokenRandom.nextBytes(token);
+        return encodeReconnectToken(token);
+    }
 
-        final long tenSeconds = 10_000;
-        while (gameOngoing.get()) {
-            broadcastMessage(new HeartbeatMessage());
+    /**
+     * Encodes the bytes of a reconnect token
+     *
+     * @param token The bytes of the token
+     * @return The URL-safe Base64 encoding of the bytes
+     */
+    private static String encodeReconnectToken(byte[] token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
 
-            try {
-                Thread.sleep(tenSeconds);
-            }
-            catch (InterruptedException ignored) {
+    /**
+     * Performs the moves recorded in the journal
+     *
+     * @param journaledMoves The packed moves
+     * @throws IllegalArgumentException If a move is not legal
+     */
+    private void replay(int[] journaledMoves) {
+        int[] legalMoves = new int[MoveGenerator.MaxMoves];
+        for (int move : journaledMoves) {
+            int count = match.generateLegalMoves(legalMoves);
+            int i = 0;
+            while (i < count && legalMoves[i] != move) {
+                i++;
             }
-
-            if (!gameOngoing.get()) {
-                return;
+            if (i == count) {
+                throw new IllegalArgumentException("Journaled move " + match.plies() + " of match " + matchID
+                        + " is not legal");
             }
+            match.makeMove(move);
+        }
+    }
 
-            if (!blackPlayerController.isRunning() || !blackPlayerController.hasHeartbeatOccurred()) {
-                playerDisconnected(Player.BLACK);
-            }
-            if (!whitePlayerController.isRunning() || !whitePlayerController.hasHeartbeatOccurred()) {
-                playerDisconnected(Player.WHITE);
+    /**
+     * Starts sending the heartbeats of the match. The players of a recovered match can reattach from now on.
+     */
+    public void start() {
+        for (String reconnectToken : reconnectTokens) {
+            if (reconnectToken != null) {
+                controllers.registerReconnectToken(reconnectToken, this);
             }
-
-            whitePlayerController.clearHeartbeat();
-            blackPlayerController.clearHeartbeat();
         }
+        heartbeatTask = heartbeatScheduler.schedule(this::heartbeat);
     }
 
     /**
@@ -101,36 +222,118 @@ public final class MatchController extends Thread {
      * @return true if there is room for a new player to join, false otherwise
      */
     public boolean hasOpenSpot() {
-        return whitePlayerController == null || blackPlayerController == null;
+        lock.lock();
+        try {
+            // The seats of a recovered match belong to its players
+            return !recovered && (whitePlayerController == null || blackPlayerController == null);
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Add a player to the match
      *
      * @param playerController The controller of the connection of the player to add
-     * @return The player color of the player added
+     * @return The player color of the player added, null if there is no open spot
      */
     public Player addPlayer(PlayerConnectionController playerController) {
-        if (whitePlayerController == null) {
-            whitePlayerController = playerController;
-            whitePlayerController.addCallback(MessageType.RESIGNED, this::playerResignedHandler);
-            whitePlayerController.addCallback(MessageType.TURN, this::playerTurnHandler);
-            whitePlayerController.addCallback(
-                    MessageType.DISCONNECTED, (message) -> this.playerDisconnectedHandler(Player.WHITE));
+        lock.lock();
+        try {
+            Player player;
+            if (recovered) {
+                return null; // The players reattach with their reconnect tokens
+            } else if (whitePlayerController == null) {
+                player = Player.WHITE;
+            } else if (blackPlayerController == null) {
+                player = Player.BLACK;
+            } else {
+                return null; // No open spot - should never happen
+            }
 
-            return Player.WHITE;
-        } else if (blackPlayerController == null) {
-            blackPlayerController = playerController;
-            blackPlayerController.addCallback(MessageType.RESIGNED, this::playerResignedHandler);
-            blackPlayerController.addCallback(MessageType.TURN, this::playerTurnHandler);
-            blackPlayerController.addCallback(MessageType.JOIN_GAME, this::joinedPlayerHasAcknowledgedConnectionHandler);
-            blackPlayerController.addCallback(
-                    MessageType.DISCONNECTED, (message) -> this.playerDisconnectedHandler(Player.BLACK));
+            setPlayerController(player, playerController);
+            String reconnectToken = createReconnectToken();
+            reconnectTokens[player.ordinal()] = reconnectToken;
+            controllers.registerReconnectToken(reconnectToken, this);
 
-            return Player.BLACK;
+            return player;
+        }
+        finally {
+            lock.unlock();
         }
+    }
+
+    /**
+     * Reattaches a new connection of a player whose connection dropped, the player continues the match
+     * from the current position. The player gets a {@link ReconnectReplyMessage} and the opponent
+     * an {@link OpponentConnectedMessage}.
+     *
+     * @param reconnectToken   The reconnect token of the player
+     * @param playerController The controller of the new connection of the player
+     * @return The player color of the reattached player, null if the token is not valid for this match
+     */
+    public Player reattach(String reconnectToken, PlayerConnectionController playerController) {
+        lock.lock();
+        try {
+            Player player = playerOfToken(reconnectToken);
+            if (player == null || !gameOngoing.get()) {
+                return null;
+            }
+
+            int index = player.ordinal();
+            if (gracePeriods[index] != null) {
+                gracePeriods[index].cancel(false);
+                gracePeriods[index] = null;
+            } else {
+                // The player reconnected before the old connection timed out
+                closePlayerController(player);
+            }
+
+            setPlayerController(player, playerController);
+            playerController.resetHeartbeat();
+            playerController.sendMessage(new ReconnectReplyMessage(true, matchID, match.getFEN(), player));
+            if (gameStarted.get()) {
+                sendMessage(new OpponentConnectedMessage(), player.opposite());
+            } else if (recovered) {
+                recoveredPlayerReattached(player);
+            }
+            SafeLog.log(Level.INFO, "Player " + player + " reconnected to match " + matchID);
 
-        return null; // No open spot - should never happen
+            return player;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the recovered match once both players have reattached, otherwise tells the reattached player
+     * how long the match waits for the opponent
+     *
+     * @param player The reattached player
+     */
+    private void recoveredPlayerReattached(Player player) {
+        if (!isPresent(player.opposite())) {
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdAt);
+            sendMessage(new OpponentReconnectingMessage(Math.max(0, RecoveryTimeout - waited)), player);
+            return;
+        }
+
+        whitePlayerController.resetHeartbeat();
+        blackPlayerController.resetHeartbeat();
+        gameStarted.set(true);
+        broadcastMessage(new OpponentConnectedMessage());
+    }
+
+    /**
+     * Gets the token with which a player can reconnect to the match
+     *
+     * @param player The player
+     * @return The reconnect token of the player, null if the player has not joined the match
+     */
+    public String getReconnectToken(Player player) {
+        return reconnectTokens[player.ordinal()];
     }
 
     /**
@@ -159,18 +362,50 @@ public final class MatchController extends Thread {
     private void playerTurnHandler(Message message) {
         var turnMessage = (TurnMessage) message;
         var player = turnMessage.playerColor.getPlayer();
-        if (!player.equals(match.getCurrentPlayer())) { // Ignore if it's not the player's turn
-            return;
-        }
+        lock.lock();
+        try {
+            // Ignore if the opponent is not there yet or if it's not the player's turn
+            if (!gameStarted.get() || !player.equals(match.getCurrentPlayer())) {
+                return;
+            }
+
+            if (!match.makeMove(createMoveFromTurnMessage(turnMessage))) {
+                String FEN = match.getFEN();
+                SafeLog.log(Level.INFO, "FEN After move attempt: " + FEN);
+                sendMessage(new TurnReplyMessage(false, FEN, false, null), player);
+                return;
+            }
+            if (journal != null) {
+                if (match.plies() == 1) {
+                    journalSeats();
+                }
+                journal.moveMade(matchID, match.plies() - 1, match.lastMove());
+            }
 
-        var reply = handleTurnMessage(turnMessage);
-        if (reply.success) {
-            broadcastMessage(reply);
-            if (reply.gameOver) {
+            GameStatus status = match.evaluateStatus();
+            broadcastMessage(createTurnUpdate(turnMessage, status));
+            if (status.isGameOver()) {
                 endGame();
             }
-        } else {
-            sendMessage(reply, player);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the whole position of the match to a player whose board went out of sync
+     *
+     * @param player The player asking for the position
+     */
+    private void resyncHandler(Player player) {
+        lock.lock();
+        try {
+            GameStatus status = match.evaluateStatus();
+            sendMessage(new TurnReplyMessage(true, match.getFEN(), status.isGameOver(), status.winner), player);
+        }
+        finally {
+            lock.unlock();
         }
     }
 
@@ -181,12 +416,23 @@ public final class MatchController extends Thread {
      * @param message The acknowledgement message to handle
      */
     private void joinedPlayerHasAcknowledgedConnectionHandler(Message message) {
-        broadcastMessage(new OpponentConnectedMessage());
-        blackPlayerController.removeCallback(MessageType.JOIN_GAME, this::joinedPlayerHasAcknowledgedConnectionHandler);
+        lock.lock();
+        try {
+            if (gameStarted.get()) {
+                return;
+            }
 
-        // When both players are present -> wake up the thread waiting in the run method and start sending heartbeat messages
-        gameStarted.set(true);
-        bothPlayersPresentLatch.countDown();
+            broadcastMessage(new OpponentConnectedMessage());
+            blackPlayerController.clearCallbacks(MessageType.JOIN_GAME);
+
+            // When both players are present -> start checking their heartbeats
+            whitePlayerController.resetHeartbeat();
+            blackPlayerController.resetHeartbeat();
+            gameStarted.set(true);
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -196,18 +442,29 @@ public final class MatchController extends Thread {
      */
     private void playerResignedHandler(Message message) {
         var resignMessage = (ResignMessage) message;
-        sendMessage(new OpponentResignedMessage(), resignMessage.player.opposite());
-        endGame();
+        lock.lock();
+        try {
+            sendMessage(new OpponentResignedMessage(), resignMessage.player.opposite());
+            endGame();
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Handles when a player disconnects
+     * Handles when a player disconnects on purpose, the player cannot reconnect
      *
      * @param disconnectingPlayer The player that disconnected
      */
     private void playerDisconnectedHandler(Player disconnectingPlayer) {
-        sendMessage(new OpponentDisconnectedMessage(), disconnectingPlayer.opposite());
-        endGame();
+        lock.lock();
+        try {
+            playerDisconnected(disconnectingPlayer);
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -221,56 +478,223 @@ public final class MatchController extends Thread {
     }
 
     /**
-     * Handles a turn message from a player.
-     * Translate the message into a Move and performs it on the match
+     * Handles a situation when the connection of a player dropped during the game.
+     * The player has the reconnect grace period to reattach, the opponent is told to wait meanwhile.
+     * Without a grace period the player is disconnected at once.
      *
-     * @param message The message to handle
-     * @return The reply to send to the player
+     * @param player The player whose connection dropped
      */
-    private TurnReplyMessage handleTurnMessage(TurnMessage message) {
-        Move move = createMoveFromTurnMessage(message);
-        boolean success = match.makeMove(move);
+    private void playerConnectionLost(Player player) {
+        long gracePeriod = heartbeatScheduler.getReconnectGracePeriod();
+        if (gracePeriod == 0) {
+            playerDisconnected(player);
+            return;
+        }
 
-        SafeLog.log(Level.INFO, "FEN After move attempt: " + match.getFEN());
+        closePlayerController(player);
+        int index = player.ordinal();
+        connectionLostAt[index] = System.nanoTime();
+        gracePeriods[index] = heartbeatScheduler.scheduleAfterGracePeriod(() -> gracePeriodExpired(player));
+        SafeLog.log(Level.INFO, "Player " + player + " of match " + matchID + " lost connection");
+        sendMessage(new OpponentReconnectingMessage(gracePeriod), player.opposite());
+    }
 
-        if (!success) {
-            return new TurnReplyMessage(false, match.getFEN(), false, null);
-        }
+    /**
+     * Run by the heartbeat scheduler once the reconnect grace period of a player is over,
+     * disconnects the player if they have not reattached in the meantime
+     *
+     * @param player The player whose connection dropped
+     */
+    private void gracePeriodExpired(Player player) {
+        lock.lock();
+        try {
+            int index = player.ordinal();
+            // A task of an earlier drop which could not be cancelled in time is too early for the current one
+            if (!gameOngoing.get() || gracePeriods[index] == null || System.nanoTime() - connectionLostAt[index]
+                    < TimeUnit.MILLISECONDS.toNanos(heartbeatScheduler.getReconnectGracePeriod())) {
+                return;
+            }
 
-        boolean gameOver = match.gameOver();
-        if (gameOver) {
-            var winner = match.winner();
-            return winner.map(player -> new TurnReplyMessage(success, match.getFEN(), gameOver, player))
-                    .orElseGet(() -> new TurnReplyMessage(success, match.getFEN(), gameOver, null));
+            gracePeriods[index] = null;
+            playerDisconnected(player);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
 
+    /**
+     * Creates the message telling the players about the successful turn, according to {@link TurnUpdates}
+     *
+     * @param message The message of the performed turn
+     * @param status  The status of the match after the turn
+     * @return The message to send to the players
+     */
+    private ServerOngoingMatchMessage createTurnUpdate(TurnMessage message, GameStatus status) {
+        if (turnUpdates == TurnUpdates.DELTA) {
+            return new TurnDeltaMessage(message.startingPosition, message.endingPosition, status.isGameOver(),
+                    status.winner, match.checksum());
         }
 
-        return new TurnReplyMessage(success, match.getFEN(), gameOver, null);
+        String FEN = match.getFEN();
+        SafeLog.log(Level.INFO, "FEN After move attempt: " + FEN);
+        return new TurnReplyMessage(true, FEN, status.isGameOver(), status.winner);
     }
 
     /**
      * Ends the game, gets rid of all resources
      */
     private void endGame() {
+        closePlayerController(Player.WHITE);
+        closePlayerController(Player.BLACK);
+        for (Player player : Player.values()) {
+            int index = player.ordinal();
+            if (reconnectTokens[index] != null) {
+                controllers.removeReconnectToken(reconnectTokens[index]);
+            }
+            if (gracePeriods[index] != null) {
+                gracePeriods[index].cancel(false);
+                gracePeriods[index] = null;
+            }
+        }
+
+        gameStarted.set(true);
+        gameOngoing.set(false);
+        // A match without moves is not in the journal
+        if (journal != null && match.plies() > 0) {
+            journal.matchEnded(matchID);
+        }
+        controllers.matchEnded(matchID);
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+        }
+    }
+
+    /**
+     * Run by the heartbeat scheduler once every heartbeat interval.
+     * Before both players are present, only cleans up the match if the waiting player has left
+     * or if the players have not both reattached to the recovered match in time.
+     * Afterwards starts the reconnect grace period of the players whose connection dropped or whose heartbeat
+     * timed out and sends new heartbeats to the present players.
+     */
+    private void heartbeat() {
+        lock.lock();
         try {
-            if (whitePlayerController != null) {
-                whitePlayerController.close();
+            if (!gameOngoing.get()) {
+                return;
+            }
+
+            if (!gameStarted.get()) {
+                if (recovered) {
+                    // A reattached player whose connection dropped may reattach again until the timeout
+                    if (System.nanoTime() - createdAt > TimeUnit.MILLISECONDS.toNanos(RecoveryTimeout)) {
+                        broadcastMessage(new OpponentDisconnectedMessage());
+                        endGame();
+                    }
+                } else if (whitePlayerController != null && !whitePlayerController.isRunning()) {
+                    endGame();
+                }
+                return;
+            }
+
+            for (Player player : new Player[]{Player.BLACK, Player.WHITE}) {
+                PlayerConnectionController playerController = getPlayerController(player);
+                if (isPresent(player) && (!playerController.isRunning()
+                        || heartbeatScheduler.hasTimedOut(playerController.getLastHeartbeat()))) {
+                    playerConnectionLost(player);
+                }
+            }
+            if (gameOngoing.get()) {
+                broadcastMessage(new HeartbeatMessage());
             }
         }
-        catch (IOException ignored) {
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the reconnect tokens of the players as their seats in the journal, before the first move
+     */
+    private void journalSeats() {
+        for (Player player : Player.values()) {
+            journal.seatTaken(matchID, player, Base64.getUrlDecoder().decode(reconnectTokens[player.ordinal()]));
+        }
+    }
+
+    /**
+     * Gets the player who was given the reconnect token
+     *
+     * @param reconnectToken The reconnect token
+     * @return The player with the token, null if no player of this match has the token
+     */
+    private Player playerOfToken(String reconnectToken) {
+        for (Player player : Player.values()) {
+            if (reconnectToken.equals(reconnectTokens[player.ordinal()])) {
+                return player;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Answers whether the player is connected, i.e. has joined and is not in the reconnect grace period
+     *
+     * @param player The player
+     * @return true if the player is connected, false otherwise
+     */
+    private boolean isPresent(Player player) {
+        return getPlayerController(player) != null && gracePeriods[player.ordinal()] == null;
+    }
+
+    /**
+     * Gets the controller of the connection of a player
+     *
+     * @param player The player
+     * @return The controller of the connection or null if the player has not joined
+     */
+    private PlayerConnectionController getPlayerController(Player player) {
+        return player == Player.WHITE ? whitePlayerController : blackPlayerController;
+    }
+
+    /**
+     * Sets the controller of the connection of a player and registers the callbacks of the match with it
+     *
+     * @param player           The player
+     * @param playerController The controller of the connection of the player
+     */
+    private void setPlayerController(Player player, PlayerConnectionController playerController) {
+        if (player == Player.WHITE) {
+            whitePlayerController = playerController;
+        } else {
+            blackPlayerController = playerController;
+        }
+
+        playerController.addCallback(MessageType.RESIGNED, this::playerResignedHandler);
+        playerController.addCallback(MessageType.TURN, this::playerTurnHandler);
+        playerController.addCallback(MessageType.RESYNC, (message) -> this.resyncHandler(player));
+        playerController.addCallback(MessageType.DISCONNECTED, (message) -> this.playerDisconnectedHandler(player));
+        // Only the acknowledgement of the first connection of the joining player starts the game
+        if (player == Player.BLACK && !gameStarted.get()) {
+            playerController.addCallback(MessageType.JOIN_GAME, this::joinedPlayerHasAcknowledgedConnectionHandler);
         }
+    }
+
+    /**
+     * Closes the connection of a player, if the player has joined
+     *
+     * @param player The player
+     */
+    private void closePlayerController(Player player) {
+        PlayerConnectionController playerController = getPlayerController(player);
         try {
-            if (blackPlayerController != null) {
-                blackPlayerController.close();
+            if (playerController != null) {
+                playerController.close();
             }
         }
         catch (IOException ignored) {
         }
-
-        gameStarted.set(true);
-        gameOngoing.set(false);
-        controllers.matchEnded(matchID);
-        this.interrupt();
     }
 
     /**
@@ -290,10 +714,8 @@ public final class MatchController extends Thread {
      * @param player  The player to send the message to
      */
     private void sendMessage(ServerMessage message, Player player) {
-        if (player == Player.WHITE && whitePlayerController != null) {
-            whitePlayerController.sendMessage(message);
-        } else if (player == Player.BLACK && blackPlayerController != null) {
-            blackPlayerController.sendMessage(message);
+        if (isPresent(player)) {
+            getPlayerController(player).sendMessage(message);
         }
     }
 }
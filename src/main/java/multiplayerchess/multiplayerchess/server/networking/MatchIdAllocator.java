@@ -0,0 +1,182 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocates unique match IDs without checking which IDs are taken.
+ * <p>
+ * The IDs are the numbers of a sequence passed through a keyed permutation of all the possible IDs,
+ * so consecutive matches do not get consecutive IDs, and encoded in base 62.
+ * As the permutation is a bijection, every number of the sequence gives a different ID.
+ * <p>
+ * The IDs of the ended matches are released and allocated again, but only after a number of other IDs
+ * have been released, so that a player does not join a new match with the ID of a match which has just ended.
+ */
+public final class MatchIdAllocator {
+
+    /**
+     * The length of the match IDs.
+     */
+    public static final int IdLength = 5;
+
+    private static final byte[] alphabet =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final int Base = alphabet.length;
+    private static final int IdCount = pow(Base, IdLength);
+    // The permutation works on the smallest power of two containing all the IDs, split into two halves
+    private static final int HalfBits = (32 - Integer.numberOfLeadingZeros(IdCount - 1) + 1) / 2;
+    private static final int HalfMask = (1 << HalfBits) - 1;
+    private static final int Rounds = 4;
+    private static final int RecycleDelay = 1024;
+
+    private final int[] roundKeys;
+    private final AtomicInteger sequence;
+    private final Queue<String> released;
+    private final AtomicInteger releasedCount;
+
+    /**
+     * MatchIdAllocator constructor with a random permutation.
+     */
+    public MatchIdAllocator() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * MatchIdAllocator constructor.
+     *
+     * @param key The key selecting the permutation of the IDs
+     */
+    public MatchIdAllocator(long key) {
+        SplittableRandom random = new SplittableRandom(key);
+        roundKeys = new int[Rounds];
+        for (int i = 0; i < Rounds; i++) {
+            roundKeys[i] = random.nextInt();
+        }
+        sequence = new AtomicInteger(0);
+        released = new ConcurrentLinkedQueue<>();
+        releasedCount = new AtomicInteger(0);
+    }
+
+    /**
+     * Allocates an ID which is not used by any other match.
+     *
+     * @return The allocated ID
+     * @throws IllegalStateException If all the IDs are used
+     */
+    public String allocate() {
+        if (releasedCount.get() > RecycleDelay) {
+            String recycled = pollReleased();
+            if (recycled != null) {
+                return recycled;
+            }
+        }
+
+        int next = sequence.getAndUpdate(value -> value < IdCount ? value + 1 : value);
+        if (next < IdCount) {
+            return encode(permute(next));
+        }
+
+        // The whole sequence is used, every ID can only be recycled
+        String recycled = pollReleased();
+        if (recycled == null) {
+            throw new IllegalStateException("All the match IDs are used");
+        }
+        return recycled;
+    }
+
+    /**
+     * Releases the ID of an ended match, so that it can be allocated again.
+     *
+     * @param id The ID given by {@link #allocate()}, which must not be released twice
+     */
+    public void release(String id) {
+        released.add(id);
+        releasedCount.incrementAndGet();
+    }
+
+    /**
+     * Maps the number to an ID number, a bijection on the numbers below {@link #IdCount}.
+     * A Feistel network permutes the power of two range, the numbers outside the ID range are permuted
+     * again until they fall into it.
+     *
+     * @param number The number to map
+     * @return The ID number
+     */
+    private int permute(int number) {
+        int value = number;
+        do {
+            int left = value >>> HalfBits;
+            int right = value & HalfMask;
+            for (int roundKey : roundKeys) {
+                int mixed = left ^ (round(right, roundKey) & HalfMask);
+                left = right;
+                right = mixed;
+            }
+            value = (left << HalfBits) | right;
+        } while (value >= IdCount);
+
+        return value;
+    }
+
+    /**
+     * The round function of the Feistel network
+     *
+     * @param half     The half of the value
+     * @param roundKey The key of the round
+     * @return The pseudo-random bits for the other half
+     */
+    private static int round(int half, int roundKey) {
+        int hash = (half ^ roundKey) * 0x9E3779B1;
+        return hash ^ (hash >>> 15);
+    }
+
+    /**
+     * Encodes the ID number in base 62 with exactly {@link #IdLength} digits
+     *
+     * @param number The ID number
+     * @return The ID
+     */
+    private static String encode(int number) {
+        byte[] id = new byte[IdLength];
+        for (int i = IdLength - 1; i >= 0; i--) {
+            id[i] = alphabet[number % Base];
+            number /= Base;
+        }
+
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Takes the oldest released ID
+     *
+     * @return The ID or null if no ID has been released
+     */
+    private String pollReleased() {
+        String id = released.poll();
+        if (id != null) {
+            releasedCount.decrementAndGet();
+        }
+
+        return id;
+    }
+
+    /**
+     * Computes the power
+     *
+     * @param base     The base
+     * @param exponent The non-negative exponent
+     * @return The base raised to the exponent
+     */
+    private static int pow(int base, int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = Math.multiplyExact(result, base);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,647 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.server.SafeLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.zip.CRC32C;
+
+/**
+ * The write-ahead journal of the moves of the ongoing matches, from which the matches are recovered
+ * after the server restarts.
+ * <p>
+ * Every accepted move and every ended match is appended as a fixed size record to a single file:
+ * <pre>
+ *     header:  int magic, int version
+ *     record:  byte type, 5 bytes match ID, short ply, int packed move, int CRC32C of the previous 12 bytes
+ * </pre>
+ * Before its first move, a match records the seats of its players, i.e. the secrets with which the players
+ * return to the recovered match. A seat takes four seat records, whose ply field holds the player
+ * in the high byte and the part of the seat in the low byte, and whose move field holds 4 bytes of the seat.
+ * Appending only copies the record into a buffer. A writer thread commits the buffered records of all the
+ * matches together, with a single write and fsync once every sync interval, so a turn never waits for the disk.
+ * The moves of the last sync interval may be lost by a crash of the machine.
+ * A batch which cannot be written is retried from the end of the last written batch, until then
+ * {@link #flush()} reports the failure.
+ * <p>
+ * When the journal is opened, the file is memory-mapped and replayed. The replay stops at the first torn
+ * or corrupted record. The file is then rewritten with only the matches still in progress, so it does not
+ * grow over restarts.
+ */
+public final class MatchJournal implements AutoCloseable {
+
+    /**
+     * The default time in microseconds between two syncs of the journal.
+     */
+    public static final long DefaultSyncInterval = 2_000;
+
+    static final int Magic = 0x4D4A4E31;
+    static final int Version = 1;
+    static final int HeaderSize = 2 * Integer.BYTES;
+    static final int RecordSize = 16;
+    static final byte MoveRecord = 1;
+    static final byte EndRecord = 2;
+    static final byte SeatRecord = 3;
+    static final int SeatLength = 16;
+
+    private static final int ChecksumOffset = RecordSize - Integer.BYTES;
+    private static final int BatchCapacity = 4096;
+    private static final int PlyMask = 0xFFFF;
+    private static final int Dropped = -1;
+    private static final int SeatParts = SeatLength / Integer.BYTES;
+    private static final int AllSeatParts = (1 << (Player.values().length * SeatParts)) - 1;
+    private static final long RetryDelay = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long syncInterval;
+    private final Map<String, int[]> recoveredMatches;
+    private final Map<String, byte[][]> recoveredSeats;
+    private final ReentrantLock lock;
+    private final Condition recordsAppended;
+    private final Condition batchWritten;
+    private final CRC32C checksum;
+    private final LongAdder syncs;
+    private final Thread writer;
+    private ByteBuffer pending;
+    private ByteBuffer writing;
+    private long writePosition;
+    private long appendedCount;
+    private long committedCount;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * The MatchJournal constructor, starts the writer thread
+     *
+     * @param file             The journal file
+     * @param channel          The open channel of the file
+     * @param writePosition    The offset after the last valid record
+     * @param syncInterval     The time in microseconds between two syncs
+     * @param recoveredMatches The moves of the matches in progress found in the file
+     * @param recoveredSeats   The seats of the players of the matches in progress found in the file
+     */
+    MatchJournal(Path file, FileChannel channel, long writePosition, long syncInterval,
+                 Map<String, int[]> recoveredMatches, Map<String, byte[][]> recoveredSeats) {
+        this.file = file;
+        this.channel = channel;
+        this.writePosition = writePosition;
+        this.syncInterval = TimeUnit.MICROSECONDS.toNanos(syncInterval);
+        this.recoveredMatches = Collections.unmodifiableMap(recoveredMatches);
+        this.recoveredSeats = Collections.unmodifiableMap(recoveredSeats);
+        lock = new ReentrantLock();
+        recordsAppended = lock.newCondition();
+        batchWritten = lock.newCondition();
+        checksum = new CRC32C();
+        syncs = new LongAdder();
+        pending = ByteBuffer.allocateDirect(BatchCapacity * RecordSize);
+        writing = ByteBuffer.allocateDirect(BatchCapacity * RecordSize);
+        writer = new Thread(this::writeBatches, "match-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens the journal, replays it and compacts it to the matches in progress.
+     *
+     * @param file         The journal file, created if it does not exist
+     * @param syncInterval The time in microseconds between two syncs, a longer interval commits more moves
+     *                     with a single fsync but more of them may be lost
+     * @return The opened journal
+     * @throws IOException If the file cannot be read or written or is not a journal
+     */
+    public static MatchJournal open(Path file, long syncInterval) throws IOException {
+        if (syncInterval <= 0) {
+            throw new IllegalArgumentException("The sync interval has to be positive");
+        }
+
+        Map<String, byte[][]> recoveredSeats = new LinkedHashMap<>();
+        Map<String, int[]> recoveredMatches = Files.exists(file)
+                ? replay(file, recoveredSeats)
+                : new LinkedHashMap<>();
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        long length = writeJournal(compacted, recoveredMatches, recoveredSeats);
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        return new MatchJournal(file, channel, length, syncInterval, recoveredMatches, recoveredSeats);
+    }
+
+    /**
+     * Gets the moves of the matches which were in progress when the journal was last closed,
+     * in the order in which the matches made their first move
+     *
+     * @return The packed moves of the matches by their IDs
+     */
+    public Map<String, int[]> recoveredMatches() {
+        return recoveredMatches;
+    }
+
+    /**
+     * Gets the seats of the players of a match which was in progress when the journal was last closed
+     *
+     * @param matchID The ID of the match
+     * @return The seats of the players by the player ordinals, null if the seats of the match are not in the journal
+     */
+    public byte[][] recoveredSeats(String matchID) {
+        byte[][] seats = recoveredSeats.get(matchID);
+        if (seats == null) {
+            return null;
+        }
+
+        byte[][] copy = new byte[seats.length][];
+        for (int i = 0; i < seats.length; i++) {
+            copy[i] = seats[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Appends the seat of a player of the match, which has to be appended before the first move of the match.
+     * Returns without waiting for the seat to be written.
+     *
+     * @param matchID The ID of the match
+     * @param player  The player
+     * @param seat    The {@link #SeatLength} bytes of the seat
+     */
+    public void seatTaken(String matchID, Player player, byte[] seat) {
+        if (seat.length != SeatLength) {
+            throw new IllegalArgumentException("A seat has to have " + SeatLength + " bytes");
+        }
+
+        ByteBuffer parts = ByteBuffer.wrap(seat);
+        for (int part = 0; part < SeatParts; part++) {
+            append(SeatRecord, matchID, seatField(player, part), parts.getInt());
+        }
+    }
+
+    /**
+     * Appends the move accepted in the match. Returns without waiting for the move to be written.
+     *
+     * @param matchID The ID of the match
+     * @param ply     The number of moves made in the match before this one
+     * @param move    The packed move
+     */
+    public void moveMade(String matchID, int ply, int move) {
+        append(MoveRecord, matchID, ply, move);
+    }
+
+    /**
+     * Appends the end of the match, the match is not recovered anymore. Returns without waiting for the record
+     * to be written.
+     *
+     * @param matchID The ID of the match
+     */
+    public void matchEnded(String matchID) {
+        append(EndRecord, matchID, 0, 0);
+    }
+
+    /**
+     * Waits until all the records appended so far are written and synced.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting
+     * @throws IOException          If the last write of the journal failed or the journal is closed,
+     *                              the records are not durable yet
+     */
+    public void flush() throws InterruptedException, IOException {
+        lock.lock();
+        try {
+            long target = appendedCount;
+            recordsAppended.signal();
+            while (committedCount < target) {
+                if (failure != null) {
+                    throw new IOException("Match journal could not be written", failure);
+                }
+                if (!writer.isAlive()) {
+                    throw new IOException("Match journal is closed");
+                }
+                batchWritten.await();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of syncs of the journal, each of which committed the records of all the matches
+     * appended since the previous one
+     *
+     * @return The number of syncs
+     */
+    public long syncCount() {
+        return syncs.sum();
+    }
+
+    /**
+     * Writes the remaining records, stops the writer thread and closes the file.
+     *
+     * @throws IOException If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            recordsAppended.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        try {
+            writer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MatchJournal " + file + ": " + syncCount() + " syncs";
+    }
+
+    /**
+     * Copies the record into the pending batch, waits only if the batch is full
+     *
+     * @param type    The type of the record
+     * @param matchID The ID of the match
+     * @param ply     The ply of the move
+     * @param move    The packed move
+     */
+    private void append(byte type, String matchID, int ply, int move) {
+        lock.lock();
+        try {
+            if (closed) {
+                SafeLog.log(Level.WARNING, "Match journal is closed, the record of " + matchID + " is lost");
+                return;
+            }
+            while (pending.remaining() < RecordSize) {
+                recordsAppended.signal();
+                batchWritten.awaitUninterruptibly();
+            }
+
+            int start = pending.position();
+            putRecord(pending, type, matchID, ply, move);
+            checksum.reset();
+            checksum.update(pending.slice(start, ChecksumOffset));
+            pending.putInt((int) checksum.getValue());
+            appendedCount++;
+
+            // The writer does not wait for the end of the sync interval once half of the batch is used
+            if (pending.position() >= pending.capacity() / 2) {
+                recordsAppended.signal();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The loop of the writer thread: waits for records, gathers the records appended within the sync interval,
+     * writes them with a single write and syncs the file.
+     */
+    private void writeBatches() {
+        while (true) {
+            long batchEnd;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) {
+                    recordsAppended.awaitUninterruptibly();
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                if (!closed) {
+                    recordsAppended.awaitNanos(syncInterval);
+                }
+
+                ByteBuffer batch = pending;
+                pending = writing;
+                writing = batch;
+                batchEnd = appendedCount;
+                // Appenders waiting for a full batch can continue
+                batchWritten.signalAll();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally {
+                lock.unlock();
+            }
+
+            writing.flip();
+            while (!commit(batchEnd)) {
+                if (isClosed()) {
+                    SafeLog.log(Level.SEVERE, "Match journal is closed, the records which could not be written "
+                            + "are lost");
+                    return;
+                }
+                LockSupport.parkNanos(RetryDelay);
+            }
+            writing.clear();
+        }
+    }
+
+    /**
+     * Writes and syncs the batch of records after the last written batch. A partially written batch is
+     * overwritten by the next attempt.
+     *
+     * @param batchEnd The number of records appended up to the end of the batch
+     * @return True if the batch is written, false if it has to be written again
+     */
+    private boolean commit(long batchEnd) {
+        long position = writePosition;
+        IOException error = null;
+        writing.rewind();
+        try {
+            while (writing.hasRemaining()) {
+                position += channel.write(writing, position);
+            }
+            channel.force(false);
+            syncs.increment();
+            writePosition = position;
+        }
+        catch (IOException e) {
+            SafeLog.log(Level.SEVERE, "Match journal could not be written: " + e.getMessage());
+            error = e;
+        }
+
+        lock.lock();
+        try {
+            failure = error;
+            if (error == null) {
+                committedCount = batchEnd;
+            }
+            batchWritten.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return error == null;
+    }
+
+    /**
+     * Answers whether the journal is being closed
+     *
+     * @return True if the journal is being closed, false otherwise
+     */
+    private boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the ply field of a seat record
+     *
+     * @param player The player whose seat the record holds
+     * @param part   The part of the seat in the record
+     * @return The value of the ply field
+     */
+    private static int seatField(Player player, int part) {
+        return player.ordinal() << Byte.SIZE | part;
+    }
+
+    /**
+     * Puts the record without its checksum into the buffer
+     *
+     * @param buffer  The buffer to put the record into
+     * @param type    The type of the record
+     * @param matchID The ID of the match
+     * @param ply     The ply of the move
+     * @param move    The packed move
+     */
+    private static void putRecord(ByteBuffer buffer, byte type, String matchID, int ply, int move) {
+        if (matchID.length() != MatchIdAllocator.IdLength) {
+            throw new IllegalArgumentException("Invalid match ID " + matchID);
+        }
+
+        buffer.put(type);
+        for (int i = 0; i < MatchIdAllocator.IdLength; i++) {
+            buffer.put((byte) matchID.charAt(i));
+        }
+        buffer.putShort((short) ply);
+        buffer.putInt(move);
+    }
+
+    /**
+     * Reads the moves and the seats of the matches in progress from the memory-mapped journal
+     *
+     * @param file  The journal file
+     * @param seats The map to put the complete seats of the matches in progress into
+     * @return The packed moves of the matches by their IDs
+     * @throws IOException If the file cannot be read or is not a journal
+     */
+    private static Map<String, int[]> replay(Path file, Map<String, byte[][]> seats) throws IOException {
+        Map<String, int[]> matches = new LinkedHashMap<>();
+        Map<String, Integer> plies = new LinkedHashMap<>();
+        Map<String, Integer> seatParts = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return matches;
+            }
+            if (size < HeaderSize || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid match journal size " + size);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt(0) != Magic || buffer.getInt(Integer.BYTES) != Version) {
+                throw new IOException("Not a match journal of version " + Version);
+            }
+
+            CRC32C crc = new CRC32C();
+            int offset = HeaderSize;
+            for (; offset + RecordSize <= size; offset += RecordSize) {
+                crc.reset();
+                crc.update(buffer.slice(offset, ChecksumOffset));
+                if ((int) crc.getValue() != buffer.getInt(offset + ChecksumOffset)) {
+                    break;
+                }
+
+                byte[] id = new byte[MatchIdAllocator.IdLength];
+                buffer.get(offset + 1, id);
+                String matchID = new String(id, StandardCharsets.US_ASCII);
+                byte type = buffer.get(offset);
+                if (type == EndRecord) {
+                    matches.remove(matchID);
+                    plies.remove(matchID);
+                    seats.remove(matchID);
+                    seatParts.remove(matchID);
+                } else if (type == SeatRecord) {
+                    int field = buffer.getShort(offset + 1 + MatchIdAllocator.IdLength) & PlyMask;
+                    int player = field >>> Byte.SIZE;
+                    int part = field & 0xFF;
+                    if (player >= Player.values().length || part >= SeatParts) {
+                        break;
+                    }
+                    byte[][] matchSeats = seats.computeIfAbsent(
+                            matchID, key -> new byte[Player.values().length][SeatLength]);
+                    ByteBuffer.wrap(matchSeats[player]).putInt(part * Integer.BYTES,
+                            buffer.getInt(offset + 1 + MatchIdAllocator.IdLength + Short.BYTES));
+                    seatParts.merge(matchID, 1 << (player * SeatParts + part), (a, b) -> a | b);
+                } else if (type == MoveRecord) {
+                    int ply = buffer.getShort(offset + 1 + MatchIdAllocator.IdLength) & PlyMask;
+                    int move = buffer.getInt(offset + 1 + MatchIdAllocator.IdLength + Short.BYTES);
+                    addMove(matches, plies, matchID, ply, move);
+                } else {
+                    break;
+                }
+            }
+
+            if (offset != size) {
+                SafeLog.log(Level.WARNING, "Match journal is damaged after " + offset + " of " + size
+                        + " bytes, the rest is dropped");
+            }
+        }
+
+        matches.replaceAll((matchID, moves) -> Arrays.copyOf(moves, plies.get(matchID)));
+        seats.keySet().removeIf(matchID -> !matches.containsKey(matchID) || seatParts.get(matchID) != AllSeatParts);
+        return matches;
+    }
+
+    /**
+     * Adds the replayed move to the moves of its match
+     *
+     * @param matches The moves of the matches, with spare capacity
+     * @param plies   The number of moves of the matches, {@link #Dropped} for the matches which cannot be recovered
+     * @param matchID The ID of the match
+     * @param ply     The ply of the move
+     * @param move    The packed move
+     */
+    private static void addMove(Map<String, int[]> matches, Map<String, Integer> plies, String matchID, int ply,
+                                int move) {
+        int count = plies.getOrDefault(matchID, 0);
+        // A first move starts a new match, the ID of an ended match may have been given to it
+        if (ply == 0) {
+            matches.remove(matchID);
+            count = 0;
+        } else if (count == Dropped) {
+            return;
+        } else if ((count & PlyMask) != ply) {
+            SafeLog.log(Level.WARNING, "Match " + matchID + " has a gap in the journal and cannot be recovered");
+            matches.remove(matchID);
+            plies.put(matchID, Dropped);
+            return;
+        }
+
+        int[] moves = matches.getOrDefault(matchID, new int[16]);
+        if (count == moves.length) {
+            moves = Arrays.copyOf(moves, 2 * count);
+        }
+        moves[count] = move;
+        matches.put(matchID, moves);
+        plies.put(matchID, count + 1);
+    }
+
+    /**
+     * Writes a new journal holding only the given matches and syncs it
+     *
+     * @param file    The file to write
+     * @param matches The packed moves of the matches by their IDs
+     * @param seats   The seats of the players of the matches by their IDs
+     * @return The length of the written file
+     * @throws IOException If the file cannot be written
+     */
+    private static long writeJournal(Path file, Map<String, int[]> matches, Map<String, byte[][]> seats)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BatchCapacity * RecordSize);
+            buffer.putInt(Magic);
+            buffer.putInt(Version);
+
+            CRC32C crc = new CRC32C();
+            for (var match : matches.entrySet()) {
+                String matchID = match.getKey();
+                byte[][] matchSeats = seats.get(matchID);
+                for (Player player : Player.values()) {
+                    ByteBuffer seat = matchSeats != null ? ByteBuffer.wrap(matchSeats[player.ordinal()]) : null;
+                    for (int part = 0; seat != null && part < SeatParts; part++) {
+                        putCompactedRecord(channel, buffer, crc, SeatRecord, matchID, seatField(player, part),
+                                seat.getInt());
+                    }
+                }
+
+                int[] moves = match.getValue();
+                for (int ply = 0; ply < moves.length; ply++) {
+                    putCompactedRecord(channel, buffer, crc, MoveRecord, matchID, ply, moves[ply]);
+                }
+            }
+
+            buffer.flip();
+            writeFully(channel, buffer);
+            channel.force(true);
+            return channel.size();
+        }
+    }
+
+    /**
+     * Puts the record with its checksum into the buffer of the compacted journal, writes the buffer first if full
+     *
+     * @param channel The channel of the compacted journal
+     * @param buffer  The buffer of the records
+     * @param crc     The checksum of the records
+     * @param type    The type of the record
+     * @param matchID The ID of the match
+     * @param ply     The ply of the move
+     * @param move    The packed move
+     * @throws IOException If the channel cannot be written
+     */
+    private static void putCompactedRecord(FileChannel channel, ByteBuffer buffer, CRC32C crc, byte type,
+                                           String matchID, int ply, int move) throws IOException {
+        if (buffer.remaining() < RecordSize) {
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+        int start = buffer.position();
+        putRecord(buffer, type, matchID, ply, move);
+        crc.reset();
+        crc.update(buffer.slice(start, ChecksumOffset));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Writes the whole buffer to the channel
+     *
+     * @param channel The channel to write to
+     * @param buffer  The buffer to write
+     * @throws IOException If the channel cannot be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -1,32 +1,189 @@
 package multiplayerchess.multiplayerchess.server.networking;
 
-import java.util.HashMap;
+import multiplayerchess.multiplayerchess.server.SafeLog;
+import multiplayerchess.multiplayerchess.server.chess.MoveCache;
+import multiplayerchess.multiplayerchess.server.chess.OpeningBook;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
 
 /**
  * Class which holds the match controllers of the ongoing matches.
+ * <p>
+ * The matches are split into shards by the hash of their ID, every shard is a {@link ConcurrentHashMap}.
+ * Lookups do not lock, and creating or ending matches only contends with other matches in the same shard.
+ * The IDs of the matches are given by a {@link MatchIdAllocator}, so creating a match only has to retry
+ * if the ID is held by a match recovered from the {@link MatchJournal}.
+ * <p>
+ * The reconnect tokens of the players are kept in a separate hash map, so that a returning player
+ * finds their match with a single lookup.
  */
 public class MatchesMap {
-    private final Map<String, MatchController> matches;
 
     /**
-     * MatchesMap constructor.
+     * The number of shards of a map created without an explicit number.
+     */
+    public static final int DefaultShardCount = 16;
+
+    private final List<ConcurrentMap<String, MatchController>> shards;
+    private final ConcurrentMap<String, MatchController> reconnectTokens;
+    private final int shardMask;
+    private final HeartbeatScheduler heartbeatScheduler;
+    private final MoveCache moveCache;
+    private final OpeningBook openingBook;
+    private final TurnUpdates turnUpdates;
+    private final MatchJournal journal;
+    private final MatchIdAllocator idAllocator;
+
+    /**
+     * MatchesMap constructor. The heartbeats use the default interval and timeout.
      */
     public MatchesMap() {
-        matches = new HashMap<>();
+        this(new HeartbeatScheduler());
     }
 
     /**
-     * Adds a new match to the map.
+     * MatchesMap constructor.
      *
-     * @param matchID The ID of the match.
-     * @return The controller of the match.
+     * @param heartbeatScheduler The scheduler sending the heartbeats of all the matches.
+     */
+    public MatchesMap(HeartbeatScheduler heartbeatScheduler) {
+        this(heartbeatScheduler, DefaultShardCount);
+    }
+
+    /**
+     * MatchesMap constructor.
+     *
+     * @param heartbeatScheduler The scheduler sending the heartbeats of all the matches.
+     * @param moveCache          The cache of legal moves shared by all the matches or null to not cache the moves.
+     * @param openingBook        The legal moves of the opening positions or null.
+     * @param turnUpdates        How the clients are told about the turns.
+     */
+    public MatchesMap(HeartbeatScheduler heartbeatScheduler, MoveCache moveCache, OpeningBook openingBook,
+                      TurnUpdates turnUpdates) {
+        this(heartbeatScheduler, DefaultShardCount, moveCache, openingBook, turnUpdates, null);
+    }
+
+    /**
+     * MatchesMap constructor.
+     *
+     * @param heartbeatScheduler The scheduler sending the heartbeats of all the matches.
+     * @param moveCache          The cache of legal moves shared by all the matches or null to not cache the moves.
+     * @param openingBook        The legal moves of the opening positions or null.
+     * @param turnUpdates        How the clients are told about the turns.
+     * @param journal            The journal recording the moves of the matches or null.
+     */
+    public MatchesMap(HeartbeatScheduler heartbeatScheduler, MoveCache moveCache, OpeningBook openingBook,
+                      TurnUpdates turnUpdates, MatchJournal journal) {
+        this(heartbeatScheduler, DefaultShardCount, moveCache, openingBook, turnUpdates, journal);
+    }
+
+    /**
+     * MatchesMap constructor.
+     *
+     * @param heartbeatScheduler The scheduler sending the heartbeats of all the matches.
+     * @param shardCount         The number of shards, has to be a power of two.
+     */
+    public MatchesMap(HeartbeatScheduler heartbeatScheduler, int shardCount) {
+        this(heartbeatScheduler, shardCount, null, null, TurnUpdates.FULL, null);
+    }
+
+    /**
+     * MatchesMap constructor.
+     *
+     * @param heartbeatScheduler The scheduler sending the heartbeats of all the matches.
+     * @param shardCount         The number of shards, has to be a power of two.
+     * @param moveCache          The cache of legal moves shared by all the matches or null to not cache the moves.
+     * @param openingBook        The legal moves of the opening positions or null.
+     * @param turnUpdates        How the clients are told about the turns.
+     * @param journal            The journal recording the moves of the matches or null.
+     */
+    public MatchesMap(HeartbeatScheduler heartbeatScheduler, int shardCount, MoveCache moveCache,
+                      OpeningBook openingBook, TurnUpdates turnUpdates, MatchJournal journal) {
+        if (shardCount <= 0 || Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("The shard count has to be a power of two");
+        }
+
+        shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ConcurrentHashMap<>());
+        }
+        shardMask = shardCount - 1;
+        reconnectTokens = new ConcurrentHashMap<>();
+        this.heartbeatScheduler = heartbeatScheduler;
+        this.moveCache = moveCache;
+        this.openingBook = openingBook;
+        this.turnUpdates = turnUpdates;
+        this.journal = journal;
+        idAllocator = new MatchIdAllocator();
+    }
+
+    /**
+     * Creates a new match with a newly allocated ID.
+     *
+     * @return The controller of the new match.
+     * @throws IllegalStateException If all the match IDs are used.
+     */
+    public MatchController createMatch() {
+        while (true) {
+            String matchID = idAllocator.allocate();
+            MatchController newMatch = new MatchController(matchID, this, heartbeatScheduler, moveCache,
+                    openingBook, turnUpdates, journal);
+            if (shard(matchID).putIfAbsent(matchID, newMatch) == null) {
+                return newMatch;
+            }
+            // The allocator does not know the IDs of the recovered matches
+            SafeLog.log(Level.FINE, "The allocated match ID " + matchID + " is held by a recovered match");
+        }
+    }
+
+    /**
+     * Recreates the matches which were in progress when the journal was last closed and starts them,
+     * so that their players can reattach to them with their reconnect tokens. The matches whose moves cannot
+     * be replayed or whose seats are not in the journal are dropped.
+     *
+     * @return The number of recovered matches.
      */
-    public synchronized MatchController addMatch(String matchID) {
-        MatchController newMatch = new MatchController(matchID, this);
-        matches.put(matchID, newMatch);
-        return newMatch;
+    public int recoverMatches() {
+        if (journal == null) {
+            return 0;
+        }
+
+        int recoveredCount = 0;
+        for (Map.Entry<String, int[]> journaled : journal.recoveredMatches().entrySet()) {
+            String matchID = journaled.getKey();
+            byte[][] seats = journal.recoveredSeats(matchID);
+            if (seats == null) {
+                // Without the seats anybody could take the place of the players
+                SafeLog.log(Level.WARNING, "Match " + matchID + " has no seats in the journal and cannot be "
+                        + "recovered");
+                journal.matchEnded(matchID);
+                continue;
+            }
+
+            MatchController recovered;
+            try {
+                recovered = MatchController.recover(matchID, this, heartbeatScheduler, moveCache, openingBook,
+                        turnUpdates, journal, journaled.getValue(), seats);
+            }
+            catch (IllegalArgumentException e) {
+                SafeLog.log(Level.WARNING, "Match " + matchID + " cannot be recovered: " + e.getMessage());
+                journal.matchEnded(matchID);
+                continue;
+            }
+
+            if (shard(matchID).putIfAbsent(matchID, recovered) == null) {
+                recovered.start();
+                recoveredCount++;
+            }
+        }
+
+        return recoveredCount;
     }
 
     /**
@@ -35,8 +192,8 @@ public class MatchesMap {
      * @param matchID The ID of the match.
      * @return True if the match exists, false otherwise.
      */
-    public synchronized boolean matchExists(String matchID) {
-        return matches.containsKey(matchID);
+    public boolean matchExists(String matchID) {
+        return shard(matchID).containsKey(matchID);
     }
 
     /**
@@ -45,16 +202,89 @@ public class MatchesMap {
      * @param matchID The ID of the match.
      * @return The match controller with the given match ID.
      */
-    public synchronized Optional<MatchController> getMatch(String matchID) {
-        return Optional.ofNullable(matches.get(matchID));
+    public Optional<MatchController> getMatch(String matchID) {
+        return Optional.ofNullable(shard(matchID).get(matchID));
     }
 
     /**
-     * Disposes the match controller of the given match ID.
+     * Disposes the match controller of the given match ID, the ID may be given to a new match later.
      *
      * @param matchID The ID of the match to dispose of.
      */
-    public synchronized void matchEnded(String matchID) {
-        matches.remove(matchID);
+    public void matchEnded(String matchID) {
+        // Only the call which removes the match releases its ID
+        if (shard(matchID).remove(matchID) != null) {
+            idAllocator.release(matchID);
+        }
+    }
+
+    /**
+     * Registers the reconnect token of a player of the match
+     *
+     * @param reconnectToken The reconnect token of the player.
+     * @param match          The match of the player.
+     */
+    public void registerReconnectToken(String reconnectToken, MatchController match) {
+        reconnectTokens.put(reconnectToken, match);
+    }
+
+    /**
+     * Gets the match controller of the player with the given reconnect token.
+     *
+     * @param reconnectToken The reconnect token of the player.
+     * @return The match controller of the player.
+     */
+    public Optional<MatchController> getMatchByReconnectToken(String reconnectToken) {
+        return Optional.ofNullable(reconnectTokens.get(reconnectToken));
+    }
+
+    /**
+     * Forgets the reconnect token, the player cannot reconnect with it anymore.
+     *
+     * @param reconnectToken The reconnect token of the player.
+     */
+    public void removeReconnectToken(String reconnectToken) {
+        reconnectTokens.remove(reconnectToken);
+    }
+
+    /**
+     * Gets the number of ongoing matches in every shard, e.g. to check how evenly the matches are spread.
+     * The counts are only estimates while matches are being created or ended.
+     *
+     * @return The number of matches in every shard.
+     */
+    public int[] shardCounts() {
+        int[] counts = new int[shards.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = shards.get(i).size();
+        }
+
+        return counts;
+    }
+
+    /**
+     * Gets the number of ongoing matches.
+     *
+     * @return The number of matches.
+     */
+    public int size() {
+        int size = 0;
+        for (var shard : shards) {
+            size += shard.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Gets the shard of the match
+     *
+     * @param matchID The ID of the match.
+     * @return The shard holding the match.
+     */
+    private ConcurrentMap<String, MatchController> shard(String matchID) {
+        int hash = matchID.hashCode();
+        // Spreads the high bits, the hash codes of short IDs differ mostly in the low bits
+        return shards.get((hash ^ (hash >>> 16)) & shardMask);
     }
 }
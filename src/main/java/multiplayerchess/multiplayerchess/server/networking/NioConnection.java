@@ -0,0 +1,269 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.Message;
+import multiplayerchess.multiplayerchess.common.messages.ServerMessage;
+import multiplayerchess.multiplayerchess.common.networking.BackpressurePolicy;
+import multiplayerchess.multiplayerchess.common.networking.MessageCodec;
+import multiplayerchess.multiplayerchess.common.networking.MessageQueue;
+import multiplayerchess.multiplayerchess.common.networking.Protocol;
+import multiplayerchess.multiplayerchess.server.SafeLog;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Connection served by an {@link EventLoop}. Reads and writes the frames of the {@link Protocol#BINARY} protocol
+ * without blocking. Clients which do not perform the handshake and send serialized messages are not supported.
+ * <p>
+ * The received messages are passed to the consumer on the loop thread.
+ * Messages may be sent from any thread, they are queued and written by the loop thread. The senders never wait
+ * for room in the queue, they may be the loop thread itself, so a message which does not fit is dropped
+ * or closes the connection according to the {@link BackpressurePolicy}.
+ */
+final class NioConnection implements Connection {
+
+    private static final int LengthPrefixSize = Integer.BYTES;
+    private static final int FrameSize = LengthPrefixSize + MessageCodec.MaxMessageLength;
+    private static final int WriteBufferSize = 8 * FrameSize;
+
+    private final SocketChannel channel;
+    private final EventLoop eventLoop;
+    private final Consumer<Message> messageConsumer;
+    private final AutoCloseable parent;
+    private final ByteBuffer readBuffer;
+    private final ByteBuffer writeBuffer;
+    private final MessageQueue<ServerMessage> outgoing;
+    private final AtomicBoolean flushScheduled;
+    private final AtomicBoolean running;
+    private final Runnable flushTask;
+    private SelectionKey key;
+    private boolean handshakeDone;
+
+    /**
+     * The NioConnection constructor.
+     *
+     * @param channel         The non-blocking channel of the client
+     * @param eventLoop       The event loop serving the channel
+     * @param messageConsumer The consumer of the received messages
+     * @param parent          The owner of the connection, closed when the connection fails
+     * @param policy          What to do with the messages sent while the client reads too slowly
+     */
+    NioConnection(SocketChannel channel, EventLoop eventLoop, Consumer<Message> messageConsumer,
+                  AutoCloseable parent, BackpressurePolicy policy) {
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.messageConsumer = messageConsumer;
+        this.parent = parent;
+        readBuffer = ByteBuffer.allocate(FrameSize);
+        writeBuffer = ByteBuffer.allocate(WriteBufferSize);
+        outgoing = new MessageQueue<>(MessageQueue.DefaultCapacity, policy, 0);
+        flushScheduled = new AtomicBoolean(false);
+        running = new AtomicBoolean(true);
+        flushTask = this::flush;
+        handshakeDone = false;
+    }
+
+    @Override
+    public void start() {
+        eventLoop.execute(() -> {
+            try {
+                key = eventLoop.register(channel, this);
+            }
+            catch (IOException e) {
+                fail();
+            }
+        });
+    }
+
+    @Override
+    public void send(ServerMessage message) {
+        if (!outgoing.add(message)) {
+            // The client does not keep up with the messages
+            if (isRunning()) {
+                try {
+                    parent.close();
+                }
+                catch (Exception ignored) {
+                }
+            }
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(flushTask);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public void close() {
+        if (running.compareAndSet(true, false)) {
+            eventLoop.execute(() -> {
+                // Deliver what was already sent, if the client still reads
+                flush();
+                if (key != null) {
+                    key.cancel();
+                }
+                try {
+                    channel.close();
+                }
+                catch (IOException ignored) {
+                }
+            });
+        }
+    }
+
+    /**
+     * Handles the events selected on the channel, called on the loop thread.
+     * Any failure only closes this connection, the other connections of the loop are still served.
+     *
+     * @param selectedKey The selection key of the channel
+     */
+    void handleEvents(SelectionKey selectedKey) {
+        try {
+            if (selectedKey.isValid() && selectedKey.isReadable()) {
+                read();
+            }
+            if (selectedKey.isValid() && selectedKey.isWritable()) {
+                flush();
+            }
+        }
+        catch (IOException e) {
+            fail();
+        }
+        catch (RuntimeException e) {
+            SafeLog.log(Level.WARNING, "Connection failed while handling a message: " + e);
+            fail();
+        }
+    }
+
+    /**
+     * Reads the available bytes and passes all the complete messages to the consumer
+     *
+     * @throws IOException If the channel fails or the client sends invalid data
+     */
+    private void read() throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            fail();
+            return;
+        }
+
+        readBuffer.flip();
+        if (!handshakeDone) {
+            readHandshake();
+        }
+        if (handshakeDone) {
+            readFrames();
+        }
+        readBuffer.compact();
+    }
+
+    /**
+     * Reads the handshake of the client and answers it, if the whole handshake has been received
+     *
+     * @throws IOException If the client does not start with a valid handshake
+     */
+    private void readHandshake() throws IOException {
+        if (readBuffer.remaining() >= Short.BYTES
+                && (readBuffer.getShort(readBuffer.position()) & 0xFFFF) == Protocol.SerializationMagic) {
+            throw new ProtocolException("Serialized messages are not supported by the non-blocking server");
+        }
+        if (readBuffer.remaining() < Protocol.HandshakeLength) {
+            return;
+        }
+        if (readBuffer.getInt() != Protocol.HandshakeMagic) {
+            throw new ProtocolException("Invalid handshake");
+        }
+        // Validates the requested protocol, the server always answers with the binary protocol
+        Protocol.fromId(readBuffer.get() & 0xFF);
+
+        writeBuffer.putInt(Protocol.HandshakeMagic);
+        writeBuffer.put((byte) Protocol.BINARY.id);
+        handshakeDone = true;
+        flush();
+    }
+
+    /**
+     * Decodes all the complete frames in the read buffer
+     *
+     * @throws ProtocolException If a frame is invalid
+     */
+    private void readFrames() throws ProtocolException {
+        while (running.get() && readBuffer.remaining() >= LengthPrefixSize) {
+            int start = readBuffer.position();
+            int length = readBuffer.getInt(start);
+            if (length <= 0 || length > MessageCodec.MaxMessageLength) {
+                throw new ProtocolException("Invalid frame length " + length);
+            }
+            if (readBuffer.remaining() < LengthPrefixSize + length) {
+                return;
+            }
+
+            // Limits the buffer to the frame for decoding, without copying it
+            int limit = readBuffer.limit();
+            readBuffer.position(start + LengthPrefixSize);
+            readBuffer.limit(start + LengthPrefixSize + length);
+            Message message = MessageCodec.decode(readBuffer);
+            readBuffer.limit(limit);
+
+            messageConsumer.accept(message);
+        }
+    }
+
+    /**
+     * Encodes the queued messages into the write buffer and writes as much as the channel accepts.
+     * Waits for the channel to become writable if not everything was written. Called on the loop thread.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        try {
+            ServerMessage message;
+            while (writeBuffer.remaining() >= FrameSize && (message = outgoing.poll()) != null) {
+                int start = writeBuffer.position();
+                writeBuffer.position(start + LengthPrefixSize);
+                MessageCodec.encode(message, writeBuffer);
+                writeBuffer.putInt(start, writeBuffer.position() - start - LengthPrefixSize);
+            }
+
+            writeBuffer.flip();
+            channel.write(writeBuffer);
+            writeBuffer.compact();
+        }
+        catch (IOException e) {
+            fail();
+            return;
+        }
+
+        boolean pending = writeBuffer.position() > 0 || !outgoing.isEmpty();
+        if (key != null && key.isValid()) {
+            int ops = pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            key.interestOps(ops);
+        }
+    }
+
+    /**
+     * Closes the connection after an error, the owner of the connection is closed as well
+     */
+    private void fail() {
+        outgoing.close();
+        while (outgoing.poll() != null) {
+            // Discards the messages the client will not receive
+        }
+        writeBuffer.clear();
+        try {
+            parent.close();
+        }
+        catch (Exception ignored) {
+        }
+        close();
+    }
+}
@@ -0,0 +1,119 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.networking.BackpressurePolicy;
+import multiplayerchess.multiplayerchess.server.SafeLog;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Server serving all the client connections with a small number of {@link EventLoop event loops}
+ * instead of two threads per connection.
+ * The accepted connections are distributed among the event loops in turns.
+ * <p>
+ * Only clients using the {@link multiplayerchess.multiplayerchess.common.networking.Protocol#BINARY binary protocol}
+ * are supported.
+ */
+public final class NioServer implements Runnable, AutoCloseable {
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private final Consumer<PlayerConnectionController> connectionHandler;
+    private final BackpressurePolicy policy;
+    private int nextLoop;
+
+    /**
+     * The NioServer constructor. Binds the server socket and starts the event loops.
+     * Clients which read too slowly are disconnected.
+     *
+     * @param port              The port to listen on, 0 for any free port
+     * @param eventLoopCount    The number of event loops
+     * @param connectionHandler Called with the controller of every accepted connection, before it is started
+     * @throws IOException If the server socket cannot be bound
+     */
+    public NioServer(int port, int eventLoopCount, Consumer<PlayerConnectionController> connectionHandler)
+            throws IOException {
+        this(port, eventLoopCount, connectionHandler, BackpressurePolicy.DISCONNECT);
+    }
+
+    /**
+     * The NioServer constructor. Binds the server socket and starts the event loops.
+     *
+     * @param port              The port to listen on, 0 for any free port
+     * @param eventLoopCount    The number of event loops
+     * @param connectionHandler Called with the controller of every accepted connection, before it is started
+     * @param policy            What to do with the messages sent while a client reads too slowly,
+     *                          the senders never wait for room
+     * @throws IOException If the server socket cannot be bound
+     */
+    public NioServer(int port, int eventLoopCount, Consumer<PlayerConnectionController> connectionHandler,
+                     BackpressurePolicy policy) throws IOException {
+        if (eventLoopCount <= 0) {
+            throw new IllegalArgumentException("There must be at least one event loop");
+        }
+
+        this.connectionHandler = connectionHandler;
+        this.policy = policy;
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().setReuseAddress(true);
+        serverChannel.bind(new InetSocketAddress(port));
+
+        eventLoops = new EventLoop[eventLoopCount];
+        for (int i = 0; i < eventLoopCount; i++) {
+            eventLoops[i] = new EventLoop("event-loop-" + i);
+            eventLoops[i].start();
+        }
+        nextLoop = 0;
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The local port of the server socket
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Accepts the connections until the server is closed.
+     */
+    @Override
+    public void run() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                SafeLog.log(Level.INFO, "Connection accepted");
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+
+                EventLoop eventLoop = eventLoops[nextLoop];
+                nextLoop = (nextLoop + 1) % eventLoops.length;
+
+                connectionHandler.accept(PlayerConnectionController.createController(channel, eventLoop, policy));
+            }
+            catch (IOException e) {
+                if (serverChannel.isOpen()) {
+                    SafeLog.log(Level.WARNING, "Client unexpectedly disconnected: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes all the connections.
+     *
+     * @throws IOException If the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.close();
+        }
+    }
+}
@@ -3,27 +3,30 @@ package multiplayerchess.multiplayerchess.server.networking;
 import multiplayerchess.multiplayerchess.common.messages.Message;
 import multiplayerchess.multiplayerchess.common.messages.MessageType;
 import multiplayerchess.multiplayerchess.common.messages.ServerMessage;
+import multiplayerchess.multiplayerchess.common.networking.BackpressurePolicy;
 import multiplayerchess.multiplayerchess.common.networking.CallbackMap;
-import multiplayerchess.multiplayerchess.common.networking.MessageQueue;
-import multiplayerchess.multiplayerchess.common.networking.SocketMessageListener;
-import multiplayerchess.multiplayerchess.common.networking.SocketMessageWriter;
+import multiplayerchess.multiplayerchess.common.networking.WriteBatching;
 
 import java.io.IOException;
 import java.net.Socket;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 /**
  * The PlayerConnectionController class is responsible for handling the connection between the server and the client.
+ * The callbacks are guarded by a {@link ReentrantLock} rather than a monitor, so that virtual threads
+ * do not pin their carriers while handling a message.
  */
 public class PlayerConnectionController implements AutoCloseable {
 
-    private final AtomicBoolean heartbeatOccurredFlag;
+    private final AtomicLong lastHeartbeat;
     private final CallbackMap<MessageType, Consumer<Message>> callbackMap;
     private final Consumer<Message> heartbeatCallback;
-    private SocketMessageWriter<ServerMessage> writer;
-    private SocketMessageListener listener;
-    private MessageQueue<ServerMessage> messageQueue;
+    private final ReentrantLock callbackLock;
+    private Connection connection;
 
     /**
      * PlayerConnectionController constructor.
@@ -31,29 +34,60 @@ public class PlayerConnectionController implements AutoCloseable {
      */
     private PlayerConnectionController() {
         this.callbackMap = new CallbackMap<>();
-        this.heartbeatOccurredFlag = new AtomicBoolean(false);
-        this.heartbeatCallback = (message) -> heartbeatOccurredFlag.set(true);
+        this.callbackLock = new ReentrantLock();
+        this.lastHeartbeat = new AtomicLong(System.nanoTime());
+        this.heartbeatCallback = (message) -> lastHeartbeat.set(System.nanoTime());
         // default heartbeat callback
         callbackMap.addCallback(MessageType.HEARTBEAT, heartbeatCallback);
     }
 
     /**
-     * Creates a new network controller.
+     * Creates a new network controller using a blocking socket.
+     * Negotiates the protocol with the client first, see {@link multiplayerchess.multiplayerchess.common.networking.Protocol}.
      *
      * @param playerSocket The socket to use for communication
      * @return The new network controller
-     * @throws IOException If an error occurs while accessing the socket streams
+     * @throws IOException If an error occurs while accessing the socket streams or the handshake fails
      */
     public static PlayerConnectionController createController(Socket playerSocket) throws IOException {
+        return createController(playerSocket, Thread::new, BackpressurePolicy.DISCONNECT, WriteBatching.Default);
+    }
+
+    /**
+     * Creates a new network controller using a blocking socket, whose listener and writer run on threads
+     * created by the given factory.
+     * Negotiates the protocol with the client first, see {@link multiplayerchess.multiplayerchess.common.networking.Protocol}.
+     *
+     * @param playerSocket  The socket to use for communication
+     * @param threadFactory The factory of the listener and writer threads
+     * @param policy        What to do with the messages sent while the client reads too slowly
+     * @param batching      The limits of coalescing the sent messages into a single write
+     * @return The new network controller
+     * @throws IOException If an error occurs while accessing the socket streams or the handshake fails
+     */
+    public static PlayerConnectionController createController(Socket playerSocket, ThreadFactory threadFactory,
+                                                              BackpressurePolicy policy, WriteBatching batching)
+            throws IOException {
         var controller = new PlayerConnectionController();
+        controller.setConnection(new BlockingConnection(
+                playerSocket, controller::handleMessage, controller, threadFactory, policy, batching));
 
-        MessageQueue<ServerMessage> queue = new MessageQueue<>();
-        SocketMessageWriter<ServerMessage> writer = new SocketMessageWriter<>(playerSocket, queue, controller);
-        SocketMessageListener listener = new SocketMessageListener(
-                playerSocket.getInputStream(), controller::handleMessage, controller);
+        return controller;
+    }
 
-        controller.setWriter(writer, queue);
-        controller.setListener(listener);
+    /**
+     * Creates a new network controller whose socket is served by the event loop, see {@link NioServer}.
+     *
+     * @param channel   The non-blocking channel of the client
+     * @param eventLoop The event loop to serve the channel
+     * @param policy    What to do with the messages sent while the client reads too slowly
+     * @return The new network controller
+     */
+    static PlayerConnectionController createController(SocketChannel channel, EventLoop eventLoop,
+                                                       BackpressurePolicy policy) {
+        var controller = new PlayerConnectionController();
+        controller.setConnection(new NioConnection(
+                channel, eventLoop, controller::handleMessage, controller, policy));
 
         return controller;
     }
@@ -64,23 +98,23 @@ public class PlayerConnectionController implements AutoCloseable {
      * @param message The message to send
      */
     public void sendMessage(ServerMessage message) {
-        messageQueue.add(message);
+        connection.send(message);
     }
 
     /**
-     * Clears the heartbeat occurred flag.
+     * Restarts the heartbeat timeout, as if a heartbeat has just occurred.
      */
-    public void clearHeartbeat() {
-        heartbeatOccurredFlag.set(false);
+    public void resetHeartbeat() {
+        lastHeartbeat.set(System.nanoTime());
     }
 
     /**
-     * Answers whether a heartbeat occurred in the last interval.
+     * Gets the time of the last heartbeat.
      *
-     * @return Whether a heartbeat occurred.
+     * @return The time of the last heartbeat, as given by {@link System#nanoTime()}.
      */
-    public boolean hasHeartbeatOccurred() {
-        return heartbeatOccurredFlag.get();
+    public long getLastHeartbeat() {
+        return lastHeartbeat.get();
     }
 
     /**
@@ -89,8 +123,14 @@ public class PlayerConnectionController implements AutoCloseable {
      * @param type     The type of message to listen for
      * @param callback The callback to call when the message is received
      */
-    public synchronized void addCallback(MessageType type, Consumer<Message> callback) {
-        callbackMap.addCallback(type, callback);
+    public void addCallback(MessageType type, Consumer<Message> callback) {
+        callbackLock.lock();
+        try {
+            callbackMap.addCallback(type, callback);
+        }
+        finally {
+            callbackLock.unlock();
+        }
     }
 
     /**
@@ -99,8 +139,14 @@ public class PlayerConnectionController implements AutoCloseable {
      * @param type     The type of message to remove the callback from
      * @param callback The callback to remove
      */
-    public synchronized void removeCallback(MessageType type, Consumer<Message> callback) {
-        callbackMap.removeCallback(type, callback);
+    public void removeCallback(MessageType type, Consumer<Message> callback) {
+        callbackLock.lock();
+        try {
+            callbackMap.removeCallback(type, callback);
+        }
+        finally {
+            callbackLock.unlock();
+        }
     }
 
     /**
@@ -108,25 +154,36 @@ public class PlayerConnectionController implements AutoCloseable {
      *
      * @param type The type of message to remove all callbacks from
      */
-    public synchronized void clearCallbacks(MessageType type) {
-        callbackMap.clearCallbacks(type);
+    public void clearCallbacks(MessageType type) {
+        callbackLock.lock();
+        try {
+            callbackMap.clearCallbacks(type);
+        }
+        finally {
+            callbackLock.unlock();
+        }
     }
 
     /**
      * Removes all callbacks
      */
-    public synchronized void clearAllCallbacks() {
-        callbackMap.clearAllCallbacks();
-        // Bring back the default heartbeat callback
-        callbackMap.addCallback(MessageType.HEARTBEAT, heartbeatCallback);
+    public void clearAllCallbacks() {
+        callbackLock.lock();
+        try {
+            callbackMap.clearAllCallbacks();
+            // Bring back the default heartbeat callback
+            callbackMap.addCallback(MessageType.HEARTBEAT, heartbeatCallback);
+        }
+        finally {
+            callbackLock.unlock();
+        }
     }
 
     /**
      * Starts the network controller.
      */
     public void start() {
-        listener.start();
-        writer.start();
+        connection.start();
     }
 
     /**
@@ -135,7 +192,7 @@ public class PlayerConnectionController implements AutoCloseable {
      * @return Whether the network controller is running.
      */
     public boolean isRunning() {
-        return listener.isRunning() && writer.isRunning();
+        return connection.isRunning();
     }
 
     /**
@@ -145,10 +202,7 @@ public class PlayerConnectionController implements AutoCloseable {
      */
     @Override
     public void close() throws IOException {
-        listener.stopRunning();
-        writer.stopRunning();
-        listener.interrupt();
-        writer.interrupt();
+        connection.close();
     }
 
     /**
@@ -158,31 +212,25 @@ public class PlayerConnectionController implements AutoCloseable {
      *
      * @param message The message received
      */
-    private synchronized void handleMessage(Message message) {
-        for (var callback : callbackMap.getCallbacks(message.getType())) {
-            callback.accept(message);
+    private void handleMessage(Message message) {
+        callbackLock.lock();
+        try {
+            for (var callback : callbackMap.getCallbacks(message.getType())) {
+                callback.accept(message);
+            }
+        }
+        finally {
+            callbackLock.unlock();
         }
     }
 
     /**
-     * Sets the writer for the network controller.
-     *
-     * @param writer The writer to use
-     * @param queue  The queue to use for sending messages to the writer
-     */
-    private void setWriter(SocketMessageWriter<ServerMessage> writer, MessageQueue<ServerMessage> queue) {
-        this.writer = writer;
-        this.messageQueue = queue;
-    }
-
-    /**
-     * Sets the listener for the network controller.
+     * Sets the connection of the network controller.
      *
-     * @param listener The listener to use
+     * @param connection The connection to use
      */
-    private void setListener(SocketMessageListener listener) {
+    private void setConnection(Connection connection) {
         // Not in the constructor so that we can give it a callback from the network controller
-        this.listener = listener;
+        this.connection = connection;
     }
-
 }
@@ -4,20 +4,16 @@ import multiplayerchess.multiplayerchess.common.Player;
 import multiplayerchess.multiplayerchess.common.messages.JoinMatchMessage;
 import multiplayerchess.multiplayerchess.common.messages.JoinMatchReplyMessage;
 import multiplayerchess.multiplayerchess.common.messages.Message;
+import multiplayerchess.multiplayerchess.common.messages.ReconnectMessage;
+import multiplayerchess.multiplayerchess.common.messages.ReconnectReplyMessage;
 import multiplayerchess.multiplayerchess.common.messages.StartGameReplyMessage;
 
 import java.util.Optional;
-import java.util.Random;
 
 /**
  * Class which handles starting a match.
  */
 public class PreMatchController {
-    private static final String LOWER_CASE = "abcdefghijklmnopqrstuvwxyz";
-    private static final String UPPER_CASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-    private static final String NUMERALS = "0123456789";
-    private static final String MATCH_ID_AVAILABLE_CHARACTERS = LOWER_CASE + UPPER_CASE + NUMERALS;
-    private static final int MATCH_ID_LENGTH = 5;
     private final PlayerConnectionController controller;
     private final MatchesMap controllerMap;
 
@@ -40,17 +36,11 @@ public class PreMatchController {
     public void startMatch(Message message) {
         controller.clearAllCallbacks();
 
-        RandomStringGenerator generator = new RandomStringGenerator(MATCH_ID_AVAILABLE_CHARACTERS);
-        String potentialMatchID = generator.nextString(MATCH_ID_LENGTH);
-        while (controllerMap.matchExists(potentialMatchID)) {
-            potentialMatchID = generator.nextString(MATCH_ID_LENGTH);
-        }
-
-        MatchController createdMatch = controllerMap.addMatch(potentialMatchID);
+        MatchController createdMatch = controllerMap.createMatch();
         Player addedPlayer = createdMatch.addPlayer(controller);
-        controller.sendMessage(
-                new StartGameReplyMessage(true, potentialMatchID, createdMatch.getMatchFEN(), addedPlayer)
-        );
+        controller.sendMessage(new StartGameReplyMessage(
+                true, createdMatch.getMatchID(), createdMatch.getMatchFEN(), addedPlayer,
+                createdMatch.getReconnectToken(addedPlayer)));
         createdMatch.start();
     }
 
@@ -63,63 +53,31 @@ public class PreMatchController {
         controller.clearAllCallbacks();
 
         Optional<MatchController> matchToJoin = controllerMap.getMatch(joinMatchMessage.matchID);
-        if (matchToJoin.isEmpty() || !matchToJoin.get().hasOpenSpot()) {
-            controller.sendMessage(new JoinMatchReplyMessage(false, "", null, joinMatchMessage.matchID));
+        // The match checks for an open spot under its lock, concurrent joiners cannot take the same spot
+        Player joinedAs = matchToJoin.isPresent() ? matchToJoin.get().addPlayer(controller) : null;
+        if (joinedAs == null) {
+            controller.sendMessage(new JoinMatchReplyMessage(false, "", null, joinMatchMessage.matchID, null));
             return;
         }
 
         var matchController = matchToJoin.get();
-        Player joinedAs = matchController.addPlayer(controller);
 
-        controller.sendMessage(new JoinMatchReplyMessage(
-                true, matchController.getMatchFEN(), joinedAs, matchController.getMatchID()));
+        controller.sendMessage(new JoinMatchReplyMessage(true, matchController.getMatchFEN(), joinedAs,
+                matchController.getMatchID(), matchController.getReconnectToken(joinedAs)));
     }
 
     /**
-     * Class to generate a random string of a given length.
+     * Looks up the match of the reconnect token and if the player can still reconnect,
+     * reattaches the client to the match in place of the dropped connection.
+     * The match replies to the client with a ReconnectReplyMessage, a failed reconnect is answered here.
      */
-    private static class RandomStringGenerator {
-        private final String availableCharacters;
-        private final Random random;
-
-        /**
-         * Constructor for the RandomStringGenerator.
-         *
-         * @param availableCharacters The characters to generate the string from.
-         */
-        public RandomStringGenerator(String availableCharacters) {
-            this.availableCharacters = availableCharacters;
-            random = new Random();
-        }
-
-        /**
-         * Generates a random string of a given length.
-         * If a length of less than 1 is given, an empty string is returned.
-         *
-         * @param length The length of the string to generate.
-         * @return The generated string.
-         */
-        public String nextString(int length) {
-            if (length < 1) {
-                return "";
-            }
-
-            StringBuilder builder = new StringBuilder(length);
-            for (int i = 0; i < length; i++) {
-                builder.append(nextChar());
-            }
-
-            return builder.toString();
-        }
+    public void reconnect(Message message) {
+        ReconnectMessage reconnectMessage = (ReconnectMessage) message;
+        controller.clearAllCallbacks();
 
-        /**
-         * Generates a random character.
-         *
-         * @return The generated character.
-         */
-        private char nextChar() {
-            int randomIndex = random.nextInt(availableCharacters.length());
-            return availableCharacters.charAt(randomIndex);
+        Optional<MatchController> match = controllerMap.getMatchByReconnectToken(reconnectMessage.reconnectToken);
+        if (match.isEmpty() || match.get().reattach(reconnectMessage.reconnectToken, controller) == null) {
+            controller.sendMessage(new ReconnectReplyMessage(false, null, null, null));
         }
     }
 }
@@ -0,0 +1,18 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.TurnDeltaMessage;
+import multiplayerchess.multiplayerchess.common.messages.TurnReplyMessage;
+
+/**
+ * How the clients are told about a successful turn.
+ */
+public enum TurnUpdates {
+    /**
+     * The whole position is sent in a {@link TurnReplyMessage}.
+     */
+    FULL,
+    /**
+     * Only the move is sent in a {@link TurnDeltaMessage}, the whole position only when a client asks to resync.
+     */
+    DELTA
+}
@@ -0,0 +1,62 @@
+package multiplayerchess.multiplayerchess.client.chess;
+
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.BoardRepresentation;
+import multiplayerchess.multiplayerchess.server.chess.Move;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchTest {
+
+    /**
+     * Plays the move on the server match and applies it to the client match like a delta would
+     *
+     * @return Whether the client board matches the checksum of the server
+     */
+    private static boolean play(multiplayerchess.multiplayerchess.server.chess.Match serverMatch, Match clientMatch,
+                                PieceType type, Position start, Position end, boolean isCapture) {
+        assertTrue(serverMatch.makeMove(new Move(type, start, end, isCapture)));
+        return clientMatch.applyMove(start, end, serverMatch.checksum());
+    }
+
+    @Test
+    void appliedMovesMatchServerChecksum() {
+        String FEN = "r3k2r/pPppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        var serverMatch = new multiplayerchess.multiplayerchess.server.chess.Match(FEN, BoardRepresentation.BITBOARD);
+        Match clientMatch = new Match(FEN, Player.WHITE, "aB3dE");
+
+        // Castles
+        assertTrue(play(serverMatch, clientMatch, PieceType.KING, new Position(0, 4), new Position(0, 6), false));
+        assertFalse(clientMatch.isOurTurn());
+        // Double push allowing en passant
+        assertTrue(play(serverMatch, clientMatch, PieceType.PAWN, new Position(6, 2), new Position(4, 2), false));
+        assertTrue(clientMatch.isCapture(PieceType.PAWN, new Position(4, 3), new Position(5, 2)));
+        // En passant
+        assertTrue(play(serverMatch, clientMatch, PieceType.PAWN, new Position(4, 3), new Position(5, 2), true));
+        assertNull(clientMatch.getBoard().getPiece(new Position(4, 2)));
+        assertTrue(play(serverMatch, clientMatch, PieceType.KING, new Position(7, 4), new Position(7, 6), false));
+        // Promotion with a capture
+        assertTrue(play(serverMatch, clientMatch, PieceType.PAWN, new Position(6, 1), new Position(7, 0), true));
+        assertEquals(PieceType.QUEEN, clientMatch.getBoard().getPiece(new Position(7, 0)).getPieceType());
+        assertFalse(clientMatch.isOurTurn());
+    }
+
+    @Test
+    void outOfSyncBoardFailsChecksum() {
+        var serverMatch = new multiplayerchess.multiplayerchess.server.chess.Match(BoardRepresentation.BITBOARD);
+        // The client has missed the first move
+        assertTrue(serverMatch.makeMove(new Move(PieceType.PAWN, new Position(1, 4), new Position(3, 4), false)));
+        Match clientMatch = new Match(serverMatch.getFEN(), Player.WHITE, "aB3dE");
+        clientMatch.getBoard().clearPiece(new Position(3, 4));
+
+        boolean inSync = play(serverMatch, clientMatch, PieceType.PAWN, new Position(6, 4), new Position(4, 4), false);
+
+        assertFalse(inSync);
+        clientMatch.nextTurn(serverMatch.getFEN());
+        assertTrue(clientMatch.isOurTurn());
+        assertEquals(PieceType.PAWN, clientMatch.getBoard().getPiece(new Position(3, 4)).getPieceType());
+    }
+}
@@ -0,0 +1,84 @@
+package multiplayerchess.multiplayerchess.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FENReaderTest {
+
+    private static final String beginningFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void parsesBeginningPosition() {
+        FENPosition position = FENReader.parse(beginningFEN);
+
+        assertEquals(PieceType.KING, position.pieceType(0, 4));
+        assertEquals(Color.WHITE, position.color(0, 4));
+        assertEquals(PieceType.QUEEN, position.pieceType(7, 3));
+        assertEquals(Color.BLACK, position.color(7, 3));
+        assertEquals('n', position.pieceChar(7, 1));
+        assertTrue(position.isEmpty(4, 4));
+        assertNull(position.pieceType(4, 4));
+        assertEquals(Player.WHITE, position.currentPlayer());
+        assertEquals(FENPosition.WhiteKingside | FENPosition.WhiteQueenside | FENPosition.BlackKingside
+                | FENPosition.BlackQueenside, position.castlingRights());
+        assertNull(position.enPassant());
+        assertEquals(0, position.halfmoveClock());
+        assertEquals(1, position.moves());
+    }
+
+    @Test
+    void parsesAllFields() {
+        FENPosition position = FENReader.parse("rnbqkbnr/pp1ppppp/8/8/2pPP3/8/PPP2PPP/RNBQKBNR b Kq d3 12 34");
+
+        assertEquals(Player.BLACK, position.currentPlayer());
+        assertEquals(FENPosition.WhiteKingside | FENPosition.BlackQueenside, position.castlingRights());
+        assertEquals(new Position("d3"), position.enPassant());
+        assertEquals(12, position.halfmoveClock());
+        assertEquals(34, position.moves());
+        assertEquals(PieceType.PAWN, position.pieceType(3, 2));
+        assertEquals(Color.BLACK, position.color(3, 2));
+    }
+
+    @Test
+    void agreesWithBaseParser() {
+        String FEN = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        FENPosition position = FENReader.parse(FEN);
+
+        assertEquals(BaseFENParser.getCurrentPlayer(FEN), position.currentPlayer());
+        assertEquals(BaseFENParser.getEnPassant(FEN), position.enPassant());
+        assertEquals(BaseFENParser.getHalfMoves(FEN), position.halfmoveClock());
+        assertEquals(BaseFENParser.getMoves(FEN), position.moves());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "rnbqkbnr/pppppppp/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 | 41 | too few rows",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBN w KQkq - 0 1 | 42 | short row",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 | 18 | long row",
+            "rnbqkbnr/pppppppp/44/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 | 19 | consecutive digits",
+            "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 | 13 | invalid piece",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR/8 w KQkq - 0 1 | 43 | too many rows",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1 | 44 | invalid player",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w  KQkq - 0 1 | 46 | double space",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w QK - 0 1 | 47 | castling order",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KKq - 0 1 | 47 | duplicate castling",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1 | 49 | invalid castling",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq i6 0 1 | 51 | en passant column",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1 | 52 | en passant row",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1 | 53 | halfmove clock",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0 | 55 | zero moves",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 99999999 | 55 | moves overflow",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 | 54 | missing field",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 x | 56 | trailing characters",
+    })
+    void rejectsInvalidFEN(String FEN, int offset, String description) {
+        FENFormatException exception = assertThrows(FENFormatException.class, () -> FENReader.parse(FEN),
+                description);
+
+        assertEquals(offset, exception.getOffset(), description);
+        assertTrue(exception.getMessage().startsWith("Invalid FEN at offset " + offset), exception.getMessage());
+    }
+}
@@ -0,0 +1,169 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.common.messages.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageCodecTest {
+
+    private static final String beginningFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static Message roundTrip(Message message) throws ProtocolException {
+        ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MaxMessageLength);
+        MessageCodec.encode(message, buffer);
+        buffer.flip();
+        return MessageCodec.decode(buffer);
+    }
+
+    @Test
+    void turnMessage() throws ProtocolException {
+        var message = new TurnMessage(PieceType.PAWN, new Position(1, 4), new Position(3, 4), Color.WHITE, false);
+
+        var decoded = (TurnMessage) roundTrip(message);
+
+        assertEquals(PieceType.PAWN, decoded.pieceType);
+        assertEquals(new Position(1, 4), decoded.startingPosition);
+        assertEquals(new Position(3, 4), decoded.endingPosition);
+        assertEquals(Color.WHITE, decoded.playerColor);
+        assertFalse(decoded.isCapture);
+    }
+
+    @Test
+    void turnReplyMessage() throws ProtocolException {
+        var decoded = (TurnReplyMessage) roundTrip(new TurnReplyMessage(true, beginningFEN, true, null));
+
+        assertTrue(decoded.success);
+        assertEquals(beginningFEN, decoded.gameStateFEN);
+        assertTrue(decoded.gameOver);
+        assertNull(decoded.winner);
+    }
+
+    @Test
+    void turnDeltaMessage() throws ProtocolException {
+        var decoded = (TurnDeltaMessage) roundTrip(
+                new TurnDeltaMessage(new Position(6, 4), new Position(4, 4), true, Player.BLACK, -1234567890123L));
+
+        assertEquals(new Position(6, 4), decoded.startingPosition);
+        assertEquals(new Position(4, 4), decoded.endingPosition);
+        assertTrue(decoded.gameOver);
+        assertEquals(Player.BLACK, decoded.winner);
+        assertEquals(-1234567890123L, decoded.checksum);
+    }
+
+    @Test
+    void replyMessages() throws ProtocolException {
+        var startGame = (StartGameReplyMessage) roundTrip(
+                new StartGameReplyMessage(true, "aB3dE", beginningFEN, Player.WHITE, "q2-Zx_9"));
+        var joinMatch = (JoinMatchReplyMessage) roundTrip(
+                new JoinMatchReplyMessage(false, "", null, "aB3dE", null));
+
+        assertTrue(startGame.success);
+        assertEquals("aB3dE", startGame.matchID);
+        assertEquals(beginningFEN, startGame.startingFEN);
+        assertEquals(Player.WHITE, startGame.player);
+        assertEquals("q2-Zx_9", startGame.reconnectToken);
+        assertFalse(joinMatch.success);
+        assertEquals("", joinMatch.gameStateFEN);
+        assertNull(joinMatch.player);
+        assertEquals("aB3dE", joinMatch.matchID);
+        assertNull(joinMatch.reconnectToken);
+    }
+
+    @Test
+    void reconnectMessages() throws ProtocolException {
+        var reconnect = (ReconnectMessage) roundTrip(new ReconnectMessage("q2-Zx_9"));
+        var reconnected = (ReconnectReplyMessage) roundTrip(
+                new ReconnectReplyMessage(true, "aB3dE", beginningFEN, Player.BLACK));
+        var failed = (ReconnectReplyMessage) roundTrip(new ReconnectReplyMessage(false, null, null, null));
+        var reconnecting = (OpponentReconnectingMessage) roundTrip(new OpponentReconnectingMessage(30_000));
+
+        assertEquals("q2-Zx_9", reconnect.reconnectToken);
+        assertTrue(reconnected.success);
+        assertEquals("aB3dE", reconnected.matchID);
+        assertEquals(beginningFEN, reconnected.gameStateFEN);
+        assertEquals(Player.BLACK, reconnected.player);
+        assertFalse(failed.success);
+        assertNull(failed.matchID);
+        assertNull(failed.player);
+        assertEquals(30_000, reconnecting.gracePeriod);
+    }
+
+    @Test
+    void messagesWithoutFields() throws ProtocolException {
+        Message[] messages = {
+                new StartGameMessage(), new AcknowledgeConnectionMessage(), new HeartbeatReplyMessage(),
+                new DisconnectMessage(), new OpponentConnectedMessage(), new OpponentResignedMessage(),
+                new HeartbeatMessage(), new OpponentDisconnectedMessage(), new ResyncMessage()
+        };
+
+        for (Message message : messages) {
+            assertEquals(message.getClass(), roundTrip(message).getClass());
+        }
+        assertEquals("abc", ((JoinMatchMessage) roundTrip(new JoinMatchMessage("abc"))).matchID);
+        assertEquals(Player.BLACK, ((ResignMessage) roundTrip(new ResignMessage(Player.BLACK))).player);
+    }
+
+    @Test
+    void invalidTagIsRejected() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{100});
+
+        assertThrows(ProtocolException.class, () -> MessageCodec.decode(buffer));
+    }
+
+    @Test
+    void missingRequiredFieldIsRejected() throws ProtocolException {
+        Message[] messages = {
+                new JoinMatchMessage(null),
+                new ReconnectMessage(null),
+                new TurnMessage(PieceType.PAWN, new Position(1, 4), new Position(3, 4), null, false),
+                new ResignMessage(null)
+        };
+
+        for (Message message : messages) {
+            ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MaxMessageLength);
+            MessageCodec.encode(message, buffer);
+            buffer.flip();
+
+            assertThrows(ProtocolException.class, () -> MessageCodec.decode(buffer));
+        }
+    }
+
+    @Test
+    void truncatedMessageIsRejected() throws ProtocolException {
+        ByteBuffer buffer = ByteBuffer.allocate(MessageCodec.MaxMessageLength);
+        MessageCodec.encode(new TurnReplyMessage(true, beginningFEN, false, null), buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 5);
+
+        assertThrows(ProtocolException.class, () -> MessageCodec.decode(buffer));
+    }
+
+    @Test
+    void framesAreReadInOrder() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MessageWriter writer = new BinaryMessageWriter(output);
+        writer.write(new HeartbeatMessage());
+        writer.write(new TurnReplyMessage(true, beginningFEN, false, Player.BLACK));
+        // Both frames are written by the flush
+        assertEquals(0, output.size());
+        writer.flush();
+
+        MessageReader reader = new BinaryMessageReader(new ByteArrayInputStream(output.toByteArray()));
+
+        assertTrue(reader.read() instanceof HeartbeatMessage);
+        assertEquals(Player.BLACK, ((TurnReplyMessage) reader.read()).winner);
+        // Far smaller than the serialized message
+        assertTrue(output.size() < 100);
+    }
+}
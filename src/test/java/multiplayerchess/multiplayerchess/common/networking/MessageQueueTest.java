@@ -0,0 +1,115 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.HeartbeatMessage;
+import multiplayerchess.multiplayerchess.common.messages.OpponentConnectedMessage;
+import multiplayerchess.multiplayerchess.common.messages.ServerMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageQueueTest {
+
+    @Test
+    void deliversEveryMessageOfEveryProducer() throws InterruptedException {
+        final int producers = 4;
+        final int messagesPerProducer = 10_000;
+        MessageQueue<ServerMessage> queue = new MessageQueue<>(16, BackpressurePolicy.BLOCK);
+        Map<ServerMessage, Integer> sent = new HashMap<>();
+
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            ServerMessage message = new OpponentConnectedMessage();
+            sent.put(message, 0);
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < messagesPerProducer; j++) {
+                    queue.add(message);
+                }
+            });
+            threads[i].start();
+        }
+
+        for (int i = 0; i < producers * messagesPerProducer; i++) {
+            sent.merge(queue.get(), 1, Integer::sum);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(queue.isEmpty());
+        assertEquals(producers, sent.size());
+        sent.values().forEach(count -> assertEquals(messagesPerProducer, count));
+    }
+
+    @Test
+    void fullQueueDropsHeartbeats() throws InterruptedException {
+        MessageQueue<ServerMessage> queue = new MessageQueue<>(2, BackpressurePolicy.DROP_HEARTBEATS);
+        ServerMessage first = new OpponentConnectedMessage();
+
+        assertTrue(queue.add(first));
+        assertTrue(queue.add(new HeartbeatMessage()));
+        assertTrue(queue.add(new HeartbeatMessage()));
+
+        assertSame(first, queue.get());
+        assertTrue(queue.get() instanceof HeartbeatMessage);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void fullQueueRejectsWhenDisconnecting() {
+        MessageQueue<ServerMessage> queue = new MessageQueue<>(1, BackpressurePolicy.DISCONNECT);
+
+        assertTrue(queue.add(new OpponentConnectedMessage()));
+        assertFalse(queue.add(new OpponentConnectedMessage()));
+    }
+
+    @Test
+    void blockedProducerGivesUpAfterWaitLimit() {
+        MessageQueue<ServerMessage> queue = new MessageQueue<>(1, BackpressurePolicy.BLOCK, 1_000_000);
+        assertTrue(queue.add(new OpponentConnectedMessage()));
+
+        assertFalse(queue.add(new OpponentConnectedMessage()));
+        // Heartbeats are still dropped at once, anything else is rejected without waiting
+        MessageQueue<ServerMessage> dropping = new MessageQueue<>(1, BackpressurePolicy.DROP_HEARTBEATS, 0);
+        assertTrue(dropping.add(new OpponentConnectedMessage()));
+        assertTrue(dropping.add(new HeartbeatMessage()));
+        assertFalse(dropping.add(new OpponentConnectedMessage()));
+    }
+
+    @Test
+    void closeReleasesBlockedProducer() throws InterruptedException {
+        MessageQueue<ServerMessage> queue = new MessageQueue<>(1, BackpressurePolicy.BLOCK);
+        queue.add(new OpponentConnectedMessage());
+        boolean[] accepted = {true};
+
+        Thread producer = new Thread(() -> accepted[0] = queue.add(new OpponentConnectedMessage()));
+        producer.start();
+        queue.close();
+        producer.join();
+
+        assertFalse(accepted[0]);
+        assertFalse(queue.isEmpty());
+    }
+
+    @Test
+    void waitingConsumerIsInterrupted() throws InterruptedException {
+        MessageQueue<ServerMessage> queue = new MessageQueue<>();
+        boolean[] interrupted = {false};
+
+        Thread consumer = new Thread(() -> {
+            try {
+                queue.get();
+            }
+            catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+        });
+        consumer.start();
+        consumer.interrupt();
+        consumer.join();
+
+        assertTrue(interrupted[0]);
+    }
+}
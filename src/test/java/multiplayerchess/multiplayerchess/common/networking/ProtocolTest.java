@@ -0,0 +1,51 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.HeartbeatReplyMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtocolTest {
+
+    @Test
+    void handshakeNegotiatesRequestedProtocol() throws IOException {
+        ByteArrayOutputStream clientHello = new ByteArrayOutputStream();
+        DataOutputStream hello = new DataOutputStream(clientHello);
+        hello.writeInt(Protocol.HandshakeMagic);
+        hello.writeByte(Protocol.BINARY.id);
+
+        ByteArrayOutputStream serverReply = new ByteArrayOutputStream();
+        Protocol serverProtocol = Protocol.serverHandshake(
+                new BufferedInputStream(new ByteArrayInputStream(clientHello.toByteArray())), serverReply);
+        Protocol clientProtocol = Protocol.clientHandshake(
+                new ByteArrayInputStream(serverReply.toByteArray()), new ByteArrayOutputStream(), Protocol.BINARY);
+
+        assertEquals(Protocol.BINARY, serverProtocol);
+        assertEquals(Protocol.BINARY, clientProtocol);
+    }
+
+    @Test
+    void serializedClientIsDetected() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream clientMessages = new ByteArrayOutputStream();
+        MessageWriter writer = Protocol.SERIALIZATION.createWriter(clientMessages);
+        writer.write(new HeartbeatReplyMessage());
+        writer.flush();
+
+        InputStream input = new BufferedInputStream(new ByteArrayInputStream(clientMessages.toByteArray()));
+        ByteArrayOutputStream serverReply = new ByteArrayOutputStream();
+        Protocol protocol = Protocol.serverHandshake(input, serverReply);
+
+        assertEquals(Protocol.SERIALIZATION, protocol);
+        assertEquals(0, serverReply.size());
+        assertTrue(protocol.createReader(input).read() instanceof HeartbeatReplyMessage);
+    }
+
+    @Test
+    void invalidHandshakeIsRejected() {
+        InputStream input = new BufferedInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}));
+
+        assertThrows(IOException.class, () -> Protocol.serverHandshake(input, new ByteArrayOutputStream()));
+    }
+}
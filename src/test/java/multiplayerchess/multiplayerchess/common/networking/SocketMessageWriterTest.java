@@ -0,0 +1,63 @@
+package multiplayerchess.multiplayerchess.common.networking;
+
+import multiplayerchess.multiplayerchess.common.messages.HeartbeatMessage;
+import multiplayerchess.multiplayerchess.common.messages.Message;
+import multiplayerchess.multiplayerchess.common.messages.ServerMessage;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SocketMessageWriterTest {
+
+    /**
+     * Records the size of every flushed batch
+     */
+    private static final class RecordingWriter implements MessageWriter {
+        private final List<Integer> batches = new ArrayList<>();
+        private final CountDownLatch flushes;
+        private int buffered = 0;
+
+        RecordingWriter(int expectedFlushes) {
+            flushes = new CountDownLatch(expectedFlushes);
+        }
+
+        @Override
+        public void write(Message message) {
+            buffered++;
+        }
+
+        @Override
+        public synchronized void flush() {
+            batches.add(buffered);
+            buffered = 0;
+            flushes.countDown();
+        }
+    }
+
+    @Test
+    void queuedMessagesAreCoalesced() throws InterruptedException {
+        RecordingWriter recorder = new RecordingWriter(2);
+        MessageQueue<ServerMessage> queue = new MessageQueue<>();
+        for (int i = 0; i < 5; i++) {
+            queue.add(new HeartbeatMessage());
+        }
+
+        SocketMessageWriter<ServerMessage> writer = new SocketMessageWriter<>(
+                new Socket(), recorder, queue, () -> {
+        }, Thread::new, new WriteBatching(3, 0));
+        writer.start();
+
+        assertTrue(recorder.flushes.await(5, TimeUnit.SECONDS));
+        writer.stopRunning();
+        writer.interrupt();
+        synchronized (recorder) {
+            assertEquals(List.of(3, 2), recorder.batches);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Pawn;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Piece;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Queen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitBoardTest {
+
+    private static final String beginningFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "8/8/8/8/8/8/8/8 w - - 0 1",
+            beginningFEN,
+            "r4rk1/2p1bpp1/2nqbn1p/4p3/3pP2P/p2P1PPB/2PQN3/R1B1K2R w KQ - 2 19",
+            "7R/kp2R3/2p5/8/2pPp3/P3P1r1/K1P5/8 w - - 0 52"
+    })
+    void getPieceMatchesArrayBoard(String FEN) {
+        Board arrayBoard = new ArrayBoard(FEN);
+        Board bitBoard = new BitBoard(FEN);
+
+        for (int row = Board.MinBoardRow; row <= Board.MaxBoardRow; row++) {
+            for (int column = Board.MinBoardColumn; column <= Board.MaxBoardColumn; column++) {
+                assertSamePiece(arrayBoard.getPiece(row, column), bitBoard.getPiece(row, column));
+            }
+        }
+
+        for (Color color : Color.values()) {
+            assertEquals(arrayBoard.getOccupancy(color), bitBoard.getOccupancy(color));
+            for (PieceType type : PieceType.values()) {
+                assertEquals(arrayBoard.getPieces(type, color), bitBoard.getPieces(type, color));
+            }
+        }
+        assertEquals(arrayBoard.getPlacementKey(), bitBoard.getPlacementKey());
+    }
+
+    @Test
+    void setPieceReplacesPiece() {
+        Board board = new BitBoard(beginningFEN);
+        Position position = new Position(6, 0);
+
+        board.setPiece(position, new Queen(Color.WHITE));
+
+        assertEquals(PieceType.QUEEN, board.getPiece(position).getType());
+        assertEquals(Color.WHITE, board.getPiece(position).color);
+        assertEquals(0L, board.getPieces(PieceType.PAWN, Color.BLACK) & Bitboards.bit(Bitboards.square(position)));
+        assertEquals(17, Bitboards.count(board.getOccupancy(Color.WHITE)));
+        assertEquals(15, Bitboards.count(board.getOccupancy(Color.BLACK)));
+    }
+
+    @Test
+    void clearPieceEmptiesTile() {
+        Board board = new BitBoard(beginningFEN);
+        Position position = new Position(0, 4);
+
+        board.clearPiece(position);
+
+        assertNull(board.getPiece(position));
+        assertEquals(0L, board.getPieces(PieceType.KING, Color.WHITE));
+        assertEquals(31, Bitboards.count(board.getOccupancy()));
+    }
+
+    @Test
+    void pawnHasMovedDerivedFromRow() {
+        Board board = new BitBoard(beginningFEN);
+        Position start = new Position(1, 4);
+        Position end = new Position(3, 4);
+
+        board.setPiece(end, board.getPiece(start).getMovedPiece());
+        board.clearPiece(start);
+
+        // A pawn that has moved can only move one tile forward
+        assertEquals(1, board.getPiece(end).generateMoveList(end, false).size());
+        assertEquals(2, board.getPiece(new Position(1, 3)).generateMoveList(new Position(1, 3), false).size());
+    }
+
+    private static void assertSamePiece(Piece expected, Piece actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+
+        assertNotNull(actual);
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.color, actual.color);
+        if (expected instanceof Pawn) {
+            Position start = new Position(3, 3);
+            assertEquals(expected.generateMoveList(start, false), actual.generateMoveList(start, false));
+        }
+    }
+}
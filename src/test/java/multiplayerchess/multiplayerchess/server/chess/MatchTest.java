@@ -0,0 +1,186 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchTest {
+
+    private static final String castlingFEN = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String enPassantFEN = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+
+    private static String castlingField(Match match) {
+        return match.getFEN().split("\\s+")[2];
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void unmakeMoveRestoresEveryMove(BoardRepresentation representation) {
+        for (String FEN : new String[]{castlingFEN, enPassantFEN}) {
+            Match match = new Match(FEN, representation);
+            String original = match.getFEN();
+            int[] moves = new int[MoveGenerator.MaxMoves];
+            int[] replies = new int[MoveGenerator.MaxMoves];
+
+            int count = match.generateLegalMoves(moves);
+            for (int i = 0; i < count; i++) {
+                match.makeMove(moves[i]);
+                String afterMove = match.getFEN();
+
+                int replyCount = match.generateLegalMoves(replies);
+                for (int j = 0; j < replyCount; j++) {
+                    match.makeMove(replies[j]);
+                    match.unmakeMove();
+                    assertEquals(afterMove, match.getFEN());
+                }
+
+                match.unmakeMove();
+                assertEquals(original, match.getFEN());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void castleMovesRook(BoardRepresentation representation) {
+        Match match = new Match(castlingFEN, representation);
+
+        assertTrue(match.makeMove(new Move(PieceType.KING, new Position(0, 4), new Position(0, 6), false)));
+
+        assertEquals("kq", castlingField(match));
+        assertEquals(Player.BLACK, match.getCurrentPlayer());
+        assertTrue(match.makeMove(new Move(PieceType.KING, new Position(7, 4), new Position(7, 6), false)));
+        assertEquals("-", castlingField(match));
+        // The rook has moved next to the king so it can move along the row
+        assertTrue(match.makeMove(new Move(PieceType.ROOK, new Position(0, 5), new Position(0, 4), false)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void capturingRookRemovesCastling(BoardRepresentation representation) {
+        Match match = new Match("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", representation);
+
+        assertTrue(match.makeMove(new Move(PieceType.ROOK, new Position(0, 7), new Position(7, 7), true)));
+
+        assertEquals("Qq", castlingField(match));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void enPassantRemovesCapturedPawn(BoardRepresentation representation) {
+        Match match = new Match(enPassantFEN, representation);
+        String original = match.getFEN();
+
+        assertTrue(match.makeMove(new Move(PieceType.PAWN, new Position(4, 4), new Position(5, 5), true)));
+        // The pawn taken en passant is no longer on f5
+        assertFalse(match.makeMove(new Move(PieceType.PAWN, new Position(4, 5), new Position(3, 5), false)));
+
+        match.unmakeMove();
+        assertEquals(original, match.getFEN());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void evaluateStatusCheckmate(BoardRepresentation representation) {
+        Match match = new Match("rnbqkbnr/pppp1ppp/8/4p3/6P1/5P2/PPPPP2P/RNBQKBNR b KQkq g3 0 2", representation);
+
+        assertTrue(match.makeMove(new Move(PieceType.QUEEN, new Position(7, 3), new Position(3, 7), false)));
+        GameStatus status = match.evaluateStatus();
+
+        assertEquals(GameOutcome.CHECKMATE, status.outcome);
+        assertTrue(status.inCheck);
+        assertEquals(Player.BLACK, status.winner);
+        assertSame(status, match.evaluateStatus());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void evaluateStatusStalemate(BoardRepresentation representation) {
+        Match match = new Match("7k/8/8/5Q2/8/8/4K3/8 w - - 0 1", representation);
+        GameStatus ongoing = match.evaluateStatus();
+
+        assertFalse(ongoing.isGameOver());
+        assertTrue(match.makeMove(new Move(PieceType.QUEEN, new Position(4, 5), new Position(5, 6), false)));
+        GameStatus status = match.evaluateStatus();
+
+        assertNotSame(ongoing, status);
+        assertEquals(GameOutcome.STALEMATE, status.outcome);
+        assertEquals(0, status.legalMoveCount);
+        assertTrue(status.getWinner().isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void positionKeyAfterTransposition(BoardRepresentation representation) {
+        Match match = new Match(representation);
+        long startKey = match.positionKey();
+
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(0, 6), new Position(2, 5), false)));
+        assertNotEquals(startKey, match.positionKey());
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(7, 6), new Position(5, 5), false)));
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(2, 5), new Position(0, 6), false)));
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(5, 5), new Position(7, 6), false)));
+
+        assertEquals(startKey, match.positionKey());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void positionKeyIncludesPossibleEnPassant(BoardRepresentation representation) {
+        Match withEnPassant = new Match(enPassantFEN, representation);
+        Match withoutEnPassant = new Match(enPassantFEN.replace(" f6 ", " - "), representation);
+        // No black pawn can capture the pawn on e4
+        Match uncapturable = new Match("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", representation);
+        Match uncapturableWithout = new Match("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                representation);
+
+        assertNotEquals(withEnPassant.positionKey(), withoutEnPassant.positionKey());
+        assertEquals(uncapturable.positionKey(), uncapturableWithout.positionKey());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void unmakeMoveRestoresPositionKey(BoardRepresentation representation) {
+        Match match = new Match(castlingFEN, representation);
+        long key = match.positionKey();
+        int[] moves = new int[MoveGenerator.MaxMoves];
+
+        int count = match.generateLegalMoves(moves);
+        for (int i = 0; i < count; i++) {
+            match.makeMove(moves[i]);
+            assertNotEquals(key, match.positionKey());
+            match.unmakeMove();
+            assertEquals(key, match.positionKey());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void threefoldRepetition(BoardRepresentation representation) {
+        Match match = new Match(representation);
+        Move[] knightShuffle = {
+                new Move(PieceType.KNIGHT, new Position(0, 6), new Position(2, 5), false),
+                new Move(PieceType.KNIGHT, new Position(7, 6), new Position(5, 5), false),
+                new Move(PieceType.KNIGHT, new Position(2, 5), new Position(0, 6), false),
+                new Move(PieceType.KNIGHT, new Position(5, 5), new Position(7, 6), false)
+        };
+
+        for (Move move : knightShuffle) {
+            assertTrue(match.makeMove(move));
+        }
+        assertFalse(match.evaluateStatus().isGameOver());
+
+        for (Move move : knightShuffle) {
+            assertTrue(match.makeMove(move));
+        }
+        assertEquals(GameOutcome.THREEFOLD_REPETITION, match.evaluateStatus().outcome);
+
+        match.unmakeMove();
+        assertFalse(match.evaluateStatus().isGameOver());
+    }
+}
@@ -0,0 +1,92 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveCacheTest {
+
+    private final int[] moves = new int[MoveGenerator.MaxMoves];
+
+    @Test
+    void getReturnsPutMoves() {
+        MoveCache cache = new MoveCache();
+
+        assertEquals(MoveCache.Miss, cache.get(42L, 1L, moves));
+        cache.put(42L, 1L, new int[]{7, 8, 9, 10}, 3);
+
+        assertEquals(3, cache.get(42L, 1L, moves));
+        assertArrayEquals(new int[]{7, 8, 9}, Arrays.copyOf(moves, 3));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        // A single position per shard, keys 0 and 16 fall into the same shard
+        MoveCache cache = new MoveCache(1);
+        cache.put(0L, 0L, moves, 0);
+        cache.put(16L, 0L, moves, 0);
+
+        assertEquals(MoveCache.Miss, cache.get(0L, 0L, moves));
+        assertEquals(0, cache.get(16L, 0L, moves));
+        assertEquals(1, cache.evictionCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void collidingKeyIsMiss() {
+        MoveCache cache = new MoveCache();
+        cache.put(42L, 1L, new int[]{7, 8, 9}, 3);
+
+        assertEquals(MoveCache.Miss, cache.get(42L, 2L, moves));
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void castlingRightsChangeVerificationKey() {
+        // The rook returns to its square, but white cannot castle on the king side anymore
+        Match match = new Match(BoardRepresentation.BITBOARD, null, null);
+        long verification = match.verificationKey();
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(0, 6), new Position(2, 5), false)));
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(7, 6), new Position(5, 5), false)));
+        assertTrue(match.makeMove(new Move(PieceType.ROOK, new Position(0, 7), new Position(0, 6), false)));
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(5, 5), new Position(7, 6), false)));
+        assertTrue(match.makeMove(new Move(PieceType.ROOK, new Position(0, 6), new Position(0, 7), false)));
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(7, 6), new Position(5, 5), false)));
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(2, 5), new Position(0, 6), false)));
+        assertTrue(match.makeMove(new Move(PieceType.KNIGHT, new Position(5, 5), new Position(7, 6), false)));
+
+        assertEquals(new Match(BoardRepresentation.BITBOARD, null, null).checksum(), match.checksum());
+        assertNotEquals(verification, match.verificationKey());
+    }
+
+    @Test
+    void matchesShareCachedOpening() {
+        MoveCache cache = new MoveCache();
+        Move e4 = new Move(PieceType.PAWN, new Position(1, 4), new Position(3, 4), false);
+        Move e5 = new Move(PieceType.PAWN, new Position(6, 4), new Position(4, 4), false);
+
+        Match first = new Match(BoardRepresentation.BITBOARD, cache, null);
+        assertTrue(first.makeMove(e4));
+        assertTrue(first.makeMove(e5));
+        GameStatus status = first.evaluateStatus();
+        long misses = cache.missCount();
+
+        Match second = new Match(BoardRepresentation.BITBOARD, cache, null);
+        assertTrue(second.makeMove(e4));
+        assertTrue(second.makeMove(e5));
+        // The knight cannot move like a bishop, cached moves are validated the same way
+        assertFalse(second.makeMove(new Move(PieceType.KNIGHT, new Position(0, 6), new Position(2, 4), false)));
+
+        assertEquals(status.legalMoveCount, second.evaluateStatus().legalMoveCount);
+        assertEquals(first.getFEN(), second.getFEN());
+        assertEquals(misses, cache.missCount());
+    }
+}
@@ -0,0 +1,97 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    private static final int Plies = 3;
+
+    @TempDir
+    static Path directory;
+
+    private static OpeningBook book;
+
+    @BeforeAll
+    static void buildBook() throws IOException {
+        Path file = directory.resolve("book.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            OpeningBookBuilder.build(out, Plies);
+        }
+        book = OpeningBook.open(file);
+    }
+
+    @Test
+    void containsAllPositionsOfThePlies() {
+        Match match = new Match(BoardRepresentation.BITBOARD);
+        int[] generated = new int[MoveGenerator.MaxMoves];
+        int[] booked = new int[MoveGenerator.MaxMoves];
+
+        assertEquals(Plies, book.plies());
+        // Every position reachable in up to three plies, transpositions counted once
+        assertEquals(1 + 20 + 400 + 5362, book.size());
+
+        int count = match.generateLegalMoves(generated);
+        for (int i = 0; i < count; i++) {
+            match.makeMove(generated[i]);
+            int entry = book.find(match.positionKey());
+            assertNotEquals(OpeningBook.NotFound, entry);
+
+            int[] replies = new int[MoveGenerator.MaxMoves];
+            int replyCount = match.generateLegalMoves(replies);
+            assertEquals(replyCount, book.moves(entry, booked));
+            assertArrayEquals(Arrays.copyOf(replies, replyCount), Arrays.copyOf(booked, replyCount));
+            assertFalse(book.isInCheck(entry));
+            match.unmakeMove();
+        }
+    }
+
+    @Test
+    void missingPosition() {
+        Match match = new Match("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", BoardRepresentation.BITBOARD);
+
+        assertEquals(OpeningBook.NotFound, book.find(match.positionKey()));
+    }
+
+    @Test
+    void matchValidatesThroughTheBook() {
+        Match withBook = new Match(BoardRepresentation.BITBOARD, null, book);
+        Match withoutBook = new Match(BoardRepresentation.BITBOARD);
+        Move[] moves = {
+                new Move(PieceType.PAWN, new Position(1, 5), new Position(2, 5), false),
+                new Move(PieceType.PAWN, new Position(6, 4), new Position(4, 4), false),
+                new Move(PieceType.PAWN, new Position(1, 6), new Position(3, 6), false),
+                new Move(PieceType.QUEEN, new Position(7, 3), new Position(3, 7), false)
+        };
+
+        for (Move move : moves) {
+            assertTrue(withBook.makeMove(move));
+            assertTrue(withoutBook.makeMove(move));
+            assertEquals(withoutBook.evaluateStatus().legalMoveCount, withBook.evaluateStatus().legalMoveCount);
+        }
+        assertFalse(withBook.makeMove(new Move(PieceType.KING, new Position(0, 4), new Position(1, 5), false)));
+
+        // The mate is on the fourth ply, past the book
+        assertEquals(GameOutcome.CHECKMATE, withBook.evaluateStatus().outcome);
+    }
+
+    @Test
+    void rejectsInvalidFile() throws IOException {
+        Path file = directory.resolve("invalid.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+
+        assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+}
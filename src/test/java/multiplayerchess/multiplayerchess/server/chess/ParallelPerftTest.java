@@ -0,0 +1,87 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelPerftTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @EnumSource(PerftReference.class)
+    void matchesReferenceCount(PerftReference reference) {
+        // Deep enough for the tasks to be split below the root
+        int depth = Math.min(reference.maxDepth(), ParallelPerft.SequentialDepth + 1);
+
+        assertEquals(reference.nodes(depth),
+                ParallelPerft.perft(pool, reference.FEN, BoardRepresentation.BITBOARD, depth));
+    }
+
+    @Test
+    void divideMatchesSequentialDivide() {
+        String FEN = PerftReference.POSITION_3.FEN;
+
+        Map<String, Long> parallel = ParallelPerft.divide(pool, FEN, BoardRepresentation.BITBOARD, 3);
+
+        assertEquals(Perft.divide(new Match(FEN, BoardRepresentation.BITBOARD), 3), parallel);
+    }
+
+    @Test
+    void analyseAllKeepsOrder() throws InterruptedException {
+        List<String> FENs = List.of(
+                "7k/8/6Q1/8/8/8/4K3/8 b - - 0 1",
+                "not a position",
+                "",
+                "rnbqkbnr/pppp1ppp/8/4p3/6P1/5P2/PPPPP2P/RNBQKBNR b KQkq g3 0 2");
+        List<PositionAnalysis> results = new ArrayList<>();
+
+        ParallelPerft.analyseAll(pool, FENs.stream(), results::add);
+
+        assertEquals(3, results.size());
+        assertEquals(GameOutcome.STALEMATE, results.get(0).status.outcome);
+        assertFalse(results.get(1).isValid());
+        assertEquals(30, results.get(2).status.legalMoveCount);
+        assertFalse(results.get(2).status.inCheck);
+    }
+
+    @Test
+    void analyseCheckmate() {
+        PositionAnalysis analysis = ParallelPerft.analyse(
+                "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+
+        assertTrue(analysis.isValid());
+        assertEquals(GameOutcome.CHECKMATE, analysis.status.outcome);
+        assertTrue(analysis.status.inCheck);
+    }
+
+    @Test
+    void analyseAllStream() throws InterruptedException {
+        List<PositionAnalysis> results = new ArrayList<>();
+
+        ParallelPerft.analyseAll(pool, Stream.generate(() -> PerftReference.KIWIPETE.FEN).limit(100), results::add);
+
+        assertEquals(100, results.size());
+        assertTrue(results.stream().allMatch(analysis -> analysis.status.legalMoveCount == 48));
+    }
+}
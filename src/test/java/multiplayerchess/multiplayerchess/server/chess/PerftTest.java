@@ -0,0 +1,54 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    // Keeps the test run short, the deeper counts are checked by running Perft --reference
+    private static final long MaxNodes = 100_000;
+
+    private static Stream<Arguments> referenceCounts() {
+        return Arrays.stream(BoardRepresentation.values()).flatMap(representation ->
+                Arrays.stream(PerftReference.values()).flatMap(reference ->
+                        IntStream.rangeClosed(1, reference.maxDepth())
+                                .filter(depth -> reference.nodes(depth) <= MaxNodes)
+                                .mapToObj(depth -> Arguments.of(representation, reference, depth))));
+    }
+
+    @ParameterizedTest
+    @MethodSource("referenceCounts")
+    void matchesReferenceCount(BoardRepresentation representation, PerftReference reference, int depth) {
+        Match match = new Match(reference.FEN, representation);
+        String original = match.getFEN();
+
+        assertEquals(reference.nodes(depth), Perft.perft(match, depth));
+        assertEquals(original, match.getFEN());
+    }
+
+    @Test
+    void divideSumsToPerft() {
+        Match match = new Match(PerftReference.KIWIPETE.FEN, BoardRepresentation.BITBOARD);
+
+        Map<String, Long> nodes = Perft.divide(match, 2);
+
+        assertEquals(48, nodes.size());
+        assertEquals(PerftReference.KIWIPETE.nodes(2), nodes.values().stream().mapToLong(Long::longValue).sum());
+        // Castling kingside leaves black with 43 replies
+        assertEquals(43, nodes.get("e1g1"));
+    }
+
+    @Test
+    void zeroDepthCountsThePosition() {
+        assertEquals(1, Perft.perft(new Match(BoardRepresentation.BITBOARD), 0));
+    }
+}
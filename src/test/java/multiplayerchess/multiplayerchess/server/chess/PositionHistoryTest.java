@@ -0,0 +1,44 @@
+package multiplayerchess.multiplayerchess.server.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PositionHistoryTest {
+
+    @Test
+    void repetitionsCountSamePlayerToMove() {
+        PositionHistory history = new PositionHistory();
+        long[] keys = {1, 2, 3, 4, 1, 2, 3, 4, 1};
+        for (long key : keys) {
+            history.push(key);
+        }
+
+        assertEquals(3, history.repetitions(8));
+    }
+
+    @Test
+    void repetitionsBoundedByReversiblePlies() {
+        PositionHistory history = new PositionHistory();
+        long[] keys = {1, 2, 3, 4, 1, 2, 3, 4, 1};
+        for (long key : keys) {
+            history.push(key);
+        }
+
+        // The first position was before an irreversible move
+        assertEquals(2, history.repetitions(7));
+        assertEquals(1, history.repetitions(0));
+    }
+
+    @Test
+    void popRemovesLastPosition() {
+        PositionHistory history = new PositionHistory();
+        for (int i = 0; i < 40; i++) {
+            history.push(i % 4);
+        }
+
+        history.pop();
+
+        assertEquals(10, history.repetitions(40));
+    }
+}
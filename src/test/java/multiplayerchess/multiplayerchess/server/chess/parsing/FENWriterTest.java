@@ -0,0 +1,47 @@
+package multiplayerchess.multiplayerchess.server.chess.parsing;
+
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.server.chess.Board;
+import multiplayerchess.multiplayerchess.server.chess.BoardRepresentation;
+import multiplayerchess.multiplayerchess.server.chess.Match;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Castling;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FENWriterTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 b Kq - 12 110"
+    })
+    void writesParsedPosition(String FEN) {
+        for (BoardRepresentation representation : BoardRepresentation.values()) {
+            assertEquals(FEN, new Match(FEN, representation).getFEN());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "7k/8/8/5Q2/8/8/4K3/8 b - - 49 100",
+            "r3k2r/8/8/8/8/8/8/R3K2R w Qk - 0 1"
+    })
+    void matchesFENParser(String FEN) {
+        Board board = BoardRepresentation.BITBOARD.createBoard(FEN);
+        Player player = FENParser.getCurrentPlayer(FEN);
+        int castlingRights = Castling.toRights(FENParser.getCastling(FEN));
+        int halfmoves = FENParser.getHalfMoves(FEN);
+        int moves = FENParser.getMoves(FEN);
+
+        String written = FENWriter.write(board, player, castlingRights, halfmoves, moves, FENWriter.NoSquare);
+
+        assertEquals(FENParser.FENStringFromBoard(board, player, FENParser.getCastling(FEN), halfmoves, moves, null),
+                written);
+        assertEquals(FEN, written);
+    }
+}
@@ -0,0 +1,81 @@
+package multiplayerchess.multiplayerchess.server.chess.rules;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.Bitboards;
+import multiplayerchess.multiplayerchess.server.chess.Board;
+import multiplayerchess.multiplayerchess.server.chess.BoardRepresentation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttackTablesTest {
+
+    private static final String endGameFEN = "7R/kp2R3/2p5/8/2pPp3/P3P1r1/K1P5/8 w - - 0 52";
+
+    private static long walkRays(int square, long occupancy, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int column = Bitboards.column(square) + direction[1];
+            while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                long tile = Bitboards.bit(Bitboards.square(row, column));
+                attacks |= tile;
+                if ((occupancy & tile) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    @Test
+    void slidingAttacksMatchRayWalk() {
+        int[][] rookDirections = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        int[][] bishopDirections = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            long occupancy = random.nextLong() & random.nextLong();
+            int square = random.nextInt(Bitboards.SquareCount);
+
+            assertEquals(walkRays(square, occupancy, rookDirections), AttackTables.rookAttacks(square, occupancy));
+            assertEquals(walkRays(square, occupancy, bishopDirections), AttackTables.bishopAttacks(square, occupancy));
+        }
+    }
+
+    @Test
+    void knightAttacksFromCorner() {
+        long expected = Bitboards.bit(Bitboards.square(1, 2)) | Bitboards.bit(Bitboards.square(2, 1));
+        assertEquals(expected, AttackTables.knightAttacks(Bitboards.square(0, 0)));
+    }
+
+    @Test
+    void pawnAttacksDependOnColor() {
+        int square = Bitboards.square(3, 0);
+        assertEquals(Bitboards.bit(Bitboards.square(4, 1)), AttackTables.pawnAttacks(Color.WHITE, square));
+        assertEquals(Bitboards.bit(Bitboards.square(2, 1)), AttackTables.pawnAttacks(Color.BLACK, square));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isSquareAttacked(BoardRepresentation representation) {
+        Board board = representation.createBoard(endGameFEN);
+
+        // The rook on e7 attacks the pawn on b7 through the empty tiles
+        assertTrue(AttackTables.isSquareAttacked(board, Bitboards.square(new Position(6, 1)), Color.WHITE));
+        // The rook on h8 only attacks the eighth row and the h file
+        assertFalse(AttackTables.isSquareAttacked(board, Bitboards.square(new Position(6, 0)), Color.WHITE));
+        // The black pawn on e4 and the white pawn on c2 both attack d3
+        assertTrue(AttackTables.isSquareAttacked(board, Bitboards.square(new Position(2, 3)), Color.BLACK));
+        assertTrue(AttackTables.isSquareAttacked(board, Bitboards.square(new Position(2, 3)), Color.WHITE));
+        // The rook on g3 is blocked by the pawn on e3
+        assertFalse(AttackTables.isSquareAttacked(board, Bitboards.square(new Position(2, 2)), Color.BLACK));
+    }
+}
@@ -4,11 +4,13 @@ import multiplayerchess.multiplayerchess.common.PieceType;
 import multiplayerchess.multiplayerchess.common.Player;
 import multiplayerchess.multiplayerchess.common.Position;
 import multiplayerchess.multiplayerchess.server.chess.Board;
+import multiplayerchess.multiplayerchess.server.chess.BoardRepresentation;
 import multiplayerchess.multiplayerchess.server.chess.Move;
 import multiplayerchess.multiplayerchess.server.chess.parsing.FENParser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,9 +39,10 @@ class ChessRulesTest {
         chessRules = null;
     }
 
-    @Test
-    void generatePlayerPossibleMoves() {
-        Board board = new Board(castleFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void generatePlayerPossibleMoves(BoardRepresentation representation) {
+        Board board = representation.createBoard(castleFEN);
 
         List<Move> expectedMoves = new ArrayList<>();
         expectedMoves.add(new Move(PieceType.KING, new Position(7, 4), new Position(7, 5), false));
@@ -71,52 +74,58 @@ class ChessRulesTest {
         assertTrue(actualMoves.containsAll(expectedMoves) && expectedMoves.containsAll(actualMoves) && actualMoves.size() == expectedMoves.size());
     }
 
-    @Test
-    void isCastleCastleNotBlockedByThreatOnlyOnRook() {
-        Board board = new Board(castleFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isCastleCastleNotBlockedByThreatOnlyOnRook(BoardRepresentation representation) {
+        Board board = representation.createBoard(castleFEN);
         Move baseCastle = new Move(PieceType.KING, new Position(7, 4), new Position(7, 2), false);
 
         assertTrue(chessRules.isCastle(board, baseCastle, Player.BLACK, FENParser.getCastling(castleFEN)));
     }
 
-    @Test
-    void isCastleCastleBlockedByThreat() {
-        Board board = new Board(castleFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isCastleCastleBlockedByThreat(BoardRepresentation representation) {
+        Board board = representation.createBoard(castleFEN);
         Move baseCastle = new Move(PieceType.KING, new Position(0, 4), new Position(0, 2), false);
 
         boolean isCastle = chessRules.isCastle(board, baseCastle, Player.WHITE, FENParser.getCastling(castleFEN));
         assertFalse(isCastle);
     }
 
-    @Test
-    void isCastleBaseTest() {
-        Board board = new Board(castleFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isCastleBaseTest(BoardRepresentation representation) {
+        Board board = representation.createBoard(castleFEN);
         Move baseCastle = new Move(PieceType.KING, new Position(0, 4), new Position(0, 6), false);
 
         assertTrue(chessRules.isCastle(board, baseCastle, Player.WHITE, FENParser.getCastling(castleFEN)));
     }
 
-    @Test
-    void isMoveValidEnPassant() {
-        Board board = new Board(enPassantFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isMoveValidEnPassant(BoardRepresentation representation) {
+        Board board = representation.createBoard(enPassantFEN);
         Move enPassant = new Move(PieceType.PAWN, new Position(4, 4), new Position(5, 5), true);
 
         boolean isValid = chessRules.isMoveValid(board, enPassant, Player.WHITE, FENParser.getEnPassant(enPassantFEN), Set.of());
         assertTrue(isValid);
     }
 
-    @Test
-    void isMoveValidWrongMove() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isMoveValidWrongMove(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
 
         Move pawnMove = new Move(PieceType.PAWN, new Position(6, 4), new Position(5, 5), false);
 
         assertFalse(chessRules.isMoveValid(board, pawnMove, Player.WHITE, null, Set.of()));
     }
 
-    @Test
-    void isMoveValidWrongPlayer() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isMoveValidWrongPlayer(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
 
         Move pawnMove = new Move(PieceType.PAWN, new Position(6, 4), new Position(5, 4), false);
         Move pawnDoubleMove = new Move(PieceType.PAWN, new Position(6, 4), new Position(4, 4), false);
@@ -127,9 +136,10 @@ class ChessRulesTest {
         assertFalse(chessRules.isMoveValid(board, knightMove, Player.WHITE, null, Set.of()));
     }
 
-    @Test
-    void isMoveValidTrue() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isMoveValidTrue(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
 
         Move pawnMove = new Move(PieceType.PAWN, new Position(6, 4), new Position(5, 4), false);
         Move pawnDoubleMove = new Move(PieceType.PAWN, new Position(6, 4), new Position(4, 4), false);
@@ -140,9 +150,10 @@ class ChessRulesTest {
         assertTrue(chessRules.isMoveValid(board, knightMove, Player.BLACK, null, Set.of()));
     }
 
-    @Test
-    void generatePossibleMovesForPieceCannotIntoCheck() {
-        Board board = new Board(endGameFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void generatePossibleMovesForPieceCannotIntoCheck(BoardRepresentation representation) {
+        Board board = representation.createBoard(endGameFEN);
 
         List<Move> kingPossibleMoves = chessRules.generatePossibleMovesForPiece(
                 board, new Position(6, 0), Player.BLACK, false, null);
@@ -181,9 +192,10 @@ class ChessRulesTest {
             assertEquals(captureExpectedMoves, capturePossibleMoves);
         }
     */
-    @Test
-    void generatePossibleMovesForPiece() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void generatePossibleMovesForPiece(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
 
         List<Move> notCapturePossibleMoves = chessRules.generatePossibleMovesForPiece(
                 board, new Position(1, 4), Player.WHITE, false, null);
@@ -200,9 +212,10 @@ class ChessRulesTest {
         assertEquals(captureExpectedMoves, capturePossibleMoves);
     }
 
-    @Test
-    void getPlayerPiecePositions() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void getPlayerPiecePositions(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
         List<Position> whitePlayerPiecePositions = chessRules.getPlayerPiecePositions(board, Player.WHITE);
         List<Position> blackPlayerPiecePositions = chessRules.getPlayerPiecePositions(board, Player.BLACK);
 
@@ -224,9 +237,10 @@ class ChessRulesTest {
         assertEquals(blackExpectedPositions, blackPlayerPiecePositions);
     }
 
-    @Test
-    void emptyBoardGetPlayerPiecePositions() {
-        Board board = new Board(emptyBoardFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void emptyBoardGetPlayerPiecePositions(BoardRepresentation representation) {
+        Board board = representation.createBoard(emptyBoardFEN);
         List<Position> whitePlayerPiecePositions = chessRules.getPlayerPiecePositions(board, Player.WHITE);
         List<Position> blackPlayerPiecePositions = chessRules.getPlayerPiecePositions(board, Player.BLACK);
 
@@ -234,9 +248,10 @@ class ChessRulesTest {
         assertEquals(0, blackPlayerPiecePositions.size());
     }
 
-    @Test
-    void getKingsPosition() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void getKingsPosition(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
         Position whiteKingPosition = chessRules.getKingsPosition(board, Player.WHITE);
         Position blackKingPosition = chessRules.getKingsPosition(board, Player.BLACK);
 
@@ -244,9 +259,10 @@ class ChessRulesTest {
         assertEquals(new Position(7, 4), blackKingPosition);
     }
 
-    @Test
-    void getKingsPositionMidGame() {
-        Board board = new Board(midGameFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void getKingsPositionMidGame(BoardRepresentation representation) {
+        Board board = representation.createBoard(midGameFEN);
         Position whiteKingPosition = chessRules.getKingsPosition(board, Player.WHITE);
         Position blackKingPosition = chessRules.getKingsPosition(board, Player.BLACK);
 
@@ -254,59 +270,66 @@ class ChessRulesTest {
         assertEquals(new Position(7, 6), blackKingPosition);
     }
 
-    @Test
-    void anyPieceInPathClearPath() {
-        Board board = new Board(midGameFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void anyPieceInPathClearPath(BoardRepresentation representation) {
+        Board board = representation.createBoard(midGameFEN);
         Move move = new Move(PieceType.BISHOP, new Position(5, 4), new Position(1, 0), false);
         assertFalse(chessRules.anyPieceInPath(board, move));
     }
 
-    @Test
-    void anyPieceInPathNotClear() {
-        Board board = new Board(midGameFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void anyPieceInPathNotClear(BoardRepresentation representation) {
+        Board board = representation.createBoard(midGameFEN);
         Move move = new Move(PieceType.BISHOP, new Position(2, 7), new Position(6, 3), false);
         assertTrue(chessRules.anyPieceInPath(board, move));
     }
 
-    @Test
-    void isValidDestinationNotCapture() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isValidDestinationNotCapture(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
         board.clearPiece(new Position(1, 0));
         Move testMove = new Move(PieceType.ROOK, new Position(0, 0), new Position(5, 0), false);
 
         assertTrue(chessRules.isValidDestination(board, testMove, null));
     }
 
-    @Test
-    void isValidDestinationFalseNotCapture() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isValidDestinationFalseNotCapture(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
         board.clearPiece(new Position(1, 0));
         Move testMove = new Move(PieceType.ROOK, new Position(0, 0), new Position(6, 0), false);
 
         assertFalse(chessRules.isValidDestination(board, testMove, null));
     }
 
-    @Test
-    void isValidDestinationCapture() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isValidDestinationCapture(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
         board.clearPiece(new Position(1, 0));
         Move testMove = new Move(PieceType.ROOK, new Position(0, 0), new Position(6, 0), true);
 
         assertTrue(chessRules.isValidDestination(board, testMove, null));
     }
 
-    @Test
-    void isValidDestinationFalseCapture() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isValidDestinationFalseCapture(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
         board.clearPiece(new Position(1, 0));
         Move testMove = new Move(PieceType.ROOK, new Position(0, 0), new Position(4, 0), true);
 
         assertFalse(chessRules.isValidDestination(board, testMove, null));
     }
 
-    @Test
-    void isValidDestinationEnPassant() {
-        Board board = new Board(beginningFEN);
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void isValidDestinationEnPassant(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
         Move testMove = new Move(PieceType.PAWN, new Position(1, 0), new Position(2, 1), true);
 
         boolean result = chessRules.isValidDestination(board, testMove, new Position(2, 1));
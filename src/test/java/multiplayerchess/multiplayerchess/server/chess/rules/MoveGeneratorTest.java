@@ -0,0 +1,76 @@
+package multiplayerchess.multiplayerchess.server.chess.rules;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.server.chess.Bitboards;
+import multiplayerchess.multiplayerchess.server.chess.Board;
+import multiplayerchess.multiplayerchess.server.chess.BoardRepresentation;
+import multiplayerchess.multiplayerchess.server.chess.PackedMove;
+import multiplayerchess.multiplayerchess.server.chess.pieces.Castling;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTest {
+
+    private static final String beginningFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final int allCastles = Castling.WHITE_KINGSIDE.id | Castling.WHITE_QUEENSIDE.id
+            | Castling.BLACK_KINGSIDE.id | Castling.BLACK_QUEENSIDE.id;
+
+    private final int[] moves = new int[MoveGenerator.MaxMoves];
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void beginningPosition(BoardRepresentation representation) {
+        Board board = representation.createBoard(beginningFEN);
+
+        assertEquals(20, MoveGenerator.generateLegalMoves(board, Color.WHITE, MoveGenerator.NoSquare, allCastles,
+                moves));
+        assertEquals(20, MoveGenerator.generateLegalMoves(board, Color.BLACK, MoveGenerator.NoSquare, allCastles,
+                moves));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void castlesOnlyWithRights(BoardRepresentation representation) {
+        Board board = representation.createBoard("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+        // 5 king moves, 2 castles and 10 moves of each rook
+        assertEquals(26, MoveGenerator.generateLegalMoves(board, Color.WHITE, MoveGenerator.NoSquare, allCastles,
+                moves));
+        assertEquals(24, MoveGenerator.generateLegalMoves(board, Color.WHITE, MoveGenerator.NoSquare, 0, moves));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void enPassantExposingKingIsIllegal(BoardRepresentation representation) {
+        // Capturing en passant would remove both pawns from the fifth row and expose the king to the rook
+        Board board = representation.createBoard("8/8/8/K2pP2r/8/8/8/7k w - d6 0 1");
+        int enPassantSquare = Bitboards.square(new Position(5, 3));
+
+        int count = MoveGenerator.generateLegalMoves(board, Color.WHITE, enPassantSquare, 0, moves);
+
+        for (int i = 0; i < count; i++) {
+            assertFalse(PackedMove.isEnPassant(moves[i]));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardRepresentation.class)
+    void enPassantIsGenerated(BoardRepresentation representation) {
+        Board board = representation.createBoard("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        int enPassantSquare = Bitboards.square(new Position(5, 3));
+
+        int count = MoveGenerator.generateLegalMoves(board, Color.WHITE, enPassantSquare, 0, moves);
+
+        int enPassantMoves = 0;
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.isEnPassant(moves[i])) {
+                enPassantMoves++;
+                assertEquals(enPassantSquare, PackedMove.to(moves[i]));
+            }
+        }
+        assertEquals(1, enPassantMoves);
+    }
+}
@@ -0,0 +1,48 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeartbeatSchedulerTest {
+
+    @Test
+    void runsTaskEveryInterval() throws InterruptedException {
+        try (HeartbeatScheduler scheduler = new HeartbeatScheduler(10, 20)) {
+            CountDownLatch runs = new CountDownLatch(3);
+            ScheduledFuture<?> task = scheduler.schedule(runs::countDown);
+
+            assertTrue(runs.await(5, TimeUnit.SECONDS));
+            task.cancel(false);
+            assertTrue(task.isCancelled());
+        }
+    }
+
+    @Test
+    void heartbeatTimesOut() {
+        try (HeartbeatScheduler scheduler = new HeartbeatScheduler(1_000, 2_000)) {
+            assertFalse(scheduler.hasTimedOut(System.nanoTime()));
+            assertTrue(scheduler.hasTimedOut(System.nanoTime() - TimeUnit.SECONDS.toNanos(3)));
+        }
+    }
+
+    @Test
+    void runsTaskAfterGracePeriod() throws InterruptedException {
+        try (HeartbeatScheduler scheduler = new HeartbeatScheduler(1_000, 2_000, 10)) {
+            CountDownLatch run = new CountDownLatch(1);
+            scheduler.scheduleAfterGracePeriod(run::countDown);
+
+            assertEquals(10, scheduler.getReconnectGracePeriod());
+            assertTrue(run.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void timeoutMustExceedInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new HeartbeatScheduler(1_000, 1_000));
+    }
+}
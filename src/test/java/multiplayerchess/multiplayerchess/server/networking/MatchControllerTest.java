@@ -0,0 +1,214 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.Color;
+import multiplayerchess.multiplayerchess.common.PieceType;
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.Position;
+import multiplayerchess.multiplayerchess.common.messages.*;
+import multiplayerchess.multiplayerchess.common.networking.BinaryMessageReader;
+import multiplayerchess.multiplayerchess.common.networking.BinaryMessageWriter;
+import multiplayerchess.multiplayerchess.common.networking.MessageReader;
+import multiplayerchess.multiplayerchess.common.networking.MessageWriter;
+import multiplayerchess.multiplayerchess.common.networking.Protocol;
+import multiplayerchess.multiplayerchess.server.Main;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchControllerTest {
+
+    private static final int Timeout = 5_000;
+    private static final String afterE4 = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1";
+
+    private static NioServer startServer(MatchesMap matches) throws IOException {
+        NioServer server = new NioServer(0, 1, controller -> Main.startConnection(controller, matches));
+        new Thread(server).start();
+        return server;
+    }
+
+    @Test
+    void droppedPlayerReattachesToMatch() throws IOException, ClassNotFoundException {
+        try (HeartbeatScheduler scheduler = new HeartbeatScheduler(20, 10_000, 10_000);
+             NioServer server = startServer(new MatchesMap(scheduler));
+             Client white = new Client(server)) {
+            var started = (StartGameReplyMessage) white.request(new StartGameMessage());
+            Client black = new Client(server);
+            var joined = (JoinMatchReplyMessage) black.request(new JoinMatchMessage(started.matchID));
+            String token = joined.reconnectToken;
+            black.send(new AcknowledgeConnectionMessage());
+            assertTrue(white.receive() instanceof OpponentConnectedMessage);
+            assertTrue(black.receive() instanceof OpponentConnectedMessage);
+
+            white.send(new TurnMessage(PieceType.PAWN, new Position(1, 4), new Position(3, 4), Color.WHITE, false));
+            assertEquals(afterE4, ((TurnReplyMessage) white.receive()).gameStateFEN);
+            assertEquals(afterE4, ((TurnReplyMessage) black.receive()).gameStateFEN);
+            black.close();
+            assertTrue(white.receive() instanceof OpponentReconnectingMessage);
+
+            try (Client returning = new Client(server)) {
+                var reply = (ReconnectReplyMessage) returning.request(new ReconnectMessage(token));
+
+                assertTrue(reply.success);
+                assertEquals(started.matchID, reply.matchID);
+                assertEquals(afterE4, reply.gameStateFEN);
+                assertEquals(Player.BLACK, reply.player);
+                assertTrue(white.receive() instanceof OpponentConnectedMessage);
+
+                returning.send(new TurnMessage(
+                        PieceType.PAWN, new Position(6, 4), new Position(4, 4), Color.BLACK, false));
+                assertTrue(((TurnReplyMessage) white.receive()).success);
+                assertTrue(((TurnReplyMessage) returning.receive()).success);
+            }
+        }
+    }
+
+    @Test
+    void matchEndsAfterGracePeriod() throws IOException, ClassNotFoundException {
+        try (HeartbeatScheduler scheduler = new HeartbeatScheduler(20, 10_000, 100);
+             NioServer server = startServer(new MatchesMap(scheduler));
+             Client white = new Client(server)) {
+            var started = (StartGameReplyMessage) white.request(new StartGameMessage());
+            Client black = new Client(server);
+            var joined = (JoinMatchReplyMessage) black.request(new JoinMatchMessage(started.matchID));
+            black.send(new AcknowledgeConnectionMessage());
+            assertTrue(white.receive() instanceof OpponentConnectedMessage);
+            black.close();
+
+            assertEquals(100, ((OpponentReconnectingMessage) white.receive()).gracePeriod);
+            assertTrue(white.receive() instanceof OpponentDisconnectedMessage);
+            try (Client returning = new Client(server)) {
+                assertFalse(((ReconnectReplyMessage) returning.request(
+                        new ReconnectMessage(joined.reconnectToken))).success);
+            }
+        }
+    }
+
+    @Test
+    void fullMatchCannotBeJoined() throws IOException, ClassNotFoundException {
+        try (HeartbeatScheduler scheduler = new HeartbeatScheduler();
+             NioServer server = startServer(new MatchesMap(scheduler));
+             Client white = new Client(server);
+             Client black = new Client(server);
+             Client third = new Client(server)) {
+            var started = (StartGameReplyMessage) white.request(new StartGameMessage());
+            assertTrue(((JoinMatchReplyMessage) black.request(new JoinMatchMessage(started.matchID))).success);
+
+            var reply = (JoinMatchReplyMessage) third.request(new JoinMatchMessage(started.matchID));
+
+            assertFalse(reply.success);
+            assertNull(reply.reconnectToken);
+        }
+    }
+
+    @Test
+    void recoveredMatchIsReattachedBySeats(@TempDir Path directory) throws IOException, ClassNotFoundException {
+        Path file = directory.resolve("matches.journal");
+        String matchID;
+        String whiteToken;
+        String blackToken;
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval);
+             HeartbeatScheduler scheduler = new HeartbeatScheduler(20, 10_000, 10_000);
+             NioServer server = startServer(new MatchesMap(scheduler, null, null, TurnUpdates.FULL, journal));
+             Client white = new Client(server);
+             Client black = new Client(server)) {
+            var started = (StartGameReplyMessage) white.request(new StartGameMessage());
+            var joined = (JoinMatchReplyMessage) black.request(new JoinMatchMessage(started.matchID));
+            black.send(new AcknowledgeConnectionMessage());
+            assertTrue(white.receive() instanceof OpponentConnectedMessage);
+            assertTrue(black.receive() instanceof OpponentConnectedMessage);
+            white.send(new TurnMessage(PieceType.PAWN, new Position(1, 4), new Position(3, 4), Color.WHITE, false));
+            assertTrue(((TurnReplyMessage) white.receive()).success);
+            matchID = started.matchID;
+            whiteToken = started.reconnectToken;
+            blackToken = joined.reconnectToken;
+        }
+
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval);
+             HeartbeatScheduler scheduler = new HeartbeatScheduler(20, 10_000, 10_000)) {
+            MatchesMap matches = new MatchesMap(scheduler, null, null, TurnUpdates.FULL, journal);
+            assertEquals(1, matches.recoverMatches());
+            try (NioServer server = startServer(matches);
+                 Client intruder = new Client(server);
+                 Client black = new Client(server);
+                 Client white = new Client(server)) {
+                assertFalse(((JoinMatchReplyMessage) intruder.request(new JoinMatchMessage(matchID))).success);
+
+                var blackReply = (ReconnectReplyMessage) black.request(new ReconnectMessage(blackToken));
+                assertTrue(blackReply.success);
+                assertEquals(Player.BLACK, blackReply.player);
+                assertEquals(afterE4, blackReply.gameStateFEN);
+                assertTrue(black.receive() instanceof OpponentReconnectingMessage);
+
+                var whiteReply = (ReconnectReplyMessage) white.request(new ReconnectMessage(whiteToken));
+                assertTrue(whiteReply.success);
+                assertEquals(Player.WHITE, whiteReply.player);
+                assertTrue(white.receive() instanceof OpponentConnectedMessage);
+                assertTrue(black.receive() instanceof OpponentConnectedMessage);
+
+                black.send(new TurnMessage(PieceType.PAWN, new Position(6, 4), new Position(4, 4), Color.BLACK, false));
+                assertTrue(((TurnReplyMessage) black.receive()).success);
+                assertTrue(((TurnReplyMessage) white.receive()).success);
+            }
+        }
+    }
+
+    @Test
+    void unknownTokenIsRejected() throws IOException, ClassNotFoundException {
+        try (HeartbeatScheduler scheduler = new HeartbeatScheduler();
+             NioServer server = startServer(new MatchesMap(scheduler));
+             Client client = new Client(server)) {
+            var reply = (ReconnectReplyMessage) client.request(new ReconnectMessage("unknown"));
+
+            assertFalse(reply.success);
+            assertNull(reply.gameStateFEN);
+        }
+    }
+
+    /**
+     * A client speaking the binary protocol, which ignores the heartbeats.
+     */
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final MessageReader reader;
+        private final MessageWriter writer;
+
+        Client(NioServer server) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            socket.setSoTimeout(Timeout);
+            assertEquals(Protocol.BINARY, Protocol.clientHandshake(
+                    socket.getInputStream(), socket.getOutputStream(), Protocol.BINARY));
+            reader = new BinaryMessageReader(socket.getInputStream());
+            writer = new BinaryMessageWriter(socket.getOutputStream());
+        }
+
+        void send(ClientMessage message) throws IOException {
+            writer.write(message);
+            writer.flush();
+        }
+
+        Message receive() throws IOException, ClassNotFoundException {
+            Message message;
+            do {
+                message = reader.read();
+            } while (message instanceof HeartbeatMessage);
+
+            return message;
+        }
+
+        Message request(ClientMessage message) throws IOException, ClassNotFoundException {
+            send(message);
+            return receive();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchIdAllocatorTest {
+
+    @Test
+    void idsAreUniqueAndWellFormed() {
+        MatchIdAllocator allocator = new MatchIdAllocator(42);
+        Set<String> ids = new HashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            String id = allocator.allocate();
+            assertEquals(MatchIdAllocator.IdLength, id.length());
+            assertTrue(id.chars().allMatch(Character::isLetterOrDigit));
+            assertTrue(ids.add(id), "Duplicate ID " + id);
+        }
+    }
+
+    @Test
+    void keySelectsPermutation() {
+        MatchIdAllocator first = new MatchIdAllocator(1);
+        MatchIdAllocator second = new MatchIdAllocator(2);
+
+        assertEquals(new MatchIdAllocator(1).allocate(), first.allocate());
+        assertNotEquals(first.allocate(), second.allocate());
+    }
+
+    @Test
+    void releasedIdIsRecycledLater() {
+        MatchIdAllocator allocator = new MatchIdAllocator(7);
+        String released = allocator.allocate();
+        allocator.release(released);
+
+        // Recently released IDs are not given out again right away
+        Set<String> recent = new HashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            String id = allocator.allocate();
+            assertNotEquals(released, id);
+            recent.add(id);
+        }
+
+        for (String id : recent) {
+            allocator.release(id);
+        }
+        assertEquals(released, allocator.allocate());
+    }
+}
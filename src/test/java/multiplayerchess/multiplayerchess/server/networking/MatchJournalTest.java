@@ -0,0 +1,294 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.server.chess.Match;
+import multiplayerchess.multiplayerchess.server.chess.rules.MoveGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchJournalTest {
+
+    private static final byte[] blackSeat = "0123456789abcdef".getBytes();
+    private static final byte[] whiteSeat = "fedcba9876543210".getBytes();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversOnlyMatchesInProgress() throws IOException {
+        Path file = directory.resolve("matches.journal");
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            assertTrue(journal.recoveredMatches().isEmpty());
+            journal.moveMade("abcde", 0, 11);
+            journal.moveMade("fghij", 0, 21);
+            journal.moveMade("abcde", 1, 12);
+            journal.matchEnded("fghij");
+        }
+
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            Map<String, int[]> recovered = journal.recoveredMatches();
+
+            assertEquals(1, recovered.size());
+            assertArrayEquals(new int[]{11, 12}, recovered.get("abcde"));
+        }
+    }
+
+    @Test
+    void reusedMatchIdStartsNewMatch() throws IOException {
+        Path file = directory.resolve("matches.journal");
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            journal.moveMade("abcde", 0, 11);
+            journal.moveMade("abcde", 1, 12);
+            journal.moveMade("abcde", 0, 31);
+        }
+
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            assertArrayEquals(new int[]{31}, journal.recoveredMatches().get("abcde"));
+        }
+    }
+
+    @Test
+    void tornRecordIsDropped() throws IOException {
+        Path file = directory.resolve("matches.journal");
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            journal.moveMade("abcde", 0, 11);
+            journal.moveMade("abcde", 1, 12);
+        }
+        // The last record is only partially written
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            assertArrayEquals(new int[]{11}, journal.recoveredMatches().get("abcde"));
+        }
+        assertEquals(MatchJournal.HeaderSize + MatchJournal.RecordSize, Files.size(file));
+    }
+
+    @Test
+    void moveAfterGapIsNotRecovered() throws IOException {
+        Path file = directory.resolve("matches.journal");
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            journal.moveMade("abcde", 0, 11);
+            journal.moveMade("abcde", 2, 13);
+        }
+
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            assertFalse(journal.recoveredMatches().containsKey("abcde"));
+        }
+    }
+
+    @Test
+    void recordsAreCommittedInGroups() throws IOException, InterruptedException {
+        try (MatchJournal journal = MatchJournal.open(directory.resolve("matches.journal"), 10_000)) {
+            for (int ply = 0; ply < 1_000; ply++) {
+                journal.moveMade("abcde", ply, ply);
+            }
+            journal.flush();
+
+            assertTrue(journal.syncCount() >= 1);
+            assertTrue(journal.syncCount() < 100, "Synced " + journal.syncCount() + " times");
+        }
+    }
+
+    @Test
+    void failedWriteIsReportedAndRetried() throws IOException, InterruptedException {
+        Path file = directory.resolve("matches.journal");
+        MatchJournal.open(file, MatchJournal.DefaultSyncInterval).close();
+        FailingChannel channel = new FailingChannel(FileChannel.open(file, StandardOpenOption.WRITE));
+        try (MatchJournal journal = new MatchJournal(file, channel, MatchJournal.HeaderSize,
+                MatchJournal.DefaultSyncInterval, Map.of(), Map.of())) {
+            journal.moveMade("abcde", 0, 11);
+
+            assertThrows(IOException.class, journal::flush);
+            channel.failing = false;
+            journal.moveMade("abcde", 1, 12);
+            // The failure is reported until the batch is written again
+            while (journal.syncCount() == 0) {
+                Thread.sleep(10);
+            }
+            journal.flush();
+        }
+
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            assertArrayEquals(new int[]{11, 12}, journal.recoveredMatches().get("abcde"));
+        }
+    }
+
+    @Test
+    void matchesMapRecoversMatchPosition() throws IOException {
+        Path file = directory.resolve("matches.journal");
+        Match played = new Match();
+        int[] moves = new int[MoveGenerator.MaxMoves];
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            journal.seatTaken("abcde", Player.BLACK, blackSeat);
+            journal.seatTaken("abcde", Player.WHITE, whiteSeat);
+            for (int ply = 0; ply < 6; ply++) {
+                played.generateLegalMoves(moves);
+                played.makeMove(moves[0]);
+                journal.moveMade("abcde", ply, played.lastMove());
+            }
+            // The first move of a pawn cannot be made from an empty square
+            journal.seatTaken("fghij", Player.BLACK, blackSeat);
+            journal.seatTaken("fghij", Player.WHITE, whiteSeat);
+            journal.moveMade("fghij", 0, played.lastMove());
+            // Without the seats, the match is not recovered
+            journal.moveMade("klmno", 0, moves[0]);
+        }
+
+        try (HeartbeatScheduler scheduler = new HeartbeatScheduler();
+             MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            MatchesMap matches = new MatchesMap(scheduler, null, null, TurnUpdates.FULL, journal);
+
+            assertEquals(1, matches.recoverMatches());
+            assertEquals(played.getFEN(), matches.getMatch("abcde").orElseThrow().getMatchFEN());
+            assertFalse(matches.matchExists("fghij"));
+            assertFalse(matches.matchExists("klmno"));
+            assertTrue(matches.getMatchByReconnectToken(
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(whiteSeat)).isPresent());
+        }
+    }
+
+    @Test
+    void seatsSurviveCompaction() throws IOException {
+        Path file = directory.resolve("matches.journal");
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            journal.seatTaken("abcde", Player.BLACK, blackSeat);
+            journal.seatTaken("abcde", Player.WHITE, whiteSeat);
+            journal.moveMade("abcde", 0, 11);
+            journal.seatTaken("fghij", Player.BLACK, blackSeat);
+            journal.seatTaken("fghij", Player.WHITE, whiteSeat);
+            journal.moveMade("fghij", 0, 21);
+            journal.matchEnded("fghij");
+        }
+        // The first open compacts the journal, the second one replays the compacted journal
+        MatchJournal.open(file, MatchJournal.DefaultSyncInterval).close();
+
+        try (MatchJournal journal = MatchJournal.open(file, MatchJournal.DefaultSyncInterval)) {
+            byte[][] seats = journal.recoveredSeats("abcde");
+
+            assertArrayEquals(blackSeat, seats[Player.BLACK.ordinal()]);
+            assertArrayEquals(whiteSeat, seats[Player.WHITE.ordinal()]);
+            assertArrayEquals(new int[]{11}, journal.recoveredMatches().get("abcde"));
+            assertNull(journal.recoveredSeats("fghij"));
+        }
+    }
+
+    /**
+     * A channel whose writes fail with a partial write until it is told to stop failing.
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel file;
+        private volatile boolean failing = true;
+
+        FailingChannel(FileChannel file) {
+            this.file = file;
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            if (failing) {
+                // Leaves a torn record behind, which the retry has to overwrite
+                ByteBuffer part = source.slice(source.position(), 3);
+                source.position(source.position() + file.write(part, position));
+                throw new IOException("Disk full");
+            }
+            return file.write(source, position);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            file.force(metaData);
+        }
+
+        @Override
+        public long size() throws IOException {
+            return file.size();
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            file.close();
+        }
+
+        @Override
+        public int read(ByteBuffer destination) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileChannel truncate(long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchesMapTest {
+
+    @Test
+    void endedMatchIsRemoved() {
+        MatchesMap matches = new MatchesMap();
+
+        String matchID = matches.createMatch().getMatchID();
+        assertTrue(matches.matchExists(matchID));
+        assertTrue(matches.getMatch(matchID).isPresent());
+
+        matches.matchEnded(matchID);
+        assertFalse(matches.matchExists(matchID));
+        assertEquals(0, matches.size());
+    }
+
+    @Test
+    void concurrentCreationGivesUniqueIds() throws InterruptedException {
+        MatchesMap matches = new MatchesMap();
+        Set<String> matchIDs = ConcurrentHashMap.newKeySet();
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    matchIDs.add(matches.createMatch().getMatchID());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8_000, matchIDs.size());
+        assertEquals(8_000, matches.size());
+    }
+
+    @Test
+    void shardCountsCoverAllMatches() {
+        MatchesMap matches = new MatchesMap(new HeartbeatScheduler(), 4);
+        for (int i = 0; i < 100; i++) {
+            matches.createMatch();
+        }
+
+        int[] counts = matches.shardCounts();
+
+        assertEquals(4, counts.length);
+        assertEquals(100, Arrays.stream(counts).sum());
+        Arrays.stream(counts).forEach(count -> assertTrue(count > 0));
+    }
+}
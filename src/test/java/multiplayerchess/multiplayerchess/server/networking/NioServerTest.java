@@ -0,0 +1,104 @@
+package multiplayerchess.multiplayerchess.server.networking;
+
+import multiplayerchess.multiplayerchess.common.Player;
+import multiplayerchess.multiplayerchess.common.messages.*;
+import multiplayerchess.multiplayerchess.common.networking.BinaryMessageReader;
+import multiplayerchess.multiplayerchess.common.networking.BinaryMessageWriter;
+import multiplayerchess.multiplayerchess.common.networking.MessageWriter;
+import multiplayerchess.multiplayerchess.common.networking.Protocol;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioServerTest {
+
+    private static final int Timeout = 5_000;
+
+    private static NioServer startServer() throws IOException {
+        return startServer(2);
+    }
+
+    private static NioServer startServer(int eventLoops) throws IOException {
+        NioServer server = new NioServer(0, eventLoops, controller -> {
+            controller.addCallback(MessageType.START_GAME, message -> controller.sendMessage(
+                    new StartGameReplyMessage(true, "abc", "8/8/8/8/8/8/8/8 w - - 0 1", Player.WHITE, null)));
+            controller.addCallback(MessageType.JOIN_GAME, message -> {
+                throw new IllegalStateException("Unknown match");
+            });
+            controller.start();
+        });
+        new Thread(server).start();
+        return server;
+    }
+
+    private static Socket connect(NioServer server) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(Timeout);
+        return socket;
+    }
+
+    @Test
+    void repliesToEveryClient() throws IOException, ClassNotFoundException {
+        try (NioServer server = startServer();
+             Socket first = connect(server);
+             Socket second = connect(server)) {
+            for (Socket socket : new Socket[]{first, second}) {
+                assertEquals(Protocol.BINARY, Protocol.clientHandshake(
+                        socket.getInputStream(), socket.getOutputStream(), Protocol.BINARY));
+            }
+
+            for (Socket socket : new Socket[]{first, second, first}) {
+                MessageWriter writer = new BinaryMessageWriter(socket.getOutputStream());
+                writer.write(new StartGameMessage());
+                writer.flush();
+                Message reply = new BinaryMessageReader(socket.getInputStream()).read();
+
+                assertTrue(reply instanceof StartGameReplyMessage);
+                assertEquals("abc", ((StartGameReplyMessage) reply).matchID);
+            }
+        }
+    }
+
+    @Test
+    void malformedFrameOnlyClosesItsConnection() throws IOException, ClassNotFoundException {
+        // A single loop serves both clients, the join message has a null match ID
+        try (NioServer server = startServer(1);
+             Socket malformed = connect(server);
+             Socket failing = connect(server)) {
+            Protocol.clientHandshake(malformed.getInputStream(), malformed.getOutputStream(), Protocol.BINARY);
+            malformed.getOutputStream().write(new byte[]{0, 0, 0, 3, 2, -1, -1});
+            assertEquals(-1, malformed.getInputStream().read());
+
+            Protocol.clientHandshake(failing.getInputStream(), failing.getOutputStream(), Protocol.BINARY);
+            MessageWriter failingWriter = new BinaryMessageWriter(failing.getOutputStream());
+            failingWriter.write(new JoinMatchMessage("abc"));
+            failingWriter.flush();
+            assertEquals(-1, failing.getInputStream().read());
+
+            try (Socket socket = connect(server)) {
+                assertEquals(Protocol.BINARY, Protocol.clientHandshake(
+                        socket.getInputStream(), socket.getOutputStream(), Protocol.BINARY));
+                MessageWriter writer = new BinaryMessageWriter(socket.getOutputStream());
+                writer.write(new StartGameMessage());
+                writer.flush();
+
+                assertTrue(new BinaryMessageReader(socket.getInputStream()).read() instanceof StartGameReplyMessage);
+            }
+        }
+    }
+
+    @Test
+    void serializedClientIsDisconnected() throws IOException {
+        try (NioServer server = startServer();
+             Socket socket = connect(server)) {
+            new ObjectOutputStream(socket.getOutputStream()).flush();
+
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+}